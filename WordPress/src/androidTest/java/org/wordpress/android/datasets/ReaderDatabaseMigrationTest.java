@@ -0,0 +1,217 @@
+package org.wordpress.android.datasets;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Upgrades tbl_posts as it was in ReaderDatabase version 137, when a copy of each post was stored for every
+ * tag it appeared in, with the real ReaderDatabase.onUpgrade() and checks the result against a new install.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReaderDatabaseMigrationTest {
+    private static final int VERSION_137 = 137;
+    private static final int CURRENT_VERSION = 140;
+
+    private SQLiteDatabase mDb;
+
+    @Before
+    public void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        createVersion137Tables(mDb);
+    }
+
+    @After
+    public void tearDown() {
+        mDb.close();
+    }
+
+    @Test
+    public void testUpgradedSchemaMatchesNewInstall() {
+        upgrade();
+
+        SQLiteDatabase newDb = SQLiteDatabase.create(null);
+        try {
+            ReaderPostTable.createTables(newDb);
+            for (String table : new String[]{"tbl_posts", "tbl_post_tags", "tbl_posts_search"}) {
+                assertEquals(table, getColumnNames(newDb, table), getColumnNames(mDb, table));
+            }
+            for (String table : new String[]{"tbl_posts", "tbl_post_tags"}) {
+                assertEquals(table, getIndexNames(newDb, table), getIndexNames(mDb, table));
+            }
+        } finally {
+            newDb.close();
+        }
+
+        assertTrue(getColumnNames(mDb, "tbl_posts").contains("fingerprint"));
+        assertFalse(getColumnNames(mDb, "tbl_posts").contains("tag_name"));
+        assertTrue(getIndexNames(mDb, "tbl_post_tags").contains("idx_post_tags_tag_name_tag_type"));
+        assertTrue(getIndexNames(mDb, "tbl_post_tags").contains("idx_post_tags_date_tagged"));
+        assertEquals(0, DatabaseUtils.longForQuery(mDb,
+                "SELECT COUNT(*) FROM sqlite_master WHERE name='tbl_posts_denormalized'", null));
+    }
+
+    @Test
+    public void testPostsInSeveralTagsAreStoredOnce() {
+        insertVersion137Post("pseudo-1", "Café Crème", "Followed Sites", 1, 10.0, "2019-01-02", true);
+        insertVersion137Post("pseudo-1", "Café Crème", "Discover", 2, 20.0, "2019-01-03", false);
+        insertVersion137Post("pseudo-2", "Second post", "Discover", 2, 30.0, "2019-01-04", false);
+
+        upgrade();
+
+        assertEquals(2, DatabaseUtils.queryNumEntries(mDb, "tbl_posts"));
+        assertEquals(3, DatabaseUtils.queryNumEntries(mDb, "tbl_post_tags"));
+        assertEquals(0, DatabaseUtils.longForQuery(mDb,
+                "SELECT fingerprint FROM tbl_posts WHERE pseudo_id='pseudo-1'", null));
+
+        // the stream-dependent fields are kept for each tag
+        Cursor cursor = mDb.rawQuery("SELECT score, date_tagged, has_gap_marker FROM tbl_post_tags"
+                                     + " WHERE pseudo_id='pseudo-1' ORDER BY tag_type", null);
+        try {
+            assertTrue(cursor.moveToNext());
+            assertEquals(10.0, cursor.getDouble(0), 0);
+            assertEquals("2019-01-02", cursor.getString(1));
+            assertEquals(1, cursor.getInt(2));
+            assertTrue(cursor.moveToNext());
+            assertEquals(20.0, cursor.getDouble(0), 0);
+            assertEquals("2019-01-03", cursor.getString(1));
+            assertEquals(0, cursor.getInt(2));
+        } finally {
+            cursor.close();
+        }
+
+        // stored posts are indexed for search
+        assertEquals(2, DatabaseUtils.queryNumEntries(mDb, "tbl_posts_search"));
+        assertEquals(1, DatabaseUtils.longForQuery(mDb,
+                "SELECT COUNT(*) FROM tbl_posts_search WHERE tbl_posts_search MATCH ?",
+                new String[]{ReaderPostSearchIndex.getMatchExpression("cafe")}));
+    }
+
+    private void upgrade() {
+        new ReaderDatabase(InstrumentationRegistry.getInstrumentation().getTargetContext())
+                .onUpgrade(mDb, VERSION_137, CURRENT_VERSION);
+    }
+
+    private void insertVersion137Post(String pseudoId, String title, String tagName, int tagType, double score,
+                                      String dateTagged, boolean hasGapMarker) {
+        ContentValues values = new ContentValues();
+        values.put("post_id", pseudoId.hashCode());
+        values.put("blog_id", 1);
+        values.put("pseudo_id", pseudoId);
+        values.put("title", title);
+        values.put("text", "<p>" + title + "</p>");
+        values.put("excerpt", title);
+        values.put("score", score);
+        values.put("date_tagged", dateTagged);
+        values.put("tag_name", tagName);
+        values.put("tag_type", tagType);
+        values.put("has_gap_marker", hasGapMarker ? 1 : 0);
+        mDb.insertOrThrow("tbl_posts", null, values);
+    }
+
+    private static List<String> getColumnNames(SQLiteDatabase db, String table) {
+        List<String> names = new ArrayList<>();
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            int idxName = cursor.getColumnIndex("name");
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(idxName));
+            }
+        } finally {
+            cursor.close();
+        }
+        return names;
+    }
+
+    private static List<String> getIndexNames(SQLiteDatabase db, String table) {
+        List<String> names = new ArrayList<>();
+        Cursor cursor = db.rawQuery("PRAGMA index_list(" + table + ")", null);
+        try {
+            int idxName = cursor.getColumnIndex("name");
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(idxName));
+            }
+        } finally {
+            cursor.close();
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /*
+     * tbl_posts as it was created by ReaderPostTable in version 137
+     */
+    private static void createVersion137Tables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE tbl_posts ("
+                   + " post_id INTEGER DEFAULT 0,"
+                   + " blog_id INTEGER DEFAULT 0,"
+                   + " feed_id INTEGER DEFAULT 0,"
+                   + " feed_item_id INTEGER DEFAULT 0,"
+                   + " pseudo_id TEXT NOT NULL,"
+                   + " author_name TEXT,"
+                   + " author_first_name TEXT,"
+                   + " author_id INTEGER DEFAULT 0,"
+                   + " title  TEXT,"
+                   + " text TEXT,"
+                   + " excerpt TEXT,"
+                   + " format TEXT,"
+                   + " url TEXT,"
+                   + " short_url TEXT,"
+                   + " blog_name TEXT,"
+                   + " blog_url TEXT,"
+                   + " blog_image_url TEXT,"
+                   + " featured_image TEXT,"
+                   + " featured_video TEXT,"
+                   + " post_avatar TEXT,"
+                   + " score REAL DEFAULT 0,"
+                   + " date_published TEXT,"
+                   + " date_liked TEXT,"
+                   + " date_tagged TEXT,"
+                   + " num_replies INTEGER DEFAULT 0,"
+                   + " num_likes INTEGER DEFAULT 0,"
+                   + " is_liked INTEGER DEFAULT 0,"
+                   + " is_followed INTEGER DEFAULT 0,"
+                   + " is_comments_open INTEGER DEFAULT 0,"
+                   + " is_external INTEGER DEFAULT 0,"
+                   + " is_private INTEGER DEFAULT 0,"
+                   + " is_videopress INTEGER DEFAULT 0,"
+                   + " is_jetpack INTEGER DEFAULT 0,"
+                   + " primary_tag TEXT,"
+                   + " secondary_tag TEXT,"
+                   + " attachments_json TEXT,"
+                   + " discover_json TEXT,"
+                   + " xpost_post_id INTEGER DEFAULT 0,"
+                   + " xpost_blog_id INTEGER DEFAULT 0,"
+                   + " railcar_json TEXT,"
+                   + " tag_name TEXT NOT NULL COLLATE NOCASE,"
+                   + " tag_type INTEGER DEFAULT 0,"
+                   + " has_gap_marker INTEGER DEFAULT 0,"
+                   + " card_type TEXT,"
+                   + " use_excerpt INTEGER DEFAULT 0,"
+                   + " is_bookmarked INTEGER DEFAULT 0,"
+                   + " PRIMARY KEY (pseudo_id, tag_name, tag_type)"
+                   + ")");
+
+        db.execSQL("CREATE INDEX idx_posts_post_id_blog_id ON tbl_posts(post_id, blog_id)");
+        db.execSQL("CREATE INDEX idx_posts_date_published ON tbl_posts(date_published)");
+        db.execSQL("CREATE INDEX idx_posts_date_tagged ON tbl_posts(date_tagged)");
+        db.execSQL("CREATE INDEX idx_posts_tag_name ON tbl_posts(tag_name)");
+    }
+}
@@ -0,0 +1,127 @@
+package org.wordpress.android.datasets;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that ReaderPostTable.comparePosts() finds new and changed posts in pages retrieved from the server,
+ * including pages which are compared in several queries.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReaderPostCompareTest {
+    // more posts than a single compare query reads
+    private static final int NUM_POSTS = 450;
+    // blog ids no real post has, so the posts are easy to remove afterwards
+    private static final long BLOG_ID = 999999998L;
+    private static final long OTHER_BLOG_ID = 999999997L;
+
+    private final ReaderTag mStreamTag =
+            new ReaderTag("compare-test", "compare-test", "compare-test", null, ReaderTagType.FOLLOWED);
+    private final ReaderTag mOtherTag =
+            new ReaderTag("compare-test-other", "compare-test-other", "compare-test-other", null,
+                    ReaderTagType.FOLLOWED);
+
+    @Before
+    public void setUp() {
+        ReaderPostTable.addOrUpdatePosts(mStreamTag, buildPage());
+    }
+
+    @After
+    public void tearDown() {
+        ReaderPostTable.deletePostsInBlog(BLOG_ID);
+        ReaderPostTable.deletePostsInBlog(OTHER_BLOG_ID);
+    }
+
+    @Test
+    public void testStoredPostsAreUnchanged() {
+        assertEquals(UpdateResult.UNCHANGED, ReaderPostTable.comparePosts(buildPage()));
+    }
+
+    @Test
+    public void testLikedPostIsChanged() {
+        ReaderPostList page = buildPage();
+        page.get(NUM_POSTS - 1).numLikes++;
+
+        assertEquals(UpdateResult.CHANGED, ReaderPostTable.comparePosts(page));
+        assertEquals(UpdateResult.CHANGED, ReaderPostTable.comparePost(page.get(NUM_POSTS - 1)));
+    }
+
+    @Test
+    public void testEditedPostIsChanged() {
+        ReaderPostList page = buildPage();
+        page.get(NUM_POSTS / 2).setTitle("Edited title");
+
+        assertEquals(UpdateResult.CHANGED, ReaderPostTable.comparePosts(page));
+    }
+
+    @Test
+    public void testNewPostIsNew() {
+        ReaderPostList page = buildPage();
+        page.get(0).numLikes++;
+        page.add(buildPost(OTHER_BLOG_ID, 0));
+
+        assertEquals(UpdateResult.HAS_NEW, ReaderPostTable.comparePosts(page));
+        assertEquals(UpdateResult.HAS_NEW, ReaderPostTable.comparePost(buildPost(OTHER_BLOG_ID, 0)));
+    }
+
+    @Test
+    public void testPostWhoseIdsMatchDifferentStoredPostsIsNew() {
+        ReaderPostTable.addOrUpdatePosts(mOtherTag, pageOf(buildPost(OTHER_BLOG_ID, 1)));
+
+        // both the blog id and the post id are stored, but not for the same post
+        ReaderPostList page = pageOf(buildPost(BLOG_ID, 0), buildPost(OTHER_BLOG_ID, 1));
+        page.add(buildPost(OTHER_BLOG_ID, 0));
+
+        assertEquals(UpdateResult.HAS_NEW, ReaderPostTable.comparePosts(page));
+    }
+
+    @Test
+    public void testOverlapIsOnlyFoundInTheTagOfThePosts() {
+        ReaderPostList page = pageOf(buildPost(OTHER_BLOG_ID, 0), buildPost(BLOG_ID, NUM_POSTS - 1));
+
+        assertTrue(ReaderPostTable.hasOverlap(page, mStreamTag));
+        assertFalse(ReaderPostTable.hasOverlap(page, mOtherTag));
+    }
+
+    private static ReaderPostList buildPage() {
+        ReaderPostList page = new ReaderPostList();
+        for (int i = 0; i < NUM_POSTS; i++) {
+            page.add(buildPost(BLOG_ID, i));
+        }
+        return page;
+    }
+
+    private static ReaderPostList pageOf(ReaderPost... posts) {
+        ReaderPostList page = new ReaderPostList();
+        for (ReaderPost post : posts) {
+            page.add(post);
+        }
+        return page;
+    }
+
+    private static ReaderPost buildPost(long blogId, int index) {
+        ReaderPost post = new ReaderPost();
+        post.blogId = blogId;
+        post.postId = index + 1;
+        post.numLikes = index % 10;
+        post.setPseudoId("compare-test-" + blogId + "-" + index);
+        post.setTitle("Post " + index);
+        post.setExcerpt("Excerpt of post " + index);
+        post.setText("<p>Text of post " + index + "</p>");
+        post.setDatePublished("2019-01-01T00:00:00+00:00");
+        return post;
+    }
+}
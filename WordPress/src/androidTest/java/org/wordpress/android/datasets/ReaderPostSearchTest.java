@@ -0,0 +1,104 @@
+package org.wordpress.android.datasets;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.reader.utils.ReaderUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Searches stored posts with the full-text index the way a reader search does before the server responds, and
+ * checks that the index follows posts as they're updated and deleted. The posts use made-up words no real post
+ * contains, so posts already stored on the device don't match.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReaderPostSearchTest {
+    // a blog id no real post has, so the posts are easy to remove afterwards
+    private static final long BLOG_ID = 999999996L;
+
+    private final ReaderTag mStreamTag =
+            new ReaderTag("search-test", "search-test", "search-test", null, ReaderTagType.FOLLOWED);
+    private final ReaderTag mSearchTag = ReaderUtils.getTagForSearchQuery("search-test");
+
+    @Before
+    public void setUp() {
+        ReaderPostList posts = new ReaderPostList();
+        posts.add(buildPost(1, "Quuxcafé Quuxcrème", "Excerpt", "<p>Lorem ipsum</p>"));
+        posts.add(buildPost(2, "Second post", "Excerpt", "<p>Lorem <b>Quuxsearchword</b> ipsum</p>"));
+        posts.add(buildPost(3, "Third post", "Quuxdon’t stop", "<p>Lorem ipsum</p>"));
+        ReaderPostTable.addOrUpdatePosts(mStreamTag, posts);
+    }
+
+    @After
+    public void tearDown() {
+        ReaderPostTable.deletePostsWithTag(mSearchTag);
+        ReaderPostTable.deletePostsInBlog(BLOG_ID);
+    }
+
+    @Test
+    public void testQueryMatchesTheStartOfWords() {
+        assertEquals(1, search("quuxsearch"));
+        assertEquals(0, search("searchword"));
+        assertEquals(0, ReaderPostTable.getNumServerSearchResults(mSearchTag));
+    }
+
+    @Test
+    public void testQueryIgnoresCaseAccentsAndPunctuation() {
+        assertEquals(1, search("QUUXCAFE quuxcreme"));
+        assertEquals(1, search("quuxcafé"));
+        assertEquals(1, search("quuxdont"));
+    }
+
+    @Test
+    public void testEveryWordOfTheQueryMustMatch() {
+        assertEquals(0, search("quuxcafe quuxsearchword"));
+        assertEquals(0, search("!!"));
+    }
+
+    @Test
+    public void testUpdatedPostIsIndexedAgain() {
+        ReaderPostList posts = new ReaderPostList();
+        posts.add(buildPost(2, "Quuxupdated title", "Excerpt", "<p>Lorem ipsum</p>"));
+        ReaderPostTable.addOrUpdatePosts(mStreamTag, posts);
+
+        assertEquals(0, search("quuxsearchword"));
+        assertEquals(1, search("quuxupdated"));
+    }
+
+    @Test
+    public void testDeletedPostIsNoLongerFound() {
+        ReaderPostTable.deletePost(BLOG_ID, 2);
+
+        assertEquals(0, search("quuxsearchword"));
+        assertEquals(1, search("quuxcafe"));
+    }
+
+    /*
+     * returns the number of stored posts which match the passed query
+     */
+    private int search(String query) {
+        ReaderPostTable.deletePostsWithTag(mSearchTag);
+        return ReaderPostTable.addLocalSearchResults(mSearchTag, query, 0);
+    }
+
+    private static ReaderPost buildPost(int postId, String title, String excerpt, String text) {
+        ReaderPost post = new ReaderPost();
+        post.blogId = BLOG_ID;
+        post.postId = postId;
+        post.setPseudoId("search-test-" + postId);
+        post.setTitle(title);
+        post.setExcerpt(excerpt);
+        post.setText(text);
+        post.setBlogName("Search test");
+        post.setDatePublished("2019-01-01T00:00:00+00:00");
+        return post;
+    }
+}
@@ -0,0 +1,155 @@
+package org.wordpress.android.models;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks ReaderPostStreamParser against parsing a 40-post reader feed into a JSONObject, and that it
+ * hands off each post as it's read. The feed is built from the posts in a recorded read/tags/posts
+ * response, with their content lengthened to match long-form posts.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReaderPostStreamParserTest {
+    private static final String FIXTURE = "reader-read-tags-posts.json";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int NUM_POSTS = 40;
+    private static final int MIN_CONTENT_LEN = 64 * 1024;
+
+    private byte[] mFeed;
+
+    @Before
+    public void setUp() throws IOException, JSONException {
+        JSONObject fixture = new JSONObject(readAsset(FIXTURE));
+        JSONArray fixturePosts = fixture.getJSONArray("posts");
+
+        JSONArray posts = new JSONArray();
+        for (int i = 0; i < NUM_POSTS; i++) {
+            JSONObject post = new JSONObject(fixturePosts.getJSONObject(i % fixturePosts.length()).toString());
+            post.put("ID", post.getLong("ID") + i * 100);
+            post.put("pseudo_ID", post.getString("pseudo_ID") + i);
+            StringBuilder content = new StringBuilder();
+            while (content.length() < MIN_CONTENT_LEN) {
+                content.append(post.getString("content"));
+            }
+            post.put("content", content.toString());
+            posts.put(post);
+        }
+        fixture.put("found", NUM_POSTS);
+        fixture.put("posts", posts);
+        mFeed = fixture.toString().getBytes(UTF8);
+    }
+
+    @Test
+    public void testStreamingParserMatchesJsonObjectParser() throws IOException, JSONException {
+        ReaderPostList domPosts = ReaderPostList.fromJson(new JSONObject(new String(mFeed, UTF8)));
+        ReaderPostList streamedPosts = ReaderPostList.fromJsonStream(newFeedReader());
+
+        assertEquals(NUM_POSTS, domPosts.size());
+        assertEquals(domPosts.size(), streamedPosts.size());
+        for (int i = 0; i < domPosts.size(); i++) {
+            ReaderPost domPost = domPosts.get(i);
+            ReaderPost streamedPost = streamedPosts.get(i);
+            assertEquals(domPost.getPseudoId(), streamedPost.getPseudoId());
+            assertEquals(domPost.getText(), streamedPost.getText());
+            assertEquals(domPost.getAttachmentsJson(), streamedPost.getAttachmentsJson());
+            assertEquals(domPost.getBlogImageUrl(), streamedPost.getBlogImageUrl());
+            assertEquals(domPost.getPrimaryTag(), streamedPost.getPrimaryTag());
+            assertTrue(domPost.isSamePost(streamedPost));
+        }
+    }
+
+    @Test
+    public void testStreamingParserDeliversFirstPostBeforeReadingEntireFeed() throws IOException, JSONException {
+        final CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(mFeed));
+        final long[] bytesReadAtFirstPost = {-1};
+        int numPosts = ReaderPostStreamParser.parse(new InputStreamReader(input, UTF8),
+                new ReaderPostStreamParser.PostListener() {
+                    @Override
+                    public void onPostParsed(@NonNull ReaderPost post) {
+                        if (bytesReadAtFirstPost[0] == -1) {
+                            bytesReadAtFirstPost[0] = input.getCount();
+                        }
+                    }
+                });
+
+        assertEquals(NUM_POSTS, numPosts);
+        assertEquals(mFeed.length, input.getCount());
+        // each post is at least MIN_CONTENT_LEN, so the first post is handed off after reading only a
+        // small part of the feed
+        assertTrue(bytesReadAtFirstPost[0] > 0);
+        assertTrue(bytesReadAtFirstPost[0] < mFeed.length / 4);
+    }
+
+    private InputStreamReader newFeedReader() {
+        // the response body is held in memory by Volley, so the streaming parser reads from a byte array
+        return new InputStreamReader(new ByteArrayInputStream(mFeed), UTF8);
+    }
+
+    private static String readAsset(@NonNull String filename) throws IOException {
+        InputStream input = InstrumentationRegistry.getInstrumentation().getContext().getAssets().open(filename);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), UTF8);
+        } finally {
+            input.close();
+        }
+    }
+
+    /*
+     * input stream which counts the bytes read from it
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long mCount;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result != -1) {
+                mCount++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int count) throws IOException {
+            int result = super.read(buffer, offset, count);
+            if (result > 0) {
+                mCount += result;
+            }
+            return result;
+        }
+    }
+}
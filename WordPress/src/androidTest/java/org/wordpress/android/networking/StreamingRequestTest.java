@@ -0,0 +1,217 @@
+package org.wordpress.android.networking;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.SocketFactory;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.internal.Util;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Uploads a file to a local MockWebServer with StreamingRequest and with the previous implementation, which
+ * flushed after every 2 KB, counting the writes and flushes made on the client socket (each of which is a send()
+ * on the socket).
+ */
+@RunWith(AndroidJUnit4.class)
+public class StreamingRequestTest {
+    private static final int FILE_SIZE = 4 * 1024 * 1024;
+
+    private MockWebServer mServer;
+    private File mFile;
+    private final AtomicLong mSocketWrites = new AtomicLong();
+    private final AtomicLong mSocketFlushes = new AtomicLong();
+
+    @Before
+    public void setUp() throws IOException {
+        mServer = new MockWebServer();
+        mServer.start();
+
+        mFile = File.createTempFile("streaming-request", ".bin",
+                InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir());
+        byte[] buffer = new byte[64 * 1024];
+        Random random = new Random(42);
+        FileOutputStream output = new FileOutputStream(mFile);
+        try {
+            for (int written = 0; written < FILE_SIZE; written += buffer.length) {
+                random.nextBytes(buffer);
+                output.write(buffer);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServer.shutdown();
+        mFile.delete();
+    }
+
+    @Test
+    public void testFileIsSentWithContentLength() throws Exception {
+        RecordedRequest request = upload(new StreamingRequest(mFile));
+
+        assertEquals(String.valueOf(FILE_SIZE), request.getHeader("Content-Length"));
+        assertNull(request.getHeader("Transfer-Encoding"));
+        assertArrayEquals(readFile(), request.getBody().readByteArray());
+    }
+
+    @Test
+    public void testStreamingRequestMakesFewerSocketWrites() throws Exception {
+        upload(new PreviousStreamingRequest(mFile));
+        long previousWrites = mSocketWrites.get();
+        long previousFlushes = mSocketFlushes.get();
+
+        upload(new StreamingRequest(mFile));
+
+        assertTrue(mSocketWrites.get() < previousWrites);
+        assertTrue(mSocketFlushes.get() < previousFlushes);
+        // one flush per 2 KB piece is what the previous implementation did
+        assertTrue(mSocketFlushes.get() < FILE_SIZE / 2048);
+    }
+
+    private RecordedRequest upload(@NonNull RequestBody body) throws Exception {
+        mServer.enqueue(new MockResponse());
+        mSocketWrites.set(0);
+        mSocketFlushes.set(0);
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .socketFactory(new CountingSocketFactory())
+                .writeTimeout(60, TimeUnit.SECONDS)
+                .build();
+        Request request = new Request.Builder().url(mServer.url("/upload").toString()).post(body).build();
+        client.newCall(request).execute().close();
+
+        RecordedRequest recordedRequest = mServer.takeRequest();
+        assertEquals(FILE_SIZE, recordedRequest.getBodySize());
+        return recordedRequest;
+    }
+
+    private byte[] readFile() throws IOException {
+        BufferedSource source = Okio.buffer(Okio.source(mFile));
+        try {
+            return source.readByteArray();
+        } finally {
+            source.close();
+        }
+    }
+
+    /*
+     * the previous implementation of StreamingRequest
+     */
+    private static class PreviousStreamingRequest extends RequestBody {
+        private static final int CHUNK_SIZE = 2048;
+        private final File mFile;
+
+        PreviousStreamingRequest(File file) {
+            mFile = file;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.parse("multipart/form-data");
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            Source source = null;
+            try {
+                source = Okio.source(mFile);
+                while (source.read(sink.buffer(), CHUNK_SIZE) != -1) {
+                    sink.flush();
+                }
+            } finally {
+                Util.closeQuietly(source);
+            }
+        }
+    }
+
+    private class CountingSocketFactory extends SocketFactory {
+        @Override
+        public Socket createSocket() {
+            return new CountingSocket();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            Socket socket = createSocket();
+            socket.connect(new InetSocketAddress(host, port));
+            return socket;
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return createSocket(host.getHostAddress(), port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+                throws IOException {
+            return createSocket(address, port);
+        }
+    }
+
+    private class CountingSocket extends Socket {
+        private OutputStream mOutputStream;
+
+        @Override
+        public synchronized OutputStream getOutputStream() throws IOException {
+            if (mOutputStream == null) {
+                mOutputStream = new FilterOutputStream(super.getOutputStream()) {
+                    @Override
+                    public void write(@NonNull byte[] buffer, int offset, int length) throws IOException {
+                        mSocketWrites.incrementAndGet();
+                        out.write(buffer, offset, length);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        mSocketFlushes.incrementAndGet();
+                        out.flush();
+                    }
+                };
+            }
+            return mOutputStream;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.wordpress.android.ui.notifications;
+
+import android.text.Spanned;
+import android.text.TextUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wordpress.android.fluxc.model.CommentStatus;
+import org.wordpress.android.fluxc.tools.FormattableContentMapper;
+import org.wordpress.android.models.Note;
+import org.wordpress.android.ui.notifications.utils.NoteSubjectCache;
+import org.wordpress.android.ui.notifications.utils.NotificationsUtilsWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(AndroidJUnit4.class)
+public class NoteSubjectCacheTest {
+    private static final int NOTE_COUNT = 20;
+
+    private NotificationsUtilsWrapper mWrapper;
+    private List<Note> mNotes;
+
+    @Before
+    public void setUp() {
+        mWrapper = new NotificationsUtilsWrapper(new FormattableContentMapper(new Gson()));
+        mNotes = new ArrayList<>(NOTE_COUNT);
+        for (int i = 0; i < NOTE_COUNT; i++) {
+            mNotes.add(buildNote(i, "Post title number " + i));
+        }
+        NoteSubjectCache.clear();
+    }
+
+    @Test
+    public void testPrewarmedSubjectsAreFormattedAndReused() {
+        NoteSubjectCache.prewarm(mNotes, mWrapper);
+
+        for (Note note : mNotes) {
+            Spanned subject = NoteSubjectCache.getFormattedSubject(note, mWrapper);
+            assertEquals(format(note).toString(), subject.toString());
+            assertSame(subject, NoteSubjectCache.getFormattedSubject(note, mWrapper));
+        }
+    }
+
+    @Test
+    public void testSubjectIsFormattedAgainWhenTheNoteChanges() {
+        Spanned subject = NoteSubjectCache.getFormattedSubject(mNotes.get(0), mWrapper);
+
+        Note changedNote = buildNote(0, "Changed title");
+        Spanned changedSubject = NoteSubjectCache.getFormattedSubject(changedNote, mWrapper);
+
+        assertNotSame(subject, changedSubject);
+        assertEquals("User 0 liked your post Changed title", changedSubject.toString());
+    }
+
+    @Test
+    public void testInvalidatedSubjectIsFormattedAgain() {
+        Note note = mNotes.get(0);
+        Spanned subject = NoteSubjectCache.getFormattedSubject(note, mWrapper);
+
+        NoteSubjectCache.invalidate(note.getId());
+
+        Spanned formattedAgain = NoteSubjectCache.getFormattedSubject(note, mWrapper);
+        assertNotSame(subject, formattedAgain);
+        assertEquals(subject.toString(), formattedAgain.toString());
+    }
+
+    private Spanned format(Note note) {
+        Spanned subject = mWrapper.getSpannableContentForRanges(note.getSubject());
+        return (Spanned) subject.subSequence(0, TextUtils.getTrimmedLength(subject));
+    }
+
+    private static Note buildNote(int index, String postTitle) {
+        String userName = "User " + index;
+        String text = userName + " liked your post " + postTitle;
+        int postStart = text.length() - postTitle.length();
+
+        Note.ListFields listFields = new Note.ListFields();
+        listFields.type = Note.NOTE_LIKE_TYPE;
+        listFields.noteHash = Integer.toString(postTitle.hashCode());
+        listFields.timestamp = 1560333600L - index * 60;
+        listFields.subjectJSON = "{\"text\":\"" + text + "\",\"ranges\":["
+                                 + "{\"type\":\"user\",\"indices\":[0," + userName.length() + "],\"id\":" + index
+                                 + "},{\"type\":\"post\",\"indices\":[" + postStart + "," + text.length()
+                                 + "],\"site_id\":1,\"id\":" + index + "}]}";
+        listFields.commentSubject = "";
+        listFields.commentSubjectNoticon = "";
+        listFields.noticon = "";
+        listFields.iconUrl = "";
+        listFields.commentStatus = CommentStatus.ALL.toString();
+        return new Note(Integer.toString(index), "{}", listFields);
+    }
+}
@@ -0,0 +1,134 @@
+package org.wordpress.android.ui.reader.adapters;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostKey;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that reading the keys of a stream and loading its posts a page at a time, as ReaderPostAdapter does,
+ * matches reading every post in the stream, and that a like only changes the key of the liked post.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReaderPostPagingTest {
+    private static final int NUM_POSTS = ReaderPostPagedList.PAGE_SIZE * 3;
+    // a blog id no real post has, so the posts are easy to remove afterwards
+    private static final long BLOG_ID = 999999999L;
+
+    private final ReaderTag mTag =
+            new ReaderTag("paging-test", "paging-test", "paging-test", null, ReaderTagType.FOLLOWED);
+
+    @Before
+    public void setUp() {
+        ReaderPostList posts = new ReaderPostList();
+        for (int i = 0; i < NUM_POSTS; i++) {
+            ReaderPost post = new ReaderPost();
+            post.blogId = BLOG_ID;
+            post.postId = i + 1;
+            post.numLikes = i % 10;
+            post.setPseudoId("paging-test-" + i);
+            post.setTitle("Post " + i);
+            post.setExcerpt("Excerpt of post " + i);
+            post.setText("<p>Text of post " + i + "</p>");
+            post.setDatePublished(String.format(Locale.US, "2019-01-01T00:%02d:%02d+00:00", i / 60, i % 60));
+            posts.add(post);
+        }
+        ReaderPostTable.addOrUpdatePosts(mTag, posts);
+    }
+
+    @After
+    public void tearDown() {
+        ReaderPostTable.deletePostsInBlog(BLOG_ID);
+    }
+
+    @Test
+    public void testPagesMatchTheFullStream() {
+        ReaderPostList allPosts = ReaderPostTable.getPostsWithTag(mTag, NUM_POSTS, true);
+        List<ReaderPostKey> keys = ReaderPostTable.getPostKeysWithTag(mTag, NUM_POSTS);
+        assertEquals(NUM_POSTS, allPosts.size());
+        assertEquals(NUM_POSTS, keys.size());
+
+        for (int i = 0; i < NUM_POSTS; i++) {
+            assertEquals(allPosts.get(i).getPseudoId(), keys.get(i).getPseudoId());
+        }
+
+        for (int pageStart = 0; pageStart < NUM_POSTS; pageStart += ReaderPostPagedList.PAGE_SIZE) {
+            ReaderPostList page = ReaderPostPagedList.loadPosts(getPseudoIds(keys, pageStart));
+            assertEquals(ReaderPostPagedList.PAGE_SIZE, page.size());
+            for (ReaderPost post : page) {
+                ReaderPost streamPost = allPosts.get(allPosts.indexOfPost(post));
+                assertEquals(streamPost.getTitle(), post.getTitle());
+                assertEquals(streamPost.getExcerpt(), post.getExcerpt());
+                assertEquals(streamPost.numLikes, post.numLikes);
+                // excerpts are shown in the list, so pages skip the text
+                assertEquals("", post.getText());
+            }
+        }
+    }
+
+    @Test
+    public void testLikeOnlyChangesTheKeyOfTheLikedPost() {
+        List<ReaderPostKey> keys = ReaderPostTable.getPostKeysWithTag(mTag, NUM_POSTS);
+        final int likedIndex = NUM_POSTS / 2;
+        ReaderPostKey likedKey = keys.get(likedIndex);
+        ReaderPost likedPost = ReaderPostTable.getBlogPost(likedKey.blogId, likedKey.postId, true);
+        ReaderPostTable.setLikesForPost(likedPost, likedPost.numLikes + 1, true);
+
+        List<ReaderPostKey> newKeys = ReaderPostTable.getPostKeysWithTag(mTag, NUM_POSTS);
+        final List<Integer> changedPositions = new ArrayList<>();
+        final int[] otherUpdates = new int[1];
+        DiffUtil.calculateDiff(new ReaderPostAdapter.PostKeyDiffCallback(keys, newKeys, false), false)
+                .dispatchUpdatesTo(new ListUpdateCallback() {
+                    @Override
+                    public void onInserted(int position, int count) {
+                        otherUpdates[0]++;
+                    }
+
+                    @Override
+                    public void onRemoved(int position, int count) {
+                        otherUpdates[0]++;
+                    }
+
+                    @Override
+                    public void onMoved(int fromPosition, int toPosition) {
+                        otherUpdates[0]++;
+                    }
+
+                    @Override
+                    public void onChanged(int position, int count, Object payload) {
+                        assertEquals(ReaderPostKey.CHANGED_LIKES, payload);
+                        for (int i = 0; i < count; i++) {
+                            changedPositions.add(position + i);
+                        }
+                    }
+                });
+
+        assertEquals(0, otherUpdates[0]);
+        assertEquals(1, changedPositions.size());
+        assertEquals(likedIndex, (int) changedPositions.get(0));
+    }
+
+    private static List<String> getPseudoIds(List<ReaderPostKey> keys, int firstIndex) {
+        List<String> pseudoIds = new ArrayList<>();
+        for (int i = firstIndex; i < firstIndex + ReaderPostPagedList.PAGE_SIZE; i++) {
+            pseudoIds.add(keys.get(i).getPseudoId());
+        }
+        return pseudoIds;
+    }
+}
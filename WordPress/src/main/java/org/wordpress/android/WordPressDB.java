@@ -22,7 +22,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 public class WordPressDB {
-    private static final int DATABASE_VERSION = 67;
+    private static final int DATABASE_VERSION = 70;
 
 
     // Warning renaming DATABASE_NAME could break previous App backups (see: xml/backup_scheme.xml)
@@ -175,6 +175,18 @@ public class WordPressDB {
                 // add Jetpack search site setting
                 mDb.execSQL(SiteSettingsModel.ADD_JETPACK_SEARCH_SUPPORTED);
                 mDb.execSQL(SiteSettingsModel.ADD_JETPACK_SEARCH_ENABLED);
+            case 67:
+                // add note hash used to sync only the notifications that changed - the table is only a cache
+                // of the server's notifications, so it's recreated rather than altered
+                NotificationsTable.reset(mDb);
+            case 68:
+                // store the fields shown in the notifications list in their own columns
+                NotificationsTable.reset(mDb);
+            case 69:
+                // add the people search index, which stores lowercased names without accents, and the columns
+                // used to sync people without wiping them
+                PeopleTable.reset(mDb);
+                PeopleTable.createViewersTable(mDb);
         }
         mDb.setVersion(DATABASE_VERSION);
     }
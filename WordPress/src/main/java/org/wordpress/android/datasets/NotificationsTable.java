@@ -10,11 +10,16 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Note;
+import org.wordpress.android.ui.notifications.utils.NoteSubjectCache;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.SqlUtils;
+import org.wordpress.android.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class NotificationsTable {
     private static final String NOTIFICATIONS_TABLE = "tbl_notifications";
@@ -25,6 +30,25 @@ public class NotificationsTable {
 
     public static final int NOTES_TO_RETRIEVE = 200;
 
+    // the order of these columns must match the order they're read in getLatestNotes()
+    private static final String[] LIST_COLUMNS = {
+            "note_id",
+            "raw_note_data",
+            "type",
+            "note_hash",
+            "timestamp",
+            "is_read",
+            "subject_json",
+            "comment_subject",
+            "comment_subject_noticon",
+            "noticon",
+            "icon_url",
+            "comment_status",
+            "comment_id",
+            "site_id",
+            "post_id"
+    };
+
     public static void createTables(SQLiteDatabase db) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + NOTIFICATIONS_TABLE + " ("
                    + "id INTEGER PRIMARY KEY DEFAULT 0,"
@@ -32,6 +56,17 @@ public class NotificationsTable {
                    + "type TEXT,"
                    + "raw_note_data TEXT,"
                    + "timestamp INTEGER,"
+                   + "note_hash TEXT,"
+                   + "is_read INTEGER DEFAULT 0,"
+                   + "subject_json TEXT,"
+                   + "comment_subject TEXT,"
+                   + "comment_subject_noticon TEXT,"
+                   + "noticon TEXT,"
+                   + "icon_url TEXT,"
+                   + "comment_status TEXT,"
+                   + "comment_id INTEGER DEFAULT 0,"
+                   + "site_id INTEGER DEFAULT 0,"
+                   + "post_id INTEGER DEFAULT 0,"
                    + " UNIQUE (note_id) ON CONFLICT REPLACE"
                    + ")");
     }
@@ -44,21 +79,35 @@ public class NotificationsTable {
         return getLatestNotes(NOTES_TO_RETRIEVE);
     }
 
+    /*
+     * returns the latest notes with their list fields read from columns - their JSON isn't parsed until something
+     * other than the list fields is requested (ex: when the note is opened)
+     */
     public static ArrayList<Note> getLatestNotes(int limit) {
-        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, new String[]{"note_id", "raw_note_data"},
-                                      null, null, null, null, "timestamp DESC", "" + limit);
-        ArrayList<Note> notes = new ArrayList<Note>();
-        while (cursor.moveToNext()) {
-            String noteId = cursor.getString(0);
-            String rawNoteData = cursor.getString(1);
-            try {
-                Note note = new Note(noteId, new JSONObject(rawNoteData));
-                notes.add(note);
-            } catch (JSONException e) {
-                AppLog.e(AppLog.T.DB, "Can't parse notification with noteId:" + noteId + ", exception:" + e);
+        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, LIST_COLUMNS, null, null, null, null, "timestamp DESC",
+                                      "" + limit);
+        ArrayList<Note> notes = new ArrayList<Note>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                Note.ListFields listFields = new Note.ListFields();
+                listFields.type = cursor.getString(2);
+                listFields.noteHash = StringUtils.notNullStr(cursor.getString(3));
+                listFields.timestamp = cursor.getLong(4);
+                listFields.isRead = SqlUtils.sqlToBool(cursor.getInt(5));
+                listFields.subjectJSON = cursor.getString(6);
+                listFields.commentSubject = StringUtils.notNullStr(cursor.getString(7));
+                listFields.commentSubjectNoticon = StringUtils.notNullStr(cursor.getString(8));
+                listFields.noticon = StringUtils.notNullStr(cursor.getString(9));
+                listFields.iconUrl = StringUtils.notNullStr(cursor.getString(10));
+                listFields.commentStatus = cursor.getString(11);
+                listFields.commentId = cursor.getLong(12);
+                listFields.siteId = cursor.getInt(13);
+                listFields.postId = cursor.getInt(14);
+                notes.add(new Note(cursor.getString(0), cursor.getString(1), listFields));
             }
+        } finally {
+            SqlUtils.closeCursor(cursor);
         }
-        cursor.close();
         return notes;
     }
 
@@ -67,6 +116,18 @@ public class NotificationsTable {
         values.put("type", note.getType());
         values.put("timestamp", note.getTimestamp());
         values.put("raw_note_data", note.getJSON().toString());
+        values.put("note_hash", note.getNoteHash());
+        values.put("is_read", SqlUtils.boolToSql(!note.isUnread()));
+        JSONObject subject = note.getSubject();
+        values.put("subject_json", subject != null ? subject.toString() : null);
+        values.put("comment_subject", note.getCommentSubject());
+        values.put("comment_subject_noticon", note.getCommentSubjectNoticon());
+        values.put("noticon", note.getNoticonCharacter());
+        values.put("icon_url", note.getIconURL());
+        values.put("comment_status", note.getCommentStatus().toString());
+        values.put("comment_id", note.getCommentId());
+        values.put("site_id", note.getSiteId());
+        values.put("post_id", note.getPostId());
 
         long result;
         if (checkBeforeInsert && isNoteAvailable(note.getId())) {
@@ -108,6 +169,7 @@ public class NotificationsTable {
     }
 
     public static boolean saveNote(Note note) {
+        NoteSubjectCache.invalidate(note.getId());
         getDb().beginTransaction();
         boolean saved = false;
         try {
@@ -119,6 +181,46 @@ public class NotificationsTable {
         return saved;
     }
 
+    /*
+     * saves the notes that changed since the last sync and deletes the ones that are no longer returned by the
+     * server, leaving unchanged notes untouched
+     */
+    public static void saveNoteChanges(List<Note> changedNotes, Collection<String> removedNoteIds) {
+        getDb().beginTransaction();
+        try {
+            for (Note note : changedNotes) {
+                putNote(note, true);
+            }
+
+            for (String noteId : removedNoteIds) {
+                getDb().delete(NOTIFICATIONS_TABLE, "note_id=?", new String[]{noteId});
+            }
+
+            getDb().setTransactionSuccessful();
+        } finally {
+            getDb().endTransaction();
+        }
+    }
+
+    /*
+     * returns the server hash of each stored note keyed by note id - notes saved without a hash are mapped to an
+     * empty string
+     */
+    public static Map<String, String> getNoteHashes() {
+        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, new String[]{"note_id", "note_hash"},
+                                      null, null, null, null, null);
+        try {
+            Map<String, String> noteHashes = new HashMap<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                String noteHash = cursor.getString(1);
+                noteHashes.put(cursor.getString(0), noteHash != null ? noteHash : "");
+            }
+            return noteHashes;
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+    }
+
     private static boolean isNoteAvailable(String noteID) {
         if (TextUtils.isEmpty(noteID)) {
             AppLog.e(AppLog.T.DB, "Asking for a note with null Id. Really?" + noteID);
@@ -182,7 +284,11 @@ public class NotificationsTable {
      * drop & recreate notifications table
      */
     public static void reset() {
-        SQLiteDatabase db = getDb();
+        NoteSubjectCache.clear();
+        reset(getDb());
+    }
+
+    public static void reset(SQLiteDatabase db) {
         db.beginTransaction();
         try {
             dropTables(db);
@@ -5,12 +5,13 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteQueryBuilder;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Person;
-import org.wordpress.android.ui.people.utils.PeopleUtils;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.SearchTextUtils;
 import org.wordpress.android.util.SqlUtils;
 
 import java.util.ArrayList;
@@ -22,6 +23,16 @@ public class PeopleTable {
     private static final String EMAIL_FOLLOWERS_TABLE = "people_email_followers";
     private static final String VIEWERS_TABLE = "people_viewers";
 
+    // full-text index of the names, usernames and emails of the people in all the tables above. the docid of
+    // each row is the ROWID of the person in their table multiplied by the number of tables, plus the index of
+    // the table in PEOPLE_TABLES, so the index can be joined to the tables without its own lookup columns. text
+    // is normalized with SearchTextUtils.normalizeWords() before it's stored, since the default tokenizer only
+    // folds the case of ASCII letters
+    private static final String SEARCH_TABLE = "people_search";
+    // queries with more words than this only search for the first ones
+    private static final int MAX_SEARCH_QUERY_WORDS = 8;
+    private static final String[] PEOPLE_TABLES = {TEAM_TABLE, FOLLOWERS_TABLE, EMAIL_FOLLOWERS_TABLE, VIEWERS_TABLE};
+
     private static SQLiteDatabase getReadableDb() {
         return WordPress.wpDB.getDatabase();
     }
@@ -38,6 +49,9 @@ public class PeopleTable {
                    + "display_name TEXT,"
                    + "avatar_url TEXT,"
                    + "role TEXT,"
+                   + "email TEXT,"
+                   + "sync_order INTEGER DEFAULT 0,"
+                   + "synced_at INTEGER DEFAULT 0,"
                    + "PRIMARY KEY (person_id, local_blog_id)"
                    + ");");
 
@@ -48,6 +62,8 @@ public class PeopleTable {
                    + "display_name TEXT,"
                    + "avatar_url TEXT,"
                    + "subscribed TEXT,"
+                   + "sync_order INTEGER DEFAULT 0,"
+                   + "synced_at INTEGER DEFAULT 0,"
                    + "PRIMARY KEY (person_id, local_blog_id)"
                    + ");");
 
@@ -57,8 +73,17 @@ public class PeopleTable {
                    + "display_name TEXT,"
                    + "avatar_url TEXT,"
                    + "subscribed TEXT,"
+                   + "email TEXT,"
+                   + "sync_order INTEGER DEFAULT 0,"
+                   + "synced_at INTEGER DEFAULT 0,"
                    + "PRIMARY KEY (person_id, local_blog_id)"
                    + ");");
+
+        db.execSQL("CREATE VIRTUAL TABLE " + SEARCH_TABLE + " USING fts4("
+                   + "display_name,"
+                   + "user_name,"
+                   + "email"
+                   + ");");
     }
 
     public static void createViewersTable(SQLiteDatabase db) {
@@ -68,6 +93,8 @@ public class PeopleTable {
                    + "user_name TEXT,"
                    + "display_name TEXT,"
                    + "avatar_url TEXT,"
+                   + "sync_order INTEGER DEFAULT 0,"
+                   + "synced_at INTEGER DEFAULT 0,"
                    + "PRIMARY KEY (person_id, local_blog_id)"
                    + ");");
     }
@@ -80,6 +107,7 @@ public class PeopleTable {
         db.execSQL("DROP TABLE IF EXISTS " + FOLLOWERS_TABLE);
         db.execSQL("DROP TABLE IF EXISTS " + EMAIL_FOLLOWERS_TABLE);
         db.execSQL("DROP TABLE IF EXISTS " + VIEWERS_TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + SEARCH_TABLE);
     }
 
     public static void reset(SQLiteDatabase db) {
@@ -89,11 +117,20 @@ public class PeopleTable {
     }
 
     public static void saveUser(Person person) {
-        save(TEAM_TABLE, person, getWritableDb());
+        getWritableDb().beginTransaction();
+        try {
+            save(TEAM_TABLE, person, new ContentValues(), getWritableDb());
+            getWritableDb().setTransactionSuccessful();
+        } finally {
+            getWritableDb().endTransaction();
+        }
     }
 
-    private static void save(String table, Person person, SQLiteDatabase database) {
-        ContentValues values = new ContentValues();
+    /*
+     * inserts or updates the passed person along with the passed sync values, keeping the ROWID of a person
+     * who's already stored so their search index entry and position are kept
+     */
+    private static void save(String table, Person person, ContentValues values, SQLiteDatabase database) {
         values.put("person_id", person.getPersonID());
         values.put("local_blog_id", person.getLocalTableBlogId());
         values.put("display_name", person.getDisplayName());
@@ -102,6 +139,7 @@ public class PeopleTable {
         switch (table) {
             case TEAM_TABLE:
                 values.put("user_name", person.getUsername());
+                values.put("email", person.getEmail());
                 if (person.getRole() != null) {
                     values.put("role", person.getRole());
                 }
@@ -112,41 +150,115 @@ public class PeopleTable {
                 break;
             case EMAIL_FOLLOWERS_TABLE:
                 values.put("subscribed", person.getSubscribed());
+                values.put("email", person.getEmail());
                 break;
             case VIEWERS_TABLE:
                 values.put("user_name", person.getUsername());
                 break;
         }
 
-        database.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        String[] args = {Long.toString(person.getPersonID()), Integer.toString(person.getLocalTableBlogId())};
+        long rowId;
+        if (database.update(table, values, "person_id=? AND local_blog_id=?", args) > 0) {
+            rowId = SqlUtils.longForQuery(database, "SELECT ROWID FROM " + table
+                                                    + " WHERE person_id=? AND local_blog_id=?", args);
+        } else {
+            rowId = database.insert(table, null, values);
+        }
+        if (rowId > 0) {
+            indexPerson(table, rowId, person, database);
+        }
+    }
+
+    private static long getSearchDocId(String table, long rowId) {
+        for (int i = 0; i < PEOPLE_TABLES.length; i++) {
+            if (PEOPLE_TABLES[i].equals(table)) {
+                return rowId * PEOPLE_TABLES.length + i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown people table " + table);
+    }
+
+    /*
+     * returns the SQL expression which gives the search index docid for a ROWID in the passed table
+     */
+    private static String getSearchDocIdSql(String table) {
+        return "ROWID * " + PEOPLE_TABLES.length + " + " + getSearchDocId(table, 0);
+    }
+
+    private static void indexPerson(String table, long rowId, Person person, SQLiteDatabase database) {
+        long docId = getSearchDocId(table, rowId);
+        database.delete(SEARCH_TABLE, "docid=?", new String[]{Long.toString(docId)});
+
+        ContentValues values = new ContentValues();
+        values.put("docid", docId);
+        values.put("display_name", SearchTextUtils.normalizeWords(person.getDisplayName()));
+        values.put("user_name", SearchTextUtils.normalizeWords(person.getUsername()));
+        values.put("email", SearchTextUtils.normalizeWords(person.getEmail()));
+        database.insert(SEARCH_TABLE, null, values);
+    }
+
+    public static void saveUsers(List<Person> peopleList, int startIndex) {
+        savePeople(TEAM_TABLE, peopleList, startIndex);
     }
 
-    public static void saveUsers(List<Person> peopleList, int localTableBlogId, boolean isFreshList) {
-        savePeople(TEAM_TABLE, peopleList, localTableBlogId, isFreshList);
+    public static void saveFollowers(List<Person> peopleList, int startIndex) {
+        savePeople(FOLLOWERS_TABLE, peopleList, startIndex);
     }
 
-    public static void saveFollowers(List<Person> peopleList, int localTableBlogId, boolean isFreshList) {
-        savePeople(FOLLOWERS_TABLE, peopleList, localTableBlogId, isFreshList);
+    public static void saveEmailFollowers(List<Person> peopleList, int startIndex) {
+        savePeople(EMAIL_FOLLOWERS_TABLE, peopleList, startIndex);
     }
 
-    public static void saveEmailFollowers(List<Person> peopleList, int localTableBlogId, boolean isFreshList) {
-        savePeople(EMAIL_FOLLOWERS_TABLE, peopleList, localTableBlogId, isFreshList);
+    public static void saveViewers(List<Person> peopleList, int startIndex) {
+        savePeople(VIEWERS_TABLE, peopleList, startIndex);
     }
 
-    public static void saveViewers(List<Person> peopleList, int localTableBlogId, boolean isFreshList) {
-        savePeople(VIEWERS_TABLE, peopleList, localTableBlogId, isFreshList);
+    public static void savePeople(List<Person> peopleList, int startIndex, Person.PersonType personType) {
+        String table = getTableForPersonType(personType);
+        if (table != null) {
+            savePeople(table, peopleList, startIndex);
+        }
     }
 
-    private static void savePeople(String table, List<Person> peopleList, int localTableBlogId, boolean isFreshList) {
+    /*
+     * upserts a page of people, which starts at the passed index in the server's list. people are no longer
+     * deleted when the first page is fetched, instead they're removed by deleteUnsyncedPeople() once a full
+     * sync shows they're no longer on the server
+     */
+    private static void savePeople(String table, List<Person> peopleList, int startIndex) {
+        long syncedAt = System.currentTimeMillis();
         getWritableDb().beginTransaction();
         try {
-            // We have a fresh list, remove the previous list of people in case it was deleted on remote
-            if (isFreshList) {
-                PeopleTable.deletePeople(table, localTableBlogId);
+            for (int i = 0; i < peopleList.size(); i++) {
+                ContentValues values = new ContentValues();
+                values.put("sync_order", startIndex + i);
+                values.put("synced_at", syncedAt);
+                PeopleTable.save(table, peopleList.get(i), values, getWritableDb());
             }
+            getWritableDb().setTransactionSuccessful();
+        } finally {
+            getWritableDb().endTransaction();
+        }
+    }
 
-            for (Person person : peopleList) {
-                PeopleTable.save(table, person, getWritableDb());
+    /*
+     * removes people of the passed type who haven't been saved since the passed time, which is called at the
+     * end of a full sync to remove the people who were deleted on the server
+     */
+    public static void deleteUnsyncedPeople(int localTableBlogId, Person.PersonType personType, long syncedBefore) {
+        String table = getTableForPersonType(personType);
+        if (table == null) {
+            return;
+        }
+        String where = "local_blog_id=" + localTableBlogId + " AND synced_at < " + syncedBefore;
+        getWritableDb().beginTransaction();
+        try {
+            getWritableDb().execSQL("DELETE FROM " + SEARCH_TABLE + " WHERE docid IN (SELECT "
+                                    + getSearchDocIdSql(table) + " FROM " + table + " WHERE " + where + ")");
+            int numDeleted = getWritableDb().delete(table, where, null);
+            if (numDeleted > 0) {
+                AppLog.d(AppLog.T.PEOPLE, "deleted " + numDeleted + " people no longer in " + table);
             }
             getWritableDb().setTransactionSuccessful();
         } finally {
@@ -163,41 +275,11 @@ public class PeopleTable {
 
     private static void deletePeople(String table, int localTableBlogId) {
         String[] args = new String[]{Integer.toString(localTableBlogId)};
-        getWritableDb().delete(table, "local_blog_id=?1", args);
-    }
-
-    /**
-     * In order to avoid syncing issues, this method will be called when People page is created. We only keep
-     * the first page of users, so we don't show an empty screen. When fresh data is received, it'll replace
-     * the existing page.
-     *
-     * @param localTableBlogId - the local blog id people will be deleted from
-     */
-    public static void deletePeopleExceptForFirstPage(int localTableBlogId) {
-        int fetchLimit = PeopleUtils.FETCH_LIMIT;
-        String[] tables = {TEAM_TABLE, FOLLOWERS_TABLE, EMAIL_FOLLOWERS_TABLE, VIEWERS_TABLE};
-
         getWritableDb().beginTransaction();
         try {
-            for (String table : tables) {
-                int size = getPeopleCountForLocalBlogId(table, localTableBlogId);
-                if (size > fetchLimit) {
-                    String where = "local_blog_id=" + localTableBlogId;
-                    String[] columns = {"person_id"};
-                    String limit = Integer.toString(size - fetchLimit);
-                    String orderBy;
-                    if (shouldOrderAlphabetically(table)) {
-                        orderBy = "lower(display_name) DESC, lower(user_name) DESC";
-                    } else {
-                        orderBy = "ROWID DESC";
-                    }
-                    String inQuery = SQLiteQueryBuilder.buildQueryString(false, table, columns, where, null, null,
-                                                                         orderBy, limit);
-
-                    String[] args = new String[]{Integer.toString(localTableBlogId)};
-                    getWritableDb().delete(table, "local_blog_id=?1 AND person_id IN (" + inQuery + ")", args);
-                }
-            }
+            getWritableDb().execSQL("DELETE FROM " + SEARCH_TABLE + " WHERE docid IN (SELECT "
+                                    + getSearchDocIdSql(table) + " FROM " + table + " WHERE local_blog_id=?1)", args);
+            getWritableDb().delete(table, "local_blog_id=?1", args);
             getWritableDb().setTransactionSuccessful();
         } finally {
             getWritableDb().endTransaction();
@@ -227,36 +309,96 @@ public class PeopleTable {
 
     private static void deletePerson(String table, long personID, int localTableBlogId) {
         String[] args = new String[]{Long.toString(personID), Integer.toString(localTableBlogId)};
-        getWritableDb().delete(table, "person_id=? AND local_blog_id=?", args);
+        getWritableDb().beginTransaction();
+        try {
+            long rowId = SqlUtils.longForQuery(getWritableDb(), "SELECT ROWID FROM " + table
+                                                                + " WHERE person_id=? AND local_blog_id=?", args);
+            if (rowId > 0) {
+                getWritableDb().delete(SEARCH_TABLE, "docid=?",
+                        new String[]{Long.toString(getSearchDocId(table, rowId))});
+            }
+            getWritableDb().delete(table, "person_id=? AND local_blog_id=?", args);
+            getWritableDb().setTransactionSuccessful();
+        } finally {
+            getWritableDb().endTransaction();
+        }
     }
 
-    public static List<Person> getUsers(int localTableBlogId) {
-        return PeopleTable.getPeople(TEAM_TABLE, localTableBlogId);
+    /*
+     * the getters below return at most maxPeople people in the order they're listed in, since a site may
+     * have many thousands of followers once they're all synced
+     */
+    public static List<Person> getUsers(int localTableBlogId, int maxPeople) {
+        return PeopleTable.getPeople(TEAM_TABLE, localTableBlogId, maxPeople);
     }
 
-    public static List<Person> getFollowers(int localTableBlogId) {
-        return PeopleTable.getPeople(FOLLOWERS_TABLE, localTableBlogId);
+    public static List<Person> getFollowers(int localTableBlogId, int maxPeople) {
+        return PeopleTable.getPeople(FOLLOWERS_TABLE, localTableBlogId, maxPeople);
     }
 
-    public static List<Person> getEmailFollowers(int localTableBlogId) {
-        return PeopleTable.getPeople(EMAIL_FOLLOWERS_TABLE, localTableBlogId);
+    public static List<Person> getEmailFollowers(int localTableBlogId, int maxPeople) {
+        return PeopleTable.getPeople(EMAIL_FOLLOWERS_TABLE, localTableBlogId, maxPeople);
     }
 
-    public static List<Person> getViewers(int localTableBlogId) {
-        return PeopleTable.getPeople(VIEWERS_TABLE, localTableBlogId);
+    public static List<Person> getViewers(int localTableBlogId, int maxPeople) {
+        return PeopleTable.getPeople(VIEWERS_TABLE, localTableBlogId, maxPeople);
     }
 
-    private static List<Person> getPeople(String table, int localTableBlogId) {
+    private static List<Person> getPeople(String table, int localTableBlogId, int maxPeople) {
         String[] args = {Integer.toString(localTableBlogId)};
-        String orderBy;
+        Cursor c = getReadableDb().rawQuery("SELECT * FROM " + table + " WHERE local_blog_id=?"
+                                            + getOrderBy(table) + " LIMIT " + maxPeople, args);
+        return getPeopleFromCursor(c, table, localTableBlogId);
+    }
+
+    private static String getOrderBy(String table) {
         if (shouldOrderAlphabetically(table)) {
-            orderBy = " ORDER BY lower(display_name), lower(user_name)";
+            return " ORDER BY lower(display_name), lower(user_name)";
         } else {
             // we want the server-side order for followers & viewers
-            orderBy = " ORDER BY ROWID";
+            return " ORDER BY sync_order, ROWID";
+        }
+    }
+
+    /**
+     * search people of the passed type whose name, username or email contain words starting with the words
+     * in the passed query
+     *
+     * @param localTableBlogId - the local blog id the people belong to
+     * @param personType - the type of people to search
+     * @param query - the text entered by the user
+     * @param maxResults - the max number of people to return
+     * @return the matching people, in the same order they're listed in
+     */
+    @NonNull
+    public static List<Person> searchPeople(int localTableBlogId, Person.PersonType personType, String query,
+                                            int maxResults) {
+        String table = getTableForPersonType(personType);
+        String match = getSearchMatchExpression(query);
+        if (table == null || match == null) {
+            return new ArrayList<>();
         }
-        Cursor c = getReadableDb().rawQuery("SELECT * FROM " + table + " WHERE local_blog_id=?" + orderBy, args);
 
+        String[] args = {Integer.toString(localTableBlogId), match};
+        String sql = "SELECT * FROM " + table + " WHERE local_blog_id=? AND ROWID IN"
+                     + " (SELECT docid / " + PEOPLE_TABLES.length + " FROM " + SEARCH_TABLE
+                     + " WHERE " + SEARCH_TABLE + " MATCH ?"
+                     + " AND docid % " + PEOPLE_TABLES.length + " = " + getSearchDocId(table, 0) + ")"
+                     + getOrderBy(table) + " LIMIT " + maxResults;
+        Cursor c = getReadableDb().rawQuery(sql, args);
+        return getPeopleFromCursor(c, table, localTableBlogId);
+    }
+
+    /*
+     * returns the full-text query which matches words starting with each word in the passed query, or null
+     * if the query doesn't contain any words
+     */
+    @Nullable
+    static String getSearchMatchExpression(@Nullable String query) {
+        return SearchTextUtils.getPrefixMatchExpression(query, MAX_SEARCH_QUERY_WORDS);
+    }
+
+    private static List<Person> getPeopleFromCursor(Cursor c, String table, int localTableBlogId) {
         List<Person> people = new ArrayList<>();
         try {
             while (c.moveToNext()) {
@@ -313,6 +455,7 @@ public class PeopleTable {
         switch (table) {
             case TEAM_TABLE:
                 person.setUsername(c.getString(c.getColumnIndex("user_name")));
+                person.setEmail(c.getString(c.getColumnIndex("email")));
                 String role = c.getString(c.getColumnIndex("role"));
                 person.setRole(role);
                 person.setPersonType(Person.PersonType.USER);
@@ -324,6 +467,7 @@ public class PeopleTable {
                 break;
             case EMAIL_FOLLOWERS_TABLE:
                 person.setSubscribed(c.getString(c.getColumnIndex("subscribed")));
+                person.setEmail(c.getString(c.getColumnIndex("email")));
                 person.setPersonType(Person.PersonType.EMAIL_FOLLOWER);
                 break;
             case VIEWERS_TABLE:
@@ -7,6 +7,8 @@ import android.database.sqlite.SQLiteOpenHelper;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTagList;
+import org.wordpress.android.ui.reader.ReaderRenderedHtmlCache;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
@@ -22,7 +24,7 @@ import java.util.Locale;
  */
 public class ReaderDatabase extends SQLiteOpenHelper {
     protected static final String DB_NAME = "wpreader.db";
-    private static final int DB_VERSION = 137;
+    private static final int DB_VERSION = 140;
     private static final int DB_LAST_VERSION_WITHOUT_MIGRATION_SCRIPT = 136; // do not change this value
 
     /*
@@ -93,6 +95,9 @@ public class ReaderDatabase extends SQLiteOpenHelper {
      * 135 - added tbl_blog_info.is_notifications_enabled in ReaderBlogTable
      * 136 - added tbl_posts.is_bookmarked
      * 137 - added support for migration scripts
+     * 138 - normalized post storage, posts are stored once in tbl_posts and attached to tags in tbl_post_tags
+     * 139 - added tbl_posts.fingerprint
+     * 140 - added tbl_posts_search
      */
 
     /*
@@ -138,6 +143,8 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         // object hasn't been created yet
         SQLiteDatabase db = getWritableDb();
 
+        ReaderRenderedHtmlCache.clear();
+
         if (retainBookmarkedPosts && ReaderPostTable.hasBookmarkedPosts()) {
             ReaderTagList tags = ReaderTagTable.getBookmarkTags();
             if (!tags.isEmpty()) {
@@ -182,6 +189,15 @@ public class ReaderDatabase extends SQLiteOpenHelper {
             case 136:
                 // no-op
                 currentVersion++;
+            case 137:
+                ReaderPostTable.migrateToPostTagsTable(db);
+                currentVersion++;
+            case 138:
+                ReaderPostTable.addFingerprintColumn(db);
+                currentVersion++;
+            case 139:
+                ReaderPostTable.addSearchTable(db);
+                currentVersion++;
         }
         if (currentVersion != newVersion) {
             throw new RuntimeException(
@@ -272,12 +288,12 @@ public class ReaderDatabase extends SQLiteOpenHelper {
     }
 
     public static void purgeAsync() {
-        new Thread() {
+        ReaderTaskScheduler.executeWrite("purge", new Runnable() {
             @Override
             public void run() {
                 purge();
             }
-        }.start();
+        });
     }
 
     /*
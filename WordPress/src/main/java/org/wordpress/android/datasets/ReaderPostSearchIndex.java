@@ -0,0 +1,42 @@
+package org.wordpress.android.datasets;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.SearchTextUtils;
+
+/**
+ * prepares text for the reader's full-text search table (tbl_posts_search) and turns a search
+ * query into an FTS MATCH expression. Android's SQLite only folds the case of ASCII characters
+ * and treats other non-ASCII characters as part of words, so both the indexed text and the query
+ * are lowercased, have their accents removed and have punctuation replaced with spaces by
+ * SearchTextUtils, which lets "cafe" find "Café" and "dont" find "don’t"
+ */
+public class ReaderPostSearchIndex {
+    // queries with more words than this only search for the first ones
+    static final int MAX_QUERY_TOKENS = 8;
+
+    // only the start of a post's text is indexed so indexing a very long post stays cheap
+    static final int MAX_INDEXED_TEXT_LENGTH = 16 * 1024;
+
+    private ReaderPostSearchIndex() {
+        throw new AssertionError();
+    }
+
+    /*
+     * returns the passed text as it's stored in the search table
+     */
+    @NonNull
+    static String normalize(@Nullable String text) {
+        return SearchTextUtils.normalizeWords(text);
+    }
+
+    /*
+     * returns the MATCH expression for the passed query - every word in the query must match the
+     * start of a word in the post - or null if the query has no words
+     */
+    @Nullable
+    static String getMatchExpression(@Nullable String query) {
+        return SearchTextUtils.getPrefixMatchExpression(query, MAX_QUERY_TOKENS);
+    }
+}
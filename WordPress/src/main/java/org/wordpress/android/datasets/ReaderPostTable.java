@@ -12,25 +12,37 @@ import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderCardType;
 import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostKey;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
 import org.wordpress.android.ui.reader.ReaderConstants;
+import org.wordpress.android.ui.reader.ReaderRenderedHtmlCache;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.CrashLoggingUtils;
+import org.wordpress.android.util.HtmlUtils;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * tbl_posts contains all reader posts - the primary key is pseudo_id + tag_name + tag_type,
- * which allows the same post to appear in multiple streams (ex: it can exist in followed
- * sites, liked posts, and tag streams). note that posts in a specific blog or feed are
- * stored here with an empty tag_name.
+ * tbl_posts contains all reader posts - the primary key is pseudo_id, so each post (and its
+ * potentially large text) is stored only once. tbl_post_tags records which streams a post
+ * appears in - its primary key is pseudo_id + tag_name + tag_type, which allows the same post
+ * to appear in multiple streams (ex: it can exist in followed sites, liked posts, and tag
+ * streams). note that posts in a specific blog or feed are attached to an empty tag_name.
+ * tbl_posts_search is a full-text index of tbl_posts - each post's docid is its rowid in
+ * tbl_posts, and rows are added and removed along with the posts they index.
  */
 public class ReaderPostTable {
     private static final String COLUMN_NAMES =
@@ -54,80 +66,134 @@ public class ReaderPostTable {
             + "featured_image," // 18
             + "featured_video," // 19
             + "post_avatar," // 20
-            + "score," // 21
-            + "date_published," // 22
-            + "date_liked," // 23
-            + "date_tagged," // 24
-            + "num_replies," // 25
-            + "num_likes," // 26
-            + "is_liked," // 27
-            + "is_followed," // 28
-            + "is_comments_open," // 29
-            + "is_external," // 30
-            + "is_private," // 31
-            + "is_videopress," // 32
-            + "is_jetpack," // 33
-            + "primary_tag," // 34
-            + "secondary_tag," // 35
-            + "attachments_json," // 36
-            + "discover_json," // 37
-            + "xpost_post_id," // 38
-            + "xpost_blog_id," // 39
-            + "railcar_json," // 40
-            + "tag_name," // 41
-            + "tag_type," // 42
-            + "has_gap_marker," // 43
-            + "card_type," // 44
-            + "use_excerpt," // 45
-            + "is_bookmarked"; // 46
-
-    // used when querying multiple rows and skipping text column
-    private static final String COLUMN_NAMES_NO_TEXT =
-            "post_id," // 1
-            + "blog_id," // 2
-            + "feed_id," // 3
-            + "feed_item_id," // 4
-            + "author_id," // 5
-            + "pseudo_id," // 6
-            + "author_name," // 7
-            + "author_first_name," // 8
-            + "blog_name," // 9
-            + "blog_url," // 10
-            + "blog_image_url," // 11
-            + "excerpt," // 12
-            + "format," // 13
-            + "featured_image," // 14
-            + "featured_video," // 15
-            + "title," // 16
-            + "url," // 17
-            + "short_url," // 18
-            + "post_avatar," // 19
-            + "score," // 20
             + "date_published," // 21
             + "date_liked," // 22
-            + "date_tagged," // 23
-            + "num_replies," // 24
-            + "num_likes," // 25
-            + "is_liked," // 26
-            + "is_followed," // 27
-            + "is_comments_open," // 28
-            + "is_external," // 29
-            + "is_private," // 30
-            + "is_videopress," // 31
-            + "is_jetpack," // 32
-            + "primary_tag," // 33
-            + "secondary_tag," // 34
-            + "attachments_json," // 35
-            + "discover_json," // 36
-            + "xpost_post_id," // 37
-            + "xpost_blog_id," // 38
-            + "railcar_json," // 39
-            + "tag_name," // 40
-            + "tag_type," // 41
-            + "has_gap_marker," // 42
-            + "card_type," // 43
-            + "use_excerpt," // 44
-            + "is_bookmarked"; // 45
+            + "num_replies," // 23
+            + "num_likes," // 24
+            + "is_liked," // 25
+            + "is_followed," // 26
+            + "is_comments_open," // 27
+            + "is_external," // 28
+            + "is_private," // 29
+            + "is_videopress," // 30
+            + "is_jetpack," // 31
+            + "primary_tag," // 32
+            + "secondary_tag," // 33
+            + "attachments_json," // 34
+            + "discover_json," // 35
+            + "xpost_post_id," // 36
+            + "xpost_blog_id," // 37
+            + "railcar_json," // 38
+            + "card_type," // 39
+            + "use_excerpt," // 40
+            + "is_bookmarked"; // 41
+
+    // columns read when comparing posts retrieved from the server with the stored posts
+    private static final String COMPARE_COLUMN_NAMES =
+            "blog_id," // 0
+            + "post_id," // 1
+            + "fingerprint," // 2
+            + "num_likes," // 3
+            + "num_replies," // 4
+            + "is_liked," // 5
+            + "is_followed"; // 6
+
+    // posts are compared in batches so the number of query arguments stays well under SQLite's limit
+    private static final int MAX_POSTS_PER_COMPARE_QUERY = 200;
+
+    private static final String POST_TAG_COLUMN_NAMES =
+            "pseudo_id," // 1
+            + "tag_name," // 2
+            + "tag_type," // 3
+            + "score," // 4
+            + "date_tagged," // 5
+            + "has_gap_marker"; // 6
+
+    // used when querying multiple rows and skipping text column - pseudo_id is qualified
+    // since these columns are also used when joining tbl_posts with tbl_post_tags
+    private static final String COLUMN_NAMES_NO_TEXT =
+            "tbl_posts.post_id," // 1
+            + "tbl_posts.blog_id," // 2
+            + "tbl_posts.feed_id," // 3
+            + "tbl_posts.feed_item_id," // 4
+            + "tbl_posts.author_id," // 5
+            + "tbl_posts.pseudo_id," // 6
+            + "tbl_posts.author_name," // 7
+            + "tbl_posts.author_first_name," // 8
+            + "tbl_posts.blog_name," // 9
+            + "tbl_posts.blog_url," // 10
+            + "tbl_posts.blog_image_url," // 11
+            + "tbl_posts.excerpt," // 12
+            + "tbl_posts.format," // 13
+            + "tbl_posts.featured_image," // 14
+            + "tbl_posts.featured_video," // 15
+            + "tbl_posts.title," // 16
+            + "tbl_posts.url," // 17
+            + "tbl_posts.short_url," // 18
+            + "tbl_posts.post_avatar," // 19
+            + "tbl_posts.date_published," // 20
+            + "tbl_posts.date_liked," // 21
+            + "tbl_posts.num_replies," // 22
+            + "tbl_posts.num_likes," // 23
+            + "tbl_posts.is_liked," // 24
+            + "tbl_posts.is_followed," // 25
+            + "tbl_posts.is_comments_open," // 26
+            + "tbl_posts.is_external," // 27
+            + "tbl_posts.is_private," // 28
+            + "tbl_posts.is_videopress," // 29
+            + "tbl_posts.is_jetpack," // 30
+            + "tbl_posts.primary_tag," // 31
+            + "tbl_posts.secondary_tag," // 32
+            + "tbl_posts.attachments_json," // 33
+            + "tbl_posts.discover_json," // 34
+            + "tbl_posts.xpost_post_id," // 35
+            + "tbl_posts.xpost_blog_id," // 36
+            + "tbl_posts.railcar_json," // 37
+            + "tbl_posts.card_type," // 38
+            + "tbl_posts.use_excerpt," // 39
+            + "tbl_posts.is_bookmarked"; // 40
+
+    // per-stream columns returned along with the post columns when querying posts in a stream
+    private static final String STREAM_COLUMN_NAMES = "tbl_post_tags.score, tbl_post_tags.date_tagged";
+
+    // columns needed to create a ReaderPostKey - the content columns are hashed rather than stored
+    private static final String KEY_COLUMN_NAMES =
+            "tbl_posts.blog_id," // 1
+            + "tbl_posts.post_id," // 2
+            + "tbl_posts.pseudo_id," // 3
+            + "tbl_posts.num_likes," // 4
+            + "tbl_posts.num_replies," // 5
+            + "tbl_posts.is_liked," // 6
+            + "tbl_posts.is_followed," // 7
+            + "tbl_posts.is_bookmarked," // 8
+            + "tbl_posts.is_comments_open," // 9
+            + "tbl_posts.xpost_post_id," // 10
+            + "tbl_posts.xpost_blog_id," // 11
+            + "tbl_posts.title," // 12
+            + "tbl_posts.excerpt," // 13
+            + "tbl_posts.featured_image," // 14
+            + "tbl_posts.date_published," // 15
+            + "tbl_posts.author_name," // 16
+            + "tbl_posts.blog_name," // 17
+            + "tbl_posts.blog_url," // 18
+            + "tbl_posts.blog_image_url," // 19
+            + "tbl_posts.post_avatar," // 20
+            + "tbl_posts.featured_video," // 21
+            + "tbl_posts.discover_json," // 22
+            + "tbl_posts.card_type"; // 23
+
+    private static final String FROM_POSTS_IN_STREAMS =
+            " FROM tbl_posts INNER JOIN tbl_post_tags ON tbl_post_tags.pseudo_id = tbl_posts.pseudo_id";
+
+    private static final String INSERT_SEARCH_ROW_SQL =
+            "INSERT INTO tbl_posts_search (docid, title, excerpt, author_name, blog_name, text)"
+            + " VALUES (?1,?2,?3,?4,?5,?6)";
+
+    // stored posts which match a search are attached to the search with a negative score so they
+    // sort after the server's results and aren't counted as server results when paging. newer
+    // posts have a higher score, so the local results are shown newest first
+    private static final String LOCAL_SEARCH_RESULT_SCORE =
+            "-1 - MAX(0, IFNULL(julianday('now') - julianday(tbl_posts.date_published), 0))";
 
     protected static void createTables(SQLiteDatabase db) {
         db.execSQL("CREATE TABLE tbl_posts ("
@@ -151,10 +217,8 @@ public class ReaderPostTable {
                    + " featured_image TEXT,"
                    + " featured_video TEXT,"
                    + " post_avatar TEXT,"
-                   + " score REAL DEFAULT 0,"
                    + " date_published TEXT,"
                    + " date_liked TEXT,"
-                   + " date_tagged TEXT,"
                    + " num_replies INTEGER DEFAULT 0,"
                    + " num_likes INTEGER DEFAULT 0,"
                    + " is_liked INTEGER DEFAULT 0,"
@@ -171,23 +235,142 @@ public class ReaderPostTable {
                    + " xpost_post_id INTEGER DEFAULT 0,"
                    + " xpost_blog_id INTEGER DEFAULT 0,"
                    + " railcar_json TEXT,"
-                   + " tag_name TEXT NOT NULL COLLATE NOCASE,"
-                   + " tag_type INTEGER DEFAULT 0,"
-                   + " has_gap_marker INTEGER DEFAULT 0,"
                    + " card_type TEXT,"
                    + " use_excerpt INTEGER DEFAULT 0,"
                    + " is_bookmarked INTEGER DEFAULT 0,"
-                   + " PRIMARY KEY (pseudo_id, tag_name, tag_type)"
+                   + " fingerprint INTEGER DEFAULT 0,"
+                   + " PRIMARY KEY (pseudo_id)"
                    + ")");
 
         db.execSQL("CREATE INDEX idx_posts_post_id_blog_id ON tbl_posts(post_id, blog_id)");
         db.execSQL("CREATE INDEX idx_posts_date_published ON tbl_posts(date_published)");
-        db.execSQL("CREATE INDEX idx_posts_date_tagged ON tbl_posts(date_tagged)");
-        db.execSQL("CREATE INDEX idx_posts_tag_name ON tbl_posts(tag_name)");
+
+        // score and date_tagged live here rather than in tbl_posts since they depend on the
+        // stream the post was retrieved in
+        db.execSQL("CREATE TABLE tbl_post_tags ("
+                   + " pseudo_id TEXT NOT NULL,"
+                   + " tag_name TEXT NOT NULL COLLATE NOCASE,"
+                   + " tag_type INTEGER DEFAULT 0,"
+                   + " score REAL DEFAULT 0,"
+                   + " date_tagged TEXT,"
+                   + " has_gap_marker INTEGER DEFAULT 0,"
+                   + " PRIMARY KEY (pseudo_id, tag_name, tag_type)"
+                   + ")");
+
+        db.execSQL("CREATE INDEX idx_post_tags_tag_name_tag_type ON tbl_post_tags(tag_name, tag_type)");
+        db.execSQL("CREATE INDEX idx_post_tags_date_tagged ON tbl_post_tags(date_tagged)");
+
+        createSearchTable(db);
+    }
+
+    /*
+     * FTS5 isn't available in Android's SQLite, so this uses FTS4 with the default tokenizer - text
+     * is normalized by ReaderPostSearchIndex before it's stored since that tokenizer only folds
+     * the case of ASCII characters
+     */
+    private static void createSearchTable(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS tbl_posts_search USING fts4("
+                   + " title,"
+                   + " excerpt,"
+                   + " author_name,"
+                   + " blog_name,"
+                   + " text"
+                   + ")");
     }
 
     protected static void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS tbl_posts");
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_tags");
+        db.execSQL("DROP TABLE IF EXISTS tbl_posts_search");
+    }
+
+    /*
+     * migrates the denormalized tbl_posts used prior to db version 138 (which stored a copy of
+     * each post for every tag it appeared in) to tbl_posts + tbl_post_tags
+     */
+    protected static void migrateToPostTagsTable(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE tbl_posts RENAME TO tbl_posts_denormalized");
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_post_id_blog_id");
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_date_published");
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_date_tagged");
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_tag_name");
+
+        createTables(db);
+
+        db.execSQL("INSERT OR IGNORE INTO tbl_posts (" + COLUMN_NAMES + ")"
+                   + " SELECT " + COLUMN_NAMES + " FROM tbl_posts_denormalized");
+        db.execSQL("INSERT OR IGNORE INTO tbl_post_tags (" + POST_TAG_COLUMN_NAMES + ")"
+                   + " SELECT " + POST_TAG_COLUMN_NAMES + " FROM tbl_posts_denormalized");
+
+        db.execSQL("DROP TABLE tbl_posts_denormalized");
+    }
+
+    /*
+     * adds tbl_posts.fingerprint (db version 139) - posts stored before then have a fingerprint of
+     * zero, so they're treated as changed the next time they're retrieved, which stores their
+     * fingerprint. the column already exists when upgrading from before version 138, since the
+     * tables are recreated by migrateToPostTagsTable()
+     */
+    protected static void addFingerprintColumn(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(tbl_posts)", null);
+        try {
+            int idxName = cursor.getColumnIndex("name");
+            while (cursor.moveToNext()) {
+                if ("fingerprint".equals(cursor.getString(idxName))) {
+                    return;
+                }
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        db.execSQL("ALTER TABLE tbl_posts ADD COLUMN fingerprint INTEGER DEFAULT 0");
+    }
+
+    /*
+     * adds tbl_posts_search (db version 140) and indexes the stored posts. their text isn't read
+     * since it can be very large, so only their title, excerpt, author and blog name are indexed
+     * until they're next retrieved. the table may already exist (but be empty) when upgrading
+     * from before version 138, since the tables are recreated by migrateToPostTagsTable()
+     */
+    protected static void addSearchTable(SQLiteDatabase db) {
+        createSearchTable(db);
+        db.delete("tbl_posts_search", null, null);
+
+        SQLiteStatement stmt = db.compileStatement(INSERT_SEARCH_ROW_SQL);
+        Cursor cursor = db.rawQuery("SELECT rowid, title, excerpt, author_name, blog_name FROM tbl_posts", null);
+        try {
+            while (cursor.moveToNext()) {
+                insertSearchRow(stmt, cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getString(4), "");
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+            SqlUtils.closeStatement(stmt);
+        }
+    }
+
+    private static void insertSearchRow(@NonNull SQLiteStatement stmt, long rowId, String title, String excerpt,
+                                        String authorName, String blogName, String text) {
+        stmt.bindLong(1, rowId);
+        stmt.bindString(2, ReaderPostSearchIndex.normalize(title));
+        stmt.bindString(3, ReaderPostSearchIndex.normalize(excerpt));
+        stmt.bindString(4, ReaderPostSearchIndex.normalize(authorName));
+        stmt.bindString(5, ReaderPostSearchIndex.normalize(blogName));
+        stmt.bindString(6, text);
+        stmt.execute();
+    }
+
+    /*
+     * returns the passed post's text as it's indexed - only the start of the text is indexed, and
+     * a tag cut off by that is left in the text, which only adds a stray word to the index
+     */
+    @NonNull
+    private static String getIndexedText(@NonNull ReaderPost post) {
+        String text = post.getText();
+        if (text.length() > ReaderPostSearchIndex.MAX_INDEXED_TEXT_LENGTH) {
+            text = text.substring(0, ReaderPostSearchIndex.MAX_INDEXED_TEXT_LENGTH);
+        }
+        return ReaderPostSearchIndex.normalize(HtmlUtils.fastStripHtml(text));
     }
 
     protected static void reset(SQLiteDatabase db) {
@@ -200,8 +383,8 @@ public class ReaderPostTable {
      * only called from ReaderDatabase.purge() which already creates a transaction
      */
     protected static int purge(SQLiteDatabase db) {
-        // delete posts attached to tags that no longer exist
-        int numDeleted = db.delete("tbl_posts", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
+        // detach posts from tags that no longer exist
+        int numDeleted = db.delete("tbl_post_tags", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
 
         // delete excess posts on a per-tag basis
         ReaderTagList tags = ReaderTagTable.getAllTags();
@@ -213,6 +396,12 @@ public class ReaderPostTable {
 
         // delete search results
         numDeleted += purgeSearchResults(db);
+
+        // delete posts which no longer appear in any stream
+        numDeleted += purgeUnattachedPosts(db);
+
+        // remove deleted posts from the search index
+        db.delete("tbl_posts_search", "docid NOT IN (SELECT rowid FROM tbl_posts)", null);
         return numDeleted;
     }
 
@@ -225,10 +414,13 @@ public class ReaderPostTable {
         ReaderTagList tags = ReaderTagTable.getAllTags();
         for (ReaderTag tag : tags) {
             if (tag.isBookmarked()) {
-                // delete posts which has a bookmark tag but is_bookmarked flag is false
+                // detach posts which has a bookmark tag but is_bookmarked flag is false
                 String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-                numDeleted += ReaderDatabase.getWritableDb()
-                                            .delete("tbl_posts", "tag_name=? AND tag_type=? AND is_bookmarked=0", args);
+                numDeleted += ReaderDatabase.getWritableDb().delete(
+                        "tbl_post_tags",
+                        "tag_name=? AND tag_type=?"
+                        + " AND pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE is_bookmarked=0)",
+                        args);
             }
         }
         return numDeleted;
@@ -247,9 +439,11 @@ public class ReaderPostTable {
         String tagName = tag.getTagSlug();
         String tagType = Integer.toString(tag.tagType.toInt());
         String[] args = {tagName, tagType, tagName, tagType, Integer.toString(MAX_POSTS_PER_TAG)};
-        String where = "tag_name=? AND tag_type=? AND pseudo_id NOT IN (SELECT DISTINCT pseudo_id FROM tbl_posts WHERE "
-                       + "tag_name=? AND tag_type=? ORDER BY " + getSortColumnForTag(tag) + " DESC LIMIT ?)";
-        int numDeleted = db.delete("tbl_posts", where, args);
+        String where = "tag_name=? AND tag_type=? AND pseudo_id NOT IN (SELECT tbl_post_tags.pseudo_id"
+                       + FROM_POSTS_IN_STREAMS
+                       + " WHERE tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?"
+                       + " ORDER BY " + getSortColumnForTag(tag) + " DESC LIMIT ?)";
+        int numDeleted = db.delete("tbl_post_tags", where, args);
         AppLog.d(AppLog.T.READER,
                 String.format(Locale.ENGLISH, "reader post table > purged %d posts in tag %s", numDeleted,
                         tag.getTagNameForLog()));
@@ -261,7 +455,14 @@ public class ReaderPostTable {
      */
     private static int purgeSearchResults(SQLiteDatabase db) {
         String[] args = {Integer.toString(ReaderTagType.SEARCH.toInt())};
-        return db.delete("tbl_posts", "tag_type=?", args);
+        return db.delete("tbl_post_tags", "tag_type=?", args);
+    }
+
+    /*
+     * purge posts that are no longer attached to any tag, blog or feed
+     */
+    private static int purgeUnattachedPosts(SQLiteDatabase db) {
+        return db.delete("tbl_posts", "pseudo_id NOT IN (SELECT DISTINCT pseudo_id FROM tbl_post_tags)", null);
     }
 
     public static int getNumPostsInBlog(long blogId) {
@@ -269,7 +470,8 @@ public class ReaderPostTable {
             return 0;
         }
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
-                                    "SELECT count(*) FROM tbl_posts WHERE blog_id=? AND tag_name=''",
+                                    "SELECT count(*)" + FROM_POSTS_IN_STREAMS
+                                    + " WHERE tbl_posts.blog_id=? AND tbl_post_tags.tag_name=''",
                                     new String[]{Long.toString(blogId)});
     }
 
@@ -278,7 +480,8 @@ public class ReaderPostTable {
             return 0;
         }
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
-                                    "SELECT count(*) FROM tbl_posts WHERE feed_id=? AND tag_name=''",
+                                    "SELECT count(*)" + FROM_POSTS_IN_STREAMS
+                                    + " WHERE tbl_posts.feed_id=? AND tbl_post_tags.tag_name=''",
                                     new String[]{Long.toString(feedId)});
     }
 
@@ -288,31 +491,34 @@ public class ReaderPostTable {
         }
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
-                                    "SELECT count(*) FROM tbl_posts WHERE tag_name=? AND tag_type=?",
+                                    "SELECT count(*) FROM tbl_post_tags WHERE tag_name=? AND tag_type=?",
                                     args);
     }
 
     public static void updatePost(@NonNull ReaderPost post) {
-        // we need to update a few important fields across all instances of this post - this is
-        // necessary because a post can exist multiple times in the table with different tags
-        ContentValues values = new ContentValues();
-        values.put("title", post.getTitle());
-        values.put("text", post.getText());
-        values.put("excerpt", post.getExcerpt());
-        values.put("num_replies", post.numReplies);
-        values.put("num_likes", post.numLikes);
-        values.put("is_liked", post.isLikedByCurrentUser);
-        values.put("is_followed", post.isFollowedByCurrentUser);
-        values.put("is_comments_open", post.isCommentsOpen);
-        values.put("use_excerpt", post.useExcerpt);
-        ReaderDatabase.getWritableDb().update(
-                "tbl_posts", values, "pseudo_id=?", new String[]{post.getPseudoId()});
+        // previously rendered HTML for this post is no longer valid if its text changed
+        if (!hasSameText(post)) {
+            ReaderRenderedHtmlCache.invalidatePost(post.getPseudoId());
+        }
 
+        // posts are stored once regardless of how many streams they appear in, so replacing the
+        // stored post updates it everywhere
         ReaderPostList posts = new ReaderPostList();
         posts.add(post);
         addOrUpdatePosts(null, posts);
     }
 
+    /*
+     * returns true if the stored text of the passed post matches the post's text - the comparison
+     * is done by SQLite to avoid reading the (potentially large) stored text into memory
+     */
+    private static boolean hasSameText(@NonNull ReaderPost post) {
+        String[] args = {post.getPseudoId(), maxText(post)};
+        return SqlUtils.boolForQuery(ReaderDatabase.getReadableDb(),
+                                     "SELECT 1 FROM tbl_posts WHERE pseudo_id=? AND text=?",
+                                     args);
+    }
+
     public static void addPost(@NonNull ReaderPost post) {
         ReaderPostList posts = new ReaderPostList();
         posts.add(post);
@@ -377,28 +583,46 @@ public class ReaderPostTable {
                                      args);
     }
 
-    private static boolean postExistsForReaderTag(long blogId, long postId, ReaderTag readerTag) {
-        String[] args = {Long.toString(blogId), Long.toString(postId), readerTag.getTagSlug(),
-                Integer.toString(readerTag.tagType.toInt())};
-        return SqlUtils.boolForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT 1 FROM tbl_posts WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?",
-                args);
+    /*
+     * the stored fields of a post needed to tell whether the same post retrieved from the server
+     * has changed
+     */
+    private static class StoredPostState {
+        private long mFingerprint;
+        private int mNumLikes;
+        private int mNumReplies;
+        private boolean mIsLiked;
+        private boolean mIsFollowed;
+
+        private ReaderActions.UpdateResult compareWith(@NonNull ReaderPost post) {
+            if (mFingerprint != post.getContentFingerprint()
+                || mNumLikes != post.numLikes
+                || mNumReplies != post.numReplies
+                || mIsLiked != post.isLikedByCurrentUser
+                || mIsFollowed != post.isFollowedByCurrentUser) {
+                return ReaderActions.UpdateResult.CHANGED;
+            }
+            return ReaderActions.UpdateResult.UNCHANGED;
+        }
     }
 
     /*
-     * returns whether any of the passed posts are new or changed - used after posts are retrieved
+     * returns whether any of the passed posts are new or changed - used after posts are retrieved.
+     * the stored posts are read in a single query (per batch of posts) which only returns the
+     * fields needed to compare them
      */
     public static ReaderActions.UpdateResult comparePosts(ReaderPostList posts) {
         if (posts == null || posts.size() == 0) {
             return ReaderActions.UpdateResult.UNCHANGED;
         }
 
+        Map<String, StoredPostState> storedPosts = getStoredPostStates(posts);
         boolean hasChanges = false;
         for (ReaderPost post : posts) {
-            ReaderPost existingPost = getBlogPost(post.blogId, post.postId, true);
-            if (existingPost == null) {
+            StoredPostState storedPost = storedPosts.get(getIdsKey(post.blogId, post.postId));
+            if (storedPost == null) {
                 return ReaderActions.UpdateResult.HAS_NEW;
-            } else if (!hasChanges && !post.isSamePost(existingPost)) {
+            } else if (storedPost.compareWith(post) == ReaderActions.UpdateResult.CHANGED) {
                 hasChanges = true;
             }
         }
@@ -406,13 +630,119 @@ public class ReaderPostTable {
         return (hasChanges ? ReaderActions.UpdateResult.CHANGED : ReaderActions.UpdateResult.UNCHANGED);
     }
 
+    /*
+     * returns whether the passed post is new or changed - used when posts are saved as they're
+     * retrieved, so the post must be compared before it's saved
+     */
+    public static ReaderActions.UpdateResult comparePost(@NonNull ReaderPost post) {
+        ReaderPostList posts = new ReaderPostList();
+        posts.add(post);
+        StoredPostState storedPost = getStoredPostStates(posts).get(getIdsKey(post.blogId, post.postId));
+        if (storedPost == null) {
+            return ReaderActions.UpdateResult.HAS_NEW;
+        }
+        return storedPost.compareWith(post);
+    }
+
+    /*
+     * returns the stored state of the passed posts keyed by getIdsKey() - posts which aren't
+     * stored aren't in the map
+     */
+    private static Map<String, StoredPostState> getStoredPostStates(@NonNull ReaderPostList posts) {
+        Map<String, StoredPostState> storedPosts = new HashMap<>(posts.size());
+        for (int start = 0; start < posts.size(); start += MAX_POSTS_PER_COMPARE_QUERY) {
+            List<ReaderPost> batch = posts.subList(start, Math.min(start + MAX_POSTS_PER_COMPARE_QUERY, posts.size()));
+            Set<String> idsKeys = new HashSet<>(batch.size());
+            List<String> args = new ArrayList<>();
+            String where = getWhereForIds(batch, idsKeys, args, "");
+
+            Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(
+                    "SELECT " + COMPARE_COLUMN_NAMES + " FROM tbl_posts WHERE " + where,
+                    args.toArray(new String[args.size()]));
+            try {
+                while (cursor.moveToNext()) {
+                    // the query can return posts whose blog and post ids both match different posts
+                    String idsKey = getIdsKey(cursor.getLong(0), cursor.getLong(1));
+                    if (idsKeys.contains(idsKey)) {
+                        StoredPostState storedPost = new StoredPostState();
+                        storedPost.mFingerprint = cursor.getLong(2);
+                        storedPost.mNumLikes = cursor.getInt(3);
+                        storedPost.mNumReplies = cursor.getInt(4);
+                        storedPost.mIsLiked = SqlUtils.sqlToBool(cursor.getInt(5));
+                        storedPost.mIsFollowed = SqlUtils.sqlToBool(cursor.getInt(6));
+                        storedPosts.put(idsKey, storedPost);
+                    }
+                }
+            } finally {
+                SqlUtils.closeCursor(cursor);
+            }
+        }
+        return storedPosts;
+    }
+
+    /*
+     * returns a WHERE clause matching the blog and post ids of the passed posts, adding the ids to
+     * the passed args. the clause uses IN for the blog ids and post ids separately so the post_id
+     * index can be used, so results must be checked against idsKeys (which is filled with the
+     * getIdsKey() of each post) to filter out posts whose blog and post ids belong to different posts
+     */
+    private static String getWhereForIds(@NonNull List<ReaderPost> posts, @NonNull Set<String> idsKeys,
+                                         @NonNull List<String> args, @NonNull String tablePrefix) {
+        Set<Long> blogIds = new HashSet<>();
+        Set<Long> postIds = new HashSet<>();
+        for (ReaderPost post : posts) {
+            idsKeys.add(getIdsKey(post.blogId, post.postId));
+            blogIds.add(post.blogId);
+            postIds.add(post.postId);
+        }
+
+        StringBuilder where = new StringBuilder(tablePrefix).append("post_id IN (");
+        appendArgs(where, args, postIds);
+        where.append(") AND ").append(tablePrefix).append("blog_id IN (");
+        appendArgs(where, args, blogIds);
+        return where.append(")").toString();
+    }
+
+    private static void appendArgs(@NonNull StringBuilder sql, @NonNull List<String> args, @NonNull Set<Long> ids) {
+        boolean isFirst = true;
+        for (Long id : ids) {
+            sql.append(isFirst ? "?" : ",?");
+            args.add(Long.toString(id));
+            isFirst = false;
+        }
+    }
+
+    private static String getIdsKey(long blogId, long postId) {
+        return blogId + ":" + postId;
+    }
+
     /*
      * returns true if any posts in the passed list exist in this list for the given tag
      */
     public static boolean hasOverlap(ReaderPostList posts, ReaderTag tag) {
-        for (ReaderPost post : posts) {
-            if (postExistsForReaderTag(post.blogId, post.postId, tag)) {
-                return true;
+        if (posts == null || posts.size() == 0 || tag == null) {
+            return false;
+        }
+
+        for (int start = 0; start < posts.size(); start += MAX_POSTS_PER_COMPARE_QUERY) {
+            List<ReaderPost> batch = posts.subList(start, Math.min(start + MAX_POSTS_PER_COMPARE_QUERY, posts.size()));
+            Set<String> idsKeys = new HashSet<>(batch.size());
+            List<String> args = new ArrayList<>();
+            args.add(tag.getTagSlug());
+            args.add(Integer.toString(tag.tagType.toInt()));
+            String sql = "SELECT tbl_posts.blog_id, tbl_posts.post_id" + FROM_POSTS_IN_STREAMS
+                         + " WHERE tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=? AND "
+                         + getWhereForIds(batch, idsKeys, args, "tbl_posts.");
+
+            Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args.toArray(new String[args.size()]));
+            try {
+                while (cursor.moveToNext()) {
+                    if (idsKeys.contains(getIdsKey(cursor.getLong(0), cursor.getLong(1)))) {
+                        return true;
+                    }
+                }
+            } finally {
+                SqlUtils.closeCursor(cursor);
             }
         }
         return false;
@@ -523,9 +853,11 @@ public class ReaderPostTable {
             return 0;
         }
 
+        // note that this only detaches the posts from the tag, posts which no longer appear in any
+        // stream are removed by the next purge
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
         return ReaderDatabase.getWritableDb().delete(
-                "tbl_posts",
+                "tbl_post_tags",
                 "tag_name=? AND tag_type=?",
                 args);
     }
@@ -537,19 +869,40 @@ public class ReaderPostTable {
 
         String[] args = {Integer.toString(tagType.toInt()), Long.toString(blogId), Long.toString(postId)};
         return ReaderDatabase.getWritableDb().delete(
-                "tbl_posts",
-                "tag_type=? AND blog_id=? AND post_id=?",
+                "tbl_post_tags",
+                "tag_type=? AND pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE blog_id=? AND post_id=?)",
                 args);
     }
 
     public static int deletePostsInBlog(long blogId) {
         String[] args = {Long.toString(blogId)};
-        return ReaderDatabase.getWritableDb().delete("tbl_posts", "blog_id = ?", args);
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        db.beginTransaction();
+        try {
+            db.delete("tbl_post_tags", "pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE blog_id=?)", args);
+            db.delete("tbl_posts_search", "docid IN (SELECT rowid FROM tbl_posts WHERE blog_id=?)", args);
+            int numDeleted = db.delete("tbl_posts", "blog_id = ?", args);
+            db.setTransactionSuccessful();
+            return numDeleted;
+        } finally {
+            db.endTransaction();
+        }
     }
 
     public static void deletePost(long blogId, long postId) {
         String[] args = new String[]{Long.toString(blogId), Long.toString(postId)};
-        ReaderDatabase.getWritableDb().delete("tbl_posts", "blog_id=? AND post_id=?", args);
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        db.beginTransaction();
+        try {
+            db.delete("tbl_post_tags",
+                    "pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE blog_id=? AND post_id=?)", args);
+            db.delete("tbl_posts_search",
+                    "docid IN (SELECT rowid FROM tbl_posts WHERE blog_id=? AND post_id=?)", args);
+            db.delete("tbl_posts", "blog_id=? AND post_id=?", args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
     }
 
     /*
@@ -582,8 +935,8 @@ public class ReaderPostTable {
 
         // date field depends on the tag
         String dateColumn = getSortColumnForTag(tag);
-        String sql = "SELECT " + dateColumn + " FROM tbl_posts"
-                     + " WHERE tag_name=? AND tag_type=?"
+        String sql = "SELECT " + dateColumn + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?"
                      + " ORDER BY " + dateColumn + " LIMIT 1";
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, args);
@@ -593,16 +946,16 @@ public class ReaderPostTable {
      * returns the iso8601 pub date of the oldest post in the passed blog
      */
     public static String getOldestPubDateInBlog(long blogId) {
-        String sql = "SELECT date_published FROM tbl_posts"
-                     + " WHERE blog_id=? AND tag_name=''"
-                     + " ORDER BY date_published LIMIT 1";
+        String sql = "SELECT tbl_posts.date_published" + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.blog_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published LIMIT 1";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, new String[]{Long.toString(blogId)});
     }
 
     public static String getOldestPubDateInFeed(long feedId) {
-        String sql = "SELECT date_published FROM tbl_posts"
-                     + " WHERE feed_id=? AND tag_name=''"
-                     + " ORDER BY date_published LIMIT 1";
+        String sql = "SELECT tbl_posts.date_published" + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.feed_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published LIMIT 1";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, new String[]{Long.toString(feedId)});
     }
 
@@ -612,7 +965,8 @@ public class ReaderPostTable {
         }
 
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-        String sql = "UPDATE tbl_posts SET has_gap_marker=0 WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
+        String sql =
+                "UPDATE tbl_post_tags SET has_gap_marker=0 WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
         ReaderDatabase.getWritableDb().execSQL(sql, args);
     }
 
@@ -625,7 +979,9 @@ public class ReaderPostTable {
         }
 
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-        String sql = "SELECT blog_id, post_id FROM tbl_posts WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
+        String sql = "SELECT tbl_posts.blog_id, tbl_posts.post_id" + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_post_tags.has_gap_marker!=0"
+                     + " AND tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?";
         Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
         try {
             if (cursor.moveToFirst()) {
@@ -651,20 +1007,22 @@ public class ReaderPostTable {
                 tag.getTagSlug(),
                 Integer.toString(tag.tagType.toInt())
         };
-        String sql =
-                "UPDATE tbl_posts SET has_gap_marker=1 WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?";
+        String sql = "UPDATE tbl_post_tags SET has_gap_marker=1"
+                     + " WHERE pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE blog_id=? AND post_id=?)"
+                     + " AND tag_name=? AND tag_type=?";
         ReaderDatabase.getWritableDb().execSQL(sql, args);
     }
 
     public static String getGapMarkerDateForTag(ReaderTag tag) {
-        ReaderBlogIdPostId ids = getGapMarkerIdsForTag(tag);
-        if (ids == null) {
+        if (tag == null) {
             return null;
         }
 
         String dateColumn = getSortColumnForTag(tag);
-        String[] args = {Long.toString(ids.getBlogId()), Long.toString(ids.getPostId())};
-        String sql = "SELECT " + dateColumn + " FROM tbl_posts WHERE blog_id=? AND post_id=?";
+        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        String sql = "SELECT " + dateColumn + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_post_tags.has_gap_marker!=0"
+                     + " AND tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, args);
     }
 
@@ -702,9 +1060,14 @@ public class ReaderPostTable {
         }
 
         String dateColumn = getSortColumnForTag(tag);
-        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt()), gapMarkerDate};
-        String where = "tag_name=? AND tag_type=? AND " + dateColumn + " < ?";
-        int numDeleted = ReaderDatabase.getWritableDb().delete("tbl_posts", where, args);
+        String tagName = tag.getTagSlug();
+        String tagType = Integer.toString(tag.tagType.toInt());
+        String[] args = {tagName, tagType, tagName, tagType, gapMarkerDate};
+        String where = "tag_name=? AND tag_type=? AND pseudo_id IN (SELECT tbl_post_tags.pseudo_id"
+                       + FROM_POSTS_IN_STREAMS
+                       + " WHERE tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?"
+                       + " AND " + dateColumn + " < ?)";
+        int numDeleted = ReaderDatabase.getWritableDb().delete("tbl_post_tags", where, args);
         if (numDeleted > 0) {
             AppLog.d(AppLog.T.READER, "removed " + numDeleted + " posts older than gap marker");
         }
@@ -740,10 +1103,12 @@ public class ReaderPostTable {
             // if blog/feed is no longer followed, remove its posts tagged with "Followed Sites"
             if (!isFollowed) {
                 if (blogId != 0) {
-                    db.delete("tbl_posts", "blog_id=? AND tag_name=?",
+                    db.delete("tbl_post_tags",
+                              "pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE blog_id=?) AND tag_name=?",
                               new String[]{Long.toString(blogId), ReaderTag.TAG_TITLE_FOLLOWED_SITES});
                 } else {
-                    db.delete("tbl_posts", "feed_id=? AND tag_name=?",
+                    db.delete("tbl_post_tags",
+                              "pseudo_id IN (SELECT pseudo_id FROM tbl_posts WHERE feed_id=?) AND tag_name=?",
                               new String[]{Long.toString(feedId), ReaderTag.TAG_TITLE_FOLLOWED_SITES});
                 }
             }
@@ -787,108 +1152,253 @@ public class ReaderPostTable {
             return;
         }
 
-        updateIsBookmarkedField(posts);
-
-        SQLiteDatabase db = ReaderDatabase.getWritableDb();
-        SQLiteStatement stmtPosts = db.compileStatement(
-                "INSERT OR REPLACE INTO tbl_posts ("
-                + COLUMN_NAMES
-                + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18,?19,?20,?21,?22,?23,?24,"
-                + "?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,?39,?40,?41,?42,?43,?44, ?45, ?46)");
-
-        db.beginTransaction();
+        PostBatchWriter writer = new PostBatchWriter(tag);
         try {
-            String tagName = (tag != null ? tag.getTagSlug() : "");
-            int tagType = (tag != null ? tag.tagType.toInt() : 0);
+            for (ReaderPost post : posts) {
+                writer.addPost(post);
+            }
+            writer.setSuccessful();
+        } finally {
+            writer.close();
+        }
+    }
 
-            ReaderBlogIdPostId postWithGapMarker = getGapMarkerIdsForTag(tag);
+    /*
+     * writes posts with the passed tag one at a time using the same statements and transaction.
+     * posts are only committed if setSuccessful() is called before close(), and since the
+     * transaction belongs to the thread which created the writer, all calls must be made on that
+     * thread
+     */
+    private static class PostBatchWriter {
+        private final SQLiteDatabase mDb;
+        private final SQLiteStatement mStmtPosts;
+        private final SQLiteStatement mStmtTags;
+        private final SQLiteStatement mStmtDeleteSearchRowForPost;
+        private final SQLiteStatement mStmtDeleteSearchRow;
+        private final SQLiteStatement mStmtInsertSearchRow;
+        private final String mTagName;
+        private final int mTagType;
+        private final ReaderBlogIdPostId mPostWithGapMarker;
+        // getIdsKey() of each bookmarked post
+        private final Set<String> mBookmarkedPostIds;
+
+        PostBatchWriter(ReaderTag tag) {
+            mDb = ReaderDatabase.getWritableDb();
+            mStmtPosts = mDb.compileStatement(
+                    "INSERT OR REPLACE INTO tbl_posts ("
+                    + COLUMN_NAMES
+                    + ",fingerprint" // 42
+                    + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18,?19,?20,?21,?22,?23,"
+                    + "?24,?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,?39,?40,?41,?42)");
+            mStmtTags = mDb.compileStatement(
+                    "INSERT OR REPLACE INTO tbl_post_tags ("
+                    + POST_TAG_COLUMN_NAMES
+                    + ") VALUES (?1,?2,?3,?4,?5,?6)");
+            // replacing a post gives it a new rowid, so its search row is found by its previous rowid
+            mStmtDeleteSearchRowForPost = mDb.compileStatement(
+                    "DELETE FROM tbl_posts_search WHERE docid IN (SELECT rowid FROM tbl_posts WHERE pseudo_id=?1)");
+            mStmtDeleteSearchRow = mDb.compileStatement("DELETE FROM tbl_posts_search WHERE docid=?1");
+            mStmtInsertSearchRow = mDb.compileStatement(INSERT_SEARCH_ROW_SQL);
+            mTagName = (tag != null ? tag.getTagSlug() : "");
+            mTagType = (tag != null ? tag.tagType.toInt() : 0);
+
+            mDb.beginTransaction();
+            mPostWithGapMarker = getGapMarkerIdsForTag(tag);
+            mBookmarkedPostIds = new HashSet<>();
+            for (ReaderBlogIdPostId ids : getBookmarkedPostIds()) {
+                mBookmarkedPostIds.add(getIdsKey(ids.getBlogId(), ids.getPostId()));
+            }
+        }
 
-            for (ReaderPost post : posts) {
-                // keep the gapMarker flag
-                boolean hasGapMarker = postWithGapMarker != null && postWithGapMarker.getPostId() == post.postId
-                                       && postWithGapMarker.getBlogId() == post.blogId;
-                stmtPosts.bindLong(1, post.postId);
-                stmtPosts.bindLong(2, post.blogId);
-                stmtPosts.bindLong(3, post.feedId);
-                stmtPosts.bindLong(4, post.feedItemId);
-                stmtPosts.bindString(5, post.getPseudoId());
-                stmtPosts.bindString(6, post.getAuthorName());
-                stmtPosts.bindString(7, post.getAuthorFirstName());
-                stmtPosts.bindLong(8, post.authorId);
-                stmtPosts.bindString(9, post.getTitle());
-                stmtPosts.bindString(10, maxText(post));
-                stmtPosts.bindString(11, post.getExcerpt());
-                stmtPosts.bindString(12, post.getFormat());
-                stmtPosts.bindString(13, post.getUrl());
-                stmtPosts.bindString(14, post.getShortUrl());
-                stmtPosts.bindString(15, post.getBlogName());
-                stmtPosts.bindString(16, post.getBlogUrl());
-                stmtPosts.bindString(17, post.getBlogImageUrl());
-                stmtPosts.bindString(18, post.getFeaturedImage());
-                stmtPosts.bindString(19, post.getFeaturedVideo());
-                stmtPosts.bindString(20, post.getPostAvatar());
-                stmtPosts.bindDouble(21, post.score);
-                stmtPosts.bindString(22, post.getDatePublished());
-                stmtPosts.bindString(23, post.getDateLiked());
-                stmtPosts.bindString(24, post.getDateTagged());
-                stmtPosts.bindLong(25, post.numReplies);
-                stmtPosts.bindLong(26, post.numLikes);
-                stmtPosts.bindLong(27, SqlUtils.boolToSql(post.isLikedByCurrentUser));
-                stmtPosts.bindLong(28, SqlUtils.boolToSql(post.isFollowedByCurrentUser));
-                stmtPosts.bindLong(29, SqlUtils.boolToSql(post.isCommentsOpen));
-                stmtPosts.bindLong(30, SqlUtils.boolToSql(post.isExternal));
-                stmtPosts.bindLong(31, SqlUtils.boolToSql(post.isPrivate));
-                stmtPosts.bindLong(32, SqlUtils.boolToSql(post.isVideoPress));
-                stmtPosts.bindLong(33, SqlUtils.boolToSql(post.isJetpack));
-                stmtPosts.bindString(34, post.getPrimaryTag());
-                stmtPosts.bindString(35, post.getSecondaryTag());
-                stmtPosts.bindString(36, post.getAttachmentsJson());
-                stmtPosts.bindString(37, post.getDiscoverJson());
-                stmtPosts.bindLong(38, post.xpostPostId);
-                stmtPosts.bindLong(39, post.xpostBlogId);
-                stmtPosts.bindString(40, post.getRailcarJson());
-                stmtPosts.bindString(41, tagName);
-                stmtPosts.bindLong(42, tagType);
-                stmtPosts.bindLong(43, SqlUtils.boolToSql(hasGapMarker));
-                stmtPosts.bindString(44, ReaderCardType.toString(post.getCardType()));
-                stmtPosts.bindLong(45, SqlUtils.boolToSql(post.useExcerpt));
-                stmtPosts.bindLong(46, SqlUtils.boolToSql(post.isBookmarked));
-                stmtPosts.execute();
+        void addPost(@NonNull ReaderPost post) {
+            // "is_bookmarked" isn't supported by the server so posts from the server always have it
+            // set to false - this makes sure the field is always up to date and synced across all
+            // instances of each post
+            if (mBookmarkedPostIds.contains(getIdsKey(post.blogId, post.postId))) {
+                post.isBookmarked = true;
             }
 
-            db.setTransactionSuccessful();
+            mStmtPosts.bindLong(1, post.postId);
+            mStmtPosts.bindLong(2, post.blogId);
+            mStmtPosts.bindLong(3, post.feedId);
+            mStmtPosts.bindLong(4, post.feedItemId);
+            mStmtPosts.bindString(5, post.getPseudoId());
+            mStmtPosts.bindString(6, post.getAuthorName());
+            mStmtPosts.bindString(7, post.getAuthorFirstName());
+            mStmtPosts.bindLong(8, post.authorId);
+            mStmtPosts.bindString(9, post.getTitle());
+            mStmtPosts.bindString(10, maxText(post));
+            mStmtPosts.bindString(11, post.getExcerpt());
+            mStmtPosts.bindString(12, post.getFormat());
+            mStmtPosts.bindString(13, post.getUrl());
+            mStmtPosts.bindString(14, post.getShortUrl());
+            mStmtPosts.bindString(15, post.getBlogName());
+            mStmtPosts.bindString(16, post.getBlogUrl());
+            mStmtPosts.bindString(17, post.getBlogImageUrl());
+            mStmtPosts.bindString(18, post.getFeaturedImage());
+            mStmtPosts.bindString(19, post.getFeaturedVideo());
+            mStmtPosts.bindString(20, post.getPostAvatar());
+            mStmtPosts.bindString(21, post.getDatePublished());
+            mStmtPosts.bindString(22, post.getDateLiked());
+            mStmtPosts.bindLong(23, post.numReplies);
+            mStmtPosts.bindLong(24, post.numLikes);
+            mStmtPosts.bindLong(25, SqlUtils.boolToSql(post.isLikedByCurrentUser));
+            mStmtPosts.bindLong(26, SqlUtils.boolToSql(post.isFollowedByCurrentUser));
+            mStmtPosts.bindLong(27, SqlUtils.boolToSql(post.isCommentsOpen));
+            mStmtPosts.bindLong(28, SqlUtils.boolToSql(post.isExternal));
+            mStmtPosts.bindLong(29, SqlUtils.boolToSql(post.isPrivate));
+            mStmtPosts.bindLong(30, SqlUtils.boolToSql(post.isVideoPress));
+            mStmtPosts.bindLong(31, SqlUtils.boolToSql(post.isJetpack));
+            mStmtPosts.bindString(32, post.getPrimaryTag());
+            mStmtPosts.bindString(33, post.getSecondaryTag());
+            mStmtPosts.bindString(34, post.getAttachmentsJson());
+            mStmtPosts.bindString(35, post.getDiscoverJson());
+            mStmtPosts.bindLong(36, post.xpostPostId);
+            mStmtPosts.bindLong(37, post.xpostBlogId);
+            mStmtPosts.bindString(38, post.getRailcarJson());
+            mStmtPosts.bindString(39, ReaderCardType.toString(post.getCardType()));
+            mStmtPosts.bindLong(40, SqlUtils.boolToSql(post.useExcerpt));
+            mStmtPosts.bindLong(41, SqlUtils.boolToSql(post.isBookmarked));
+            mStmtPosts.bindLong(42, post.getContentFingerprint());
+
+            mStmtDeleteSearchRowForPost.bindString(1, post.getPseudoId());
+            mStmtDeleteSearchRowForPost.execute();
+            long rowId = mStmtPosts.executeInsert();
+            // rowids of deleted posts may be reused, so remove any search row a purge hasn't removed yet
+            mStmtDeleteSearchRow.bindLong(1, rowId);
+            mStmtDeleteSearchRow.execute();
+            insertSearchRow(mStmtInsertSearchRow, rowId, post.getTitle(), post.getExcerpt(), post.getAuthorName(),
+                    post.getBlogName(), getIndexedText(post));
+
+            // keep the gapMarker flag
+            boolean hasGapMarker = mPostWithGapMarker != null && mPostWithGapMarker.getPostId() == post.postId
+                                   && mPostWithGapMarker.getBlogId() == post.blogId;
+            mStmtTags.bindString(1, post.getPseudoId());
+            mStmtTags.bindString(2, mTagName);
+            mStmtTags.bindLong(3, mTagType);
+            mStmtTags.bindDouble(4, post.score);
+            mStmtTags.bindString(5, post.getDateTagged());
+            mStmtTags.bindLong(6, SqlUtils.boolToSql(hasGapMarker));
+            mStmtTags.execute();
+        }
+
+        void setSuccessful() {
+            mDb.setTransactionSuccessful();
+        }
+
+        void close() {
+            mDb.endTransaction();
+            SqlUtils.closeStatement(mStmtPosts);
+            SqlUtils.closeStatement(mStmtTags);
+            SqlUtils.closeStatement(mStmtDeleteSearchRowForPost);
+            SqlUtils.closeStatement(mStmtDeleteSearchRow);
+            SqlUtils.closeStatement(mStmtInsertSearchRow);
+        }
+    }
+
+    /*
+     * attaches the stored posts (including saved posts) which match the passed query to the passed
+     * search tag, so they can be shown right away while the search is done on the server. posts the
+     * server returns replace these with their score from the server. returns the number of posts
+     * attached, which is zero if the query has no words to search for
+     */
+    public static int addLocalSearchResults(@NonNull ReaderTag searchTag, @NonNull String query, int maxPosts) {
+        String matchExpression = ReaderPostSearchIndex.getMatchExpression(query);
+        if (matchExpression == null) {
+            return 0;
+        }
+
+        // saved posts are picked first when there are more matches than maxPosts
+        String sql = "INSERT OR IGNORE INTO tbl_post_tags (" + POST_TAG_COLUMN_NAMES + ")"
+                     + " SELECT tbl_posts.pseudo_id, ?1, ?2, " + LOCAL_SEARCH_RESULT_SCORE
+                     + ", tbl_posts.date_published, 0"
+                     + " FROM tbl_posts_search INNER JOIN tbl_posts ON tbl_posts.rowid = tbl_posts_search.docid"
+                     + " WHERE tbl_posts_search MATCH ?3"
+                     + " ORDER BY tbl_posts.is_bookmarked DESC, tbl_posts.date_published DESC";
+        if (maxPosts > 0) {
+            sql += " LIMIT " + Integer.toString(maxPosts);
+        }
+
+        SQLiteStatement stmt = ReaderDatabase.getWritableDb().compileStatement(sql);
+        try {
+            stmt.bindString(1, searchTag.getTagSlug());
+            stmt.bindLong(2, searchTag.tagType.toInt());
+            stmt.bindString(3, matchExpression);
+            return stmt.executeUpdateDelete();
         } finally {
-            db.endTransaction();
-            SqlUtils.closeStatement(stmtPosts);
+            SqlUtils.closeStatement(stmt);
         }
     }
 
+    /*
+     * returns the number of posts attached to the passed search tag by the server, which is the
+     * offset to request the next page of results from
+     */
+    public static int getNumServerSearchResults(@NonNull ReaderTag searchTag) {
+        String[] args = {searchTag.getTagSlug(), Integer.toString(searchTag.tagType.toInt())};
+        return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
+                                    "SELECT count(*) FROM tbl_post_tags WHERE tag_name=? AND tag_type=? AND score >= 0",
+                                    args);
+    }
+
+    /*
+     * returns the columns to select when querying posts in a stream
+     */
+    private static String getColumnsForStream(boolean excludeTextColumn) {
+        return (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "tbl_posts.*") + ", " + STREAM_COLUMN_NAMES;
+    }
+
     public static ReaderPostList getPostsWithTag(ReaderTag tag, int maxPosts, boolean excludeTextColumn) {
         if (tag == null) {
             return new ReaderPostList();
         }
 
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql = "SELECT " + columns + " FROM tbl_posts WHERE tag_name=? AND tag_type=?";
+        String sql = "SELECT " + getColumnsForStream(excludeTextColumn) + FROM_POSTS_IN_STREAMS
+                     + getWhereAndOrderForTag(tag);
+
+        if (maxPosts > 0) {
+            sql += " LIMIT " + Integer.toString(maxPosts);
+        }
+
+        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
+        try {
+            return getPostListFromCursor(cursor);
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+    }
+
+    /*
+     * returns the WHERE and ORDER BY clauses used when querying posts with the passed tag - the
+     * tag's slug and type are the arguments
+     */
+    private static String getWhereAndOrderForTag(@NonNull ReaderTag tag) {
+        String sql = " WHERE tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?";
 
         if (tag.tagType == ReaderTagType.DEFAULT) {
             // skip posts that are no longer liked if this is "Posts I Like", skip posts that are no
             // longer followed if this is "Followed Sites"
             if (tag.isPostsILike()) {
-                sql += " AND is_liked != 0";
+                sql += " AND tbl_posts.is_liked != 0";
             } else if (tag.isFollowedSites()) {
-                sql += " AND is_followed != 0";
+                sql += " AND tbl_posts.is_followed != 0";
             }
         }
 
-        sql += " ORDER BY " + getSortColumnForTag(tag) + " DESC";
+        return sql + " ORDER BY " + getSortColumnForTag(tag) + " DESC";
+    }
+
+    public static ReaderPostList getPostsInBlog(long blogId, int maxPosts, boolean excludeTextColumn) {
+        String sql = "SELECT " + getColumnsForStream(excludeTextColumn) + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.blog_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
         }
 
-        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
+        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(blogId)});
         try {
             return getPostListFromCursor(cursor);
         } finally {
@@ -896,16 +1406,16 @@ public class ReaderPostTable {
         }
     }
 
-    public static ReaderPostList getPostsInBlog(long blogId, int maxPosts, boolean excludeTextColumn) {
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql =
-                "SELECT " + columns + " FROM tbl_posts WHERE blog_id=? AND tag_name='' ORDER BY date_published DESC";
+    public static ReaderPostList getPostsInFeed(long feedId, int maxPosts, boolean excludeTextColumn) {
+        String sql = "SELECT " + getColumnsForStream(excludeTextColumn) + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.feed_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
         }
 
-        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(blogId)});
+        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(feedId)});
         try {
             return getPostListFromCursor(cursor);
         } finally {
@@ -913,16 +1423,112 @@ public class ReaderPostTable {
         }
     }
 
-    public static ReaderPostList getPostsInFeed(long feedId, int maxPosts, boolean excludeTextColumn) {
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql =
-                "SELECT " + columns + " FROM tbl_posts WHERE feed_id=? AND tag_name='' ORDER BY date_published DESC";
+    /*
+     * same as getPostsWithTag() but returns the keys of the posts rather than the posts themselves,
+     * which is far less memory than the posts when a large number of posts are requested
+     */
+    @NonNull
+    public static List<ReaderPostKey> getPostKeysWithTag(ReaderTag tag, int maxPosts) {
+        if (tag == null) {
+            return new ArrayList<>();
+        }
+
+        String sql = "SELECT " + KEY_COLUMN_NAMES + FROM_POSTS_IN_STREAMS + getWhereAndOrderForTag(tag);
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
         }
 
-        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(feedId)});
+        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        return getPostKeys(sql, args);
+    }
+
+    /*
+     * same as getPostsInBlog() but returns the keys of the posts
+     */
+    @NonNull
+    public static List<ReaderPostKey> getPostKeysInBlog(long blogId, int maxPosts) {
+        String sql = "SELECT " + KEY_COLUMN_NAMES + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.blog_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published DESC";
+
+        if (maxPosts > 0) {
+            sql += " LIMIT " + Integer.toString(maxPosts);
+        }
+
+        return getPostKeys(sql, new String[]{Long.toString(blogId)});
+    }
+
+    /*
+     * same as getPostsInFeed() but returns the keys of the posts
+     */
+    @NonNull
+    public static List<ReaderPostKey> getPostKeysInFeed(long feedId, int maxPosts) {
+        String sql = "SELECT " + KEY_COLUMN_NAMES + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.feed_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published DESC";
+
+        if (maxPosts > 0) {
+            sql += " LIMIT " + Integer.toString(maxPosts);
+        }
+
+        return getPostKeys(sql, new String[]{Long.toString(feedId)});
+    }
+
+    @NonNull
+    private static List<ReaderPostKey> getPostKeys(@NonNull String sql, @NonNull String[] args) {
+        List<ReaderPostKey> keys = new ArrayList<>();
+        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
+        try {
+            if (cursor != null && cursor.moveToFirst()) {
+                do {
+                    ReaderPostKey key = new ReaderPostKey();
+                    key.blogId = cursor.getLong(0);
+                    key.postId = cursor.getLong(1);
+                    key.setPseudoId(cursor.getString(2));
+                    key.numLikes = cursor.getInt(3);
+                    key.numReplies = cursor.getInt(4);
+                    key.isLikedByCurrentUser = SqlUtils.sqlToBool(cursor.getInt(5));
+                    key.isFollowedByCurrentUser = SqlUtils.sqlToBool(cursor.getInt(6));
+                    key.isBookmarked = SqlUtils.sqlToBool(cursor.getInt(7));
+                    key.isCommentsOpen = SqlUtils.sqlToBool(cursor.getInt(8));
+                    key.isXpost = cursor.getLong(9) != 0 && cursor.getLong(10) != 0;
+                    // the card type is converted the same way as when the post is read, so a missing
+                    // type hashes the same as the default type
+                    String cardType = ReaderCardType.toString(ReaderCardType.fromString(cursor.getString(22)));
+                    key.setContentHash(ReaderPostKey.getContentHash(cursor.getString(11), cursor.getString(12),
+                            cursor.getString(13), cursor.getString(14), cursor.getString(15), cursor.getString(16),
+                            cursor.getString(17), cursor.getString(18), cursor.getString(19), cursor.getString(20),
+                            cursor.getString(21), cardType));
+                    keys.add(key);
+                } while (cursor.moveToNext());
+            }
+            return keys;
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+    }
+
+    /*
+     * returns the posts with the passed pseudo ids in no particular order - used by the reader post
+     * list to load the posts around the visible range after it has loaded the keys for the stream
+     */
+    @NonNull
+    public static ReaderPostList getPostsWithPseudoIds(@NonNull List<String> pseudoIds, boolean excludeTextColumn) {
+        if (pseudoIds.isEmpty()) {
+            return new ReaderPostList();
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*")
+                .append(" FROM tbl_posts WHERE pseudo_id IN (");
+        for (int i = 0; i < pseudoIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        String[] args = pseudoIds.toArray(new String[pseudoIds.size()]);
+        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql.toString(), args);
         try {
             return getPostListFromCursor(cursor);
         } finally {
@@ -938,17 +1544,8 @@ public class ReaderPostTable {
             return new ReaderBlogIdPostIdList();
         }
 
-        String sql = "SELECT blog_id, post_id FROM tbl_posts WHERE tag_name=? AND tag_type=?";
-
-        if (tag.tagType == ReaderTagType.DEFAULT) {
-            if (tag.isPostsILike()) {
-                sql += " AND is_liked != 0";
-            } else if (tag.isFollowedSites()) {
-                sql += " AND is_followed != 0";
-            }
-        }
-
-        sql += " ORDER BY " + getSortColumnForTag(tag) + " DESC";
+        String sql = "SELECT tbl_posts.blog_id, tbl_posts.post_id" + FROM_POSTS_IN_STREAMS
+                     + getWhereAndOrderForTag(tag);
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
@@ -963,7 +1560,8 @@ public class ReaderPostTable {
             return new ReaderBlogIdPostIdList();
         }
 
-        String sql = "SELECT blog_id, post_id FROM tbl_posts WHERE tag_type=?";
+        String sql = "SELECT tbl_posts.blog_id, tbl_posts.post_id" + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_post_tags.tag_type=?";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
@@ -992,7 +1590,9 @@ public class ReaderPostTable {
      * same as getPostsInBlog() but only returns the blogId/postId pairs
      */
     public static ReaderBlogIdPostIdList getBlogIdPostIdsInBlog(long blogId, int maxPosts) {
-        String sql = "SELECT post_id FROM tbl_posts WHERE blog_id=? AND tag_name='' ORDER BY date_published DESC";
+        String sql = "SELECT tbl_posts.post_id" + FROM_POSTS_IN_STREAMS
+                     + " WHERE tbl_posts.blog_id=? AND tbl_post_tags.tag_name=''"
+                     + " ORDER BY tbl_posts.date_published DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
@@ -1050,9 +1650,17 @@ public class ReaderPostTable {
 
         post.setDatePublished(c.getString(c.getColumnIndex("date_published")));
         post.setDateLiked(c.getString(c.getColumnIndex("date_liked")));
-        post.setDateTagged(c.getString(c.getColumnIndex("date_tagged")));
 
-        post.score = c.getDouble(c.getColumnIndex("score"));
+        // score and date_tagged are only available when querying posts in a stream
+        int idxDateTagged = c.getColumnIndex("date_tagged");
+        if (idxDateTagged > -1) {
+            post.setDateTagged(c.getString(idxDateTagged));
+        }
+        int idxScore = c.getColumnIndex("score");
+        if (idxScore > -1) {
+            post.score = c.getDouble(idxScore);
+        }
+
         post.numReplies = c.getInt(c.getColumnIndex("num_replies"));
         post.numLikes = c.getInt(c.getColumnIndex("num_likes"));
 
@@ -1097,22 +1705,6 @@ public class ReaderPostTable {
         return posts;
     }
 
-    /**
-     * Currently "is_bookmarked" field is not supported by the server, therefore posts from the server have always
-     * is_bookmarked set to false. This method is a workaround which makes sure, that the field is always up to date
-     * and synced across all instances(rows) of each post.
-     */
-    private static void updateIsBookmarkedField(final ReaderPostList posts) {
-        ReaderBlogIdPostIdList bookmarkedPosts = getBookmarkedPostIds();
-        for (ReaderPost post : posts) {
-            for (ReaderBlogIdPostId bookmarkedPostId : bookmarkedPosts) {
-                if (post.blogId == bookmarkedPostId.getBlogId() && post.postId == bookmarkedPostId.getPostId()) {
-                    post.isBookmarked = true;
-                }
-            }
-        }
-    }
-
     private static ReaderBlogIdPostIdList getBookmarkedPostIds() {
         return getBlogIdPostIdsWithTagType(ReaderTagType.BOOKMARKED, 99999);
     }
@@ -6,16 +6,21 @@ import android.database.sqlite.SQLiteDatabase;
 
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Suggestion;
+import org.wordpress.android.models.SuggestionUsage;
 import org.wordpress.android.models.Tag;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.SqlUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SuggestionTable {
     private static final String SUGGESTIONS_TABLE = "suggestions";
     private static final String TAXONOMY_TABLE = "taxonomy";
+    // kept separately from the suggestions since those are replaced whenever they're updated
+    private static final String SUGGESTION_USAGE_TABLE = "suggestion_usage";
 
     public static void createTables(SQLiteDatabase db) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + SUGGESTIONS_TABLE + " ("
@@ -31,11 +36,19 @@ public class SuggestionTable {
                    + " tag TEXT,"
                    + " PRIMARY KEY (site_id, tag)"
                    + " );");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + SUGGESTION_USAGE_TABLE + " ("
+                   + " site_id INTEGER DEFAULT 0,"
+                   + " user_login TEXT,"
+                   + " use_count INTEGER DEFAULT 0,"
+                   + " last_used INTEGER DEFAULT 0,"
+                   + " PRIMARY KEY (site_id, user_login)"
+                   + " );");
     }
 
     private static void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS " + SUGGESTIONS_TABLE);
         db.execSQL("DROP TABLE IF EXISTS " + TAXONOMY_TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + SUGGESTION_USAGE_TABLE);
     }
 
     public static void reset(SQLiteDatabase db) {
@@ -103,6 +116,39 @@ public class SuggestionTable {
         return getWritableDb().delete(SUGGESTIONS_TABLE, "site_id=?", new String[]{Long.toString(siteId)});
     }
 
+    /*
+     * records that the current user picked the passed user suggestion on the passed site
+     */
+    public static void setSuggestionUsage(long siteId, String userLogin, SuggestionUsage usage) {
+        ContentValues values = new ContentValues();
+        values.put("site_id", siteId);
+        values.put("user_login", userLogin);
+        values.put("use_count", usage.getUseCount());
+        values.put("last_used", usage.getLastUsed());
+
+        getWritableDb().insertWithOnConflict(SUGGESTION_USAGE_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /*
+     * returns how the current user has used the user suggestions on the passed site, keyed by user login
+     */
+    public static Map<String, SuggestionUsage> getSuggestionUsageForSite(long siteId) {
+        Map<String, SuggestionUsage> usage = new HashMap<>();
+
+        String[] args = {Long.toString(siteId)};
+        Cursor c = getReadableDb().rawQuery(
+                "SELECT user_login, use_count, last_used FROM " + SUGGESTION_USAGE_TABLE + " WHERE site_id=?", args);
+
+        try {
+            while (c.moveToNext()) {
+                usage.put(c.getString(0), new SuggestionUsage(c.getInt(1), c.getLong(2)));
+            }
+            return usage;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
     private static Suggestion getSuggestionFromCursor(Cursor c) {
         final String userLogin = c.getString(c.getColumnIndex("user_login"));
         final String displayName = c.getString(c.getColumnIndex("display_name"));
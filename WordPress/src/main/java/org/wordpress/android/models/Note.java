@@ -52,6 +52,11 @@ public class Note {
     private JSONObject mNoteJSON;
     private final String mKey;
 
+    // raw JSON of a note read from the DB, which isn't parsed until the JSON is needed
+    private String mRawNoteData;
+    // list fields read from their own columns, null when the note was created from its JSON
+    private final ListFields mListFields;
+
     private final Object mSyncLock = new Object();
     private String mLocalStatus;
 
@@ -71,18 +76,70 @@ public class Note {
         GROUP_OLDER_MONTH
     }
 
+    /**
+     * The fields shown in the notifications list, which NotificationsTable stores in their own columns so the list
+     * can be shown without parsing the JSON of each note
+     */
+    public static class ListFields {
+        public String type;
+        public String noteHash;
+        public long timestamp;
+        public boolean isRead;
+        public String subjectJSON;
+        public String commentSubject;
+        public String commentSubjectNoticon;
+        public String noticon;
+        public String iconUrl;
+        public String commentStatus;
+        public long commentId;
+        public int siteId;
+        public int postId;
+    }
+
     public Note(String key, JSONObject noteJSON) {
         mKey = key;
         mNoteJSON = noteJSON;
+        mListFields = null;
     }
 
     public Note(JSONObject noteJSON) {
         mNoteJSON = noteJSON;
         mKey = mNoteJSON.optString("id", "");
+        mListFields = null;
+    }
+
+    /*
+     * creates a note from the columns stored by NotificationsTable - the list fields are read from the columns,
+     * and the raw JSON is only parsed when something other than the list fields is requested
+     */
+    public Note(String key, String rawNoteData, ListFields listFields) {
+        mKey = key;
+        mRawNoteData = rawNoteData;
+        mListFields = listFields;
     }
 
     public JSONObject getJSON() {
-        return mNoteJSON != null ? mNoteJSON : new JSONObject();
+        synchronized (mSyncLock) {
+            JSONObject noteJSON = getNoteJSON();
+            return noteJSON != null ? noteJSON : new JSONObject();
+        }
+    }
+
+    /*
+     * returns the note's JSON, parsing it first if this note was read from the DB - must be called while
+     * holding mSyncLock
+     */
+    private JSONObject getNoteJSON() {
+        if (mNoteJSON == null && mRawNoteData != null) {
+            try {
+                mNoteJSON = new JSONObject(mRawNoteData);
+            } catch (JSONException e) {
+                AppLog.e(AppLog.T.NOTIFS, "Can't parse notification with noteId:" + mKey, e);
+                mNoteJSON = new JSONObject();
+            }
+            mRawNoteData = null;
+        }
+        return mNoteJSON;
     }
 
     public String getId() {
@@ -90,6 +147,9 @@ public class Note {
     }
 
     public String getType() {
+        if (mListFields != null) {
+            return mListFields.type;
+        }
         return queryJSON("type", NOTE_UNKNOWN_TYPE);
     }
 
@@ -98,8 +158,11 @@ public class Note {
     }
 
     public Boolean isCommentType() {
+        if (mListFields != null) {
+            return (isAutomattcherType() && mListFields.commentId != 0) || isType(NOTE_COMMENT_TYPE);
+        }
         synchronized (mSyncLock) {
-            return (isAutomattcherType() && JSONUtils.queryJSON(mNoteJSON, "meta.ids.comment", -1) != -1)
+            return (isAutomattcherType() && JSONUtils.queryJSON(getNoteJSON(), "meta.ids.comment", -1) != -1)
                    || isType(NOTE_COMMENT_TYPE);
         }
     }
@@ -183,8 +246,11 @@ public class Note {
 
     public JSONObject getSubject() {
         try {
+            if (mListFields != null) {
+                return TextUtils.isEmpty(mListFields.subjectJSON) ? null : new JSONObject(mListFields.subjectJSON);
+            }
             synchronized (mSyncLock) {
-                JSONArray subjectArray = mNoteJSON.getJSONArray("subject");
+                JSONArray subjectArray = getNoteJSON().getJSONArray("subject");
                 if (subjectArray.length() > 0) {
                     return subjectArray.getJSONObject(0);
                 }
@@ -205,12 +271,18 @@ public class Note {
     }
 
     public String getIconURL() {
+        if (mListFields != null) {
+            return mListFields.iconUrl;
+        }
         return queryJSON("icon", "");
     }
 
     public String getCommentSubject() {
+        if (mListFields != null) {
+            return mListFields.commentSubject;
+        }
         synchronized (mSyncLock) {
-            JSONArray subjectArray = mNoteJSON.optJSONArray("subject");
+            JSONArray subjectArray = getNoteJSON().optJSONArray("subject");
             if (subjectArray != null) {
                 String commentSubject = JSONUtils.queryJSON(subjectArray, "subject[1].text", "");
 
@@ -227,6 +299,9 @@ public class Note {
     }
 
     public String getCommentSubjectNoticon() {
+        if (mListFields != null) {
+            return mListFields.commentSubjectNoticon;
+        }
         JSONArray subjectRanges = queryJSON("subject[0].ranges", new JSONArray());
         if (subjectRanges != null) {
             for (int i = 0; i < subjectRanges.length(); i++) {
@@ -272,7 +347,7 @@ public class Note {
     public static class TimeStampComparator implements Comparator<Note> {
         @Override
         public int compare(Note a, Note b) {
-            return b.getTimestampString().compareTo(a.getTimestampString());
+            return Long.compare(b.getTimestamp(), a.getTimestamp());
         }
     }
 
@@ -284,14 +359,22 @@ public class Note {
     }
 
     private Boolean isRead() {
+        if (mListFields != null) {
+            return mListFields.isRead;
+        }
         return queryJSON("read", 0) == 1;
     }
 
     public void setRead() {
-        try {
-            mNoteJSON.putOpt("read", 1);
-        } catch (JSONException e) {
-            AppLog.e(AppLog.T.NOTIFS, "Failed to set 'read' property", e);
+        synchronized (mSyncLock) {
+            try {
+                getNoteJSON().putOpt("read", 1);
+            } catch (JSONException e) {
+                AppLog.e(AppLog.T.NOTIFS, "Failed to set 'read' property", e);
+            }
+            if (mListFields != null) {
+                mListFields.isRead = true;
+            }
         }
     }
 
@@ -299,6 +382,9 @@ public class Note {
      * Get the timestamp provided by the API for the note
      */
     public long getTimestamp() {
+        if (mListFields != null) {
+            return mListFields.timestamp;
+        }
         return DateTimeUtils.timestampFromIso8601(getTimestampString());
     }
 
@@ -306,10 +392,22 @@ public class Note {
         return queryJSON("timestamp", "");
     }
 
+    /*
+     * hash of the note's content computed by the server, which changes whenever the note changes - empty if the
+     * note wasn't requested with the note_hash field. The server returns it as a number, so it's read with
+     * optString rather than queryJSON.
+     */
+    public String getNoteHash() {
+        if (mListFields != null) {
+            return mListFields.noteHash;
+        }
+        return getJSON().optString("note_hash", "");
+    }
+
     public JSONArray getBody() {
         try {
             synchronized (mSyncLock) {
-                return mNoteJSON.getJSONArray("body");
+                return getNoteJSON().getJSONArray("body");
             }
         } catch (JSONException e) {
             return new JSONArray();
@@ -318,6 +416,9 @@ public class Note {
 
     // returns character code for notification font
     public String getNoticonCharacter() {
+        if (mListFields != null) {
+            return mListFields.noticon;
+        }
         return queryJSON("noticon", "");
     }
 
@@ -377,14 +478,23 @@ public class Note {
     }
 
     public int getSiteId() {
+        if (mListFields != null) {
+            return mListFields.siteId;
+        }
         return queryJSON("meta.ids.site", 0);
     }
 
     public int getPostId() {
+        if (mListFields != null) {
+            return mListFields.postId;
+        }
         return queryJSON("meta.ids.post", 0);
     }
 
     public long getCommentId() {
+        if (mListFields != null) {
+            return mListFields.commentId;
+        }
         return queryJSON("meta.ids.comment", 0);
     }
 
@@ -397,10 +507,11 @@ public class Note {
      */
     private <U> U queryJSON(String query, U defaultObject) {
         synchronized (mSyncLock) {
-            if (mNoteJSON == null) {
+            JSONObject noteJSON = getNoteJSON();
+            if (noteJSON == null) {
                 return defaultObject;
             }
-            return JSONUtils.queryJSON(mNoteJSON, query, defaultObject);
+            return JSONUtils.queryJSON(noteJSON, query, defaultObject);
         }
     }
 
@@ -462,6 +573,9 @@ public class Note {
     }
 
     public CommentStatus getCommentStatus() {
+        if (mListFields != null) {
+            return CommentStatus.fromString(mListFields.commentStatus);
+        }
         EnumSet<EnabledActions> enabledActions = getEnabledActions();
 
         if (enabledActions.contains(EnabledActions.ACTION_UNAPPROVE)) {
@@ -484,7 +598,7 @@ public class Note {
 
     public JSONArray getHeader() {
         synchronized (mSyncLock) {
-            return mNoteJSON.optJSONArray("header");
+            return getNoteJSON().optJSONArray("header");
         }
     }
 
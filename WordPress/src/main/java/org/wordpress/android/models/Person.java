@@ -29,6 +29,9 @@ public class Person {
     // Only followers & email followers have a subscribed date
     private String mSubscribed;
 
+    // Only users (when the current user can see it) & email followers have an email
+    private String mEmail;
+
     public Person(long personID, int localTableBlogId) {
         mPersonID = personID;
         mLocalTableBlogId = localTableBlogId;
@@ -47,6 +50,7 @@ public class Person {
             person.setUsername(json.optString("login"));
             person.setDisplayName(StringEscapeUtils.unescapeHtml4(json.optString("name")));
             person.setAvatarUrl(json.optString("avatar_URL"));
+            person.setEmail(json.optString("email"));
             person.mPersonType = PersonType.USER;
             // We don't support multiple roles, so the first role is picked just as it's in Calypso
             String role = json.getJSONArray("roles").optString(0);
@@ -75,6 +79,10 @@ public class Person {
             person.setUsername(json.optString("login"));
             person.setAvatarUrl(json.optString("avatar"));
             person.setSubscribed(json.optString("date_subscribed"));
+            if (isEmailFollower) {
+                // the label of an email follower is their email address
+                person.setEmail(json.optString("label"));
+            }
             person.mPersonType = isEmailFollower ? PersonType.EMAIL_FOLLOWER : PersonType.FOLLOWER;
 
             return person;
@@ -157,6 +165,14 @@ public class Person {
         mSubscribed = StringUtils.notNullStr(subscribed);
     }
 
+    public String getEmail() {
+        return StringUtils.notNullStr(mEmail);
+    }
+
+    public void setEmail(String email) {
+        mEmail = email;
+    }
+
     /*
      * converts iso8601 subscribed date to an actual java date
      */
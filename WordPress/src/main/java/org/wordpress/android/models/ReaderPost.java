@@ -672,6 +672,24 @@ public class ReaderPost {
                && post.getText().equals(this.getText());
     }
 
+    /*
+     * returns a hash of the fields compared by isSamePost() which are only changed by the server,
+     * ie: all of them except the like/comment counts and like/follow status, which are also changed
+     * locally. the fingerprint is stored with the post so posts retrieved from the server can be
+     * compared with the stored posts without reading every field of the stored posts
+     */
+    public long getContentFingerprint() {
+        long hash = feedId;
+        hash = 31 * hash + feedItemId;
+        hash = 31 * hash + (isCommentsOpen ? 1 : 0);
+        hash = 31 * hash + (useExcerpt ? 1 : 0);
+        hash = 31 * hash + getTitle().hashCode();
+        hash = 31 * hash + getExcerpt().hashCode();
+        hash = 31 * hash + getText().hashCode();
+        hash = 31 * hash + getFeaturedImage().hashCode();
+        return 31 * hash + getDatePublished().hashCode();
+    }
+
     public boolean hasIds(ReaderBlogIdPostId ids) {
         return ids != null
                && ids.getBlogId() == this.blogId
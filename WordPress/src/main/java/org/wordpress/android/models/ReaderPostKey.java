@@ -0,0 +1,140 @@
+package org.wordpress.android.models;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.util.StringUtils;
+
+/**
+ * lightweight stand-in for a post in a reader stream - contains the post's ids along with the
+ * fields shown on its card which can change while the stream is displayed (likes, comments,
+ * follow and bookmark status), plus a hash of its content. the reader post list loads the keys
+ * for the whole stream and only loads the full posts around the visible range, and the keys are
+ * compared to find which posts changed when the stream is refreshed
+ */
+public class ReaderPostKey {
+    // flags returned by getChanges() for the fields which can be updated without redrawing the post
+    public static final int CHANGED_LIKES = 1;
+    public static final int CHANGED_COMMENTS = 1 << 1;
+    public static final int CHANGED_FOLLOW = 1 << 2;
+    public static final int CHANGED_BOOKMARK = 1 << 3;
+    // returned by getChanges() when the post must be redrawn
+    public static final int CHANGED_CONTENT = -1;
+
+    public long blogId;
+    public long postId;
+    public int numLikes;
+    public int numReplies;
+    public boolean isLikedByCurrentUser;
+    public boolean isFollowedByCurrentUser;
+    public boolean isBookmarked;
+    public boolean isCommentsOpen;
+    public boolean isXpost;
+
+    private String mPseudoId;
+    private int mContentHash;
+
+    @NonNull
+    public static ReaderPostKey fromPost(@NonNull ReaderPost post) {
+        ReaderPostKey key = new ReaderPostKey();
+        key.blogId = post.blogId;
+        key.postId = post.postId;
+        key.numLikes = post.numLikes;
+        key.numReplies = post.numReplies;
+        key.isLikedByCurrentUser = post.isLikedByCurrentUser;
+        key.isFollowedByCurrentUser = post.isFollowedByCurrentUser;
+        key.isBookmarked = post.isBookmarked;
+        key.isCommentsOpen = post.isCommentsOpen;
+        key.isXpost = post.isXpost();
+        key.setPseudoId(post.getPseudoId());
+        key.setContentHash(getContentHash(post.getTitle(), post.getExcerpt(), post.getFeaturedImage(),
+                post.getDatePublished(), post.getAuthorName(), post.getBlogName(), post.getBlogUrl(),
+                post.getBlogImageUrl(), post.getPostAvatar(), post.getFeaturedVideo(), post.getDiscoverJson(),
+                ReaderCardType.toString(post.getCardType())));
+        return key;
+    }
+
+    @NonNull
+    public static ReaderPostKey copyOf(@NonNull ReaderPostKey key) {
+        ReaderPostKey copy = new ReaderPostKey();
+        copy.blogId = key.blogId;
+        copy.postId = key.postId;
+        copy.numLikes = key.numLikes;
+        copy.numReplies = key.numReplies;
+        copy.isLikedByCurrentUser = key.isLikedByCurrentUser;
+        copy.isFollowedByCurrentUser = key.isFollowedByCurrentUser;
+        copy.isBookmarked = key.isBookmarked;
+        copy.isCommentsOpen = key.isCommentsOpen;
+        copy.isXpost = key.isXpost;
+        copy.mPseudoId = key.mPseudoId;
+        copy.mContentHash = key.mContentHash;
+        return copy;
+    }
+
+    /*
+     * hash of the content shown on a post's card which doesn't change once the post is displayed
+     * unless the post itself is edited - the fields must be passed in the same order by every
+     * caller: title, excerpt, featured image, date published, author name, blog name, blog url,
+     * blog image url, post avatar, featured video, discover json and card type
+     */
+    public static int getContentHash(String... cardFields) {
+        int hash = 0;
+        for (String field : cardFields) {
+            hash = 31 * hash + StringUtils.notNullStr(field).hashCode();
+        }
+        return hash;
+    }
+
+    public String getPseudoId() {
+        return StringUtils.notNullStr(mPseudoId);
+    }
+
+    public void setPseudoId(String pseudoId) {
+        mPseudoId = StringUtils.notNullStr(pseudoId);
+    }
+
+    public int getContentHash() {
+        return mContentHash;
+    }
+
+    public void setContentHash(int contentHash) {
+        mContentHash = contentHash;
+    }
+
+    /*
+     * same as ReaderPost.getStableId() so the adapter's ids don't change when a post is loaded
+     */
+    public long getStableId() {
+        return getPseudoId().hashCode();
+    }
+
+    public boolean isSamePost(@NonNull ReaderPostKey key) {
+        return key.blogId == this.blogId
+               && key.postId == this.postId
+               && key.getPseudoId().equals(this.getPseudoId());
+    }
+
+    /*
+     * returns the CHANGED_ flags for the fields which differ between this key and the passed key
+     * for the same post, zero if nothing changed, or CHANGED_CONTENT if the post must be redrawn
+     */
+    public int getChanges(@NonNull ReaderPostKey key) {
+        if (key.mContentHash != this.mContentHash || key.isXpost != this.isXpost) {
+            return CHANGED_CONTENT;
+        }
+
+        int changes = 0;
+        if (key.numLikes != this.numLikes || key.isLikedByCurrentUser != this.isLikedByCurrentUser) {
+            changes |= CHANGED_LIKES;
+        }
+        if (key.numReplies != this.numReplies || key.isCommentsOpen != this.isCommentsOpen) {
+            changes |= CHANGED_COMMENTS;
+        }
+        if (key.isFollowedByCurrentUser != this.isFollowedByCurrentUser) {
+            changes |= CHANGED_FOLLOW;
+        }
+        if (key.isBookmarked != this.isBookmarked) {
+            changes |= CHANGED_BOOKMARK;
+        }
+        return changes;
+    }
+}
@@ -1,9 +1,14 @@
 package org.wordpress.android.models;
 
+import androidx.annotation.NonNull;
+
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 
 public class ReaderPostList extends ArrayList<ReaderPost> {
@@ -23,6 +28,21 @@ public class ReaderPostList extends ArrayList<ReaderPost> {
         return posts;
     }
 
+    /*
+     * same as fromJson() but reads the feed with a pull parser rather than requiring the entire
+     * feed to be parsed into a JSONObject first
+     */
+    public static ReaderPostList fromJsonStream(Reader feedReader) throws IOException, JSONException {
+        final ReaderPostList posts = new ReaderPostList();
+        ReaderPostStreamParser.parse(feedReader, new ReaderPostStreamParser.PostListener() {
+            @Override
+            public void onPostParsed(@NonNull ReaderPost post) {
+                posts.add(post);
+            }
+        });
+        return posts;
+    }
+
     @Override
     public Object clone() {
         return super.clone();
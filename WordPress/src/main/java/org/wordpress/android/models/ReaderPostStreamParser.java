@@ -0,0 +1,128 @@
+package org.wordpress.android.models;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * reads the "posts" array of a reader post feed with a pull parser, building a ReaderPost from
+ * each post as soon as it's read - unlike ReaderPostList.fromJson(), only a single post is
+ * materialized as a JSONObject at a time, so the entire feed (including the content of every
+ * post) doesn't need to be held in memory before the first post can be used
+ */
+public class ReaderPostStreamParser {
+    public interface PostListener {
+        void onPostParsed(@NonNull ReaderPost post);
+    }
+
+    private static final String KEY_POSTS = "posts";
+
+    private ReaderPostStreamParser() {
+        throw new AssertionError();
+    }
+
+    /*
+     * parses the passed post feed, calling the listener for each post in the order they appear
+     * in the feed - returns the number of posts parsed
+     */
+    public static int parse(@NonNull Reader feedReader, @NonNull PostListener listener)
+            throws IOException, JSONException {
+        int numPosts = 0;
+        JsonReader reader = new JsonReader(feedReader);
+        // match org.json, which is what ReaderPostList.fromJson() relies on
+        reader.setLenient(true);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (KEY_POSTS.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            listener.onPostParsed(ReaderPost.fromJson(readObject(reader)));
+                            numPosts++;
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            reader.close();
+        }
+        return numPosts;
+    }
+
+    private static JSONObject readObject(@NonNull JsonReader reader) throws IOException, JSONException {
+        JSONObject json = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            json.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return json;
+    }
+
+    private static JSONArray readArray(@NonNull JsonReader reader) throws IOException, JSONException {
+        JSONArray json = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            json.put(readValue(reader));
+        }
+        reader.endArray();
+        return json;
+    }
+
+    private static Object readValue(@NonNull JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                return readNumber(reader.nextString());
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /*
+     * returns the same type org.json uses for the passed number so values read here behave the
+     * same as ones read by JSONObject (ex: when converted to a string)
+     */
+    private static Object readNumber(@NonNull String number) {
+        if (number.indexOf('.') == -1 && number.indexOf('e') == -1 && number.indexOf('E') == -1) {
+            try {
+                long longValue = Long.parseLong(number);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return (int) longValue;
+                }
+                return longValue;
+            } catch (NumberFormatException e) {
+                // too large for a long, fall through and treat it as a double
+            }
+        }
+        try {
+            return Double.valueOf(number);
+        } catch (NumberFormatException e) {
+            return number;
+        }
+    }
+}
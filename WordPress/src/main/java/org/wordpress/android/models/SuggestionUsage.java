@@ -0,0 +1,25 @@
+package org.wordpress.android.models;
+
+/**
+ * how often and how recently the current user has picked a user suggestion on a site
+ */
+public class SuggestionUsage {
+    private final int mUseCount;
+    private final long mLastUsed;
+
+    public SuggestionUsage(int useCount, long lastUsed) {
+        mUseCount = useCount;
+        mLastUsed = lastUsed;
+    }
+
+    public int getUseCount() {
+        return mUseCount;
+    }
+
+    /*
+     * time of the most recent use, in milliseconds since the epoch
+     */
+    public long getLastUsed() {
+        return mLastUsed;
+    }
+}
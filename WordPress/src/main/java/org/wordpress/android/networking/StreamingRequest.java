@@ -10,8 +10,13 @@ import okio.BufferedSink;
 import okio.Okio;
 import okio.Source;
 
+/**
+ * Request body which streams a file to the server. The file is read in large pieces which are handed to
+ * the sink without flushing, so the socket is written in full segments rather than once per piece, and
+ * the sink is only flushed once the entire file has been written.
+ */
 public class StreamingRequest extends RequestBody {
-    public static final int CHUNK_SIZE = 2048;
+    public static final int CHUNK_SIZE = 64 * 1024;
 
     private final File mFile;
 
@@ -24,6 +29,15 @@ public class StreamingRequest extends RequestBody {
         return MediaType.parse("multipart/form-data");
     }
 
+    /*
+     * returning the length enables the request to be sent with a Content-Length header rather than
+     * chunked encoding
+     */
+    @Override
+    public long contentLength() {
+        return mFile.length();
+    }
+
     @Override
     public void writeTo(BufferedSink sink) throws IOException {
         Source source = null;
@@ -31,11 +45,12 @@ public class StreamingRequest extends RequestBody {
             source = Okio.source(mFile);
 
             while (source.read(sink.buffer(), CHUNK_SIZE) != -1) {
-                sink.flush();
+                // write the full segments to the socket, leaving any partial segment in the buffer
+                sink.emitCompleteSegments();
             }
+            sink.flush();
         } finally {
             Util.closeQuietly(source);
         }
     }
-};
-
+}
@@ -8,6 +8,9 @@ import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 
@@ -36,12 +39,8 @@ import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.DateTimeUtils;
-import org.wordpress.android.util.ImageUtils;
-import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.util.StringUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -72,6 +71,14 @@ public class GCMMessageHandler {
 
     private static final int MAX_INBOX_ITEMS = 5;
 
+    // the group summary is updated at most this often, so a burst of pushes results in a single summary update
+    // rather than one for each push (which the system may drop since it rate-limits notification updates)
+    private static final long GROUP_SUMMARY_INTERVAL_MS = 1000;
+
+    // set by GCMMessageService when a push is received, and used to log how long it took to show the push
+    static final String PUSH_ARG_RECEIVED_AT = "wp_received_at";
+    static final String PUSH_ARG_SENT_TIME = "google.sent_time";
+
     private static final String PUSH_ARG_TYPE = "type";
     private static final String PUSH_ARG_USER = "user";
     private static final String PUSH_ARG_TITLE = "title";
@@ -271,14 +278,44 @@ public class GCMMessageHandler {
         mNotificationHelper.handleDefaultPush(context, data, wpcomUserId);
     }
 
+    /*
+     * downloads the large icon for the passed push into the icon cache, so showing the push doesn't have to
+     * download it - must be called from a background thread, and shouldn't be called while holding a lock
+     */
+    void prefetchLargeIcon(Context context, @NonNull Bundle data) {
+        String noteType = StringUtils.notNullStr(data.getString(PUSH_ARG_TYPE));
+        if (noteType.equals(PUSH_TYPE_PUSH_AUTH) || noteType.equals(PUSH_TYPE_BADGE_RESET)
+            || noteType.equals(PUSH_TYPE_NOTE_DELETE) || noteType.equals(PUSH_TYPE_TEST_NOTE)) {
+            return;
+        }
+        NotificationIconCache.getIcon(context, data.getString("icon"),
+                mNotificationHelper.shouldCircularizeNoteIcon(noteType));
+    }
+
+    /*
+     * shows the group summary for the notifications which are currently active, called on the main thread when
+     * a summary update was deferred because another update was shown shortly before it
+     */
+    private void showPendingGroupSummary(Context context) {
+        // FCM threads change mActiveNotificationsMap while holding this lock, so it's held while the map is copied
+        // and the summary is rebuilt
+        synchronized (GCMMessageService.class) {
+            mNotificationHelper.showPendingGroupSummary(context);
+        }
+    }
+
     void handleZendeskNotification(Context context) {
         mNotificationHelper.handleZendeskNotification(context);
     }
 
     public static class NotificationHelper {
+        private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
         private GCMMessageHandler mGCMMessageHandler;
         private SystemNotificationsTracker mSystemNotificationsTracker;
 
+        private final GroupSummaryThrottle mGroupSummaryThrottle = new GroupSummaryThrottle(GROUP_SUMMARY_INTERVAL_MS);
+
         NotificationHelper(GCMMessageHandler gCMMessageHandler,
                            SystemNotificationsTracker systemNotificationsTracker) {
             mGCMMessageHandler = gCMMessageHandler;
@@ -432,12 +469,31 @@ public class GCMMessageHandler {
             }
 
             showSingleNotificationForBuilder(context, builder, noteType, wpcomNoteID, pushId, true);
+            logDeliveryLatency(data, wpcomNoteID);
 
             // Also add a group summary notification, which is required for non-wearable devices
             // Do not need to play the sound again. We've already played it in the individual builder.
             showGroupNotificationForBuilder(context, builder, wpcomNoteID, message);
         }
 
+        /*
+         * logs how long it took from the push being sent and received until its notification was shown
+         */
+        private void logDeliveryLatency(Bundle data, String wpcomNoteID) {
+            long receivedAt = data.getLong(PUSH_ARG_RECEIVED_AT, 0);
+            if (receivedAt == 0) {
+                return;
+            }
+            long sinceReceivedMs = SystemClock.elapsedRealtime() - receivedAt;
+            long sentTime = data.getLong(PUSH_ARG_SENT_TIME, 0);
+            String sinceSent = sentTime > 0 ? (System.currentTimeMillis() - sentTime) + " ms" : "unknown";
+            AppLog.i(T.NOTIFS, "Showed notification for note " + wpcomNoteID + " " + sinceReceivedMs
+                               + " ms after the push was received (" + sinceSent + " after it was sent), icon cache: "
+                               + NotificationIconCache.getMemoryHitCount() + " memory hits, "
+                               + NotificationIconCache.getDiskHitCount() + " disk hits, "
+                               + NotificationIconCache.getDownloadCount() + " downloads");
+        }
+
         private void showSimpleNotification(Context context, String title, String message, Intent resultIntent,
                                             int pushId, NotificationType notificationType) {
             NotificationCompat.Builder builder = getNotificationBuilder(context, title, message);
@@ -588,22 +644,7 @@ public class GCMMessageHandler {
         }
 
         private Bitmap getLargeIconBitmap(Context context, String iconUrl, boolean shouldCircularizeIcon) {
-            Bitmap largeIconBitmap = null;
-            if (iconUrl != null) {
-                try {
-                    iconUrl = URLDecoder.decode(iconUrl, "UTF-8");
-                    int largeIconSize = context.getResources().getDimensionPixelSize(
-                            android.R.dimen.notification_large_icon_height);
-                    String resizedUrl = PhotonUtils.getPhotonImageUrl(iconUrl, largeIconSize, largeIconSize);
-                    largeIconBitmap = ImageUtils.downloadBitmap(resizedUrl);
-                    if (largeIconBitmap != null && shouldCircularizeIcon) {
-                        largeIconBitmap = ImageUtils.getCircularBitmap(largeIconBitmap);
-                    }
-                } catch (UnsupportedEncodingException e) {
-                    AppLog.e(T.NOTIFS, e);
-                }
-            }
-            return largeIconBitmap;
+            return NotificationIconCache.getIcon(context, iconUrl, shouldCircularizeIcon);
         }
 
         private NotificationCompat.Builder getNotificationBuilder(Context context, String title, String message) {
@@ -632,52 +673,12 @@ public class GCMMessageHandler {
             // first remove 2fa push from the map, so it's not shown in the inbox style group notif
             tmpMap.remove(AUTH_PUSH_NOTIFICATION_ID);
             if (tmpMap.size() > 1) {
-                NotificationCompat.InboxStyle inboxStyle = new NotificationCompat.InboxStyle();
-                int noteCtr = 1;
-                for (Bundle pushBundle : tmpMap.values()) {
-                    // InboxStyle notification is limited to 5 lines
-                    if (noteCtr > MAX_INBOX_ITEMS) {
-                        break;
-                    }
-                    if (pushBundle == null || pushBundle.getString(PUSH_ARG_MSG) == null) {
-                        continue;
-                    }
-
-                    if (pushBundle.getString(PUSH_ARG_TYPE, "").equals(PUSH_TYPE_COMMENT)) {
-                        String pnTitle = StringEscapeUtils.unescapeHtml4((pushBundle.getString(PUSH_ARG_TITLE)));
-                        String pnMessage = StringEscapeUtils.unescapeHtml4((pushBundle.getString(PUSH_ARG_MSG)));
-                        inboxStyle.addLine(pnTitle + ": " + pnMessage);
-                    } else {
-                        String pnMessage = StringEscapeUtils.unescapeHtml4((pushBundle.getString(PUSH_ARG_MSG)));
-                        inboxStyle.addLine(pnMessage);
-                    }
-
-                    noteCtr++;
-                }
-
-                if (tmpMap.size() > MAX_INBOX_ITEMS) {
-                    inboxStyle.setSummaryText(String.format(context.getString(R.string.more_notifications),
-                            tmpMap.size() - MAX_INBOX_ITEMS));
+                if (deferGroupSummaryIfShownRecently(context, wpcomNoteID, message)) {
+                    return;
                 }
-
-                String subject =
-                        String.format(context.getString(R.string.new_notifications), tmpMap.size());
-                NotificationCompat.Builder groupBuilder = new NotificationCompat.Builder(context,
-                        context.getString(R.string.notification_channel_normal_id))
-                        .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_CHILDREN)
-                        .setSmallIcon(R.drawable.ic_my_sites_white_24dp)
-                        .setColor(context.getResources().getColor(R.color.primary_50))
-                        .setGroup(NOTIFICATION_GROUP_KEY)
-                        .setGroupSummary(true)
-                        .setAutoCancel(true)
-                        .setTicker(message)
-                        .setContentTitle(context.getString(R.string.app_name))
-                        .setContentText(subject)
-                        .setStyle(inboxStyle);
-
-                showWPComNotificationForBuilder(groupBuilder, context, wpcomNoteID, GROUP_NOTIFICATION_ID, false,
-                        NotificationType.GROUP_NOTIFICATION);
+                showInboxGroupSummary(context, tmpMap, wpcomNoteID, message);
             } else {
+                mGroupSummaryThrottle.onSingleNotificationShown(SystemClock.elapsedRealtime());
                 // Set the individual notification we've already built as the group summary
                 builder.setGroupSummary(true)
                        .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_CHILDREN);
@@ -686,6 +687,95 @@ public class GCMMessageHandler {
             }
         }
 
+        /*
+         * returns true if the group summary was shown too recently to be updated now, in which case an update
+         * with the notifications which are active at that time is scheduled. subsequent calls before the
+         * scheduled update only replace the note id & message it uses
+         */
+        private boolean deferGroupSummaryIfShownRecently(Context context, String wpcomNoteID, String message) {
+            int result = mGroupSummaryThrottle.onSummaryUpdate(SystemClock.elapsedRealtime(), wpcomNoteID, message);
+            if (result == GroupSummaryThrottle.SHOW_NOW) {
+                return false;
+            } else if (result == GroupSummaryThrottle.COALESCED) {
+                AppLog.d(T.NOTIFS, "Coalesced group summary update for note " + wpcomNoteID);
+                return true;
+            }
+
+            final Context appContext = context.getApplicationContext();
+            MAIN_HANDLER.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    mGCMMessageHandler.showPendingGroupSummary(appContext);
+                }
+            }, GROUP_SUMMARY_INTERVAL_MS);
+            return true;
+        }
+
+        private void showPendingGroupSummary(Context context) {
+            GroupSummaryThrottle.PendingSummary pending =
+                    mGroupSummaryThrottle.takePending(SystemClock.elapsedRealtime());
+            if (pending == null) {
+                // a single notification was shown as the summary since this update was scheduled
+                return;
+            }
+
+            ArrayMap<Integer, Bundle> tmpMap = new ArrayMap<>(mGCMMessageHandler.mActiveNotificationsMap);
+            tmpMap.remove(AUTH_PUSH_NOTIFICATION_ID);
+            // the notifications may have been dismissed or reduced to one, which updates the summary itself
+            if (tmpMap.size() > 1) {
+                showInboxGroupSummary(context, tmpMap, pending.mNoteId, pending.mMessage);
+            }
+        }
+
+        private void showInboxGroupSummary(Context context, ArrayMap<Integer, Bundle> tmpMap, String wpcomNoteID,
+                                           String message) {
+            NotificationCompat.InboxStyle inboxStyle = new NotificationCompat.InboxStyle();
+            int noteCtr = 1;
+            for (Bundle pushBundle : tmpMap.values()) {
+                // InboxStyle notification is limited to 5 lines
+                if (noteCtr > MAX_INBOX_ITEMS) {
+                    break;
+                }
+                if (pushBundle == null || pushBundle.getString(PUSH_ARG_MSG) == null) {
+                    continue;
+                }
+
+                if (pushBundle.getString(PUSH_ARG_TYPE, "").equals(PUSH_TYPE_COMMENT)) {
+                    String pnTitle = StringEscapeUtils.unescapeHtml4((pushBundle.getString(PUSH_ARG_TITLE)));
+                    String pnMessage = StringEscapeUtils.unescapeHtml4((pushBundle.getString(PUSH_ARG_MSG)));
+                    inboxStyle.addLine(pnTitle + ": " + pnMessage);
+                } else {
+                    String pnMessage = StringEscapeUtils.unescapeHtml4((pushBundle.getString(PUSH_ARG_MSG)));
+                    inboxStyle.addLine(pnMessage);
+                }
+
+                noteCtr++;
+            }
+
+            if (tmpMap.size() > MAX_INBOX_ITEMS) {
+                inboxStyle.setSummaryText(String.format(context.getString(R.string.more_notifications),
+                        tmpMap.size() - MAX_INBOX_ITEMS));
+            }
+
+            String subject =
+                    String.format(context.getString(R.string.new_notifications), tmpMap.size());
+            NotificationCompat.Builder groupBuilder = new NotificationCompat.Builder(context,
+                    context.getString(R.string.notification_channel_normal_id))
+                    .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_CHILDREN)
+                    .setSmallIcon(R.drawable.ic_my_sites_white_24dp)
+                    .setColor(context.getResources().getColor(R.color.primary_50))
+                    .setGroup(NOTIFICATION_GROUP_KEY)
+                    .setGroupSummary(true)
+                    .setAutoCancel(true)
+                    .setTicker(message)
+                    .setContentTitle(context.getString(R.string.app_name))
+                    .setContentText(subject)
+                    .setStyle(inboxStyle);
+
+            showWPComNotificationForBuilder(groupBuilder, context, wpcomNoteID, GROUP_NOTIFICATION_ID, false,
+                    NotificationType.GROUP_NOTIFICATION);
+        }
+
         private void showSingleNotificationForBuilder(Context context, NotificationCompat.Builder builder,
                                                       String noteType, String wpcomNoteID, int pushId,
                                                       boolean notifyUser) {
@@ -1044,7 +1134,7 @@ public class GCMMessageHandler {
         }
 
         // Returns true if the note type is known to have a gravatar
-        private boolean shouldCircularizeNoteIcon(String noteType) {
+        boolean shouldCircularizeNoteIcon(String noteType) {
             if (TextUtils.isEmpty(noteType)) {
                 return false;
             }
@@ -1,6 +1,7 @@
 package org.wordpress.android.push;
 
 import android.os.Bundle;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 
@@ -41,12 +42,18 @@ public class GCMMessageService extends FirebaseMessagingService {
         ((WordPress) getApplication()).component().inject(this);
     }
 
-    private void synchronizedHandleDefaultPush(@NonNull Map<String, String> data) {
+    private void synchronizedHandleDefaultPush(@NonNull Map<String, String> data, long receivedAt, long sentTime) {
         // ACTIVE_NOTIFICATIONS_MAP being static, we can't just synchronize the method
         mSystemNotificationsTracker.track(AnalyticsTracker.Stat.NOTIFICATION_RECEIVED_PROCESSING_START);
+        Bundle bundle = convertMapToBundle(data);
+        bundle.putLong(GCMMessageHandler.PUSH_ARG_RECEIVED_AT, receivedAt);
+        if (sentTime > 0) {
+            bundle.putLong(GCMMessageHandler.PUSH_ARG_SENT_TIME, sentTime);
+        }
+        // download the avatar before taking the lock so other pushes aren't blocked while it's downloading
+        mGCMMessageHandler.prefetchLargeIcon(this, bundle);
         synchronized (GCMMessageService.class) {
-            mGCMMessageHandler.handleDefaultPush(
-                    this, convertMapToBundle(data), mAccountStore.getAccount().getUserId());
+            mGCMMessageHandler.handleDefaultPush(this, bundle, mAccountStore.getAccount().getUserId());
         }
         mSystemNotificationsTracker.track(AnalyticsTracker.Stat.NOTIFICATION_RECEIVED_PROCESSING_END);
     }
@@ -62,6 +69,7 @@ public class GCMMessageService extends FirebaseMessagingService {
 
     @Override
     public void onMessageReceived(RemoteMessage message) {
+        long receivedAt = SystemClock.elapsedRealtime();
         Map data = message.getData();
         AppLog.v(T.NOTIFS, "Received Message");
 
@@ -83,6 +91,6 @@ public class GCMMessageService extends FirebaseMessagingService {
             }
         }
 
-        synchronizedHandleDefaultPush(data);
+        synchronizedHandleDefaultPush(data, receivedAt, message.getSentTime());
     }
 }
@@ -0,0 +1,84 @@
+package org.wordpress.android.push;
+
+import androidx.annotation.Nullable;
+
+/**
+ * limits how often the group summary of push notifications is updated. an update which comes too soon after the
+ * previous one is deferred until the interval has passed, and further updates before then are coalesced into the
+ * deferred one, so a burst of pushes updates the summary once with the notifications active at the end of it.
+ * times are passed in (ex: SystemClock.elapsedRealtime()) so the throttle can be tested without a clock.
+ */
+class GroupSummaryThrottle {
+    // the summary should be shown now
+    static final int SHOW_NOW = 0;
+    // the summary was deferred, and the caller should schedule showPending() after the interval
+    static final int SCHEDULE = 1;
+    // the summary was coalesced into an update which is already scheduled
+    static final int COALESCED = 2;
+
+    static class PendingSummary {
+        final String mNoteId;
+        final String mMessage;
+
+        PendingSummary(String noteId, String message) {
+            mNoteId = noteId;
+            mMessage = message;
+        }
+    }
+
+    private final long mIntervalMs;
+    private long mLastShownTime;
+    private boolean mHasShown;
+    private boolean mIsPending;
+    private String mPendingNoteId;
+    private String mPendingMessage;
+
+    GroupSummaryThrottle(long intervalMs) {
+        mIntervalMs = intervalMs;
+    }
+
+    /*
+     * called when the summary should be updated for the passed note - returns SHOW_NOW, SCHEDULE or COALESCED
+     */
+    synchronized int onSummaryUpdate(long now, String noteId, String message) {
+        if (!mIsPending && (!mHasShown || now - mLastShownTime >= mIntervalMs)) {
+            onShown(now);
+            return SHOW_NOW;
+        }
+
+        mPendingNoteId = noteId;
+        mPendingMessage = message;
+        if (mIsPending) {
+            return COALESCED;
+        }
+        mIsPending = true;
+        return SCHEDULE;
+    }
+
+    /*
+     * called when a single notification was shown as the summary, which replaces any pending update
+     */
+    synchronized void onSingleNotificationShown(long now) {
+        mIsPending = false;
+        onShown(now);
+    }
+
+    /*
+     * called when a scheduled update runs - returns the note id & message of the latest deferred update, or null
+     * if the update is no longer needed
+     */
+    @Nullable
+    synchronized PendingSummary takePending(long now) {
+        if (!mIsPending) {
+            return null;
+        }
+        mIsPending = false;
+        onShown(now);
+        return new PendingSummary(mPendingNoteId, mPendingMessage);
+    }
+
+    private void onShown(long now) {
+        mHasShown = true;
+        mLastShownTime = now;
+    }
+}
@@ -0,0 +1,133 @@
+package org.wordpress.android.push;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.DiskLruFileCache;
+import org.wordpress.android.util.ImageUtils;
+import org.wordpress.android.util.PhotonUtils;
+import org.wordpress.android.util.StringUtils;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * two-tier (memory + disk) cache of the large icons shown in push notifications, which are usually the avatars
+ * of the people who commented on or liked a post. icons are stored after they've been resized and circularized,
+ * so a burst of pushes from the same people (ex: likes on a popular post) only downloads each avatar once, and
+ * the avatars are still cached after the app is restarted.
+ * <p>
+ * icons are downloaded on the calling thread, so they must be requested from a background thread - the push
+ * handler requests them before it takes its lock so a slow download doesn't hold up other notifications.
+ */
+class NotificationIconCache {
+    private static final long MAX_DISK_BYTES = 5 * 1024 * 1024;
+    private static final String DISK_CACHE_DIR = "notification_icons";
+
+    private static final DiskLruFileCache DISK_CACHE = new DiskLruFileCache(DISK_CACHE_DIR, MAX_DISK_BYTES, T.NOTIFS);
+    // one lock per icon so two pushes with the same avatar don't both download it
+    private static final ConcurrentHashMap<String, Object> DOWNLOAD_LOCKS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger MEMORY_HITS = new AtomicInteger();
+    private static final AtomicInteger DISK_HITS = new AtomicInteger();
+    private static final AtomicInteger DOWNLOADS = new AtomicInteger();
+
+    private NotificationIconCache() {
+        throw new AssertionError();
+    }
+
+    /*
+     * returns the large icon for the passed icon url, resized to the notification's large icon size and
+     * circularized if requested, downloading it if it isn't cached - must be called from a background thread
+     */
+    @Nullable
+    static Bitmap getIcon(@NonNull Context context, @Nullable String iconUrl, boolean shouldCircularize) {
+        String resizedUrl = getResizedIconUrl(context, iconUrl);
+        if (resizedUrl == null) {
+            return null;
+        }
+
+        String key = resizedUrl + (shouldCircularize ? "|circular" : "");
+        Bitmap icon = WordPress.getBitmapCache().get(key);
+        if (icon != null) {
+            MEMORY_HITS.incrementAndGet();
+            return icon;
+        }
+
+        // keep the lock that was created rather than reading it back from the map, since another push may have
+        // removed it from the map by then
+        Object newLock = new Object();
+        Object lock = DOWNLOAD_LOCKS.putIfAbsent(key, newLock);
+        if (lock == null) {
+            lock = newLock;
+        }
+        try {
+            synchronized (lock) {
+                // the icon may have been downloaded by another push while this one was waiting for the lock
+                icon = WordPress.getBitmapCache().get(key);
+                if (icon != null) {
+                    MEMORY_HITS.incrementAndGet();
+                    return icon;
+                }
+
+                String fileName = StringUtils.getMd5Hash(key) + ".png";
+                icon = DISK_CACHE.readBitmap(fileName);
+                if (icon != null) {
+                    DISK_HITS.incrementAndGet();
+                } else {
+                    DOWNLOADS.incrementAndGet();
+                    icon = ImageUtils.downloadBitmap(resizedUrl);
+                    if (icon != null && shouldCircularize) {
+                        icon = ImageUtils.getCircularBitmap(icon);
+                    }
+                    if (icon == null) {
+                        return null;
+                    }
+                    // png so the transparent corners of circularized icons are kept
+                    DISK_CACHE.writeBitmap(fileName, icon, Bitmap.CompressFormat.PNG, 100);
+                }
+                WordPress.getBitmapCache().put(key, icon);
+                return icon;
+            }
+        } finally {
+            DOWNLOAD_LOCKS.remove(key, lock);
+        }
+    }
+
+    static int getMemoryHitCount() {
+        return MEMORY_HITS.get();
+    }
+
+    static int getDiskHitCount() {
+        return DISK_HITS.get();
+    }
+
+    static int getDownloadCount() {
+        return DOWNLOADS.get();
+    }
+
+    @Nullable
+    private static String getResizedIconUrl(@NonNull Context context, @Nullable String iconUrl) {
+        if (TextUtils.isEmpty(iconUrl)) {
+            return null;
+        }
+        try {
+            String decodedUrl = URLDecoder.decode(iconUrl, "UTF-8");
+            int largeIconSize = context.getResources().getDimensionPixelSize(
+                    android.R.dimen.notification_large_icon_height);
+            return PhotonUtils.getPhotonImageUrl(decodedUrl, largeIconSize, largeIconSize);
+        } catch (UnsupportedEncodingException e) {
+            AppLog.e(T.NOTIFS, e);
+            return null;
+        }
+    }
+}
@@ -41,7 +41,6 @@ import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.analytics.AnalyticsTracker.Stat;
 import org.wordpress.android.datasets.NotificationsTable;
 import org.wordpress.android.datasets.ReaderPostTable;
-import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.action.CommentAction;
 import org.wordpress.android.fluxc.generated.CommentActionBuilder;
@@ -58,7 +57,6 @@ import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.fluxc.tools.FluxCImageLoader;
 import org.wordpress.android.models.Note;
 import org.wordpress.android.models.Note.EnabledActions;
-import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.ui.ActivityId;
 import org.wordpress.android.ui.CollapseFullScreenDialogFragment;
 import org.wordpress.android.ui.CollapseFullScreenDialogFragment.Builder;
@@ -76,6 +74,7 @@ import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.actions.ReaderPostActions;
 import org.wordpress.android.ui.suggestion.adapters.SuggestionAdapter;
 import org.wordpress.android.ui.suggestion.service.SuggestionEvents;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.ui.suggestion.util.SuggestionServiceConnectionManager;
 import org.wordpress.android.ui.suggestion.util.SuggestionUtils;
 import org.wordpress.android.util.AniUtils;
@@ -97,7 +96,6 @@ import org.wordpress.android.util.image.ImageType;
 import org.wordpress.android.widgets.SuggestionAutoCompleteText;
 
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -627,8 +625,13 @@ public class CommentDetailFragment extends Fragment implements NotificationFragm
         // check if the updated suggestions are for the current blog and update the suggestions
         if (event.mRemoteBlogId != 0 && mSite != null
             && event.mRemoteBlogId == mSite.getSiteId() && mSuggestionAdapter != null) {
-            List<Suggestion> suggestions = SuggestionTable.getSuggestionsForSite(event.mRemoteBlogId);
-            mSuggestionAdapter.setSuggestionList(suggestions);
+            final SuggestionAdapter suggestionAdapter = mSuggestionAdapter;
+            SuggestionIndex.getIndexForSite(event.mRemoteBlogId, new SuggestionIndex.IndexListener() {
+                @Override
+                public void onIndexReady(@NonNull SuggestionIndex index) {
+                    suggestionAdapter.setSuggestionIndex(index);
+                }
+            });
         }
     }
 
@@ -16,6 +16,9 @@ import android.widget.TextView;
 
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.wordpress.android.R;
@@ -37,8 +40,10 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
@@ -86,6 +91,13 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     private boolean mShowSelfHostedSites = true;
     private String mLastSearch;
     private SiteList mAllSites;
+
+    // searches run one at a time off the main thread, and a search is skipped when a newer one has been started
+    private static final Executor SEARCH_EXECUTOR = Executors.newSingleThreadExecutor();
+    private final AtomicInteger mSearchGeneration = new AtomicInteger();
+    // rebuilt each time the sites are loaded - only accessed on the main thread
+    private SiteSearchIndex mSearchIndex = new SiteSearchIndex(new SiteList());
+    private SiteSearchIndex.Result mLastSearchResult;
     private ArrayList<Integer> mIgnoreSitesIds;
 
     private OnSiteClickListener mSiteSelectedListener;
@@ -365,9 +377,27 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
     public void searchSites(String searchText) {
         mLastSearch = searchText;
-        mSites = filteredSitesByText(mAllSites);
+        new SearchSitesTask(mSearchIndex, mLastSearchResult, mSites, mSearchGeneration.incrementAndGet())
+                .executeOnExecutor(SEARCH_EXECUTOR, StringUtils.notNullStr(searchText));
+    }
 
-        notifyDataSetChanged();
+    /*
+     * replaces the displayed sites with the passed ones, using the passed diff (which must have been calculated
+     * from the displayed sites) to animate only the sites which changed
+     */
+    private void setSites(@NonNull SiteList sites, @Nullable DiffUtil.DiffResult diffResult) {
+        SiteList oldSites = mSites;
+        mSites = sites;
+        if (diffResult == null) {
+            notifyDataSetChanged();
+            return;
+        }
+
+        diffResult.dispatchUpdatesTo(new OffsetListUpdateCallback(getPositionOffset()));
+        if (mHeaderHandler != null && oldSites.size() != sites.size()) {
+            // the header is passed the list of sites when it's bound
+            notifyItemChanged(0);
+        }
     }
 
     private boolean isValidPosition(int position) {
@@ -534,38 +564,64 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         new LoadSitesTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
-    private SiteList filteredSitesByTextIfInSearchMode(SiteList sites) {
-        if (!mIsInSearchMode) {
-            return sites;
-        } else {
-            return filteredSitesByText(sites);
-        }
-    }
+    /*
+     * AsyncTask which searches the sites in the search index, and updates the adapter with the sites which
+     * match unless a newer search was started or the sites were reloaded while it was running
+     */
+    private class SearchSitesTask extends AsyncTask<String, Void, SiteSearchIndex.Result> {
+        private final SiteSearchIndex mIndex;
+        private final SiteSearchIndex.Result mPreviousResult;
+        private final SiteList mOldSites;
+        private final int mGeneration;
+        private DiffUtil.DiffResult mDiffResult;
 
-    private SiteList filteredSitesByText(SiteList sites) {
-        SiteList filteredSiteList = new SiteList();
+        SearchSitesTask(@NonNull SiteSearchIndex index, @Nullable SiteSearchIndex.Result previousResult,
+                        @NonNull SiteList oldSites, int generation) {
+            mIndex = index;
+            mPreviousResult = previousResult;
+            mOldSites = oldSites;
+            mGeneration = generation;
+        }
 
-        for (int i = 0; i < sites.size(); i++) {
-            SiteRecord record = sites.get(i);
-            String siteNameLowerCase = record.mBlogName.toLowerCase(Locale.getDefault());
-            String hostNameLowerCase = record.mHomeURL.toLowerCase(Locale.ROOT);
+        private boolean isStale() {
+            return mGeneration != mSearchGeneration.get();
+        }
 
-            if (siteNameLowerCase.contains(mLastSearch.toLowerCase(Locale.getDefault())) || hostNameLowerCase
-                    .contains(mLastSearch.toLowerCase(Locale.ROOT))) {
-                filteredSiteList.add(record);
+        @Override
+        protected SiteSearchIndex.Result doInBackground(String... params) {
+            if (isStale()) {
+                return null;
             }
+            SiteSearchIndex.Result result = mIndex.search(params[0], mPreviousResult);
+            mDiffResult = DiffUtil.calculateDiff(new SiteDiffCallback(mOldSites, result.getSites()));
+            return result;
         }
 
-        return filteredSiteList;
+        @Override
+        protected void onPostExecute(SiteSearchIndex.Result result) {
+            if (result == null || isStale() || mIndex != mSearchIndex) {
+                return;
+            }
+            mLastSearchResult = result;
+            setSites(result.getSites(), mOldSites == mSites ? mDiffResult : null);
+        }
     }
 
     /*
      * AsyncTask which loads sites from database and populates the adapter
      */
     private class LoadSitesTask extends AsyncTask<Void, Void, SiteList[]> {
+        private SiteList mOldSites;
+        private String mSearchQuery;
+        private SiteSearchIndex mIndex;
+        private SiteSearchIndex.Result mSearchResult;
+        private DiffUtil.DiffResult mDiffResult;
+
         @Override
         protected void onPreExecute() {
             super.onPreExecute();
+            mOldSites = mSites;
+            mSearchQuery = StringUtils.notNullStr(mLastSearch);
             if (mDataLoadedListener != null) {
                 boolean isEmpty = mSites == null || mSites.size() == 0;
                 mDataLoadedListener.onBeforeLoad(isEmpty);
@@ -628,9 +684,17 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
                 }
             }
 
-            if (mSites == null || !mSites.isSameList(sites)) {
+            if (mOldSites == null || !mOldSites.isSameList(sites)) {
                 SiteList allSites = (SiteList) sites.clone();
-                SiteList filteredSites = filteredSitesByTextIfInSearchMode(sites);
+                SiteList filteredSites = sites;
+                mIndex = new SiteSearchIndex(allSites);
+                if (mIsInSearchMode) {
+                    mSearchResult = mIndex.search(mSearchQuery, null);
+                    filteredSites = mSearchResult.getSites();
+                }
+                if (mOldSites != null) {
+                    mDiffResult = DiffUtil.calculateDiff(new SiteDiffCallback(mOldSites, filteredSites));
+                }
 
                 return new SiteList[]{allSites, filteredSites};
             }
@@ -642,8 +706,15 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         protected void onPostExecute(SiteList[] updatedSiteLists) {
             if (updatedSiteLists != null) {
                 mAllSites = updatedSiteLists[0];
-                mSites = updatedSiteLists[1];
-                notifyDataSetChanged();
+                mSearchIndex = mIndex;
+                mLastSearchResult = mSearchResult;
+                // searches started while the sites were loading searched the old index, so they're dropped
+                // and the latest query is searched again if it changed while loading
+                mSearchGeneration.incrementAndGet();
+                setSites(updatedSiteLists[1], mOldSites == mSites ? mDiffResult : null);
+                if (mIsInSearchMode && !mSearchQuery.equals(StringUtils.notNullStr(mLastSearch))) {
+                    searchSites(mLastSearch);
+                }
             }
             if (mDataLoadedListener != null) {
                 mDataLoadedListener.onAfterLoad();
@@ -669,6 +740,77 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         }
     }
 
+    /*
+     * sites are the same if they have the same local id, and their contents are the same if they're displayed
+     * the same way
+     */
+    private static class SiteDiffCallback extends DiffUtil.Callback {
+        private final SiteList mOldSites;
+        private final SiteList mNewSites;
+
+        SiteDiffCallback(@NonNull SiteList oldSites, @NonNull SiteList newSites) {
+            mOldSites = oldSites;
+            mNewSites = newSites;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldSites.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewSites.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldSites.get(oldItemPosition).mLocalId == mNewSites.get(newItemPosition).mLocalId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            SiteRecord oldSite = mOldSites.get(oldItemPosition);
+            SiteRecord newSite = mNewSites.get(newItemPosition);
+            return oldSite.mIsHidden == newSite.mIsHidden
+                   && oldSite.mIsRecentPick == newSite.mIsRecentPick
+                   && TextUtils.equals(oldSite.mBlogName, newSite.mBlogName)
+                   && TextUtils.equals(oldSite.mHomeURL, newSite.mHomeURL)
+                   && TextUtils.equals(oldSite.mBlavatarUrl, newSite.mBlavatarUrl);
+        }
+    }
+
+    /*
+     * dispatches the changes to the list of sites to the adapter, offset by the header if there is one
+     */
+    private class OffsetListUpdateCallback implements ListUpdateCallback {
+        private final int mOffset;
+
+        OffsetListUpdateCallback(int offset) {
+            mOffset = offset;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position + mOffset, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position + mOffset, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition + mOffset, toPosition + mOffset);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position + mOffset, count, payload);
+        }
+    }
+
     /**
      * SiteRecord is a simplified version of the full account (blog) record
      */
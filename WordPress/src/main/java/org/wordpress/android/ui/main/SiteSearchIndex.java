@@ -0,0 +1,97 @@
+package org.wordpress.android.ui.main;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.ui.main.SitePickerAdapter.SiteList;
+import org.wordpress.android.ui.main.SitePickerAdapter.SiteRecord;
+import org.wordpress.android.util.SearchTextUtils;
+
+import java.util.List;
+
+/**
+ * normalized copy of the names and hosts of a list of sites which is built once each time the site picker loads
+ * its sites, so searching the sites doesn't lowercase every name and host again for each character the user
+ * types. names and hosts are lowercased and have their accents removed so "cafe" matches "Café".
+ * <p>
+ * results remember the query which produced them, so when the user adds to the end of the query only the sites
+ * which matched the shorter query are searched again. the index is immutable so it can be searched from a
+ * background thread.
+ */
+class SiteSearchIndex {
+    static class Result {
+        private final SiteSearchIndex mIndex;
+        private final String mNormalizedQuery;
+        // positions in the index of the sites which matched the query
+        private final int[] mMatches;
+        private final SiteList mSites;
+
+        private Result(@NonNull SiteSearchIndex index, @NonNull String normalizedQuery, @NonNull int[] matches,
+                       @NonNull SiteList sites) {
+            mIndex = index;
+            mNormalizedQuery = normalizedQuery;
+            mMatches = matches;
+            mSites = sites;
+        }
+
+        @NonNull
+        SiteList getSites() {
+            return mSites;
+        }
+    }
+
+    private final SiteRecord[] mSites;
+    private final String[] mNames;
+    private final String[] mHosts;
+
+    SiteSearchIndex(@NonNull List<SiteRecord> sites) {
+        int count = sites.size();
+        mSites = sites.toArray(new SiteRecord[count]);
+        mNames = new String[count];
+        mHosts = new String[count];
+        for (int i = 0; i < count; i++) {
+            mNames[i] = SearchTextUtils.normalize(mSites[i].getBlogNameOrHomeURL());
+            mHosts[i] = SearchTextUtils.normalize(mSites[i].getHomeURL());
+        }
+    }
+
+    /*
+     * returns the sites whose name or host contains the passed query. pass the result of the previous search
+     * so a query which extends the previous one only searches the sites which matched it
+     */
+    @NonNull
+    Result search(@NonNull String query, @Nullable Result previous) {
+        String normalizedQuery = SearchTextUtils.normalize(query);
+
+        int[] candidates;
+        int candidateCount;
+        if (previous != null && previous.mIndex == this && normalizedQuery.startsWith(previous.mNormalizedQuery)) {
+            // a site which doesn't contain the previous query can't contain a longer one
+            if (normalizedQuery.equals(previous.mNormalizedQuery)) {
+                return previous;
+            }
+            candidates = previous.mMatches;
+            candidateCount = candidates.length;
+        } else {
+            candidates = null;
+            candidateCount = mSites.length;
+        }
+
+        int[] matches = new int[candidateCount];
+        int matchCount = 0;
+        SiteList sites = new SiteList();
+        for (int i = 0; i < candidateCount; i++) {
+            int position = candidates != null ? candidates[i] : i;
+            if (normalizedQuery.isEmpty()
+                || mNames[position].contains(normalizedQuery)
+                || mHosts[position].contains(normalizedQuery)) {
+                matches[matchCount++] = position;
+                sites.add(mSites[position]);
+            }
+        }
+
+        int[] trimmedMatches = new int[matchCount];
+        System.arraycopy(matches, 0, trimmedMatches, 0, matchCount);
+        return new Result(this, normalizedQuery, trimmedMatches, sites);
+    }
+}
@@ -28,7 +28,6 @@ import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.ColorUtils;
 import org.wordpress.android.util.DisplayUtils;
-import org.wordpress.android.util.ImageUtils;
 import org.wordpress.android.util.MediaUtils;
 import org.wordpress.android.util.PhotoPickerUtils;
 import org.wordpress.android.util.PhotonUtils;
@@ -45,6 +44,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
@@ -59,7 +59,6 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
     private boolean mInMultiSelect;
     private boolean mLoadThumbnails = true;
 
-    private final Handler mHandler;
     private final LayoutInflater mInflater;
 
     private final Context mContext;
@@ -70,6 +69,8 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
 
     private final int mThumbWidth;
     private final int mThumbHeight;
+    private final int mPrefetchCount;
+    private int mPrefetchedPosition = INVALID_POSITION;
 
     private static final float SCALE_NORMAL = 1.0f;
     private static final float SCALE_SELECTED = .8f;
@@ -99,11 +100,14 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
         mSite = site;
         mBrowserType = browserType;
         mInflater = LayoutInflater.from(context);
-        mHandler = new Handler();
 
         int displayWidth = DisplayUtils.getDisplayPixelWidth(mContext);
         mThumbWidth = displayWidth / getColumnCount(mContext);
         mThumbHeight = (int) (mThumbWidth * 0.75f);
+
+        // prefetch video thumbnails for roughly the next screen of items
+        int rowsPerScreen = DisplayUtils.getDisplayPixelHeight(mContext) / mThumbHeight + 1;
+        mPrefetchCount = rowsPerScreen * getColumnCount(mContext);
     }
 
     @Override
@@ -115,6 +119,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
         if (!isSameList(mediaList)) {
             mMediaList.clear();
             mMediaList.addAll(mediaList);
+            mPrefetchedPosition = INVALID_POSITION;
             notifyDataSetChanged();
         }
     }
@@ -183,7 +188,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
             }
         } else if (media.isVideo()) {
             holder.mFileContainer.setVisibility(View.GONE);
-            loadVideoThumbnail(position, media, holder.mImageView);
+            loadVideoThumbnail(position, media, holder);
         } else {
             // not an image or video, so show file name and file type
             String fileName = media.getFileName();
@@ -253,12 +258,17 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
             && mCallback != null) {
             mCallback.onAdapterFetchMoreData();
         }
+
+        if (mLoadThumbnails) {
+            prefetchVideoThumbnails(position);
+        }
     }
 
     @Override
     public void onViewRecycled(GridViewHolder holder) {
         super.onViewRecycled(holder);
         holder.mImageView.setTag(R.id.media_grid_file_path_id, null);
+        cancelVideoThumbnailRequest(holder);
     }
 
     public ArrayList<Integer> getSelectedItems() {
@@ -284,6 +294,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
         private final ViewGroup mRetryDeleteContainer;
         private final ImageView mImgRetry;
         private final ImageView mImgTrash;
+        private Future<?> mVideoThumbnailRequest;
 
         GridViewHolder(View view) {
             super(view);
@@ -455,53 +466,83 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
      * loads the thumbnail for the passed video media item - works with both local and network videos
      */
     private void loadVideoThumbnail(final int position, final @NonNull MediaModel media,
-                                    @NonNull final ImageView imageView) {
+                                    @NonNull final GridViewHolder holder) {
+        final ImageView imageView = holder.mImageView;
+        cancelVideoThumbnailRequest(holder);
+
         // if we have a thumbnail url, use it and be done
-        if (!TextUtils.isEmpty(media.getThumbnailUrl()) && !MediaUtils.isVideo(media.getThumbnailUrl())) {
+        if (hasVideoThumbnailUrl(media)) {
             mImageManager.load(imageView, ImageType.VIDEO, media.getThumbnailUrl(), ScaleType.CENTER_CROP);
             return;
         }
 
-        // thumbnail url is empty, so either this is a local (still uploading) video or the server simply
-        // hasn't supplied the thumbnail url
-        final String filePath;
-        if (!TextUtils.isEmpty(media.getFilePath()) && new File(media.getFilePath()).exists()) {
-            filePath = media.getFilePath();
-        } else {
-            filePath = media.getUrl();
-        }
-
+        final String filePath = getVideoFilePath(media);
         if (TextUtils.isEmpty(filePath)) {
             AppLog.w(AppLog.T.MEDIA, "MediaGridAdapter > No path to video thumbnail");
             return;
         }
         imageView.setTag(R.id.media_grid_file_path_id, filePath);
         // see if we have a cached thumbnail before retrieving it
-        Bitmap bitmap = WordPress.getBitmapCache().get(filePath);
+        String key = VideoThumbnailCache.getKey(filePath, mThumbWidth);
+        Bitmap bitmap = VideoThumbnailCache.getFromMemory(key);
         if (bitmap != null) {
             mImageManager.load(imageView, bitmap, ScaleType.CENTER_CROP);
             return;
         }
 
-        new Thread() {
-            @Override
-            public void run() {
-                final Bitmap thumb = ImageUtils.getVideoFrameFromVideo(filePath, mThumbWidth);
-                if (thumb != null) {
-                    mHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            WordPress.getBitmapCache().put(filePath, thumb);
-                            if (imageView.getTag(R.id.media_grid_file_path_id) instanceof String
-                                && (imageView.getTag(R.id.media_grid_file_path_id)).equals(filePath)) {
-                                imageView.setTag(R.id.media_grid_file_path_id, null);
-                                notifyItemChanged(position);
-                            }
+        holder.mVideoThumbnailRequest = VideoThumbnailCache.load(filePath, key, mThumbWidth,
+                new VideoThumbnailCache.Callback() {
+                    @Override
+                    public void onThumbnailLoaded(@NonNull Bitmap thumbnail) {
+                        holder.mVideoThumbnailRequest = null;
+                        if (filePath.equals(imageView.getTag(R.id.media_grid_file_path_id))) {
+                            imageView.setTag(R.id.media_grid_file_path_id, null);
+                            int adapterPosition = holder.getAdapterPosition();
+                            notifyItemChanged(adapterPosition != RecyclerView.NO_POSITION ? adapterPosition : position);
                         }
-                    });
+                    }
+                });
+    }
+
+    private void cancelVideoThumbnailRequest(@NonNull GridViewHolder holder) {
+        if (holder.mVideoThumbnailRequest != null) {
+            holder.mVideoThumbnailRequest.cancel(false);
+            holder.mVideoThumbnailRequest = null;
+        }
+    }
+
+    /*
+     * queues the thumbnails of the videos in the screen of items following the passed position so they're
+     * usually cached by the time they're scrolled into view
+     */
+    private void prefetchVideoThumbnails(int position) {
+        int start = Math.max(position + 1, mPrefetchedPosition + 1);
+        int end = Math.min(position + mPrefetchCount, getItemCount() - 1);
+        for (int i = start; i <= end; i++) {
+            MediaModel media = mMediaList.get(i);
+            if (media.isVideo() && !hasVideoThumbnailUrl(media)) {
+                String filePath = getVideoFilePath(media);
+                if (!TextUtils.isEmpty(filePath)) {
+                    VideoThumbnailCache.prefetch(filePath, mThumbWidth);
                 }
             }
-        }.start();
+        }
+        mPrefetchedPosition = Math.max(mPrefetchedPosition, end);
+    }
+
+    private static boolean hasVideoThumbnailUrl(@NonNull MediaModel media) {
+        return !TextUtils.isEmpty(media.getThumbnailUrl()) && !MediaUtils.isVideo(media.getThumbnailUrl());
+    }
+
+    /*
+     * returns the path to extract the thumbnail from for a video without a thumbnail url, which is either a
+     * local (still uploading) video or one the server simply hasn't supplied the thumbnail url for
+     */
+    private static String getVideoFilePath(@NonNull MediaModel media) {
+        if (!TextUtils.isEmpty(media.getFilePath()) && new File(media.getFilePath()).exists()) {
+            return media.getFilePath();
+        }
+        return media.getUrl();
     }
 
     public boolean isEmpty() {
@@ -0,0 +1,190 @@
+package org.wordpress.android.ui.media;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.DiskLruFileCache;
+import org.wordpress.android.util.ImageUtils;
+import org.wordpress.android.util.StringUtils;
+
+import java.io.File;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * two-tier (memory + disk) cache of the frames extracted from videos to show as their thumbnails in the media
+ * grid, so the frames aren't extracted again after they leave the memory cache or the app is restarted.
+ * entries are keyed by the video's path along with the thumbnail width and the file's modification time, so a
+ * local video which changes (ex: after being optimized) won't match an old entry.
+ * <p>
+ * frames are extracted on a small pool of decoder threads. requests for visible thumbnails are run before
+ * older requests and prefetches, and can be canceled when the view they were for is recycled.
+ */
+public class VideoThumbnailCache {
+    public interface Callback {
+        void onThumbnailLoaded(@NonNull Bitmap thumbnail);
+    }
+
+    private static final int DECODER_THREADS = 2;
+    private static final long MAX_DISK_BYTES = 20 * 1024 * 1024;
+    private static final int JPEG_QUALITY = 85;
+    private static final String DISK_CACHE_DIR = "video_thumbnails";
+
+    private static final DiskLruFileCache DISK_CACHE =
+            new DiskLruFileCache(DISK_CACHE_DIR, MAX_DISK_BYTES, AppLog.T.MEDIA);
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private static final AtomicInteger MEMORY_HITS = new AtomicInteger();
+    private static final AtomicInteger DISK_HITS = new AtomicInteger();
+    private static final AtomicInteger MISSES = new AtomicInteger();
+
+    // visible thumbnails are added to the front of the queue so the most recently bound ones are decoded
+    // first, while prefetches are added to the back
+    private static final LinkedBlockingDeque<Runnable> DECODER_QUEUE = new LinkedBlockingDeque<Runnable>() {
+        @Override
+        public boolean offer(@NonNull Runnable runnable) {
+            if (runnable instanceof PrefetchTask) {
+                return offerLast(runnable);
+            }
+            return offerFirst(runnable);
+        }
+    };
+
+    private static final ThreadPoolExecutor DECODER_POOL = new ThreadPoolExecutor(DECODER_THREADS, DECODER_THREADS,
+            30, TimeUnit.SECONDS, DECODER_QUEUE, new ThreadFactory() {
+                private final AtomicInteger mThreadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "VideoThumbnailDecoder-" + mThreadCount.incrementAndGet());
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+
+    static {
+        DECODER_POOL.allowCoreThreadTimeOut(true);
+    }
+
+    private static class PrefetchTask extends FutureTask<Void> {
+        PrefetchTask(@NonNull Runnable runnable) {
+            super(runnable, null);
+        }
+    }
+
+    private VideoThumbnailCache() {
+        throw new AssertionError();
+    }
+
+    /*
+     * returns the cache key for the thumbnail of the passed video at the passed width
+     */
+    @NonNull
+    public static String getKey(@NonNull String videoPath, int maxWidth) {
+        File file = new File(videoPath);
+        long modified = file.exists() ? file.lastModified() : 0;
+        return videoPath + "|" + maxWidth + "|" + modified;
+    }
+
+    /*
+     * returns the thumbnail with the passed key if it's in the memory cache - safe to call on the main thread
+     */
+    @Nullable
+    public static Bitmap getFromMemory(@NonNull String key) {
+        Bitmap bitmap = WordPress.getBitmapCache().get(key);
+        if (bitmap != null) {
+            MEMORY_HITS.incrementAndGet();
+        }
+        return bitmap;
+    }
+
+    /*
+     * loads the thumbnail from the disk cache or extracts it from the video on a decoder thread, and passes it
+     * to the callback on the main thread. the returned request can be canceled if the thumbnail is no longer
+     * needed (ex: the view was recycled)
+     */
+    @NonNull
+    public static Future<?> load(@NonNull final String videoPath, @NonNull final String key, final int maxWidth,
+                                 @NonNull final Callback callback) {
+        return DECODER_POOL.submit(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap thumbnail = getOrExtract(videoPath, key, maxWidth);
+                if (thumbnail != null) {
+                    MAIN_HANDLER.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onThumbnailLoaded(thumbnail);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /*
+     * loads the thumbnail into the memory cache in the background so it's ready when its view is bound
+     */
+    public static void prefetch(@NonNull final String videoPath, final int maxWidth) {
+        DECODER_POOL.execute(new PrefetchTask(new Runnable() {
+            @Override
+            public void run() {
+                String key = getKey(videoPath, maxWidth);
+                if (WordPress.getBitmapCache().get(key) == null) {
+                    getOrExtract(videoPath, key, maxWidth);
+                }
+            }
+        }));
+    }
+
+    public static int getMemoryHitCount() {
+        return MEMORY_HITS.get();
+    }
+
+    public static int getDiskHitCount() {
+        return DISK_HITS.get();
+    }
+
+    public static int getMissCount() {
+        return MISSES.get();
+    }
+
+    @Nullable
+    private static Bitmap getOrExtract(@NonNull String videoPath, @NonNull String key, int maxWidth) {
+        // the thumbnail may have been loaded by another request since this one was queued
+        Bitmap thumbnail = WordPress.getBitmapCache().get(key);
+        if (thumbnail != null) {
+            return thumbnail;
+        }
+
+        String fileName = getDiskCacheFileName(key);
+        thumbnail = DISK_CACHE.readBitmap(fileName);
+        if (thumbnail != null) {
+            DISK_HITS.incrementAndGet();
+        } else {
+            MISSES.incrementAndGet();
+            thumbnail = ImageUtils.getVideoFrameFromVideo(videoPath, maxWidth);
+            if (thumbnail == null) {
+                return null;
+            }
+            DISK_CACHE.writeBitmap(fileName, thumbnail, Bitmap.CompressFormat.JPEG, JPEG_QUALITY);
+        }
+        WordPress.getBitmapCache().put(key, thumbnail);
+        return thumbnail;
+    }
+
+    private static String getDiskCacheFileName(@NonNull String key) {
+        return StringUtils.getMd5Hash(key) + ".jpg";
+    }
+}
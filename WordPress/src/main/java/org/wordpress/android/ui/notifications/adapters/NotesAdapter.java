@@ -24,6 +24,7 @@ import org.wordpress.android.models.NoticonUtils;
 import org.wordpress.android.ui.comments.CommentUtils;
 import org.wordpress.android.ui.notifications.NotificationsListFragmentPage.OnNoteClickListener;
 import org.wordpress.android.ui.notifications.blocks.NoteBlockClickableSpan;
+import org.wordpress.android.ui.notifications.utils.NoteSubjectCache;
 import org.wordpress.android.ui.notifications.utils.NotificationsUtilsWrapper;
 import org.wordpress.android.util.GravatarUtils;
 import org.wordpress.android.util.RtlUtils;
@@ -244,11 +245,9 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
             commentStatus = CommentStatus.fromString(note.getLocalStatus());
         }
 
-        // Subject is stored in db as html to preserve text formatting
-        Spanned noteSubjectSpanned = note.getFormattedSubject(mNotificationsUtilsWrapper);
-        // Trim the '\n\n' added by Html.fromHtml()
-        noteSubjectSpanned =
-                (Spanned) noteSubjectSpanned.subSequence(0, TextUtils.getTrimmedLength(noteSubjectSpanned));
+        // Subject is stored in db as html to preserve text formatting, formatting it is cached since it's
+        // costly to repeat on every bind while scrolling
+        Spanned noteSubjectSpanned = NoteSubjectCache.getFormattedSubject(note, mNotificationsUtilsWrapper);
 
         NoteBlockClickableSpan[] spans =
                 noteSubjectSpanned.getSpans(0, noteSubjectSpanned.length(), NoteBlockClickableSpan.class);
@@ -342,7 +341,10 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     private class ReloadNotesFromDBTask extends AsyncTask<Void, Void, ArrayList<Note>> {
         @Override
         protected ArrayList<Note> doInBackground(Void... voids) {
-            return NotificationsTable.getLatestNotes();
+            ArrayList<Note> notes = NotificationsTable.getLatestNotes();
+            // format the subjects here rather than on the main thread when the notes are bound
+            NoteSubjectCache.prewarm(notes, mNotificationsUtilsWrapper);
+            return notes;
         }
 
         @Override
@@ -7,6 +7,7 @@ import com.android.volley.VolleyError;
 import com.wordpress.rest.RestRequest;
 
 import org.greenrobot.eventbus.EventBus;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.WordPress;
@@ -15,16 +16,21 @@ import org.wordpress.android.models.Note;
 import org.wordpress.android.networking.RestClientUtils;
 import org.wordpress.android.ui.notifications.NotificationEvents;
 import org.wordpress.android.ui.notifications.utils.NotificationsActions;
-import org.wordpress.android.ui.notifications.utils.NotificationsUtils;
 import org.wordpress.android.util.AppLog;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class NotificationsUpdateLogic {
+    private static final String NOTE_HASH_FIELDS = "id,note_hash";
+    private static final String NOTE_FIELDS = RestClientUtils.NOTIFICATION_FIELDS + ",note_hash";
+
     private ServiceCompletionListener mCompletionListener;
     private Object mListenerCompanion;
 
@@ -46,18 +52,98 @@ public class NotificationsUpdateLogic {
         mRunning = true;
         mNoteId = noteId;
         mIsStartedByTappingOnNotification = isStartedByTappingOnNotification;
+
+        // first fetch only the id and hash of each note so we can tell which notes changed since the last sync
+        Map<String, String> params = getRequestParams();
+        params.put("number", Integer.toString(NotificationsTable.NOTES_TO_RETRIEVE));
+        params.put("fields", NOTE_HASH_FIELDS);
+        NoteHashesListener listener = new NoteHashesListener();
+        WordPress.getRestClientUtilsV1_1().getNotifications(params, listener, listener);
+    }
+
+    private Map<String, String> getRequestParams() {
         Map<String, String> params = new HashMap<>();
-        params.put("number", "200");
-        params.put("num_note_items", "20");
-        params.put("fields", RestClientUtils.NOTIFICATION_FIELDS);
         if (!TextUtils.isEmpty(mLocale)) {
             params.put("locale", mLocale.toLowerCase(Locale.ENGLISH));
         }
-        RestListener listener = new RestListener();
+        return params;
+    }
+
+    private void fetchChangedNotes(List<String> changedNoteIds, Set<String> removedNoteIds, int unchangedCount) {
+        Map<String, String> params = getRequestParams();
+        params.put("ids", TextUtils.join(",", changedNoteIds));
+        params.put("number", Integer.toString(changedNoteIds.size()));
+        params.put("num_note_items", "20");
+        params.put("fields", NOTE_FIELDS);
+        ChangedNotesListener listener = new ChangedNotesListener(removedNoteIds, unchangedCount);
         WordPress.getRestClientUtilsV1_1().getNotifications(params, listener, listener);
     }
 
-    private class RestListener implements RestRequest.Listener, RestRequest.ErrorListener {
+    private class NoteHashesListener implements RestRequest.Listener, RestRequest.ErrorListener {
+        @Override
+        public void onResponse(final JSONObject response) {
+            if (response == null) {
+                // Not sure this could ever happen, but make sure we're catching all response types
+                AppLog.w(AppLog.T.NOTIFS, "Success, but did not receive any note hashes");
+                EventBus.getDefault().post(
+                        new NotificationEvents.NotificationsRefreshCompleted(new ArrayList<Note>(0)));
+                completed();
+                return;
+            }
+
+            Map<String, String> remoteNoteHashes;
+            try {
+                remoteNoteHashes = parseNoteHashes(response);
+            } catch (JSONException e) {
+                AppLog.e(AppLog.T.NOTIFS, "Success, but can't parse the note hashes", e);
+                EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshError());
+                completed();
+                return;
+            }
+
+            Map<String, String> localNoteHashes = NotificationsTable.getNoteHashes();
+            List<String> changedNoteIds = new ArrayList<>();
+            int unchangedCount = 0;
+            for (Map.Entry<String, String> entry : remoteNoteHashes.entrySet()) {
+                String localHash = localNoteHashes.get(entry.getKey());
+                if (TextUtils.isEmpty(entry.getValue()) || !entry.getValue().equals(localHash)) {
+                    changedNoteIds.add(entry.getKey());
+                } else {
+                    unchangedCount++;
+                }
+            }
+            Set<String> removedNoteIds = new HashSet<>(localNoteHashes.keySet());
+            removedNoteIds.removeAll(remoteNoteHashes.keySet());
+
+            if (changedNoteIds.isEmpty()) {
+                NotificationsTable.saveNoteChanges(new ArrayList<Note>(0), removedNoteIds);
+                setStoredNoteReadIfNeeded();
+                logSyncStats(0, unchangedCount, removedNoteIds.size());
+                EventBus.getDefault().post(
+                        new NotificationEvents.NotificationsRefreshCompleted(NotificationsTable.getLatestNotes()));
+                completed();
+            } else {
+                fetchChangedNotes(changedNoteIds, removedNoteIds, unchangedCount);
+            }
+        }
+
+        @Override
+        public void onErrorResponse(final VolleyError volleyError) {
+            logVolleyErrorDetails(volleyError);
+            EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshError(volleyError));
+            completed();
+        }
+    }
+
+    private class ChangedNotesListener implements RestRequest.Listener, RestRequest.ErrorListener {
+        private final Set<String> mRemovedNoteIds;
+        private final int mUnchangedCount;
+
+        ChangedNotesListener(Set<String> removedNoteIds, int unchangedCount) {
+            mRemovedNoteIds = removedNoteIds;
+            mUnchangedCount = unchangedCount;
+        }
+
         @Override
         public void onResponse(final JSONObject response) {
             List<Note> notes;
@@ -69,13 +155,11 @@ public class NotificationsUpdateLogic {
             } else {
                 try {
                     notes = NotificationsActions.parseNotes(response);
-                    // if we have a note id, we were started from NotificationsDetailActivity.
-                    // That means we need to re-set the *read* flag on this note.
-                    if (mIsStartedByTappingOnNotification && mNoteId != null) {
-                        setNoteRead(mNoteId, notes);
-                    }
-                    NotificationsTable.saveNotes(notes, true);
-                    EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshCompleted(notes));
+                    NotificationsTable.saveNoteChanges(notes, mRemovedNoteIds);
+                    setStoredNoteReadIfNeeded();
+                    logSyncStats(notes.size(), mUnchangedCount, mRemovedNoteIds.size());
+                    EventBus.getDefault().post(
+                            new NotificationEvents.NotificationsRefreshCompleted(NotificationsTable.getLatestNotes()));
                 } catch (JSONException e) {
                     AppLog.e(AppLog.T.NOTIFS, "Success, but can't parse the response", e);
                     EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshError());
@@ -92,10 +176,44 @@ public class NotificationsUpdateLogic {
         }
     }
 
-    private void setNoteRead(String noteId, List<Note> notes) {
-        int notePos = NotificationsUtils.findNoteInNoteArray(notes, noteId);
-        if (notePos != -1) {
-            notes.get(notePos).setRead();
+    /*
+     * returns the hash of each note in the response keyed by note id, preserving the server's order
+     */
+    private static Map<String, String> parseNoteHashes(JSONObject response) throws JSONException {
+        JSONArray notesJSON = response.getJSONArray("notes");
+        Map<String, String> noteHashes = new LinkedHashMap<>(notesJSON.length());
+        for (int i = 0; i < notesJSON.length(); i++) {
+            JSONObject noteJSON = notesJSON.getJSONObject(i);
+            String noteId = noteJSON.optString("id", "");
+            if (!TextUtils.isEmpty(noteId)) {
+                noteHashes.put(noteId, noteJSON.optString("note_hash", ""));
+            }
+        }
+        return noteHashes;
+    }
+
+    /*
+     * logs how many notes the delta sync fetched compared to the ones it skipped
+     */
+    private static void logSyncStats(int fetchedCount, int unchangedCount, int removedCount) {
+        AppLog.i(AppLog.T.NOTIFS, String.format(Locale.US,
+                "notifications update service > fetched %d changed notes, skipped %d unchanged notes, "
+                + "removed %d notes", fetchedCount, unchangedCount, removedCount));
+    }
+
+    /*
+     * if we have a note id, we were started from NotificationsDetailActivity. That means we need to re-set the
+     * *read* flag on this note, which is done on the stored note since it may not have been fetched if its hash
+     * didn't change
+     */
+    private void setStoredNoteReadIfNeeded() {
+        if (!mIsStartedByTappingOnNotification || mNoteId == null) {
+            return;
+        }
+        Note note = NotificationsTable.getNoteById(mNoteId);
+        if (note != null && note.isUnread()) {
+            note.setRead();
+            NotificationsTable.saveNote(note);
         }
     }
 
@@ -0,0 +1,89 @@
+package org.wordpress.android.ui.notifications.utils;
+
+import android.text.Spanned;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+
+import org.json.JSONObject;
+import org.wordpress.android.models.Note;
+
+import java.util.List;
+
+/**
+ * memory cache of the formatted subjects shown in the notifications list, so scrolling the list doesn't
+ * rebuild the same spans from the subject's ranges every time a note is bound. entries are keyed by note
+ * id and only match while the note's hash is the same, so a note that changes on the server won't show
+ * an old subject. notes changed locally are removed through {@link #invalidate(String)}.
+ */
+public class NoteSubjectCache {
+    // size is measured in chars of subject text
+    private static final int MAX_CACHED_CHARS = 100 * 1024;
+
+    private static final LruCache<String, CachedSubject> CACHE =
+            new LruCache<String, CachedSubject>(MAX_CACHED_CHARS) {
+                @Override
+                protected int sizeOf(@NonNull String noteId, @NonNull CachedSubject cachedSubject) {
+                    return Math.max(1, cachedSubject.mSubject.length());
+                }
+            };
+
+    private static class CachedSubject {
+        private final String mNoteHash;
+        private final Spanned mSubject;
+
+        CachedSubject(@NonNull String noteHash, @NonNull Spanned subject) {
+            mNoteHash = noteHash;
+            mSubject = subject;
+        }
+    }
+
+    private NoteSubjectCache() {
+        throw new AssertionError();
+    }
+
+    /*
+     * returns the formatted subject of the passed note with trailing whitespace trimmed, formatting and
+     * caching it if it isn't already cached
+     */
+    @NonNull
+    public static Spanned getFormattedSubject(@NonNull Note note, @NonNull NotificationsUtilsWrapper wrapper) {
+        String noteHash = note.getNoteHash();
+        CachedSubject cachedSubject = CACHE.get(note.getId());
+        if (cachedSubject != null && cachedSubject.mNoteHash.equals(noteHash)) {
+            return cachedSubject.mSubject;
+        }
+
+        Spanned subject = formatSubject(note, wrapper);
+        CACHE.put(note.getId(), new CachedSubject(noteHash, subject));
+        return subject;
+    }
+
+    /*
+     * formats and caches the subjects of the passed notes - intended to be called from a background thread
+     * before the notes are shown
+     */
+    public static void prewarm(@NonNull List<Note> notes, @NonNull NotificationsUtilsWrapper wrapper) {
+        for (Note note : notes) {
+            getFormattedSubject(note, wrapper);
+        }
+    }
+
+    public static void invalidate(String noteId) {
+        if (!TextUtils.isEmpty(noteId)) {
+            CACHE.remove(noteId);
+        }
+    }
+
+    public static void clear() {
+        CACHE.evictAll();
+    }
+
+    private static Spanned formatSubject(@NonNull Note note, @NonNull NotificationsUtilsWrapper wrapper) {
+        JSONObject subject = note.getSubject();
+        Spanned formattedSubject = wrapper.getSpannableContentForRanges(subject != null ? subject : new JSONObject());
+        // Trim the '\n\n' added by Html.fromHtml()
+        return (Spanned) formattedSubject.subSequence(0, TextUtils.getTrimmedLength(formattedSubject));
+    }
+}
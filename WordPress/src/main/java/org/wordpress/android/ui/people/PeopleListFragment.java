@@ -3,7 +3,10 @@ package org.wordpress.android.ui.people;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -47,16 +50,31 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
 public class PeopleListFragment extends Fragment {
+    private static final int MAX_SEARCH_RESULTS = 200;
+    // the list is refreshed at most this often while people are being synced in the background
+    private static final long SYNC_REFRESH_INTERVAL_MS = 2000;
+    // people are read from the db a page at a time as the user scrolls, since all of a site's followers are synced
+    private static final int LIST_PAGE_SIZE = 100;
+    // lists are loaded one at a time in the order they were requested, so an older load can't replace a newer one
+    private static final Executor LOAD_EXECUTOR = Executors.newSingleThreadExecutor();
+
     private SiteModel mSite;
     private OnPersonSelectedListener mOnPersonSelectedListener;
     private OnFetchPeopleListener mOnFetchPeopleListener;
     private ActionableEmptyView mActionableEmptyView;
     private FilteredRecyclerView mFilteredRecyclerView;
     private PeopleListFilter mPeopleListFilter;
+    private String mSearchQuery;
+    private long mLastSyncRefreshTime;
+    private int mMaxListPeople = LIST_PAGE_SIZE;
+    private final AtomicInteger mLoadGeneration = new AtomicInteger();
 
     @Inject SiteStore mSiteStore;
     @Inject ImageManager mImageManager;
@@ -158,6 +176,7 @@ public class PeopleListFragment extends Fragment {
             @Override
             public void onFilterSelected(int position, FilterCriteria criteria) {
                 mPeopleListFilter = (PeopleListFilter) criteria;
+                mMaxListPeople = LIST_PAGE_SIZE;
                 AppPrefs.setPeopleListFilter(mPeopleListFilter);
             }
 
@@ -257,29 +276,19 @@ public class PeopleListFragment extends Fragment {
         }
     }
 
+    /*
+     * reloads the list from the db on a background thread
+     */
     public void refreshPeopleList(boolean isFetching) {
-        if (!isAdded()) {
+        if (!isAdded() || mPeopleListFilter == null) {
             return;
         }
+        int generation = mLoadGeneration.incrementAndGet();
+        new LoadPeopleTask(mPeopleListFilter, mSearchQuery, mMaxListPeople, isFetching, generation)
+                .executeOnExecutor(LOAD_EXECUTOR);
+    }
 
-        List<Person> peopleList;
-        switch (mPeopleListFilter) {
-            case TEAM:
-                peopleList = PeopleTable.getUsers(mSite.getId());
-                break;
-            case FOLLOWERS:
-                peopleList = PeopleTable.getFollowers(mSite.getId());
-                break;
-            case EMAIL_FOLLOWERS:
-                peopleList = PeopleTable.getEmailFollowers(mSite.getId());
-                break;
-            case VIEWERS:
-                peopleList = PeopleTable.getViewers(mSite.getId());
-                break;
-            default:
-                peopleList = new ArrayList<>();
-                break;
-        }
+    private void setPeopleList(@NonNull List<Person> peopleList, boolean isFetching) {
         PeopleAdapter peopleAdapter = (PeopleAdapter) mFilteredRecyclerView.getAdapter();
         if (peopleAdapter == null) {
             peopleAdapter = new PeopleAdapter(getActivity(), peopleList);
@@ -300,6 +309,123 @@ public class PeopleListFragment extends Fragment {
         }
     }
 
+    /*
+     * shows the next page of people stored in the db when the end of the list is reached, or fetches more
+     * people from the server once all the stored people are shown
+     */
+    private void onEndOfListReached(int listCount) {
+        if (listCount >= mMaxListPeople) {
+            mMaxListPeople = listCount + LIST_PAGE_SIZE;
+            refreshPeopleList(false);
+        } else {
+            updatePeople(true);
+        }
+    }
+
+    /*
+     * AsyncTask which reads the people in the list from the db, and shows them unless the list was reloaded
+     * again while it was running
+     */
+    private class LoadPeopleTask extends AsyncTask<Void, Void, List<Person>> {
+        private final int mSiteId;
+        private final PeopleListFilter mFilter;
+        private final String mQuery;
+        private final int mMaxPeople;
+        private final boolean mIsFetching;
+        private final int mGeneration;
+
+        LoadPeopleTask(@NonNull PeopleListFilter filter, @Nullable String query, int maxPeople, boolean isFetching,
+                       int generation) {
+            mSiteId = mSite.getId();
+            mFilter = filter;
+            mQuery = query;
+            mMaxPeople = maxPeople;
+            mIsFetching = isFetching;
+            mGeneration = generation;
+        }
+
+        @Override
+        protected List<Person> doInBackground(Void... params) {
+            if (mGeneration != mLoadGeneration.get()) {
+                return null;
+            }
+            Person.PersonType personType = getPersonType(mFilter);
+            if (!TextUtils.isEmpty(mQuery) && personType != null) {
+                return PeopleTable.searchPeople(mSiteId, personType, mQuery, MAX_SEARCH_RESULTS);
+            }
+            return getPeopleList(mFilter, mSiteId, mMaxPeople);
+        }
+
+        @Override
+        protected void onPostExecute(List<Person> peopleList) {
+            if (peopleList == null || mGeneration != mLoadGeneration.get() || !isAdded()) {
+                return;
+            }
+            setPeopleList(peopleList, mIsFetching);
+        }
+    }
+
+    private static List<Person> getPeopleList(@NonNull PeopleListFilter filter, int siteId, int maxPeople) {
+        switch (filter) {
+            case TEAM:
+                return PeopleTable.getUsers(siteId, maxPeople);
+            case FOLLOWERS:
+                return PeopleTable.getFollowers(siteId, maxPeople);
+            case EMAIL_FOLLOWERS:
+                return PeopleTable.getEmailFollowers(siteId, maxPeople);
+            case VIEWERS:
+                return PeopleTable.getViewers(siteId, maxPeople);
+            default:
+                return new ArrayList<>();
+        }
+    }
+
+    @Nullable
+    private static Person.PersonType getPersonType(PeopleListFilter filter) {
+        switch (filter) {
+            case TEAM:
+                return Person.PersonType.USER;
+            case FOLLOWERS:
+                return Person.PersonType.FOLLOWER;
+            case EMAIL_FOLLOWERS:
+                return Person.PersonType.EMAIL_FOLLOWER;
+            case VIEWERS:
+                return Person.PersonType.VIEWER;
+        }
+        return null;
+    }
+
+    /*
+     * shows only the people in the current filter whose name, username or email match the passed query, or
+     * everyone in the filter if the query is empty - searches all the people synced by PeopleSync
+     */
+    public void setSearchQuery(@Nullable String query) {
+        if (TextUtils.equals(query, mSearchQuery)) {
+            return;
+        }
+        mSearchQuery = query;
+        refreshPeopleList(false);
+    }
+
+    public boolean isSearching() {
+        return !TextUtils.isEmpty(mSearchQuery);
+    }
+
+    /*
+     * called when a page of people has been synced in the background, refreshes the list if it shows that
+     * type of people and hasn't been refreshed for a sync recently
+     */
+    public void onPeopleSynced(Person.PersonType personType) {
+        if (mPeopleListFilter == null || getPersonType(mPeopleListFilter) != personType) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (now - mLastSyncRefreshTime >= SYNC_REFRESH_INTERVAL_MS) {
+            mLastSyncRefreshTime = now;
+            refreshPeopleList(false);
+        }
+    }
+
     // Refresh the role display names after user roles is fetched
     public void refreshUserRoles() {
         if (mFilteredRecyclerView == null) {
@@ -427,9 +553,10 @@ public class PeopleListFragment extends Fragment {
                 }
             }
 
-            // end of list is reached
-            if (position == getItemCount() - 1) {
-                updatePeople(true);
+            // end of list is reached - search results come from people already synced, so there's no more
+            // to fetch for them
+            if (position == getItemCount() - 1 && !isSearching()) {
+                onEndOfListReached(getItemCount());
             }
         }
 
@@ -27,6 +27,7 @@ import org.wordpress.android.fluxc.store.AccountStore;
 import org.wordpress.android.fluxc.store.SiteStore.OnUserRolesChanged;
 import org.wordpress.android.models.PeopleListFilter;
 import org.wordpress.android.models.Person;
+import org.wordpress.android.ui.people.utils.PeopleSync;
 import org.wordpress.android.ui.people.utils.PeopleUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.LocaleManager;
@@ -131,9 +132,9 @@ public class PeopleManagementActivity extends AppCompatActivity
         FragmentManager fragmentManager = getSupportFragmentManager();
 
         if (savedInstanceState == null) {
-            // only delete cached people if there is a connection
+            // sync all of the site's people in the background so they can all be listed and searched
             if (NetworkUtils.isNetworkAvailable(this)) {
-                PeopleTable.deletePeopleExceptForFirstPage(mSite.getId());
+                PeopleSync.start(mSite);
             }
 
             if (actionBar != null) {
@@ -290,7 +291,7 @@ public class PeopleManagementActivity extends AppCompatActivity
                 boolean isFreshList = (offset == 0);
                 mHasRefreshedUsers = true;
                 mUsersEndOfListReached = isEndOfList;
-                PeopleTable.saveUsers(peopleList, site.getId(), isFreshList);
+                PeopleTable.saveUsers(peopleList, offset);
 
                 PeopleListFragment peopleListFragment = getListFragment();
                 if (peopleListFragment != null) {
@@ -332,7 +333,7 @@ public class PeopleManagementActivity extends AppCompatActivity
                 mHasRefreshedFollowers = true;
                 mFollowersLastFetchedPage = pageFetched;
                 mFollowersEndOfListReached = isEndOfList;
-                PeopleTable.saveFollowers(peopleList, site.getId(), isFreshList);
+                PeopleTable.saveFollowers(peopleList, (page - 1) * PeopleUtils.FETCH_LIMIT);
 
                 PeopleListFragment peopleListFragment = getListFragment();
                 if (peopleListFragment != null) {
@@ -375,7 +376,7 @@ public class PeopleManagementActivity extends AppCompatActivity
                 mHasRefreshedEmailFollowers = true;
                 mEmailFollowersLastFetchedPage = pageFetched;
                 mEmailFollowersEndOfListReached = isEndOfList;
-                PeopleTable.saveEmailFollowers(peopleList, site.getId(), isFreshList);
+                PeopleTable.saveEmailFollowers(peopleList, (page - 1) * PeopleUtils.FETCH_LIMIT);
 
                 PeopleListFragment peopleListFragment = getListFragment();
                 if (peopleListFragment != null) {
@@ -416,7 +417,7 @@ public class PeopleManagementActivity extends AppCompatActivity
                 boolean isFreshList = (offset == 0);
                 mHasRefreshedViewers = true;
                 mViewersEndOfListReached = isEndOfList;
-                PeopleTable.saveViewers(peopleList, site.getId(), isFreshList);
+                PeopleTable.saveViewers(peopleList, offset);
 
                 PeopleListFragment peopleListFragment = getListFragment();
                 if (peopleListFragment != null) {
@@ -688,6 +689,14 @@ public class PeopleManagementActivity extends AppCompatActivity
     // Fluxc events
 
     @SuppressWarnings("unused")
+    @Subscribe(threadMode = ThreadMode.MAIN)
+    public void onEventMainThread(PeopleSync.PeopleSynced event) {
+        PeopleListFragment peopleListFragment = getListFragment();
+        if (peopleListFragment != null && mSite != null && event.getLocalTableBlogId() == mSite.getId()) {
+            peopleListFragment.onPeopleSynced(event.getPersonType());
+        }
+    }
+
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onUserRolesChanged(OnUserRolesChanged event) {
         if (event.isError()) {
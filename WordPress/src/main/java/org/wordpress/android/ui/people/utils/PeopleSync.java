@@ -0,0 +1,268 @@
+package org.wordpress.android.ui.people.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.greenrobot.eventbus.EventBus;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.datasets.PeopleTable;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.models.Person;
+import org.wordpress.android.models.Person.PersonType;
+import org.wordpress.android.ui.prefs.AppPrefs;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Syncs all the team members, followers, email followers and viewers of a site into PeopleTable in the
+ * background, so the whole audience can be listed and searched rather than only the pages fetched while
+ * scrolling the people list. People are upserted a page at a time and the sync's progress is saved after
+ * each page, so an interrupted sync resumes where it stopped. Once all of a type of people have been synced,
+ * the ones the sync didn't see are deleted since they're no longer on the server.
+ */
+public class PeopleSync {
+    private static final int PAGE_SIZE = 100;
+    // a completed sync isn't repeated until this long after it started
+    private static final long MIN_SYNC_INTERVAL_MS = 60 * 60 * 1000;
+    // an interrupted sync older than this is restarted rather than resumed, since the server's paging has
+    // likely shifted since it was saved
+    private static final long MAX_RESUME_AGE_MS = 24 * 60 * 60 * 1000;
+
+    private static final String KEY_PERSON_TYPE = "person_type";
+    private static final String KEY_NEXT = "next";
+    private static final String KEY_STARTED_AT = "started_at";
+    private static final String KEY_COMPLETED_AT = "completed_at";
+
+    // local ids of the sites being synced - only accessed on the main thread
+    private static final Set<Integer> SYNCING_SITES = new HashSet<>();
+    // pages are saved on a single thread so they're written in order and off the main thread
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    /*
+     * posted after each page of people is saved
+     */
+    public static class PeopleSynced {
+        private final int mLocalTableBlogId;
+        private final PersonType mPersonType;
+
+        PeopleSynced(int localTableBlogId, PersonType personType) {
+            mLocalTableBlogId = localTableBlogId;
+            mPersonType = personType;
+        }
+
+        public int getLocalTableBlogId() {
+            return mLocalTableBlogId;
+        }
+
+        public PersonType getPersonType() {
+            return mPersonType;
+        }
+    }
+
+    private static class SyncState {
+        // type of people being synced, null when the sync has completed
+        private PersonType mPersonType;
+        // offset of the next page of users & viewers, or the number of the next page of followers
+        private int mNext;
+        private long mStartedAt;
+        private long mCompletedAt;
+
+        @NonNull
+        static SyncState fromJson(@Nullable String json) {
+            SyncState state = new SyncState();
+            if (TextUtils.isEmpty(json)) {
+                return state;
+            }
+            try {
+                JSONObject jsonObject = new JSONObject(json);
+                String personType = jsonObject.optString(KEY_PERSON_TYPE);
+                state.mPersonType = TextUtils.isEmpty(personType) ? null : PersonType.valueOf(personType);
+                state.mNext = jsonObject.optInt(KEY_NEXT);
+                state.mStartedAt = jsonObject.optLong(KEY_STARTED_AT);
+                state.mCompletedAt = jsonObject.optLong(KEY_COMPLETED_AT);
+            } catch (JSONException | IllegalArgumentException e) {
+                AppLog.e(T.PEOPLE, "Unable to parse people sync state", e);
+                return new SyncState();
+            }
+            return state;
+        }
+
+        @NonNull
+        String toJson() {
+            JSONObject jsonObject = new JSONObject();
+            try {
+                jsonObject.put(KEY_PERSON_TYPE, mPersonType != null ? mPersonType.name() : "");
+                jsonObject.put(KEY_NEXT, mNext);
+                jsonObject.put(KEY_STARTED_AT, mStartedAt);
+                jsonObject.put(KEY_COMPLETED_AT, mCompletedAt);
+            } catch (JSONException e) {
+                AppLog.e(T.PEOPLE, e);
+            }
+            return jsonObject.toString();
+        }
+    }
+
+    private PeopleSync() {
+        throw new AssertionError();
+    }
+
+    /*
+     * starts or resumes syncing the people of the passed site unless it's already syncing or was synced
+     * recently - must be called on the main thread
+     */
+    public static void start(@NonNull SiteModel site) {
+        int localTableBlogId = site.getId();
+        if (SYNCING_SITES.contains(localTableBlogId)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        SyncState state = SyncState.fromJson(AppPrefs.getPeopleSyncState(localTableBlogId));
+        if (state.mCompletedAt > 0 && now - state.mStartedAt < MIN_SYNC_INTERVAL_MS) {
+            return;
+        }
+
+        if (state.mPersonType == null || now - state.mStartedAt > MAX_RESUME_AGE_MS) {
+            state = new SyncState();
+            state.mPersonType = PersonType.USER;
+            state.mNext = getFirstPageNext(state.mPersonType);
+            state.mStartedAt = now;
+        } else {
+            AppLog.i(T.PEOPLE, "Resuming people sync at " + state.mPersonType + " " + state.mNext);
+        }
+
+        SYNCING_SITES.add(localTableBlogId);
+        fetchNextPage(site, state);
+    }
+
+    private static int getFirstPageNext(PersonType personType) {
+        // followers are paged by page number starting at 1, users & viewers by offset
+        return personType == PersonType.FOLLOWER || personType == PersonType.EMAIL_FOLLOWER ? 1 : 0;
+    }
+
+    /*
+     * returns the type of people synced after the passed type, or null if it's the last type for the site
+     */
+    @Nullable
+    private static PersonType getNextPersonType(@NonNull SiteModel site, @NonNull PersonType personType) {
+        switch (personType) {
+            case USER:
+                return PersonType.FOLLOWER;
+            case FOLLOWER:
+                return PersonType.EMAIL_FOLLOWER;
+            case EMAIL_FOLLOWER:
+                // only a private site can have viewers
+                return site.isPrivate() ? PersonType.VIEWER : null;
+            default:
+                return null;
+        }
+    }
+
+    private static void fetchNextPage(@NonNull final SiteModel site, @NonNull final SyncState state) {
+        final PersonType personType = state.mPersonType;
+        switch (personType) {
+            case USER:
+                PeopleUtils.fetchUsers(site, state.mNext, PAGE_SIZE, new PeopleUtils.FetchUsersCallback() {
+                    @Override
+                    public void onSuccess(List<Person> peopleList, boolean isEndOfList) {
+                        onPageFetched(site, state, peopleList, state.mNext, state.mNext + PAGE_SIZE, isEndOfList);
+                    }
+
+                    @Override
+                    public void onError() {
+                        onFetchError(site, personType);
+                    }
+                });
+                break;
+            case FOLLOWER:
+            case EMAIL_FOLLOWER:
+                boolean isEmailFollower = personType == PersonType.EMAIL_FOLLOWER;
+                PeopleUtils.fetchFollowers(site, state.mNext, PAGE_SIZE, isEmailFollower,
+                        new PeopleUtils.FetchFollowersCallback() {
+                            @Override
+                            public void onSuccess(List<Person> peopleList, int pageFetched, boolean isEndOfList) {
+                                int startIndex = (state.mNext - 1) * PAGE_SIZE;
+                                onPageFetched(site, state, peopleList, startIndex, state.mNext + 1, isEndOfList);
+                            }
+
+                            @Override
+                            public void onError() {
+                                onFetchError(site, personType);
+                            }
+                        });
+                break;
+            case VIEWER:
+                PeopleUtils.fetchViewers(site, state.mNext, PAGE_SIZE, new PeopleUtils.FetchViewersCallback() {
+                    @Override
+                    public void onSuccess(List<Person> peopleList, boolean isEndOfList) {
+                        onPageFetched(site, state, peopleList, state.mNext, state.mNext + PAGE_SIZE, isEndOfList);
+                    }
+
+                    @Override
+                    public void onError() {
+                        onFetchError(site, personType);
+                    }
+                });
+                break;
+        }
+    }
+
+    private static void onPageFetched(@NonNull final SiteModel site, @NonNull final SyncState state,
+                                      @NonNull final List<Person> peopleList, final int startIndex, final int next,
+                                      boolean isEndOfList) {
+        final int localTableBlogId = site.getId();
+        final PersonType personType = state.mPersonType;
+        // an empty page also ends the list so a miscounted total can't keep the sync going
+        final boolean isLastPage = isEndOfList || peopleList.isEmpty();
+
+        SAVE_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                PeopleTable.savePeople(peopleList, startIndex, personType);
+                if (isLastPage) {
+                    PeopleTable.deleteUnsyncedPeople(localTableBlogId, personType, state.mStartedAt);
+                    state.mPersonType = getNextPersonType(site, personType);
+                    if (state.mPersonType != null) {
+                        state.mNext = getFirstPageNext(state.mPersonType);
+                    } else {
+                        state.mCompletedAt = System.currentTimeMillis();
+                    }
+                } else {
+                    state.mNext = next;
+                }
+                AppPrefs.setPeopleSyncState(localTableBlogId, state.toJson());
+
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        EventBus.getDefault().post(new PeopleSynced(localTableBlogId, personType));
+                        if (state.mPersonType != null) {
+                            fetchNextPage(site, state);
+                        } else {
+                            AppLog.i(T.PEOPLE, "Finished syncing people for site " + localTableBlogId);
+                            SYNCING_SITES.remove(localTableBlogId);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static void onFetchError(@NonNull SiteModel site, @NonNull PersonType personType) {
+        // the saved state is left as is so the next sync resumes from the page that failed
+        AppLog.w(T.PEOPLE, "People sync stopped after failing to fetch " + personType);
+        SYNCING_SITES.remove(site.getId());
+    }
+}
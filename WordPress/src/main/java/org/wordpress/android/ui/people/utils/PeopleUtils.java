@@ -22,11 +22,17 @@ import java.util.Locale;
 import java.util.Map;
 
 public class PeopleUtils {
-    // We limit followers we display to 1000 to avoid API performance issues
+    // We limit followers we fetch while scrolling to 1000 to avoid API performance issues, the rest are
+    // fetched by PeopleSync in the background
     public static final int FOLLOWER_PAGE_LIMIT = 50;
     public static final int FETCH_LIMIT = 20;
 
     public static void fetchUsers(final SiteModel site, final int offset, final FetchUsersCallback callback) {
+        fetchUsers(site, offset, FETCH_LIMIT, callback);
+    }
+
+    public static void fetchUsers(final SiteModel site, final int offset, final int number,
+                                  final FetchUsersCallback callback) {
         RestRequest.Listener listener = new RestRequest.Listener() {
             @Override
             public void onResponse(JSONObject jsonObject) {
@@ -56,7 +62,7 @@ public class PeopleUtils {
         };
 
         Map<String, String> params = new HashMap<>();
-        params.put("number", Integer.toString(PeopleUtils.FETCH_LIMIT));
+        params.put("number", Integer.toString(number));
         params.put("offset", Integer.toString(offset));
         params.put("order_by", "display_name");
         params.put("order", "ASC");
@@ -114,16 +120,24 @@ public class PeopleUtils {
     }
 
     public static void fetchFollowers(final SiteModel site, final int page, final FetchFollowersCallback callback) {
-        fetchFollowers(site, page, callback, false);
+        fetchFollowers(site, page, FETCH_LIMIT, FOLLOWER_PAGE_LIMIT, false, callback);
     }
 
     public static void fetchEmailFollowers(final SiteModel site, final int page,
                                            final FetchFollowersCallback callback) {
-        fetchFollowers(site, page, callback, true);
+        fetchFollowers(site, page, FETCH_LIMIT, FOLLOWER_PAGE_LIMIT, true, callback);
+    }
+
+    /*
+     * fetches a page of followers without the FOLLOWER_PAGE_LIMIT, used to sync all of a site's followers
+     */
+    public static void fetchFollowers(final SiteModel site, final int page, final int max,
+                                      final boolean isEmailFollower, final FetchFollowersCallback callback) {
+        fetchFollowers(site, page, max, Integer.MAX_VALUE, isEmailFollower, callback);
     }
 
-    private static void fetchFollowers(final SiteModel site, final int page, final FetchFollowersCallback callback,
-                                       final boolean isEmailFollower) {
+    private static void fetchFollowers(final SiteModel site, final int page, final int max, final int pageLimit,
+                                       final boolean isEmailFollower, final FetchFollowersCallback callback) {
         RestRequest.Listener listener = new RestRequest.Listener() {
             @Override
             public void onResponse(JSONObject jsonObject) {
@@ -135,7 +149,7 @@ public class PeopleUtils {
                         List<Person> people = peopleListFromJSON(jsonArray, site.getId(), personType);
                         int pageFetched = jsonObject.optInt("page");
                         int numberOfPages = jsonObject.optInt("pages");
-                        boolean isEndOfList = page >= numberOfPages || page >= FOLLOWER_PAGE_LIMIT;
+                        boolean isEndOfList = page >= numberOfPages || page >= pageLimit;
                         callback.onSuccess(people, pageFetched, isEndOfList);
                     } catch (JSONException e) {
                         AppLog.e(T.API, "JSON exception occurred while parsing the response for "
@@ -157,7 +171,7 @@ public class PeopleUtils {
         };
 
         Map<String, String> params = new HashMap<>();
-        params.put("max", Integer.toString(FETCH_LIMIT));
+        params.put("max", Integer.toString(max));
         params.put("page", Integer.toString(page));
         params.put("type", isEmailFollower ? "email" : "wp_com");
         String path = String.format(Locale.US, "sites/%d/stats/followers", site.getSiteId());
@@ -165,6 +179,11 @@ public class PeopleUtils {
     }
 
     public static void fetchViewers(final SiteModel site, final int offset, final FetchViewersCallback callback) {
+        fetchViewers(site, offset, FETCH_LIMIT, callback);
+    }
+
+    public static void fetchViewers(final SiteModel site, final int offset, final int number,
+                                    final FetchViewersCallback callback) {
         RestRequest.Listener listener = new RestRequest.Listener() {
             @Override
             public void onResponse(JSONObject jsonObject) {
@@ -194,9 +213,9 @@ public class PeopleUtils {
             }
         };
 
-        int page = (offset / FETCH_LIMIT) + 1;
+        int page = (offset / number) + 1;
         Map<String, String> params = new HashMap<>();
-        params.put("number", Integer.toString(FETCH_LIMIT));
+        params.put("number", Integer.toString(number));
         params.put("page", Integer.toString(page));
         String path = String.format(Locale.US, "sites/%d/viewers", site.getSiteId());
         WordPress.getRestClientUtilsV1_1().get(path, params, null, listener, errorListener);
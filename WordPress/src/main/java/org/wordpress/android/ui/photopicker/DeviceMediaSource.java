@@ -0,0 +1,139 @@
+package org.wordpress.android.ui.photopicker;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
+import android.provider.MediaStore;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.SqlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * reads the images (and optionally videos) on the device newest first, a page at a time, so the photo picker
+ * only queries the items it's about to show rather than every item in the MediaStore. images and videos are
+ * read from the MediaStore files table so a single query returns both already sorted by id.
+ */
+class DeviceMediaSource {
+    static final int PAGE_SIZE = 240;
+
+    // Build.VERSION_CODES.R, which isn't available in the sdk we compile against
+    private static final int SDK_R = 30;
+
+    private static final String ID_COL = MediaStore.Files.FileColumns._ID;
+    private static final String MEDIA_TYPE_COL = MediaStore.Files.FileColumns.MEDIA_TYPE;
+
+    static class Item {
+        private final long mId;
+        private final boolean mIsVideo;
+
+        Item(long id, boolean isVideo) {
+            mId = id;
+            mIsVideo = isVideo;
+        }
+
+        long getId() {
+            return mId;
+        }
+
+        boolean isVideo() {
+            return mIsVideo;
+        }
+
+        @NonNull
+        Uri getUri() {
+            Uri baseUri = mIsVideo
+                    ? MediaStore.Video.Media.EXTERNAL_CONTENT_URI : MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
+            return ContentUris.withAppendedId(baseUri, mId);
+        }
+    }
+
+    private final ContentResolver mContentResolver;
+    private final boolean mIncludeVideos;
+
+    DeviceMediaSource(@NonNull Context context, boolean includeVideos) {
+        mContentResolver = context.getContentResolver();
+        mIncludeVideos = includeVideos;
+    }
+
+    /*
+     * returns up to count items older than the item with the passed id, pass Long.MAX_VALUE to get
+     * the first page - must be called from a background thread
+     */
+    @NonNull
+    List<Item> getPage(long beforeId, int count) {
+        return query(ID_COL + " < ?", beforeId, count);
+    }
+
+    /*
+     * returns all items whose id is at least the passed id, which is used to find the changes to the items
+     * already loaded - must be called from a background thread
+     */
+    @NonNull
+    List<Item> getItemsSince(long minId) {
+        return query(ID_COL + " >= ?", minId, 0);
+    }
+
+    private String getMediaTypeSelection() {
+        if (mIncludeVideos) {
+            return MEDIA_TYPE_COL + " IN (" + MediaStore.Files.FileColumns.MEDIA_TYPE_IMAGE + ","
+                   + MediaStore.Files.FileColumns.MEDIA_TYPE_VIDEO + ")";
+        }
+        return MEDIA_TYPE_COL + "=" + MediaStore.Files.FileColumns.MEDIA_TYPE_IMAGE;
+    }
+
+    @NonNull
+    private List<Item> query(@NonNull String idSelection, long id, int limit) {
+        Uri uri = MediaStore.Files.getContentUri("external");
+        String[] projection = {ID_COL, MEDIA_TYPE_COL};
+        String selection = getMediaTypeSelection() + " AND " + idSelection;
+        String[] selectionArgs = {Long.toString(id)};
+        String sortOrder = ID_COL + " DESC";
+
+        Cursor cursor = null;
+        try {
+            if (limit > 0 && Build.VERSION.SDK_INT >= SDK_R) {
+                // starting with R the MediaStore rejects a LIMIT in the sort order
+                Bundle queryArgs = new Bundle();
+                queryArgs.putString(ContentResolver.QUERY_ARG_SQL_SELECTION, selection);
+                queryArgs.putStringArray(ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS, selectionArgs);
+                queryArgs.putString(ContentResolver.QUERY_ARG_SQL_SORT_ORDER, sortOrder);
+                queryArgs.putInt(ContentResolver.QUERY_ARG_LIMIT, limit);
+                cursor = mContentResolver.query(uri, projection, queryArgs, null);
+            } else {
+                if (limit > 0) {
+                    sortOrder += " LIMIT " + limit;
+                }
+                cursor = mContentResolver.query(uri, projection, selection, selectionArgs, sortOrder);
+            }
+        } catch (SecurityException | IllegalArgumentException e) {
+            AppLog.e(AppLog.T.MEDIA, e);
+        }
+
+        List<Item> items = new ArrayList<>();
+        if (cursor == null) {
+            return items;
+        }
+
+        try {
+            int idIndex = cursor.getColumnIndexOrThrow(ID_COL);
+            int mediaTypeIndex = cursor.getColumnIndexOrThrow(MEDIA_TYPE_COL);
+            // the limit is only a hint to some providers, so make sure no more than a page is read
+            while (cursor.moveToNext() && (limit <= 0 || items.size() < limit)) {
+                boolean isVideo = cursor.getInt(mediaTypeIndex) == MediaStore.Files.FileColumns.MEDIA_TYPE_VIDEO;
+                items.add(new Item(cursor.getLong(idIndex), isVideo));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return items;
+    }
+}
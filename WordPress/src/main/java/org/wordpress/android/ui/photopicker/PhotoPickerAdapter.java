@@ -1,7 +1,7 @@
 package org.wordpress.android.ui.photopicker;
 
 import android.content.Context;
-import android.database.Cursor;
+import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Handler;
@@ -14,6 +14,7 @@ import android.widget.ImageView.ScaleType;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.wordpress.android.R;
@@ -25,7 +26,6 @@ import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.PhotoPickerUtils;
-import org.wordpress.android.util.SqlUtils;
 import org.wordpress.android.util.ViewUtils;
 import org.wordpress.android.util.ViewUtilsKt;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
@@ -34,7 +34,7 @@ import org.wordpress.android.util.image.ImageType;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -45,6 +45,12 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     private static final float SCALE_NORMAL = 1.0f;
     private static final float SCALE_SELECTED = .8f;
 
+    // load the next page of media when this many items remain below the last bound item
+    private static final int LOAD_MORE_THRESHOLD = NUM_COLUMNS * 20;
+    // wait for the MediaStore to settle before applying changes, since saving a single photo can
+    // result in several change notifications
+    private static final long MEDIA_CHANGE_DELAY_MS = 500;
+
     /*
      * used by this adapter to communicate with the owning fragment
      */
@@ -54,12 +60,6 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
         void onAdapterLoaded(boolean isEmpty);
     }
 
-    private class PhotoPickerItem {
-        private long mId;
-        private Uri mUri;
-        private boolean mIsVideo;
-    }
-
     private final ArrayList<Integer> mSelectedPositions = new ArrayList<>();
     private static final AniUtils.Duration ANI_DURATION = AniUtils.Duration.SHORT;
 
@@ -69,13 +69,32 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     private int mThumbHeight;
 
     private boolean mIsListTaskRunning;
+    private boolean mHasPendingMediaChanges;
+    private boolean mHasMoreMedia;
+    private int mMinItemCount;
     private boolean mLoadThumbnails = true;
 
     private final PhotoPickerAdapterListener mListener;
     private final LayoutInflater mInflater;
     private final MediaBrowserType mBrowserType;
 
-    private final ArrayList<PhotoPickerItem> mMediaList = new ArrayList<>();
+    private final DeviceMediaSource mMediaSource;
+    private final ArrayList<DeviceMediaSource.Item> mMediaList = new ArrayList<>();
+
+    private final Handler mHandler = new Handler();
+    private final Runnable mApplyMediaChangesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applyMediaChanges();
+        }
+    };
+    private final ContentObserver mMediaObserver = new ContentObserver(mHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            mHandler.removeCallbacks(mApplyMediaChangesRunnable);
+            mHandler.postDelayed(mApplyMediaChangesRunnable, MEDIA_CHANGE_DELAY_MS);
+        }
+    };
 
     protected final ImageManager mImageManager;
 
@@ -88,6 +107,7 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
         mInflater = LayoutInflater.from(context);
         mBrowserType = browserType;
         mImageManager = ImageManager.getInstance();
+        mMediaSource = new DeviceMediaSource(context, !browserType.isSingleImagePicker());
 
         setHasStableIds(true);
     }
@@ -96,12 +116,22 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
         super.onAttachedToRecyclerView(recyclerView);
         mRecycler = recyclerView;
+        try {
+            mContext.getContentResolver().registerContentObserver(
+                    MediaStore.Images.Media.EXTERNAL_CONTENT_URI, true, mMediaObserver);
+            mContext.getContentResolver().registerContentObserver(
+                    MediaStore.Video.Media.EXTERNAL_CONTENT_URI, true, mMediaObserver);
+        } catch (SecurityException e) {
+            AppLog.e(AppLog.T.MEDIA, e);
+        }
     }
 
     @Override
     public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
         super.onDetachedFromRecyclerView(recyclerView);
         mRecycler = null;
+        mContext.getContentResolver().unregisterContentObserver(mMediaObserver);
+        mHandler.removeCallbacks(mApplyMediaChangesRunnable);
     }
 
     void refresh(boolean forceReload) {
@@ -116,8 +146,8 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
         boolean sizeChanged = thumbWidth != mThumbWidth || thumbHeight != mThumbHeight;
 
         // if thumb sizes have changed (due to device rotation, or never being set), we must
-        // reload from scratch - otherwise we can do a refresh so the adapter is only loaded
-        // if there are changes
+        // reload from scratch - otherwise we can do a refresh so the adapter is only updated
+        // with the changes since it was loaded
         boolean mustReload;
         if (sizeChanged) {
             mThumbWidth = thumbWidth;
@@ -127,7 +157,74 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
             mustReload = forceReload;
         }
 
-        new BuildDeviceMediaListTask(mustReload).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        if (mustReload || isEmpty()) {
+            // the reload includes every selected item, so a selection restored before reloading isn't lost
+            loadPage(true, Long.MAX_VALUE, getCountToLoad(0));
+        } else {
+            loadMediaChanges();
+        }
+    }
+
+    /*
+     * loads the next page of media if there is one and nothing is being loaded
+     */
+    private void loadNextPage() {
+        if (mHasMoreMedia && !mIsListTaskRunning) {
+            loadPage(false, mMediaList.get(mMediaList.size() - 1).getId(), getCountToLoad(mMediaList.size()));
+        }
+    }
+
+    /*
+     * returns how many items to load after the passed number of loaded items - a page, or more when that isn't
+     * enough to load every selected item
+     */
+    private int getCountToLoad(int loadedCount) {
+        return Math.max(DeviceMediaSource.PAGE_SIZE, mMinItemCount - loadedCount);
+    }
+
+    private void loadPage(boolean reload, long beforeId, int count) {
+        mIsListTaskRunning = true;
+        startPageLoad(reload, beforeId, count);
+    }
+
+    /*
+     * loads the changes to the items at least as new as the oldest loaded item
+     */
+    private void loadMediaChanges() {
+        mIsListTaskRunning = true;
+        startApplyMediaChanges(mMediaList.get(mMediaList.size() - 1).getId());
+    }
+
+    @VisibleForTesting
+    void startPageLoad(boolean reload, long beforeId, int count) {
+        new LoadDeviceMediaPageTask(reload, beforeId, count).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    @VisibleForTesting
+    void startApplyMediaChanges(long oldestLoadedId) {
+        new ApplyDeviceMediaChangesTask(oldestLoadedId).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /*
+     * updates the list with the changes to the device media, deferring the update if media is being loaded
+     */
+    private void applyMediaChanges() {
+        if (mIsListTaskRunning) {
+            mHasPendingMediaChanges = true;
+        } else if (!isEmpty()) {
+            loadMediaChanges();
+        }
+    }
+
+    private void onListTaskFinished() {
+        mIsListTaskRunning = false;
+        if (mHasPendingMediaChanges) {
+            mHasPendingMediaChanges = false;
+            applyMediaChanges();
+        } else if (mMediaList.size() < mMinItemCount) {
+            // keep loading until previously selected items are loaded
+            loadNextPage();
+        }
     }
 
     @Override
@@ -138,7 +235,7 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     @Override
     public long getItemId(int position) {
         if (isValidPosition(position)) {
-            return getItemAtPosition(position).mId;
+            return getItemAtPosition(position).getId();
         } else {
             return NO_POSITION;
         }
@@ -177,11 +274,15 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
 
     @Override
     public void onBindViewHolder(ThumbnailViewHolder holder, int position) {
-        PhotoPickerItem item = getItemAtPosition(position);
+        DeviceMediaSource.Item item = getItemAtPosition(position);
         if (item == null) {
             return;
         }
 
+        if (position >= mMediaList.size() - LOAD_MORE_THRESHOLD) {
+            loadNextPage();
+        }
+
         boolean isSelected = isItemSelected(position);
         holder.mTxtSelectionCount.setSelected(isSelected);
         holder.mTxtSelectionCount.setVisibility(isSelected || canMultiselect() ? View.VISIBLE : View.GONE);
@@ -193,16 +294,16 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
             holder.mImgThumbnail.setScaleY(scale);
         }
 
-        holder.mVideoOverlay.setVisibility(item.mIsVideo ? View.VISIBLE : View.GONE);
+        holder.mVideoOverlay.setVisibility(item.isVideo() ? View.VISIBLE : View.GONE);
 
         if (mLoadThumbnails) {
-            mImageManager.load(holder.mImgThumbnail, ImageType.PHOTO, item.mUri.toString(), ScaleType.FIT_CENTER);
+            mImageManager.load(holder.mImgThumbnail, ImageType.PHOTO, item.getUri().toString(), ScaleType.FIT_CENTER);
         } else {
             mImageManager.cancelRequestAndClearImageView(holder.mImgThumbnail);
         }
     }
 
-    private PhotoPickerItem getItemAtPosition(int position) {
+    private DeviceMediaSource.Item getItemAtPosition(int position) {
         if (!isValidPosition(position)) {
             AppLog.w(AppLog.T.POSTS, "photo picker > invalid position in getItemAtPosition");
             return null;
@@ -227,7 +328,7 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     }
 
     private void setItemSelected(int position, boolean isSelected, boolean updateAfter) {
-        PhotoPickerItem item = getItemAtPosition(position);
+        DeviceMediaSource.Item item = getItemAtPosition(position);
         if (item == null) {
             return;
         }
@@ -290,9 +391,9 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     ArrayList<Uri> getSelectedURIs() {
         ArrayList<Uri> uriList = new ArrayList<>();
         for (Integer position : mSelectedPositions) {
-            PhotoPickerItem item = getItemAtPosition(position);
+            DeviceMediaSource.Item item = getItemAtPosition(position);
             if (item != null) {
-                uriList.add(item.mUri);
+                uriList.add(item.getUri());
             }
         }
         return uriList;
@@ -307,6 +408,14 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
         mSelectedPositions.addAll(selectedPositions);
         notifyDataSetChanged();
         notifySelectionCountChanged();
+
+        // make sure the selected items are loaded since only the first page may have been loaded
+        if (!selectedPositions.isEmpty()) {
+            mMinItemCount = Collections.max(selectedPositions) + 1;
+            if (mMediaList.size() < mMinItemCount) {
+                loadNextPage();
+            }
+        }
     }
 
     void clearSelection() {
@@ -409,17 +518,17 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
     }
 
     private void showPreview(int position) {
-        PhotoPickerItem item = getItemAtPosition(position);
+        DeviceMediaSource.Item item = getItemAtPosition(position);
         if (item != null) {
             trackOpenPreviewScreenEvent(item);
             MediaPreviewActivity.showPreview(
                     mContext,
                     null,
-                    item.mUri.toString());
+                    item.getUri().toString());
         }
     }
 
-    private void trackOpenPreviewScreenEvent(final PhotoPickerItem item) {
+    private void trackOpenPreviewScreenEvent(final DeviceMediaSource.Item item) {
         if (item == null) {
             return;
         }
@@ -427,103 +536,122 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
         new Thread(new Runnable() {
             public void run() {
                 Map<String, Object> properties =
-                        AnalyticsUtils.getMediaProperties(mContext, item.mIsVideo, item.mUri, null);
-                properties.put("is_video", item.mIsVideo);
+                        AnalyticsUtils.getMediaProperties(mContext, item.isVideo(), item.getUri(), null);
+                properties.put("is_video", item.isVideo());
                 AnalyticsTracker.track(AnalyticsTracker.Stat.MEDIA_PICKER_PREVIEW_OPENED, properties);
             }
         }).start();
     }
 
     /*
-     * builds the list of media items from the device
+     * merges the passed items, which are all the device items at least as new as the oldest loaded item, into
+     * the loaded items so only the inserted and removed items are updated. both lists are sorted newest first.
      */
-    private class BuildDeviceMediaListTask extends AsyncTask<Void, Void, Boolean> {
-        private final ArrayList<PhotoPickerItem> mTmpList = new ArrayList<>();
-        private final boolean mReload;
-        private static final String ID_COL = MediaStore.Images.Media._ID;
-
-        BuildDeviceMediaListTask(boolean mustReload) {
-            super();
-            mReload = mustReload;
+    private void mergeMediaChanges(@NonNull List<DeviceMediaSource.Item> currentItems) {
+        int position = 0;
+        int currentIndex = 0;
+        while (position < mMediaList.size() || currentIndex < currentItems.size()) {
+            DeviceMediaSource.Item loaded = position < mMediaList.size() ? mMediaList.get(position) : null;
+            DeviceMediaSource.Item current =
+                    currentIndex < currentItems.size() ? currentItems.get(currentIndex) : null;
+            if (loaded != null && current != null && loaded.getId() == current.getId()) {
+                position++;
+                currentIndex++;
+            } else if (current == null || (loaded != null && loaded.getId() > current.getId())) {
+                // the loaded item is no longer on the device
+                mMediaList.remove(position);
+                onItemRemoved(position);
+                notifyItemRemoved(position);
+            } else {
+                mMediaList.add(position, current);
+                onItemInserted(position);
+                notifyItemInserted(position);
+                position++;
+                currentIndex++;
+            }
         }
+    }
 
-        @Override
-        protected Boolean doInBackground(Void... params) {
-            // images
-            addMedia(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, false);
-
-            // videos
-            if (!mBrowserType.isSingleImagePicker()) {
-                addMedia(MediaStore.Video.Media.EXTERNAL_CONTENT_URI, true);
+    /*
+     * keeps the selection in sync when an item is inserted before or at a selected position
+     */
+    private void onItemInserted(int position) {
+        for (int i = 0; i < mSelectedPositions.size(); i++) {
+            int selectedPosition = mSelectedPositions.get(i);
+            if (selectedPosition >= position) {
+                mSelectedPositions.set(i, selectedPosition + 1);
             }
+        }
+    }
 
-            // sort by id in reverse (newest first)
-            Collections.sort(mTmpList, new Comparator<PhotoPickerItem>() {
-                @Override
-                public int compare(PhotoPickerItem o1, PhotoPickerItem o2) {
-                    long id1 = o1.mId;
-                    long id2 = o2.mId;
-                    return (id2 < id1) ? -1 : ((id1 == id2) ? 0 : 1);
-                }
-            });
-
-            // if we're reloading then return true so the adapter is updated, otherwise only
-            // return true if changes are detected
-            return mReload || !isSameMediaList();
-        }
-
-        private void addMedia(Uri baseUri, boolean isVideo) {
-            String[] projection = {ID_COL};
-            Cursor cursor = null;
-            try {
-                cursor = mContext.getContentResolver().query(
-                        baseUri,
-                        projection,
-                        null,
-                        null,
-                        null);
-            } catch (SecurityException e) {
-                AppLog.e(AppLog.T.MEDIA, e);
+    /*
+     * keeps the selection in sync when an item is removed, deselecting it if it was selected
+     */
+    private void onItemRemoved(int position) {
+        int selectedIndex = mSelectedPositions.indexOf(position);
+        if (selectedIndex > -1) {
+            mSelectedPositions.remove(selectedIndex);
+            notifySelectionCountChanged();
+        }
+        for (int i = 0; i < mSelectedPositions.size(); i++) {
+            int selectedPosition = mSelectedPositions.get(i);
+            if (selectedPosition > position) {
+                mSelectedPositions.set(i, selectedPosition - 1);
             }
+        }
+    }
 
-            if (cursor == null) {
-                return;
+    /*
+     * called when a load started by startPageLoad() finishes with the passed items
+     */
+    @VisibleForTesting
+    void onPageLoaded(boolean reload, int count, @NonNull List<DeviceMediaSource.Item> page) {
+        mHasMoreMedia = page.size() >= count;
+        if (reload) {
+            mMediaList.clear();
+            mMediaList.addAll(page);
+            notifyDataSetChanged();
+            if (mListener != null) {
+                mListener.onAdapterLoaded(isEmpty());
             }
+        } else if (!page.isEmpty()) {
+            int startPosition = mMediaList.size();
+            mMediaList.addAll(page);
+            notifyItemRangeInserted(startPosition, page.size());
+        }
+        onListTaskFinished();
+    }
 
-            try {
-                int idIndex = cursor.getColumnIndexOrThrow(ID_COL);
-                while (cursor.moveToNext()) {
-                    PhotoPickerItem item = new PhotoPickerItem();
-                    item.mId = cursor.getLong(idIndex);
-                    item.mUri = Uri.withAppendedPath(baseUri, "" + item.mId);
-                    item.mIsVideo = isVideo;
-                    mTmpList.add(item);
-                }
-            } finally {
-                SqlUtils.closeCursor(cursor);
-            }
+    /*
+     * called when a load started by startApplyMediaChanges() finishes with the passed items
+     */
+    @VisibleForTesting
+    void onMediaChangesLoaded(@NonNull List<DeviceMediaSource.Item> currentItems) {
+        mergeMediaChanges(currentItems);
+        if (mListener != null) {
+            mListener.onAdapterLoaded(isEmpty());
         }
+        onListTaskFinished();
+    }
 
-        // returns true if the media list built here is the same as the existing one
-        private boolean isSameMediaList() {
-            if (mTmpList.size() != mMediaList.size()) {
-                return false;
-            }
-            for (int i = 0; i < mTmpList.size(); i++) {
-                if (!isValidPosition(i)) {
-                    return false;
-                }
-                if (mTmpList.get(i).mId != mMediaList.get(i).mId) {
-                    return false;
-                }
-            }
-            return true;
+    /*
+     * loads the first page of media items from the device, or the page after the loaded items
+     */
+    private class LoadDeviceMediaPageTask extends AsyncTask<Void, Void, List<DeviceMediaSource.Item>> {
+        private final boolean mReload;
+        private final long mBeforeId;
+        private final int mCount;
+
+        LoadDeviceMediaPageTask(boolean reload, long beforeId, int count) {
+            super();
+            mReload = reload;
+            mBeforeId = beforeId;
+            mCount = count;
         }
 
         @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            mIsListTaskRunning = true;
+        protected List<DeviceMediaSource.Item> doInBackground(Void... params) {
+            return mMediaSource.getPage(mBeforeId, mCount);
         }
 
         @Override
@@ -533,16 +661,36 @@ public class PhotoPickerAdapter extends RecyclerView.Adapter<PhotoPickerAdapter.
         }
 
         @Override
-        protected void onPostExecute(Boolean result) {
-            if (result) {
-                mMediaList.clear();
-                mMediaList.addAll(mTmpList);
-                notifyDataSetChanged();
-            }
-            if (mListener != null) {
-                mListener.onAdapterLoaded(isEmpty());
-            }
+        protected void onPostExecute(List<DeviceMediaSource.Item> page) {
+            onPageLoaded(mReload, mCount, page);
+        }
+    }
+
+    /*
+     * updates the loaded media items with the items added to or removed from the device since they were loaded
+     */
+    private class ApplyDeviceMediaChangesTask extends AsyncTask<Void, Void, List<DeviceMediaSource.Item>> {
+        private final long mOldestLoadedId;
+
+        ApplyDeviceMediaChangesTask(long oldestLoadedId) {
+            super();
+            mOldestLoadedId = oldestLoadedId;
+        }
+
+        @Override
+        protected List<DeviceMediaSource.Item> doInBackground(Void... params) {
+            return mMediaSource.getItemsSince(mOldestLoadedId);
+        }
+
+        @Override
+        protected void onCancelled() {
+            super.onCancelled();
             mIsListTaskRunning = false;
         }
+
+        @Override
+        protected void onPostExecute(List<DeviceMediaSource.Item> currentItems) {
+            onMediaChangesLoaded(currentItems);
+        }
     }
 }
@@ -361,11 +361,6 @@ public class PhotoPickerFragment extends Fragment {
 
         @Override
         public void onAdapterLoaded(boolean isEmpty) {
-            // restore previous selection
-            if (mSelectedPositions != null) {
-                getAdapter().setSelectedPositions(mSelectedPositions);
-                mSelectedPositions = null;
-            }
             // restore previous state
             if (mRestoreState != null) {
                 mGridManager.onRestoreInstanceState(mRestoreState);
@@ -406,6 +401,12 @@ public class PhotoPickerFragment extends Fragment {
         mGridManager = new GridLayoutManager(getActivity(), NUM_COLUMNS);
         mRecycler.setLayoutManager(mGridManager);
         mRecycler.setAdapter(getAdapter());
+        // restore previous selection before loading, so every selected item is loaded rather than only the
+        // first page
+        if (mSelectedPositions != null) {
+            getAdapter().setSelectedPositions(mSelectedPositions);
+            mSelectedPositions = null;
+        }
         getAdapter().refresh(true);
     }
 
@@ -1,8 +1,8 @@
 package org.wordpress.android.ui.posts;
 
-import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextUtils;
@@ -17,8 +17,10 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -38,13 +40,22 @@ import org.wordpress.android.util.ToastUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
 public class PostSettingsTagsActivity extends AppCompatActivity implements TextWatcher, View.OnKeyListener {
     public static final String KEY_TAGS = "KEY_TAGS";
     public static final String KEY_SELECTED_TAGS = "KEY_SELECTED_TAGS";
+
+    // loading and filtering the tags run one at a time in the order they were started, so a filter always uses
+    // the most recently loaded tags and a slow filter can't overwrite the result of a later one
+    private static final Executor FILTER_EXECUTOR = Executors.newSingleThreadExecutor();
+    // lists larger than this aren't diffed since the diff would take longer than rebinding the visible rows
+    private static final int MAX_DIFF_SIZE = 300;
+
     private SiteModel mSite;
 
     private EditText mTagsEditText;
@@ -88,8 +99,7 @@ public class PostSettingsTagsActivity extends AppCompatActivity implements TextW
         recyclerView.setHasFixedSize(true);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
-        mAdapter = new TagsRecyclerViewAdapter(this);
-        mAdapter.setAllTags(mTaxonomyStore.getTagsForSite(mSite));
+        mAdapter = new TagsRecyclerViewAdapter();
         recyclerView.setAdapter(mAdapter);
 
         mTagsEditText = (EditText) findViewById(R.id.tags_edit_text);
@@ -102,6 +112,8 @@ public class PostSettingsTagsActivity extends AppCompatActivity implements TextW
             mTagsEditText.setText(tags);
             mTagsEditText.setSelection(mTagsEditText.length());
         }
+
+        loadTags();
     }
 
     @Override
@@ -214,19 +226,42 @@ public class PostSettingsTagsActivity extends AppCompatActivity implements TextW
     public void onTaxonomyChanged(OnTaxonomyChanged event) {
         switch (event.causeOfChange) {
             case FETCH_TAGS:
-                mAdapter.setAllTags(mTaxonomyStore.getTagsForSite(mSite));
-                filterListForCurrentText();
+                loadTags();
                 break;
         }
     }
 
+    private void loadTags() {
+        new LoadTagsTask().executeOnExecutor(FILTER_EXECUTOR);
+    }
+
+    /*
+     * AsyncTask which reads the site's tags from the database and indexes them, then filters them with the
+     * current text
+     */
+    private class LoadTagsTask extends AsyncTask<Void, Void, TagSearchIndex> {
+        @Override
+        protected TagSearchIndex doInBackground(Void... params) {
+            return new TagSearchIndex(mTaxonomyStore.getTagsForSite(mSite));
+        }
+
+        @Override
+        protected void onPostExecute(TagSearchIndex index) {
+            if (isFinishing()) {
+                return;
+            }
+            mAdapter.setSearchIndex(index);
+            filterListForCurrentText();
+        }
+    }
+
     private class TagsRecyclerViewAdapter extends RecyclerView.Adapter<TagsRecyclerViewAdapter.TagViewHolder> {
-        private List<TermModel> mAllTags;
+        private final AtomicInteger mFilterGeneration = new AtomicInteger();
+        private TagSearchIndex mSearchIndex;
+        private TagSearchIndex.Result mLastFilterResult;
         private List<TermModel> mFilteredTags;
-        private Context mContext;
 
-        TagsRecyclerViewAdapter(Context context) {
-            mContext = context;
+        TagsRecyclerViewAdapter() {
             mFilteredTags = new ArrayList<>();
         }
 
@@ -251,36 +286,76 @@ public class PostSettingsTagsActivity extends AppCompatActivity implements TextW
             return mFilteredTags.size();
         }
 
-        void setAllTags(List<TermModel> allTags) {
-            mAllTags = allTags;
+        void setSearchIndex(@NonNull TagSearchIndex searchIndex) {
+            mSearchIndex = searchIndex;
+            mLastFilterResult = null;
         }
 
+        /*
+         * filters the tags on the filter thread - any filter which hasn't finished yet is dropped, since its
+         * result would be replaced by this one anyway
+         */
         public void filter(final String text) {
-            final List<TermModel> allTags = mAllTags;
-            new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    final List<TermModel> filteredTags = new ArrayList<>();
-                    if (TextUtils.isEmpty(text)) {
-                        filteredTags.addAll(allTags);
-                    } else {
-                        for (TermModel tag : allTags) {
-                            if (tag.getName().toLowerCase(Locale.getDefault())
-                                   .contains(text.toLowerCase(Locale.getDefault()))) {
-                                filteredTags.add(tag);
-                            }
-                        }
-                    }
+            if (mSearchIndex == null) {
+                // the tags will be filtered with the current text once they're loaded
+                return;
+            }
+            new FilterTagsTask(mSearchIndex, mLastFilterResult, mFilteredTags, mFilterGeneration.incrementAndGet())
+                    .executeOnExecutor(FILTER_EXECUTOR, text != null ? text : "");
+        }
+
+        /*
+         * AsyncTask which searches the tags in the search index, and updates the adapter with the tags which
+         * match unless a newer filter was started or the tags were reloaded while it was running
+         */
+        private class FilterTagsTask extends AsyncTask<String, Void, TagSearchIndex.Result> {
+            private final TagSearchIndex mIndex;
+            private final TagSearchIndex.Result mPreviousResult;
+            private final List<TermModel> mOldTags;
+            private final int mGeneration;
+            private DiffUtil.DiffResult mDiffResult;
+
+            FilterTagsTask(@NonNull TagSearchIndex index, @Nullable TagSearchIndex.Result previousResult,
+                           @NonNull List<TermModel> oldTags, int generation) {
+                mIndex = index;
+                mPreviousResult = previousResult;
+                mOldTags = oldTags;
+                mGeneration = generation;
+            }
+
+            private boolean isStale() {
+                return mGeneration != mFilterGeneration.get();
+            }
 
-                    ((Activity) mContext).runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            mFilteredTags = filteredTags;
-                            notifyDataSetChanged();
-                        }
-                    });
+            @Override
+            protected TagSearchIndex.Result doInBackground(String... params) {
+                if (isStale()) {
+                    return null;
                 }
-            }).start();
+                TagSearchIndex.Result result = mIndex.search(params[0], mPreviousResult);
+                List<TermModel> newTags = result.getTags();
+                if (mOldTags.size() <= MAX_DIFF_SIZE && newTags.size() <= MAX_DIFF_SIZE) {
+                    // move detection is skipped since it's the costly part of the diff, and a tag which is ranked
+                    // differently is just removed and inserted again
+                    mDiffResult = DiffUtil.calculateDiff(new TagDiffCallback(mOldTags, newTags), false);
+                }
+                return result;
+            }
+
+            @Override
+            protected void onPostExecute(TagSearchIndex.Result result) {
+                if (result == null || isStale() || mIndex != mSearchIndex) {
+                    return;
+                }
+                mLastFilterResult = result;
+                boolean isDiffValid = mDiffResult != null && mOldTags == mFilteredTags;
+                mFilteredTags = result.getTags();
+                if (isDiffValid) {
+                    mDiffResult.dispatchUpdatesTo(TagsRecyclerViewAdapter.this);
+                } else {
+                    notifyDataSetChanged();
+                }
+            }
         }
 
         class TagViewHolder extends RecyclerView.ViewHolder {
@@ -299,4 +374,37 @@ public class PostSettingsTagsActivity extends AppCompatActivity implements TextW
             }
         }
     }
+
+    /*
+     * compares two lists of tags so only the tags which were added or removed by a filter are animated
+     */
+    private static class TagDiffCallback extends DiffUtil.Callback {
+        private final List<TermModel> mOldTags;
+        private final List<TermModel> mNewTags;
+
+        TagDiffCallback(@NonNull List<TermModel> oldTags, @NonNull List<TermModel> newTags) {
+            mOldTags = oldTags;
+            mNewTags = newTags;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldTags.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewTags.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldTags.get(oldItemPosition).getId() == mNewTags.get(newItemPosition).getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return TextUtils.equals(mOldTags.get(oldItemPosition).getName(), mNewTags.get(newItemPosition).getName());
+        }
+    }
 }
@@ -430,6 +430,17 @@ public class PostUtils {
         return postContent;
     }
 
+    public static String replaceMediaFilesWithUrlsInGutenbergPost(@NonNull String postContent,
+                                                                  Map<String, MediaFile> mediaFilesByLocalId,
+                                                                  String siteUrl) {
+        if (!mediaFilesByLocalId.isEmpty() && contentContainsGutenbergBlocks(postContent)) {
+            MediaUploadCompletionProcessor processor = new MediaUploadCompletionProcessor(mediaFilesByLocalId,
+                    siteUrl);
+            postContent = processor.processPost(postContent);
+        }
+        return postContent;
+    }
+
     public static boolean isMediaInGutenbergPostBody(@NonNull String postContent,
                                             String localMediaId) {
         // check if media is in Gutenberg Post
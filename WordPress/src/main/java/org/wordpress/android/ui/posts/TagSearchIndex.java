@@ -0,0 +1,114 @@
+package org.wordpress.android.ui.posts;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.wordpress.android.fluxc.model.TermModel;
+import org.wordpress.android.util.SearchTextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * normalized copy of the names of a site's tags which is built once each time the tags screen loads the site's
+ * tags, so filtering the tags doesn't lowercase every name again for each character the user types. names are
+ * unescaped, lowercased and have their accents removed so "cafe" matches "Caf&eacute;".
+ * <p>
+ * tags whose name starts with the query come first, then tags with a later word starting with the query, then
+ * tags which only contain the query. results remember the query which produced them, so when the user adds to the
+ * end of the query only the tags which matched the shorter query are searched again. the index is immutable so
+ * it can be searched from a background thread.
+ */
+class TagSearchIndex {
+    static class Result {
+        private final TagSearchIndex mIndex;
+        private final String mNormalizedQuery;
+        // positions in the index of the tags which matched the query, in the order they were found
+        private final int[] mMatches;
+        private final List<TermModel> mTags;
+
+        private Result(@NonNull TagSearchIndex index, @NonNull String normalizedQuery, @NonNull int[] matches,
+                       @NonNull List<TermModel> tags) {
+            mIndex = index;
+            mNormalizedQuery = normalizedQuery;
+            mMatches = matches;
+            mTags = tags;
+        }
+
+        @NonNull
+        List<TermModel> getTags() {
+            return mTags;
+        }
+    }
+
+    private final TermModel[] mTags;
+    private final String[] mNames;
+
+    TagSearchIndex(@NonNull List<TermModel> tags) {
+        int count = tags.size();
+        mTags = tags.toArray(new TermModel[count]);
+        mNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            String name = mTags[i].getName();
+            mNames[i] = SearchTextUtils.normalize(name != null ? StringEscapeUtils.unescapeHtml4(name) : null);
+        }
+    }
+
+    boolean isEmpty() {
+        return mTags.length == 0;
+    }
+
+    /*
+     * returns the tags whose name contains the passed query, best matches first. pass the result of the previous
+     * search so a query which extends the previous one only searches the tags which matched it
+     */
+    @NonNull
+    Result search(@NonNull String query, @Nullable Result previous) {
+        String normalizedQuery = SearchTextUtils.normalize(query);
+
+        int[] candidates;
+        int candidateCount;
+        if (previous != null && previous.mIndex == this && normalizedQuery.startsWith(previous.mNormalizedQuery)) {
+            // a tag which doesn't contain the previous query can't contain a longer one
+            if (normalizedQuery.equals(previous.mNormalizedQuery)) {
+                return previous;
+            }
+            candidates = previous.mMatches;
+            candidateCount = candidates.length;
+        } else {
+            candidates = null;
+            candidateCount = mTags.length;
+        }
+
+        int[] matches = new int[candidateCount];
+        int matchCount = 0;
+        List<TermModel> prefixMatches = new ArrayList<>();
+        List<TermModel> wordMatches = new ArrayList<>();
+        List<TermModel> otherMatches = new ArrayList<>();
+        String wordQuery = " " + normalizedQuery;
+        for (int i = 0; i < candidateCount; i++) {
+            int position = candidates != null ? candidates[i] : i;
+            String name = mNames[position];
+            if (name.startsWith(normalizedQuery)) {
+                prefixMatches.add(mTags[position]);
+            } else if (name.contains(wordQuery)) {
+                wordMatches.add(mTags[position]);
+            } else if (name.contains(normalizedQuery)) {
+                otherMatches.add(mTags[position]);
+            } else {
+                continue;
+            }
+            matches[matchCount++] = position;
+        }
+
+        List<TermModel> tags = new ArrayList<>(matchCount);
+        tags.addAll(prefixMatches);
+        tags.addAll(wordMatches);
+        tags.addAll(otherMatches);
+
+        int[] trimmedMatches = new int[matchCount];
+        System.arraycopy(matches, 0, trimmedMatches, 0, matchCount);
+        return new Result(this, normalizedQuery, trimmedMatches, tags);
+    }
+}
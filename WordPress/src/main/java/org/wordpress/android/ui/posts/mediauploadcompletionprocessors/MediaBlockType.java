@@ -48,12 +48,7 @@ enum MediaBlockType {
      * @return The media block type or null if no match is found
      */
     static MediaBlockType detectBlockType(String block) {
-        final Pattern pattern = Pattern.compile(new StringBuilder()
-                .append(PATTERN_BLOCK_PREFIX)
-                .append(MediaBlockType.getMatchingGroup())
-                .append(")")
-                .toString());
-        Matcher matcher = pattern.matcher(block);
+        Matcher matcher = BlockTypePatternHolder.PATTERN_BLOCK_TYPE.matcher(block);
 
         if (matcher.find()) {
             return MediaBlockType.fromString(matcher.group(1));
@@ -61,4 +56,15 @@ enum MediaBlockType {
 
         return null;
     }
+
+    /*
+     * holds the block type pattern so it's compiled once, after the enum constants it's built from exist
+     */
+    private static class BlockTypePatternHolder {
+        private static final Pattern PATTERN_BLOCK_TYPE = Pattern.compile(new StringBuilder()
+                .append(PATTERN_BLOCK_PREFIX)
+                .append(MediaBlockType.getMatchingGroup())
+                .append(")")
+                .toString());
+    }
 }
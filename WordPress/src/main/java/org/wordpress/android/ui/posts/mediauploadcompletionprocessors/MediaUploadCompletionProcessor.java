@@ -2,12 +2,23 @@ package org.wordpress.android.ui.posts.mediauploadcompletionprocessors;
 
 import org.wordpress.android.util.helpers.MediaFile;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.wordpress.android.ui.posts.mediauploadcompletionprocessors.MediaUploadCompletionProcessorPatterns.PATTERN_BLOCK;
 
 public class MediaUploadCompletionProcessor {
-    private final BlockProcessorFactory mBlockProcessorFactory;
+    /**
+     * A {@link Pattern} to match the numbers in a block header, some of which are media ids
+     */
+    private static final Pattern PATTERN_HEADER_NUMBER = Pattern.compile("\\d+");
+    private static final String BLOCK_HEADER_END = "-->";
+
+    // block processor factories keyed by the local media id they replace
+    private final Map<String, BlockProcessorFactory> mBlockProcessorFactories;
 
     /**
      * Processor used for replacing local media id(s) and url(s) with their remote counterparts after an upload has
@@ -18,49 +29,78 @@ public class MediaUploadCompletionProcessor {
      * @param siteUrl The site url - used to generate the attachmentPage url
      */
     public MediaUploadCompletionProcessor(String localId, MediaFile mediaFile, String siteUrl) {
-        mBlockProcessorFactory = new BlockProcessorFactory()
-                .init(localId, mediaFile, siteUrl);
+        this(Collections.singletonMap(localId, mediaFile), siteUrl);
+    }
+
+    /**
+     * Processor used for replacing the local ids and urls of several media items with their remote counterparts in
+     * a single pass over the post, such as when a batch of uploads completes.
+     *
+     * @param mediaFilesByLocalId The mediaFiles containing the remote ids and remote urls, keyed by local media id
+     * @param siteUrl The site url - used to generate the attachmentPage url
+     */
+    public MediaUploadCompletionProcessor(Map<String, MediaFile> mediaFilesByLocalId, String siteUrl) {
+        mBlockProcessorFactories = new HashMap<>();
+        for (Map.Entry<String, MediaFile> entry : mediaFilesByLocalId.entrySet()) {
+            mBlockProcessorFactories.put(entry.getKey(),
+                    new BlockProcessorFactory().init(entry.getKey(), entry.getValue(), siteUrl));
+        }
     }
 
     /**
      * Processes a post to replace the local ids and local urls of media with remote ids and remote urls. This matches
-     * media-containing blocks and delegates further processing to {@link #processBlock(String)}
+     * media-containing blocks and delegates further processing to {@link #processBlock(String, MediaBlockType)}
      *
      * @param postContent The post content to be processed
      * @return A string containing the processed post, or the original content if no match was found
      */
     public String processPost(String postContent) {
         Matcher matcher = PATTERN_BLOCK.matcher(postContent);
-        StringBuilder result = new StringBuilder();
+        StringBuilder result = new StringBuilder(postContent.length());
 
         int position = 0;
 
         while (matcher.find()) {
-            result.append(postContent.substring(position, matcher.start()));
-            result.append(processBlock(matcher.group()));
+            result.append(postContent, position, matcher.start());
+            result.append(processBlock(matcher.group(), MediaBlockType.fromString(matcher.group(1))));
             position = matcher.end();
         }
 
-        result.append(postContent.substring(position));
+        result.append(postContent, position, postContent.length());
 
         return result.toString();
     }
 
 
     /**
-     * Processes a media block returning a raw content replacement string
+     * Processes a media block returning a raw content replacement string. Only the processors for media ids
+     * found in the block header are run, so the cost of processing a block doesn't grow with the number of media
+     * items being replaced.
      *
      * @param block The raw block contents
+     * @param blockType The type of the block
      * @return A string containing content with ids and urls replaced
      */
-    private String processBlock(String block) {
-        final MediaBlockType blockType = MediaBlockType.detectBlockType(block);
-        final BlockProcessor blockProcessor = mBlockProcessorFactory.getProcessorForMediaBlockType(blockType);
+    private String processBlock(String block, MediaBlockType blockType) {
+        if (blockType == null) {
+            return block;
+        }
+
+        int headerEnd = block.indexOf(BLOCK_HEADER_END);
+        Matcher matcher = PATTERN_HEADER_NUMBER.matcher(block);
+        matcher.region(0, headerEnd == -1 ? block.length() : headerEnd);
 
-        if (blockProcessor != null) {
-            return blockProcessor.processBlock(block);
+        String processedBlock = block;
+        while (matcher.find()) {
+            BlockProcessorFactory blockProcessorFactory = mBlockProcessorFactories.get(matcher.group());
+            if (blockProcessorFactory != null) {
+                BlockProcessor blockProcessor = blockProcessorFactory.getProcessorForMediaBlockType(blockType);
+                if (blockProcessor != null) {
+                    processedBlock = blockProcessor.processBlock(processedBlock);
+                }
+            }
         }
 
-        return block;
+        return processedBlock;
     }
 }
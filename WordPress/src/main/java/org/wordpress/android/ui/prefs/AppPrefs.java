@@ -78,6 +78,9 @@ public class AppPrefs {
         // index of the last active people list filter in People Management activity
         PEOPLE_LIST_FILTER_INDEX,
 
+        // progress of the background sync of each site's people, stored with the local site id as a suffix
+        PEOPLE_SYNC_STATE,
+
         // selected site in the main activity
         SELECTED_SITE_LOCAL_ID,
 
@@ -101,6 +104,9 @@ public class AppPrefs {
         VIDEO_OPTIMIZE_WIDTH,
         VIDEO_OPTIMIZE_QUALITY, // Encoder max bitrate
 
+        // Max number of media items uploaded at the same time to a single site
+        MAX_PARALLEL_MEDIA_UPLOADS_PER_SITE,
+
         // Used to flag whether the app should strip geolocation from images
         STRIP_IMAGE_LOCATION,
 
@@ -381,6 +387,18 @@ public class AppPrefs {
         }
     }
 
+    public static String getPeopleSyncState(int localTableBlogId) {
+        String key = DeletablePrefKey.PEOPLE_SYNC_STATE.name() + "-" + localTableBlogId;
+        return prefs().getString(key, "");
+    }
+
+    public static void setPeopleSyncState(int localTableBlogId, String state) {
+        String key = DeletablePrefKey.PEOPLE_SYNC_STATE.name() + "-" + localTableBlogId;
+        SharedPreferences.Editor editor = prefs().edit();
+        editor.putString(key, state);
+        editor.apply();
+    }
+
     // Store the version code of the app. Used to check it the app was upgraded.
     public static int getLastAppVersionCode() {
         return getInt(UndeletablePrefKey.LAST_APP_VERSION_INDEX);
@@ -777,6 +795,15 @@ public class AppPrefs {
         return quality > 1 ? quality : WPMediaUtils.OPTIMIZE_VIDEO_ENCODER_BITRATE_KB;
     }
 
+    public static void setMaxParallelMediaUploadsPerSite(int maxUploads) {
+        setInt(DeletablePrefKey.MAX_PARALLEL_MEDIA_UPLOADS_PER_SITE, maxUploads);
+    }
+
+    public static int getMaxParallelMediaUploadsPerSite() {
+        int maxUploads = getInt(DeletablePrefKey.MAX_PARALLEL_MEDIA_UPLOADS_PER_SITE, 0);
+        return maxUploads > 0 ? maxUploads : WPMediaUtils.MAX_PARALLEL_MEDIA_UPLOADS_PER_SITE;
+    }
+
     public static void setSupportEmail(String email) {
         setString(DeletablePrefKey.SUPPORT_EMAIL, email);
     }
@@ -107,6 +107,24 @@ public class ReaderEvents {
         }
     }
 
+    public static class LocalSearchPostsAdded {
+        private final String mQuery;
+        private final int mNumPosts;
+
+        public LocalSearchPostsAdded(@NonNull String query, int numPosts) {
+            mQuery = query;
+            mNumPosts = numPosts;
+        }
+
+        public String getQuery() {
+            return mQuery;
+        }
+
+        public int getNumPosts() {
+            return mNumPosts;
+        }
+    }
+
     public static class SearchPostsEnded {
         private final String mQuery;
         private final boolean mDidSucceed;
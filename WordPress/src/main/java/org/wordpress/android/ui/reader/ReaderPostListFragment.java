@@ -102,6 +102,7 @@ import org.wordpress.android.ui.reader.adapters.ReaderPostAdapter;
 import org.wordpress.android.ui.reader.adapters.ReaderSearchSuggestionAdapter;
 import org.wordpress.android.ui.reader.adapters.ReaderSiteSearchAdapter;
 import org.wordpress.android.ui.reader.adapters.ReaderSiteSearchAdapter.SiteSearchAdapterListener;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
 import org.wordpress.android.ui.reader.services.search.ReaderSearchServiceStarter;
@@ -1135,6 +1136,22 @@ public class ReaderPostListFragment extends Fragment
         mDispatcher.dispatch(ReaderActionBuilder.newReaderSearchSitesAction(payload));
     }
 
+    /*
+     * attaches stored posts matching the query to the search so they can be shown while the search
+     * is done on the server (and when it can't be) - this is queued on the reader's db writer so
+     * it's done before the server's results are saved
+     */
+    private void addLocalSearchResults(@NonNull final ReaderTag searchTag, @NonNull final String query) {
+        ReaderTaskScheduler.executeWrite("add local search results", new Runnable() {
+            @Override
+            public void run() {
+                int numPosts = ReaderPostTable.addLocalSearchResults(searchTag, query,
+                        ReaderConstants.READER_MAX_SEARCH_RESULTS_TO_REQUEST);
+                EventBus.getDefault().post(new ReaderEvents.LocalSearchPostsAdded(query, numPosts));
+            }
+        });
+    }
+
     private void submitSearchQuery(@NonNull String query) {
         if (!isAdded()) {
             return;
@@ -1154,6 +1171,7 @@ public class ReaderPostListFragment extends Fragment
 
         mPostAdapter.setCurrentTag(searchTag);
         mCurrentSearchQuery = trimQuery;
+        addLocalSearchResults(searchTag, trimQuery);
         updatePostsInCurrentSearch(0);
         updateSitesInCurrentSearch(0);
 
@@ -1377,6 +1395,20 @@ public class ReaderPostListFragment extends Fragment
         setEmptyTitleDescriptionAndButton(false);
     }
 
+    @SuppressWarnings("unused")
+    @Subscribe(threadMode = ThreadMode.MAIN)
+    public void onEventMainThread(ReaderEvents.LocalSearchPostsAdded event) {
+        if (!isAdded()) {
+            return;
+        }
+
+        if (event.getNumPosts() > 0
+            && getPostListType() == ReaderPostListType.SEARCH_RESULTS
+            && event.getQuery().equals(mCurrentSearchQuery)) {
+            refreshPosts();
+        }
+    }
+
     @SuppressWarnings("unused")
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEventMainThread(ReaderEvents.SearchPostsEnded event) {
@@ -1847,7 +1879,8 @@ public class ReaderPostListFragment extends Fragment
 
                         case SEARCH_RESULTS:
                             ReaderTag searchTag = ReaderUtils.getTagForSearchQuery(mCurrentSearchQuery);
-                            int offset = ReaderPostTable.getNumPostsWithTag(searchTag);
+                            // local results aren't counted since the server didn't return them
+                            int offset = ReaderPostTable.getNumServerSearchResults(searchTag);
                             if (offset < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY) {
                                 updatePostsInCurrentSearch(offset);
                                 AnalyticsTracker.track(AnalyticsTracker.Stat.READER_INFINITE_SCROLL);
@@ -4,17 +4,18 @@ import android.annotation.SuppressLint;
 import android.net.Uri;
 import android.os.Handler;
 
+import androidx.annotation.NonNull;
+
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostDiscoverData;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
 import org.wordpress.android.ui.reader.utils.FeaturedImageUtils;
 import org.wordpress.android.ui.reader.utils.ImageSizeMap;
 import org.wordpress.android.ui.reader.utils.ImageSizeMap.ImageSize;
-import org.wordpress.android.ui.reader.utils.ReaderEmbedScanner;
+import org.wordpress.android.ui.reader.utils.ReaderHtmlRewriter;
 import org.wordpress.android.ui.reader.utils.ReaderHtmlUtils;
-import org.wordpress.android.ui.reader.utils.ReaderIframeScanner;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.ui.reader.views.ReaderWebView;
 import org.wordpress.android.util.AppLog;
@@ -24,7 +25,6 @@ import org.wordpress.android.util.StringUtils;
 
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -46,7 +46,6 @@ public class ReaderPostRenderer {
     private final int mMinMidSizeWidthDp;
     private final WeakReference<ReaderWebView> mWeakWebView;
 
-    private StringBuilder mRenderBuilder;
     private String mRenderedHtml;
     private ImageSizeMap mAttachmentSizes;
     private FeaturedImageUtils mFeaturedImageUtils;
@@ -75,89 +74,72 @@ public class ReaderPostRenderer {
 
     public void beginRender() {
         final Handler handler = new Handler();
-        mRenderBuilder = new StringBuilder(getPostContent());
+        final String content = getPostContent();
 
-        new Thread() {
+        ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.HIGH, "render post", new Runnable() {
             @Override
             public void run() {
-                final boolean hasTiledGallery = hasTiledGallery(mRenderBuilder.toString());
-
-                if (!(hasTiledGallery && mResourceVars.mIsWideDisplay)) {
-                    resizeImages();
+                // use the previously rendered HTML if this post was already rendered with the same
+                // content on this display
+                final String cacheKey = ReaderRenderedHtmlCache.makeKey(mPost, content, mResourceVars.mRenderKey);
+                final String cachedHtml = ReaderRenderedHtmlCache.get(cacheKey);
+                if (cachedHtml != null) {
+                    AppLog.d(AppLog.T.READER,
+                            "reader renderer > using cached html, " + ReaderRenderedHtmlCache.getStatsForLog());
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            renderHtmlContent(cachedHtml);
+                        }
+                    });
+                    return;
                 }
 
-                resizeIframes();
+                final boolean hasTiledGallery = hasTiledGallery(content);
 
-                // Get the set of JS scripts to inject in our Webview to support some specific Embeds.
-                Set<String> jsToInject = injectJSForSpecificEmbedSupport();
+                // resize images and iframes for the display and find embeds which need a script,
+                // all in a single pass over the content
+                ReaderHtmlRewriter rewriter = new ReaderHtmlRewriter(
+                        content, !(hasTiledGallery && mResourceVars.mIsWideDisplay));
+                String rewrittenContent = rewriter.rewrite(new ReaderHtmlRewriter.HtmlRewriterListener() {
+                    @Override
+                    public String onImageTagFound(@NonNull String imageTag, @NonNull String imageUrl) {
+                        if (imageUrl.contains("wpcom-smileys")) {
+                            return null;
+                        }
+                        return makeResizedImageTag(imageTag, imageUrl);
+                    }
+
+                    @Override
+                    public String onIframeTagFound(@NonNull String iframeTag, @NonNull String src) {
+                        return makeResizedIframeTag(iframeTag, src);
+                    }
+                });
 
                 final String htmlContent =
                         formatPostContentForWebView(
-                                mRenderBuilder.toString(),
-                                jsToInject,
+                                rewrittenContent,
+                                rewriter.getEmbedScripts(),
                                 hasTiledGallery,
                                 mResourceVars.mIsWideDisplay);
-
-                mRenderBuilder = null;
                 handler.post(new Runnable() {
                     @Override
                     public void run() {
                         renderHtmlContent(htmlContent);
                     }
                 });
-            }
-        }.start();
-    }
 
-    public static boolean hasTiledGallery(String text) {
-        // determine whether a tiled-gallery exists in the content
-        return Pattern.compile("tiled-gallery[\\s\"']").matcher(text).find();
-    }
-
-    /*
-     * scan the content for images and make sure they're correctly sized for the device
-     */
-    private void resizeImages() {
-        ReaderHtmlUtils.HtmlScannerListener imageListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String imageTag, String imageUrl) {
-                if (!imageUrl.contains("wpcom-smileys")) {
-                    replaceImageTag(imageTag, imageUrl);
-                }
+                // cached after the render is posted so the disk write doesn't delay it
+                ReaderRenderedHtmlCache.put(cacheKey, htmlContent);
             }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderImageScanner scanner = new ReaderImageScanner(content, mPost.isPrivate);
-        scanner.beginScan(imageListener);
+        });
     }
 
-    /*
-     * scan the content for iframes and make sure they're correctly sized for the device
-     */
-    private void resizeIframes() {
-        ReaderHtmlUtils.HtmlScannerListener iframeListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String tag, String src) {
-                replaceIframeTag(tag, src);
-            }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderIframeScanner scanner = new ReaderIframeScanner(content);
-        scanner.beginScan(iframeListener);
-    }
+    private static final Pattern TILED_GALLERY_PATTERN = Pattern.compile("tiled-gallery[\\s\"']");
 
-    private Set<String> injectJSForSpecificEmbedSupport() {
-        final Set<String> jsToInject = new HashSet<>();
-        ReaderHtmlUtils.HtmlScannerListener embedListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String tag, String src) {
-                jsToInject.add(src);
-            }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderEmbedScanner scanner = new ReaderEmbedScanner(content);
-        scanner.beginScan(embedListener);
-        return jsToInject;
+    public static boolean hasTiledGallery(String text) {
+        // determine whether a tiled-gallery exists in the content
+        return TILED_GALLERY_PATTERN.matcher(text).find();
     }
 
     /*
@@ -181,11 +163,11 @@ public class ReaderPostRenderer {
     }
 
     /*
-     * called when image scanner finds an image, tries to replace the image tag with one that
-     * has height & width attributes set correctly for the current display, if that fails
-     * replaces it with one that has our 'size-none' class
+     * called when the rewriter finds an image, returns an image tag that has height & width
+     * attributes set correctly for the current display, if that fails returns one that has
+     * our 'size-none' class
      */
-    private void replaceImageTag(final String imageTag, final String imageUrl) {
+    private String makeResizedImageTag(final String imageTag, final String imageUrl) {
         ImageSize origSize = getImageSize(imageTag, imageUrl);
         boolean hasWidth = (origSize != null && origSize.width > 0);
         boolean isFullSize = hasWidth && (origSize.width >= mMinFullSizeWidthDp);
@@ -193,24 +175,15 @@ public class ReaderPostRenderer {
                             && (origSize.width >= mMinMidSizeWidthDp)
                             && (origSize.width < mMinFullSizeWidthDp);
 
-        final String newImageTag;
         if (isFullSize) {
-            newImageTag = makeFullSizeImageTag(imageUrl, origSize.width, origSize.height);
+            return makeFullSizeImageTag(imageUrl, origSize.width, origSize.height);
         } else if (isMidSize) {
-            newImageTag = makeImageTag(imageUrl, origSize.width, origSize.height, "size-medium");
+            return makeImageTag(imageUrl, origSize.width, origSize.height, "size-medium");
         } else if (hasWidth) {
-            newImageTag = makeImageTag(imageUrl, origSize.width, origSize.height, "size-none");
+            return makeImageTag(imageUrl, origSize.width, origSize.height, "size-none");
         } else {
-            newImageTag = "<img class='size-none' src='" + imageUrl + "' />";
+            return "<img class='size-none' src='" + imageUrl + "' />";
         }
-
-        int start = mRenderBuilder.indexOf(imageTag);
-        if (start == -1) {
-            AppLog.w(AppLog.T.READER, "reader renderer > image not found in builder");
-            return;
-        }
-
-        mRenderBuilder.replace(start, start + imageTag.length(), newImageTag);
     }
 
     private String makeImageTag(final String imageUrl, int width, int height, final String imageClass) {
@@ -313,9 +286,9 @@ public class ReaderPostRenderer {
     }
 
     /*
-     * replace the passed iframe tag with one that's correctly sized for the device
+     * returns an iframe tag to replace the passed one with that's correctly sized for the device
      */
-    private void replaceIframeTag(final String tag, final String src) {
+    private String makeResizedIframeTag(final String tag, final String src) {
         int width = ReaderHtmlUtils.getWidthAttrValue(tag);
         int height = ReaderHtmlUtils.getHeightAttrValue(tag);
 
@@ -330,18 +303,10 @@ public class ReaderPostRenderer {
             newHeight = mResourceVars.mVideoHeightPx;
         }
 
-        String newTag = "<iframe src='" + src + "'"
-                        + " frameborder='0' allowfullscreen='true' allowtransparency='true'"
-                        + " width='" + pxToDp(newWidth) + "'"
-                        + " height='" + pxToDp(newHeight) + "' />";
-
-        int start = mRenderBuilder.indexOf(tag);
-        if (start == -1) {
-            AppLog.w(AppLog.T.READER, "reader renderer > iframe not found in builder");
-            return;
-        }
-
-        mRenderBuilder.replace(start, start + tag.length(), newTag);
+        return "<iframe src='" + src + "'"
+               + " frameborder='0' allowfullscreen='true' allowtransparency='true'"
+               + " width='" + pxToDp(newWidth) + "'"
+               + " height='" + pxToDp(newHeight) + "' />";
     }
 
     /*
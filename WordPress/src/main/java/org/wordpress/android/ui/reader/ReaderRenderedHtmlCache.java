@@ -0,0 +1,152 @@
+package org.wordpress.android.ui.reader;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.DiskLruFileCache;
+import org.wordpress.android.util.StringUtils;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * two-tier (memory + disk) cache of the HTML generated by ReaderPostRenderer, so re-opening a post
+ * (ex: when swiping back and forth in ReaderPostPagerActivity) doesn't require rendering it again.
+ * entries are keyed by the post's pseudo_id along with a hash of the content being rendered and
+ * the display/theme-dependent values used when rendering, so a post whose text changes or which
+ * is rendered on a different width or in a different theme won't match an old entry.
+ */
+public class ReaderRenderedHtmlCache {
+    // memory tier size is measured in chars
+    private static final int MAX_MEMORY_CHARS = 1024 * 1024;
+    private static final long MAX_DISK_BYTES = 10 * 1024 * 1024;
+    private static final String DISK_CACHE_DIR = "reader_rendered_html";
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final LruCache<String, String> MEMORY_CACHE = new LruCache<String, String>(MAX_MEMORY_CHARS) {
+        @Override
+        protected int sizeOf(@NonNull String key, @NonNull String html) {
+            return html.length();
+        }
+    };
+
+    private static final DiskLruFileCache DISK_CACHE =
+            new DiskLruFileCache(DISK_CACHE_DIR, MAX_DISK_BYTES, AppLog.T.READER);
+
+    private static final AtomicInteger MEMORY_HITS = new AtomicInteger();
+    private static final AtomicInteger DISK_HITS = new AtomicInteger();
+    private static final AtomicInteger MISSES = new AtomicInteger();
+
+    /*
+     * returns the key for the passed post content rendered with the passed display/theme-dependent
+     * variables - keys for the same post share a prefix so they can be invalidated together
+     */
+    static String makeKey(@NonNull ReaderPost post, @NonNull String content, @NonNull String renderVarsKey) {
+        // attachments and the private flag affect how images in the content are sized
+        String variant = content
+                         + "\n" + post.getAttachmentsJson()
+                         + "\n" + post.isPrivate
+                         + "\n" + renderVarsKey;
+        return getPostPrefix(post.getPseudoId()) + StringUtils.getMd5Hash(variant);
+    }
+
+    private static String getPostPrefix(@NonNull String pseudoId) {
+        return StringUtils.getMd5Hash(pseudoId) + "_";
+    }
+
+    /*
+     * returns the cached HTML for the passed key, or null if it's not cached - note that this
+     * may read from disk so it shouldn't be called on the main thread
+     */
+    @Nullable
+    static String get(@NonNull String key) {
+        String html = MEMORY_CACHE.get(key);
+        if (html != null) {
+            MEMORY_HITS.incrementAndGet();
+            return html;
+        }
+
+        byte[] bytes = DISK_CACHE.read(key);
+        if (bytes != null) {
+            html = new String(bytes, CHARSET);
+            DISK_HITS.incrementAndGet();
+            MEMORY_CACHE.put(key, html);
+            return html;
+        }
+
+        MISSES.incrementAndGet();
+        return null;
+    }
+
+    /*
+     * adds the passed HTML to the memory tier right away, and writes it to disk in the background
+     */
+    static void put(@NonNull final String key, @NonNull final String html) {
+        MEMORY_CACHE.put(key, html);
+        ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.LOW, "write rendered html", new Runnable() {
+            @Override
+            public void run() {
+                DISK_CACHE.write(key, html.getBytes(CHARSET));
+            }
+        });
+    }
+
+    /*
+     * removes all cached HTML for the passed post
+     */
+    public static void invalidatePost(@NonNull String pseudoId) {
+        String prefix = getPostPrefix(pseudoId);
+        for (String key : MEMORY_CACHE.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                MEMORY_CACHE.remove(key);
+            }
+        }
+
+        DISK_CACHE.deleteFilesStartingWith(prefix);
+    }
+
+    /*
+     * removes all cached HTML (ex: when the reader database is reset) - the memory tier is cleared
+     * right away and the disk tier is cleared in the background, so this is safe to call on any thread
+     */
+    public static void clear() {
+        MEMORY_CACHE.evictAll();
+        ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.LOW, "clear rendered html", new Runnable() {
+            @Override
+            public void run() {
+                DISK_CACHE.clear();
+            }
+        });
+    }
+
+    public static int getMemoryHitCount() {
+        return MEMORY_HITS.get();
+    }
+
+    public static int getDiskHitCount() {
+        return DISK_HITS.get();
+    }
+
+    public static int getMissCount() {
+        return MISSES.get();
+    }
+
+    /*
+     * returns the percentage of lookups which were served from either tier
+     */
+    public static float getHitRate() {
+        int hits = MEMORY_HITS.get() + DISK_HITS.get();
+        int total = hits + MISSES.get();
+        return total == 0 ? 0f : (hits * 100f) / total;
+    }
+
+    static String getStatsForLog() {
+        return String.format(Locale.ENGLISH, "memory hits %d, disk hits %d, misses %d (%.1f%% hit rate)",
+                getMemoryHitCount(), getDiskHitCount(), getMissCount(), getHitRate());
+    }
+}
@@ -26,6 +26,10 @@ class ReaderResourceVars {
     final String mGreyLightStr;
     final String mGreyExtraLightStr;
 
+    // identifies the combination of the above values (along with the display density), used to
+    // ensure cached HTML is only reused when it was rendered with the same values
+    final String mRenderKey;
+
     ReaderResourceVars(Context context) {
         Resources resources = context.getResources();
 
@@ -50,5 +54,16 @@ class ReaderResourceVars {
         // 16:9 ratio (YouTube standard)
         mVideoWidthPx = mFullSizeImageWidthPx - (marginLargePx * 2);
         mVideoHeightPx = (int) (mVideoWidthPx * 0.5625f);
+
+        mRenderKey = resources.getDisplayMetrics().densityDpi
+                     + ":" + mIsWideDisplay
+                     + ":" + mFullSizeImageWidthPx
+                     + ":" + mFeaturedImageHeightPx
+                     + ":" + mVideoWidthPx
+                     + ":" + mMarginMediumPx
+                     + ":" + mLinkColorStr
+                     + ":" + mGreyMediumDarkStr
+                     + ":" + mGreyLightStr
+                     + ":" + mGreyExtraLightStr;
     }
 }
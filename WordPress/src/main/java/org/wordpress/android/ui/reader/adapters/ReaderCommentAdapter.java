@@ -86,6 +86,7 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
     }
 
     private ReaderCommentList mComments = new ReaderCommentList();
+    private ReaderCommentLeveler mCommentLeveler;
     private RequestReplyListener mReplyListener;
     private ReaderInterfaces.DataLoadedListener mDataLoadedListener;
     private ReaderActions.DataRequestedListener mDataRequestedListener;
@@ -547,8 +548,15 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
             mMoreCommentsExist = mTmpMoreCommentsExist;
 
             if (result) {
-                // assign the comments with children sorted under their parents and indent levels applied
-                mComments = new ReaderCommentLeveler(mTmpComments).createLevelList();
+                // assign the comments with children sorted under their parents and indent levels applied -
+                // comments are read in chronological order, so once the first page is leveled newly
+                // fetched pages are merged into the existing level list
+                if (mCommentLeveler == null) {
+                    mCommentLeveler = new ReaderCommentLeveler(mTmpComments);
+                    mComments = mCommentLeveler.createLevelList();
+                } else {
+                    mComments = mCommentLeveler.updateLevelList(mTmpComments);
+                }
                 notifyDataSetChanged();
             }
             if (mDataLoadedListener != null) {
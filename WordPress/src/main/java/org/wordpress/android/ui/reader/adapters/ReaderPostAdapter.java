@@ -19,6 +19,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.wordpress.android.R;
@@ -32,6 +34,7 @@ import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.models.ReaderCardType;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostDiscoverData;
+import org.wordpress.android.models.ReaderPostKey;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.news.NewsItem;
@@ -71,7 +74,11 @@ import org.wordpress.android.util.analytics.AnalyticsUtils;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -93,7 +100,13 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     private final boolean mIsLoggedOutReader;
 
     private final ReaderTypes.ReaderPostListType mPostListType;
-    private final ReaderPostList mPosts = new ReaderPostList();
+    private final ReaderPostPagedList mPosts = new ReaderPostPagedList(new ReaderPostPagedList.OnPostLoadedListener() {
+        @Override
+        public void onPostLoaded(int index) {
+            notifyItemChanged(getPositionForIndex(index));
+        }
+    });
+    private int mMaxPostsToDisplay = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY;
     private final HashSet<String> mRenderedIds = new HashSet<>();
     private NewsItem mNewsItem;
 
@@ -105,10 +118,6 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     private ReaderActions.DataRequestedListener mDataRequestedListener;
     private ReaderSiteHeaderView.OnBlogInfoLoadedListener mBlogInfoLoadedListener;
 
-    // the large "tbl_posts.text" column is unused here, so skip it when querying
-    private static final boolean EXCLUDE_TEXT_COLUMN = true;
-    private static final int MAX_ROWS = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY;
-
     private static final int VIEW_TYPE_POST = 0;
     private static final int VIEW_TYPE_XPOST = 1;
     private static final int VIEW_TYPE_SITE_HEADER = 2;
@@ -336,10 +345,11 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         } else if (position == mGapMarkerPosition) {
             return VIEW_TYPE_GAP_MARKER;
         } else {
-            ReaderPost post = getItem(position);
-            if (post != null && post.isXpost()) {
+            // the key is used rather than the post since the post may not have been loaded yet
+            ReaderPostKey key = getItemKey(position);
+            if (key != null && key.isXpost) {
                 return VIEW_TYPE_XPOST;
-            } else if (post != null && isBookmarksList() && !post.isBookmarked) {
+            } else if (key != null && isBookmarksList() && !key.isBookmarked) {
                 return VIEW_TYPE_REMOVED_POST;
             } else {
                 return VIEW_TYPE_POST;
@@ -379,6 +389,20 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if (holder instanceof ReaderPostViewHolder
+            || holder instanceof ReaderXPostViewHolder
+            || holder instanceof ReaderRemovedPostViewHolder) {
+            int index = getIndexForPosition(position);
+            mPosts.loadAround(index);
+            // the card is hidden until its post is loaded - it's rebound once the post is loaded
+            boolean isLoaded = mPosts.get(index) != null;
+            holder.itemView.setVisibility(isLoaded ? View.VISIBLE : View.INVISIBLE);
+            if (!isLoaded) {
+                checkLoadMore(position);
+                return;
+            }
+        }
+
         if (holder instanceof ReaderPostViewHolder) {
             renderPost(position, (ReaderPostViewHolder) holder);
         } else if (holder instanceof ReaderXPostViewHolder) {
@@ -404,6 +428,45 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         }
     }
 
+    /*
+     * binds only the parts of a post which changed when the only changes are the CHANGED_ flags
+     * from ReaderPostKey, so a like, bookmark or follow doesn't redraw the whole card
+     */
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        ReaderPost post = getItem(position);
+        // a card which is still waiting for its post to load is fully bound once the post is loaded
+        if (payloads.isEmpty() || !(holder instanceof ReaderPostViewHolder) || post == null
+            || holder.itemView.getVisibility() != View.VISIBLE) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+            changes |= (Integer) payload;
+        }
+
+        ReaderPostViewHolder postHolder = (ReaderPostViewHolder) holder;
+        if ((changes & ReaderPostKey.CHANGED_LIKES) != 0) {
+            showLikes(postHolder, post);
+        }
+        if ((changes & ReaderPostKey.CHANGED_COMMENTS) != 0) {
+            showComments(postHolder, post);
+        }
+        if ((changes & ReaderPostKey.CHANGED_FOLLOW) != 0 && shouldShowFollowButton()) {
+            postHolder.mFollowButton.setIsFollowed(post.isFollowedByCurrentUser);
+        }
+        if ((changes & ReaderPostKey.CHANGED_BOOKMARK) != 0) {
+            updateBookmarkView(postHolder, post);
+        }
+    }
+
     private void renderXPost(int position, ReaderXPostViewHolder holder) {
         final ReaderPost post = getItem(position);
         if (post == null) {
@@ -786,6 +849,17 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         }
     }
 
+    /*
+     * sets the maximum number of posts to show - only the posts around the visible range are kept
+     * in memory, so this can be raised without holding all of the posts in memory
+     */
+    public void setMaxPostsToDisplay(int maxPosts) {
+        if (maxPosts != mMaxPostsToDisplay) {
+            mMaxPostsToDisplay = maxPosts;
+            refresh();
+        }
+    }
+
     public void clear() {
         mGapMarkerPosition = -1;
         if (!mPosts.isEmpty()) {
@@ -807,37 +881,46 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     public void removePostsInBlog(long blogId) {
-        int numRemoved = 0;
-        ReaderPostList postsInBlog = mPosts.getPostsInBlog(blogId);
-        for (ReaderPost post : postsInBlog) {
-            int index = mPosts.indexOfPost(post);
-            if (index > -1) {
-                numRemoved++;
-                mPosts.remove(index);
-            }
-        }
-        if (numRemoved > 0) {
+        if (mPosts.removePostsInBlog(blogId) > 0) {
             notifyDataSetChanged();
         }
     }
 
     private void loadPosts() {
         if (mIsTaskRunning) {
+            // the running task may have read the posts before they changed, so load them again once it's done
             AppLog.w(AppLog.T.READER, "reader posts task already running");
+            mIsLoadPending = true;
             return;
         }
         new LoadPostsTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
+    /*
+     * returns the post at the passed adapter position, or null if the position isn't a post or the
+     * post hasn't been loaded yet
+     */
     private ReaderPost getItem(int position) {
+        return mPosts.get(getIndexForPosition(position));
+    }
+
+    private ReaderPostKey getItemKey(int position) {
+        return mPosts.getKey(getIndexForPosition(position));
+    }
+
+    /*
+     * returns the index in mPosts of the post at the passed adapter position, or -1 if the
+     * position isn't a post
+     */
+    private int getIndexForPosition(int position) {
         if (position == NEWS_CARD_POSITION && hasNewsCard()) {
-            return null;
+            return -1;
         }
         if (position == getHeaderPosition() && hasHeader()) {
-            return null;
+            return -1;
         }
         if (position == mGapMarkerPosition) {
-            return null;
+            return -1;
         }
 
         int arrayPos = position - getItemPositionOffset();
@@ -846,7 +929,15 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             arrayPos--;
         }
 
-        return mPosts.get(arrayPos);
+        return arrayPos;
+    }
+
+    private int getPositionForIndex(int index) {
+        int position = index + getItemPositionOffset();
+        if (mGapMarkerPosition > -1 && position >= mGapMarkerPosition) {
+            position++;
+        }
+        return position;
     }
 
     private int getItemPositionOffset() {
@@ -876,7 +967,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     public boolean isEmpty() {
-        return (mPosts == null || mPosts.size() == 0);
+        return mPosts.isEmpty();
     }
 
     private boolean isBookmarksList() {
@@ -895,8 +986,8 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             case VIEW_TYPE_NEWS_CARD:
                 return ITEM_ID_NEWS_CARD;
             default:
-                ReaderPost post = getItem(position);
-                return post != null ? post.getStableId() : 0;
+                ReaderPostKey key = getItemKey(position);
+                return key != null ? key.getStableId() : 0;
         }
     }
 
@@ -1115,13 +1206,11 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     public void setFollowStatusForBlog(long blogId, boolean isFollowing) {
-        ReaderPost post;
         for (int i = 0; i < mPosts.size(); i++) {
-            post = mPosts.get(i);
-            if (post.blogId == blogId && post.isFollowedByCurrentUser != isFollowing) {
-                post.isFollowedByCurrentUser = isFollowing;
-                mPosts.set(i, post);
-                notifyItemChanged(i);
+            ReaderPostKey key = mPosts.getKey(i);
+            if (key != null && key.blogId == blogId && key.isFollowedByCurrentUser != isFollowing) {
+                mPosts.setFollowStatus(i, isFollowing);
+                notifyItemChanged(getPositionForIndex(i), ReaderPostKey.CHANGED_FOLLOW);
             }
         }
     }
@@ -1164,9 +1253,18 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
      * AsyncTask to load posts in the current tag
      */
     private boolean mIsTaskRunning = false;
+    private boolean mIsLoadPending = false;
 
     private class LoadPostsTask extends AsyncTask<Void, Void, Boolean> {
-        private ReaderPostList mAllPosts;
+        private List<ReaderPostKey> mOldKeys;
+        private Set<String> mLoadedPseudoIds;
+        private int mModCount;
+        private int mMaxPosts;
+        private boolean mIsBookmarksList;
+
+        private List<ReaderPostKey> mNewKeys;
+        private ReaderPostList mLoadedPosts;
+        private DiffUtil.DiffResult mDiffResult;
 
         private boolean mCanRequestMorePostsTemp;
         private int mGapMarkerPositionTemp;
@@ -1174,43 +1272,56 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         @Override
         protected void onPreExecute() {
             mIsTaskRunning = true;
+            mOldKeys = mPosts.getKeys();
+            mLoadedPseudoIds = mPosts.getLoadedPseudoIds();
+            mModCount = mPosts.getModCount();
+            mMaxPosts = mMaxPostsToDisplay;
+            mIsBookmarksList = isBookmarksList();
         }
 
         @Override
         protected void onCancelled() {
             mIsTaskRunning = false;
+            mIsLoadPending = false;
         }
 
         @Override
         protected Boolean doInBackground(Void... params) {
-            int numExisting;
+            // only the keys are loaded for the whole stream - the posts are loaded a page at a time when bound
             switch (getPostListType()) {
                 case TAG_PREVIEW:
                 case TAG_FOLLOWED:
                 case SEARCH_RESULTS:
-                    mAllPosts = ReaderPostTable.getPostsWithTag(mCurrentTag, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                    numExisting = ReaderPostTable.getNumPostsWithTag(mCurrentTag);
+                    mNewKeys = ReaderPostTable.getPostKeysWithTag(mCurrentTag, mMaxPosts);
                     break;
                 case BLOG_PREVIEW:
                     if (mCurrentFeedId != 0) {
-                        mAllPosts = ReaderPostTable.getPostsInFeed(mCurrentFeedId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                        numExisting = ReaderPostTable.getNumPostsInFeed(mCurrentFeedId);
+                        mNewKeys = ReaderPostTable.getPostKeysInFeed(mCurrentFeedId, mMaxPosts);
                     } else {
-                        mAllPosts = ReaderPostTable.getPostsInBlog(mCurrentBlogId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                        numExisting = ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
+                        mNewKeys = ReaderPostTable.getPostKeysInBlog(mCurrentBlogId, mMaxPosts);
                     }
                     break;
                 default:
                     return false;
             }
 
-            if (mPosts.isSameListWithBookmark(mAllPosts)) {
+            Map<String, ReaderPostKey> oldKeysByPseudoId = new HashMap<>();
+            for (ReaderPostKey key : mOldKeys) {
+                oldKeysByPseudoId.put(key.getPseudoId(), key);
+            }
+
+            if (isSameList(oldKeysByPseudoId)) {
                 return false;
             }
 
+            // load the first page along with any loaded posts which changed, so changes can be bound right away
+            mLoadedPosts = ReaderPostPagedList.loadPosts(
+                    ReaderPostPagedList.getPseudoIdsToLoadWithKeys(mNewKeys, oldKeysByPseudoId, mLoadedPseudoIds));
+            mDiffResult = DiffUtil.calculateDiff(new PostKeyDiffCallback(mOldKeys, mNewKeys, mIsBookmarksList), false);
+
             // if we're not already displaying the max # posts, enable requesting more when
             // the user scrolls to the end of the list
-            mCanRequestMorePostsTemp = (numExisting < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
+            mCanRequestMorePostsTemp = (mNewKeys.size() < mMaxPosts);
 
             // determine whether a gap marker exists - only applies to tagged posts
             mGapMarkerPositionTemp = getGapMarkerPosition();
@@ -1218,6 +1329,19 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             return true;
         }
 
+        private boolean isSameList(@NonNull Map<String, ReaderPostKey> oldKeysByPseudoId) {
+            if (mOldKeys.size() != mNewKeys.size()) {
+                return false;
+            }
+            for (ReaderPostKey key : mNewKeys) {
+                ReaderPostKey oldKey = oldKeysByPseudoId.get(key.getPseudoId());
+                if (oldKey == null || oldKey.getChanges(key) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         private int getGapMarkerPosition() {
             if (!getPostListType().isTagType()) {
                 return -1;
@@ -1228,12 +1352,20 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
                 return -1;
             }
 
-            int gapMarkerPostPosition = mAllPosts.indexOfIds(gapMarkerIds);
+            int gapMarkerPostPosition = -1;
+            for (int i = 0; i < mNewKeys.size(); i++) {
+                ReaderPostKey key = mNewKeys.get(i);
+                if (key.blogId == gapMarkerIds.getBlogId() && key.postId == gapMarkerIds.getPostId()) {
+                    gapMarkerPostPosition = i;
+                    break;
+                }
+            }
+
             int gapMarkerPosition = -1;
             if (gapMarkerPostPosition > -1) {
                 // remove the gap marker if it's on the last post (edge case but
                 // it can happen following a purge)
-                if (gapMarkerPostPosition == mAllPosts.size() - 1) {
+                if (gapMarkerPostPosition == mNewKeys.size() - 1) {
                     AppLog.w(AppLog.T.READER, "gap marker at/after last post, removed");
                     ReaderPostTable.removeGapMarkerForTag(mCurrentTag);
                 } else {
@@ -1250,11 +1382,22 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         @Override
         protected void onPostExecute(Boolean result) {
             if (result) {
+                // the diff is only dispatched when the rows around the posts stay the same - the header and
+                // news card depend on whether the list is empty, and the gap marker shifts the posts below it
+                boolean canDispatchDiff = mModCount == mPosts.getModCount()
+                                          && !mPosts.isEmpty()
+                                          && !mNewKeys.isEmpty()
+                                          && ReaderPostAdapter.this.mGapMarkerPosition == -1
+                                          && mGapMarkerPositionTemp == -1;
+
                 ReaderPostAdapter.this.mGapMarkerPosition = mGapMarkerPositionTemp;
                 ReaderPostAdapter.this.mCanRequestMorePosts = mCanRequestMorePostsTemp;
-                mPosts.clear();
-                mPosts.addAll(mAllPosts);
-                notifyDataSetChanged();
+                mPosts.setKeys(mNewKeys, mLoadedPosts, mLoadedPseudoIds);
+                if (canDispatchDiff) {
+                    mDiffResult.dispatchUpdatesTo(new OffsetListUpdateCallback(getItemPositionOffset()));
+                } else {
+                    notifyDataSetChanged();
+                }
             }
 
             if (mDataLoadedListener != null) {
@@ -1262,6 +1405,87 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             }
 
             mIsTaskRunning = false;
+            if (mIsLoadPending) {
+                mIsLoadPending = false;
+                loadPosts();
+            }
+        }
+    }
+
+    /*
+     * compares the keys of the posts before and after the posts are reloaded - posts whose only
+     * changes are likes, comments, bookmark or follow status are given the changes as a payload so
+     * only those parts of the post are rebound
+     */
+    static class PostKeyDiffCallback extends DiffUtil.Callback {
+        private final List<ReaderPostKey> mOldKeys;
+        private final List<ReaderPostKey> mNewKeys;
+        private final boolean mIsBookmarksList;
+
+        PostKeyDiffCallback(@NonNull List<ReaderPostKey> oldKeys, @NonNull List<ReaderPostKey> newKeys,
+                            boolean isBookmarksList) {
+            mOldKeys = oldKeys;
+            mNewKeys = newKeys;
+            mIsBookmarksList = isBookmarksList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldKeys.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewKeys.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldKeys.get(oldItemPosition).isSamePost(mNewKeys.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldKeys.get(oldItemPosition).getChanges(mNewKeys.get(newItemPosition)) == 0;
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            int changes = mOldKeys.get(oldItemPosition).getChanges(mNewKeys.get(newItemPosition));
+            // unbookmarking a post in the bookmarks list replaces it with the "removed" card
+            if (changes == ReaderPostKey.CHANGED_CONTENT
+                || (mIsBookmarksList && (changes & ReaderPostKey.CHANGED_BOOKMARK) != 0)) {
+                return null;
+            }
+            return changes;
+        }
+    }
+
+    private class OffsetListUpdateCallback implements ListUpdateCallback {
+        private final int mOffset;
+
+        OffsetListUpdateCallback(int offset) {
+            mOffset = offset;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position + mOffset, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position + mOffset, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition + mOffset, toPosition + mOffset);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position + mOffset, count, payload);
         }
     }
 }
@@ -0,0 +1,321 @@
+package org.wordpress.android.ui.reader.adapters;
+
+import android.os.AsyncTask;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostKey;
+import org.wordpress.android.models.ReaderPostList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * posts shown by ReaderPostAdapter - the keys of every post in the stream are kept in memory, but
+ * the posts themselves are loaded a page at a time around the positions being bound and only the
+ * most recently used posts are kept, so the number of posts shown in a stream can be raised without
+ * holding every one of them in memory. posts are loaded on a background thread and the listener is
+ * told which of them to rebind once they're loaded. all methods must be called on the main thread.
+ */
+class ReaderPostPagedList {
+    static final int PAGE_SIZE = 40;
+    // pages within this many positions of a bound position are loaded before they're scrolled to
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+    // enough posts to fill several screens, and the same number of posts the list used to hold
+    static final int MAX_CACHED_POSTS = PAGE_SIZE * 5;
+
+    // excerpts are shown rather than the text, so the large text column is skipped
+    private static final boolean EXCLUDE_TEXT_COLUMN = true;
+
+    // pages are loaded one at a time so scrolling quickly doesn't tie up the shared AsyncTask pool
+    private static final Executor LOAD_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    interface OnPostLoadedListener {
+        void onPostLoaded(int index);
+    }
+
+    private final OnPostLoadedListener mListener;
+    private List<ReaderPostKey> mKeys = new ArrayList<>();
+    private final LruCache<String, ReaderPost> mPosts = new LruCache<>(MAX_CACHED_POSTS);
+    // posts which are being loaded for the current keys, so binding the same page again doesn't load them
+    // twice. posts which weren't found (ex: deleted since the keys were read) stay here so they aren't
+    // requested on every bind. loaded posts are removed so they're loaded again if the cache evicts them
+    private final Set<String> mRequestedIds = new HashSet<>();
+    // incremented whenever the keys are replaced so pages loaded for the previous keys are dropped
+    private int mGeneration;
+    // incremented whenever posts are added or removed so a diff of the keys can tell whether it's stale
+    private int mModCount;
+
+    ReaderPostPagedList(@NonNull OnPostLoadedListener listener) {
+        mListener = listener;
+    }
+
+    int size() {
+        return mKeys.size();
+    }
+
+    boolean isEmpty() {
+        return mKeys.isEmpty();
+    }
+
+    int getModCount() {
+        return mModCount;
+    }
+
+    @Nullable
+    ReaderPostKey getKey(int index) {
+        return isValidIndex(index) ? mKeys.get(index) : null;
+    }
+
+    /*
+     * returns a copy of the keys so they can be compared on a background thread
+     */
+    @NonNull
+    List<ReaderPostKey> getKeys() {
+        return new ArrayList<>(mKeys);
+    }
+
+    @NonNull
+    Set<String> getLoadedPseudoIds() {
+        return new HashSet<>(mPosts.snapshot().keySet());
+    }
+
+    /*
+     * returns the post at the passed index, or null if it hasn't been loaded yet
+     */
+    @Nullable
+    ReaderPost get(int index) {
+        ReaderPostKey key = getKey(index);
+        return key != null ? mPosts.get(key.getPseudoId()) : null;
+    }
+
+    int indexOfPost(@Nullable ReaderPost post) {
+        return post != null ? indexOfIds(post.blogId, post.postId) : -1;
+    }
+
+    int indexOfIds(long blogId, long postId) {
+        for (int i = 0; i < mKeys.size(); i++) {
+            ReaderPostKey key = mKeys.get(i);
+            if (key.blogId == blogId && key.postId == postId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * replaces the post at the passed index after it has been changed locally
+     */
+    void set(int index, @NonNull ReaderPost post) {
+        if (isValidIndex(index)) {
+            mKeys.set(index, ReaderPostKey.fromPost(post));
+            mPosts.put(post.getPseudoId(), post);
+        }
+    }
+
+    void setFollowStatus(int index, boolean isFollowing) {
+        ReaderPostKey key = getKey(index);
+        if (key == null) {
+            return;
+        }
+
+        ReaderPost post = mPosts.get(key.getPseudoId());
+        if (post != null) {
+            post.isFollowedByCurrentUser = isFollowing;
+            set(index, post);
+        } else {
+            // keys are shared with diffs running in the background, so they're copied rather than changed
+            ReaderPostKey updatedKey = ReaderPostKey.copyOf(key);
+            updatedKey.isFollowedByCurrentUser = isFollowing;
+            mKeys.set(index, updatedKey);
+        }
+    }
+
+    /*
+     * removes the posts in the passed blog and returns how many were removed
+     */
+    int removePostsInBlog(long blogId) {
+        List<ReaderPostKey> keys = new ArrayList<>(mKeys.size());
+        for (ReaderPostKey key : mKeys) {
+            if (key.blogId != blogId) {
+                keys.add(key);
+            }
+        }
+
+        int numRemoved = mKeys.size() - keys.size();
+        if (numRemoved > 0) {
+            mKeys = keys;
+            onPostsAddedOrRemoved();
+        }
+        return numRemoved;
+    }
+
+    void clear() {
+        if (!mKeys.isEmpty()) {
+            mKeys = new ArrayList<>();
+            mPosts.evictAll();
+            onPostsAddedOrRemoved();
+        }
+    }
+
+    /*
+     * replaces the keys after the stream has been reloaded. loadedPosts are the posts which were
+     * loaded along with the keys, and wereLoadedIds are the ids of the posts which were already
+     * loaded when the stream started reloading (those posts were reloaded if they changed). posts
+     * loaded since then may be older than the keys, so they're dropped and loaded again when bound
+     */
+    void setKeys(@NonNull List<ReaderPostKey> keys, @NonNull ReaderPostList loadedPosts,
+                 @NonNull Set<String> wereLoadedIds) {
+        Set<String> reloadedIds = new HashSet<>();
+        for (ReaderPost post : loadedPosts) {
+            reloadedIds.add(post.getPseudoId());
+        }
+        for (String pseudoId : mPosts.snapshot().keySet()) {
+            if (!wereLoadedIds.contains(pseudoId) && !reloadedIds.contains(pseudoId)) {
+                mPosts.remove(pseudoId);
+            }
+        }
+        for (ReaderPost post : loadedPosts) {
+            mPosts.put(post.getPseudoId(), post);
+        }
+
+        mKeys = keys;
+        mGeneration++;
+        mRequestedIds.clear();
+        onPostsAddedOrRemoved();
+    }
+
+    private void onPostsAddedOrRemoved() {
+        mModCount++;
+    }
+
+    /*
+     * loads the posts in the page containing the passed index which aren't loaded, along with the
+     * next or previous page if the index is near the start or end of its page
+     */
+    void loadAround(int index) {
+        loadPage(index / PAGE_SIZE);
+        loadPage((index + PREFETCH_DISTANCE) / PAGE_SIZE);
+        if (index >= PREFETCH_DISTANCE) {
+            loadPage((index - PREFETCH_DISTANCE) / PAGE_SIZE);
+        }
+    }
+
+    private void loadPage(int page) {
+        int firstIndex = page * PAGE_SIZE;
+        if (firstIndex >= mKeys.size()) {
+            return;
+        }
+
+        int lastIndex = Math.min(firstIndex + PAGE_SIZE, mKeys.size());
+        List<ReaderPostKey> missingKeys = new ArrayList<>();
+        for (int i = firstIndex; i < lastIndex; i++) {
+            ReaderPostKey key = mKeys.get(i);
+            String pseudoId = key.getPseudoId();
+            if (!mRequestedIds.contains(pseudoId) && mPosts.get(pseudoId) == null) {
+                missingKeys.add(key);
+                mRequestedIds.add(pseudoId);
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            startLoad(mGeneration, missingKeys);
+        }
+    }
+
+    /*
+     * loads the posts with the passed keys in the background and passes them to onPageLoaded()
+     */
+    @VisibleForTesting
+    void startLoad(int generation, @NonNull List<ReaderPostKey> missingKeys) {
+        new LoadPageTask(generation, missingKeys).executeOnExecutor(LOAD_EXECUTOR);
+    }
+
+    @VisibleForTesting
+    void onPageLoaded(int generation, @NonNull ReaderPostList posts) {
+        if (generation != mGeneration) {
+            return;
+        }
+
+        for (ReaderPost post : posts) {
+            mRequestedIds.remove(post.getPseudoId());
+            mPosts.put(post.getPseudoId(), post);
+        }
+
+        // posts may have been removed while the page was loading, so their indexes are looked up now
+        for (ReaderPost post : posts) {
+            int index = indexOfIds(post.blogId, post.postId);
+            if (index > -1) {
+                mListener.onPostLoaded(index);
+            }
+        }
+    }
+
+    private boolean isValidIndex(int index) {
+        return index >= 0 && index < mKeys.size();
+    }
+
+    /*
+     * returns the ids of the posts which should be loaded along with the passed keys - the first
+     * page of posts so the top of the list can be shown as soon as the keys are set, and any loaded
+     * posts which have changed since the previous keys were loaded. called on a background thread
+     */
+    @NonNull
+    static List<String> getPseudoIdsToLoadWithKeys(@NonNull List<ReaderPostKey> keys,
+                                                   @NonNull Map<String, ReaderPostKey> previousKeys,
+                                                   @NonNull Set<String> loadedIds) {
+        List<String> pseudoIds = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            ReaderPostKey key = keys.get(i);
+            String pseudoId = key.getPseudoId();
+            if (loadedIds.contains(pseudoId)) {
+                ReaderPostKey previousKey = previousKeys.get(pseudoId);
+                if (previousKey == null || previousKey.getChanges(key) != 0) {
+                    pseudoIds.add(pseudoId);
+                }
+            } else if (i < PAGE_SIZE) {
+                pseudoIds.add(pseudoId);
+            }
+        }
+        return pseudoIds;
+    }
+
+    @NonNull
+    static ReaderPostList loadPosts(@NonNull List<String> pseudoIds) {
+        return ReaderPostTable.getPostsWithPseudoIds(pseudoIds, EXCLUDE_TEXT_COLUMN);
+    }
+
+    private class LoadPageTask extends AsyncTask<Void, Void, ReaderPostList> {
+        private final int mTaskGeneration;
+        private final List<ReaderPostKey> mMissingKeys;
+
+        LoadPageTask(int generation, @NonNull List<ReaderPostKey> missingKeys) {
+            mTaskGeneration = generation;
+            mMissingKeys = missingKeys;
+        }
+
+        @Override
+        protected ReaderPostList doInBackground(Void... params) {
+            List<String> pseudoIds = new ArrayList<>(mMissingKeys.size());
+            for (ReaderPostKey key : mMissingKeys) {
+                pseudoIds.add(key.getPseudoId());
+            }
+            return loadPosts(pseudoIds);
+        }
+
+        @Override
+        protected void onPostExecute(ReaderPostList posts) {
+            onPageLoaded(mTaskGeneration, posts);
+        }
+    }
+}
@@ -167,7 +167,7 @@ public class ReaderCommentService extends Service {
             return;
         }
 
-        new Thread() {
+        ReaderTaskScheduler.executeWrite("update comments", new Runnable() {
             @Override
             public void run() {
                 final boolean hasNewComments;
@@ -213,6 +213,6 @@ public class ReaderCommentService extends Service {
                         (hasNewComments ? ReaderActions.UpdateResult.HAS_NEW : ReaderActions.UpdateResult.UNCHANGED);
                 resultListener.onUpdateResult(result);
             }
-        }.start();
+        });
     }
 }
@@ -0,0 +1,100 @@
+package org.wordpress.android.ui.reader.services;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONException;
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderPostStreamParser;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+import org.wordpress.android.util.AppLog;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * saves the posts in a streamed response as they're parsed. the response is parsed by the caller's
+ * thread, which must not be the writer lane, and every POSTS_PER_BATCH posts are saved by their own
+ * write on the writer lane - so no transaction is held open and the writer lane isn't blocked while
+ * the rest of the response is read, and other writes can run between batches
+ */
+public class ReaderPostStreamSaver {
+    public interface SaveListener {
+        /*
+         * called on the writer lane after every batch has been saved - result is whether the saved
+         * posts were new or changed, and is always UNCHANGED when posts weren't compared
+         */
+        void onSaved(boolean succeeded, @NonNull UpdateResult result);
+    }
+
+    private static final int POSTS_PER_BATCH = 10;
+
+    private final ReaderTag mTag;
+    private final boolean mComparePosts;
+    // only read and written on the writer lane
+    private UpdateResult mResult = UpdateResult.UNCHANGED;
+
+    private ReaderPostStreamSaver(@Nullable ReaderTag tag, boolean comparePosts) {
+        mTag = tag;
+        mComparePosts = comparePosts;
+    }
+
+    /*
+     * parses the posts in the passed response and saves them with the passed tag - posts parsed
+     * before a parse error are still saved, since earlier batches may already have been committed
+     */
+    public static void save(@Nullable ReaderTag tag,
+                            @NonNull Reader responseReader,
+                            boolean comparePosts,
+                            @NonNull final SaveListener listener) {
+        final ReaderPostStreamSaver saver = new ReaderPostStreamSaver(tag, comparePosts);
+        final ReaderPostList[] batch = {new ReaderPostList()};
+        boolean succeeded;
+        try {
+            ReaderPostStreamParser.parse(responseReader, new ReaderPostStreamParser.PostListener() {
+                @Override
+                public void onPostParsed(@NonNull ReaderPost post) {
+                    batch[0].add(post);
+                    if (batch[0].size() >= POSTS_PER_BATCH) {
+                        saver.saveBatch(batch[0]);
+                        batch[0] = new ReaderPostList();
+                    }
+                }
+            });
+            succeeded = true;
+        } catch (IOException | JSONException e) {
+            AppLog.e(AppLog.T.READER, "failed to parse posts", e);
+            succeeded = false;
+        }
+        if (batch[0].size() > 0) {
+            saver.saveBatch(batch[0]);
+        }
+
+        final boolean parsed = succeeded;
+        ReaderTaskScheduler.executeWrite("finish saving posts", new Runnable() {
+            @Override
+            public void run() {
+                listener.onSaved(parsed, saver.mResult);
+            }
+        });
+    }
+
+    private void saveBatch(@NonNull final ReaderPostList posts) {
+        ReaderTaskScheduler.executeWrite("save posts", new Runnable() {
+            @Override
+            public void run() {
+                // the posts must be compared before they're saved
+                if (mComparePosts && mResult != UpdateResult.HAS_NEW) {
+                    UpdateResult batchResult = ReaderPostTable.comparePosts(posts);
+                    if (batchResult != UpdateResult.UNCHANGED) {
+                        mResult = batchResult;
+                    }
+                }
+                ReaderPostTable.addOrUpdatePosts(mTag, posts);
+            }
+        });
+    }
+}
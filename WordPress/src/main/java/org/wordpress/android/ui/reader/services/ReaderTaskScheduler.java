@@ -0,0 +1,260 @@
+package org.wordpress.android.ui.reader.services;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.AppLog;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * runs reader background work on a small shared pool instead of spawning a new thread for each
+ * task. tasks which only parse/render go to the pool, which runs higher priority tasks first,
+ * while tasks which write to the reader database go to a single writer lane so they're serialized
+ * rather than all contending for the database's write lock at the same time (ex: during a cold
+ * refresh, when responses for several tags and the followed/recommended blogs arrive together)
+ * <p>
+ * writes may be coalesced by key, so when a newer write with the same key is queued before an
+ * older one has started, the older one is skipped (ex: two refreshes of the same tag)
+ */
+public class ReaderTaskScheduler {
+    public enum Priority {
+        HIGH,   // user is waiting on the result (ex: rendering the post being viewed)
+        NORMAL, // result will be shown to the user when it's ready (ex: updating a stream)
+        LOW     // housekeeping or prefetching (ex: purging the db, updating followed blogs)
+    }
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int POOL_SIZE = Math.max(2, Math.min(CPU_COUNT - 1, 4));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    // tasks which wait longer than this before starting are logged
+    private static final long SLOW_WAIT_MS = 500;
+
+    private static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(
+            POOL_SIZE, POOL_SIZE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new PriorityBlockingQueue<Runnable>(),
+            new ReaderThreadFactory("reader-pool"));
+
+    private static final ThreadPoolExecutor DB_WRITER = new ThreadPoolExecutor(
+            1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ReaderThreadFactory("reader-db-writer"));
+
+    static {
+        POOL.allowCoreThreadTimeOut(true);
+        DB_WRITER.allowCoreThreadTimeOut(true);
+    }
+
+    // queued writes which may be coalesced, keyed by coalesce key
+    private static final Map<String, ReaderTask> PENDING_WRITES = new HashMap<>();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final AtomicInteger COMPLETED_COUNT = new AtomicInteger();
+    private static final AtomicInteger COALESCED_COUNT = new AtomicInteger();
+    private static final AtomicLong TOTAL_WAIT_MS = new AtomicLong();
+    private static final AtomicLong TOTAL_RUN_MS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_MS = new AtomicLong();
+
+    private ReaderTaskScheduler() {
+        throw new AssertionError();
+    }
+
+    /*
+     * runs the passed task on the shared pool - the task must not write to the reader database,
+     * use executeWrite() for that
+     */
+    public static void execute(@NonNull Priority priority, @NonNull String name, @NonNull Runnable task) {
+        POOL.execute(new ReaderTask(priority, name, task, null, null));
+    }
+
+    /*
+     * runs the passed task on the database writer lane, after any previously queued writes
+     */
+    public static void executeWrite(@NonNull String name, @NonNull Runnable task) {
+        DB_WRITER.execute(new ReaderTask(Priority.NORMAL, name, task, null, null));
+    }
+
+    /*
+     * same as executeWrite() but if another write with the same coalesce key is still queued, that
+     * write is skipped in favor of this one and its onSuperseded callback (if any) is called so
+     * the caller can report it as completed
+     */
+    public static void executeWriteCoalesced(@NonNull String coalesceKey,
+                                             @NonNull String name,
+                                             @NonNull Runnable task,
+                                             @Nullable Runnable onSuperseded) {
+        ReaderTask newTask = new ReaderTask(Priority.NORMAL, name, task, coalesceKey, onSuperseded);
+        ReaderTask supersededTask;
+        synchronized (PENDING_WRITES) {
+            supersededTask = PENDING_WRITES.put(coalesceKey, newTask);
+            if (supersededTask != null) {
+                supersededTask.mIsSuperseded = true;
+            }
+        }
+
+        if (supersededTask != null) {
+            COALESCED_COUNT.incrementAndGet();
+            AppLog.d(AppLog.T.READER, "reader scheduler > coalesced " + supersededTask.mName);
+            if (supersededTask.mOnSuperseded != null) {
+                supersededTask.mOnSuperseded.run();
+            }
+        }
+
+        DB_WRITER.execute(newTask);
+    }
+
+    /*
+     * returns the number of tasks waiting to run on the shared pool
+     */
+    public static int getPoolQueueDepth() {
+        return POOL.getQueue().size();
+    }
+
+    /*
+     * returns the number of tasks waiting to run on the database writer lane
+     */
+    public static int getWriterQueueDepth() {
+        return DB_WRITER.getQueue().size();
+    }
+
+    public static int getCompletedCount() {
+        return COMPLETED_COUNT.get();
+    }
+
+    public static int getCoalescedCount() {
+        return COALESCED_COUNT.get();
+    }
+
+    /*
+     * returns the average time tasks spent queued before they started running
+     */
+    public static long getAverageWaitMs() {
+        int count = COMPLETED_COUNT.get();
+        return count == 0 ? 0 : TOTAL_WAIT_MS.get() / count;
+    }
+
+    public static long getMaxWaitMs() {
+        return MAX_WAIT_MS.get();
+    }
+
+    /*
+     * returns the average time tasks spent running
+     */
+    public static long getAverageRunMs() {
+        int count = COMPLETED_COUNT.get();
+        return count == 0 ? 0 : TOTAL_RUN_MS.get() / count;
+    }
+
+    public static String getStatsForLog() {
+        return String.format(Locale.ENGLISH,
+                "pool queue %d, writer queue %d, completed %d, coalesced %d, wait avg %d ms max %d ms, run avg %d ms",
+                getPoolQueueDepth(), getWriterQueueDepth(), getCompletedCount(), getCoalescedCount(),
+                getAverageWaitMs(), getMaxWaitMs(), getAverageRunMs());
+    }
+
+    private static void recordLatency(@NonNull ReaderTask task, long waitMs, long runMs) {
+        COMPLETED_COUNT.incrementAndGet();
+        TOTAL_WAIT_MS.addAndGet(waitMs);
+        TOTAL_RUN_MS.addAndGet(runMs);
+
+        long maxWaitMs = MAX_WAIT_MS.get();
+        while (waitMs > maxWaitMs && !MAX_WAIT_MS.compareAndSet(maxWaitMs, waitMs)) {
+            maxWaitMs = MAX_WAIT_MS.get();
+        }
+
+        if (waitMs > SLOW_WAIT_MS) {
+            AppLog.w(AppLog.T.READER, "reader scheduler > " + task.mName + " waited " + waitMs
+                                      + " ms to start, " + getStatsForLog());
+        }
+    }
+
+    private static class ReaderTask implements Runnable, Comparable<ReaderTask> {
+        private final Priority mPriority;
+        private final String mName;
+        private final Runnable mRunnable;
+        private final String mCoalesceKey;
+        private final Runnable mOnSuperseded;
+        private final long mSequence;
+        private final long mQueuedAt;
+        private volatile boolean mIsSuperseded;
+
+        ReaderTask(@NonNull Priority priority,
+                   @NonNull String name,
+                   @NonNull Runnable runnable,
+                   @Nullable String coalesceKey,
+                   @Nullable Runnable onSuperseded) {
+            mPriority = priority;
+            mName = name;
+            mRunnable = runnable;
+            mCoalesceKey = coalesceKey;
+            mOnSuperseded = onSuperseded;
+            mSequence = SEQUENCE.getAndIncrement();
+            mQueuedAt = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void run() {
+            if (mCoalesceKey != null) {
+                synchronized (PENDING_WRITES) {
+                    if (mIsSuperseded) {
+                        return;
+                    }
+                    // once started this task can no longer be coalesced with newer ones
+                    PENDING_WRITES.remove(mCoalesceKey);
+                }
+            }
+
+            long startedAt = SystemClock.elapsedRealtime();
+            try {
+                mRunnable.run();
+            } finally {
+                recordLatency(this, startedAt - mQueuedAt, SystemClock.elapsedRealtime() - startedAt);
+            }
+        }
+
+        /*
+         * higher priority tasks first, then in the order they were queued
+         */
+        @Override
+        public int compareTo(@NonNull ReaderTask other) {
+            int result = mPriority.compareTo(other.mPriority);
+            if (result == 0) {
+                result = Long.compare(mSequence, other.mSequence);
+            }
+            return result;
+        }
+    }
+
+    private static class ReaderThreadFactory implements ThreadFactory {
+        private final String mNamePrefix;
+        private final AtomicInteger mThreadCount = new AtomicInteger();
+
+        ReaderThreadFactory(@NonNull String namePrefix) {
+            mNamePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            return new Thread(mNamePrefix + "-" + mThreadCount.incrementAndGet()) {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            };
+        }
+    }
+}
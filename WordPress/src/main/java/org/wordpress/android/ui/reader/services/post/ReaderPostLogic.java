@@ -2,11 +2,13 @@ package org.wordpress.android.ui.reader.services.post;
 
 import android.text.TextUtils;
 
+import androidx.annotation.NonNull;
+
 import com.android.volley.VolleyError;
 import com.wordpress.rest.RestRequest;
 
 import org.greenrobot.eventbus.EventBus;
-import org.json.JSONObject;
+import org.json.JSONException;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.ReaderPostTable;
 import org.wordpress.android.datasets.ReaderTagTable;
@@ -14,10 +16,13 @@ import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.networking.StreamingRestRequest;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
+import org.wordpress.android.ui.reader.services.ReaderPostStreamSaver;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
 import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
@@ -25,6 +30,9 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.UrlUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+
 public class ReaderPostLogic {
     private ServiceCompletionListener mCompletionListener;
     private Object mListenerCompanion;
@@ -123,14 +131,14 @@ public class ReaderPostLogic {
 
         sb.append("&meta=site,likes");
 
-        com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
+        StreamingRestRequest.StreamingListener listener = new StreamingRestRequest.StreamingListener() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
+            public void onResponse(Reader responseReader) {
                 // remember when this tag was updated if newer posts were requested
                 if (updateAction == UpdateAction.REQUEST_NEWER || updateAction == UpdateAction.REQUEST_REFRESH) {
                     ReaderTagTable.setTagLastUpdated(tag);
                 }
-                handleUpdatePostsResponse(tag, jsonObject, updateAction, resultListener);
+                handleUpdatePostsResponse(tag, responseReader, updateAction, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -141,7 +149,7 @@ public class ReaderPostLogic {
             }
         };
 
-        WordPress.getRestClientUtilsV1_2().get(sb.toString(), null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getStreaming(sb.toString(), null, null, listener, errorListener);
     }
 
     private static void requestPostsForBlog(final long blogId,
@@ -157,10 +165,10 @@ public class ReaderPostLogic {
             }
         }
 
-        com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
+        StreamingRestRequest.StreamingListener listener = new StreamingRestRequest.StreamingListener() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
-                handleUpdatePostsResponse(null, jsonObject, updateAction, resultListener);
+            public void onResponse(Reader responseReader) {
+                handleUpdatePostsResponse(null, responseReader, updateAction, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -171,7 +179,7 @@ public class ReaderPostLogic {
             }
         };
         AppLog.d(AppLog.T.READER, "updating posts in blog " + blogId);
-        WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getStreaming(path, null, null, listener, errorListener);
     }
 
     private static void requestPostsForFeed(final long feedId,
@@ -185,10 +193,10 @@ public class ReaderPostLogic {
             }
         }
 
-        com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
+        StreamingRestRequest.StreamingListener listener = new StreamingRestRequest.StreamingListener() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
-                handleUpdatePostsResponse(null, jsonObject, updateAction, resultListener);
+            public void onResponse(Reader responseReader) {
+                handleUpdatePostsResponse(null, responseReader, updateAction, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -200,84 +208,143 @@ public class ReaderPostLogic {
         };
 
         AppLog.d(AppLog.T.READER, "updating posts in feed " + feedId);
-        WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getStreaming(path, null, null, listener, errorListener);
     }
 
     /*
      * called after requesting posts with a specific tag or in a specific blog/feed
      */
     private static void handleUpdatePostsResponse(final ReaderTag tag,
-                                                  final JSONObject jsonObject,
+                                                  final Reader responseReader,
                                                   final UpdateAction updateAction,
                                                   final ReaderActions.UpdateResultListener resultListener) {
-        if (jsonObject == null) {
-            resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
+        if (tag == null || updateAction == UpdateAction.REQUEST_OLDER) {
+            // no gap detection is needed, so posts can be saved as they're parsed
+            ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.NORMAL, "stream posts", new Runnable() {
+                @Override
+                public void run() {
+                    streamPosts(tag, responseReader, resultListener);
+                }
+            });
             return;
         }
 
-        new Thread() {
+        ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.NORMAL, "parse posts", new Runnable() {
             @Override
             public void run() {
-                ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
-                ReaderActions.UpdateResult updateResult = ReaderPostTable.comparePosts(serverPosts);
-                if (updateResult.isNewOrChanged()) {
-                    // gap detection - only applies to posts with a specific tag
-                    ReaderPost postWithGap = null;
-                    if (tag != null) {
-                        switch (updateAction) {
-                            case REQUEST_NEWER:
-                                // if there's no overlap between server and local (ie: all server
-                                // posts are new), assume there's a gap between server and local
-                                // provided that local posts exist
-                                int numServerPosts = serverPosts.size();
-                                if (numServerPosts >= 2
-                                    && ReaderPostTable.getNumPostsWithTag(tag) > 0
-                                    && !ReaderPostTable.hasOverlap(serverPosts, tag)) {
-                                    // treat the second to last server post as having a gap
-                                    postWithGap = serverPosts.get(numServerPosts - 2);
-                                    // remove the last server post to deal with the edge case of
-                                    // there actually not being a gap between local & server
-                                    serverPosts.remove(numServerPosts - 1);
-                                    ReaderBlogIdPostId gapMarker = ReaderPostTable.getGapMarkerIdsForTag(tag);
-                                    if (gapMarker != null) {
-                                        // We mustn't have two gapMarkers at the same time. Therefor we need to
-                                        // delete all posts before the current gapMarker and clear the gapMarker flag.
-                                        ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
-                                        ReaderPostTable.removeGapMarkerForTag(tag);
-                                    }
-                                }
-                                break;
-                            case REQUEST_OLDER_THAN_GAP:
-                                // if service was started as a request to fill a gap, delete existing posts
-                                // before the one with the gap marker, then remove the existing gap marker
-                                ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
-                                ReaderPostTable.removeGapMarkerForTag(tag);
-                                break;
-                            case REQUEST_REFRESH:
-                                ReaderPostTable.deletePostsWithTag(tag);
-                                break;
-                            case REQUEST_OLDER:
-                                // no-op
-                                break;
-                        }
-                    }
-                    ReaderPostTable.addOrUpdatePosts(tag, serverPosts);
-
-                    // gap marker must be set after saving server posts
-                    if (postWithGap != null) {
-                        ReaderPostTable.setGapMarkerForTag(postWithGap.blogId, postWithGap.postId, tag);
-                        AppLog.d(AppLog.T.READER, "added gap marker to tag " + tag.getTagNameForLog());
+                final ReaderPostList serverPosts;
+                try {
+                    serverPosts = ReaderPostList.fromJsonStream(responseReader);
+                } catch (IOException | JSONException e) {
+                    AppLog.e(AppLog.T.READER, "failed to parse posts", e);
+                    resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
+                    return;
+                }
+                Runnable saveTask = new Runnable() {
+                    @Override
+                    public void run() {
+                        savePosts(tag, serverPosts, updateAction, resultListener);
                     }
-                } else if (updateResult == ReaderActions.UpdateResult.UNCHANGED
-                           && updateAction == UpdateAction.REQUEST_OLDER_THAN_GAP) {
-                    // edge case - request to fill gap returned nothing new, so remove the gap marker
-                    ReaderPostTable.removeGapMarkerForTag(tag);
-                    AppLog.w(AppLog.T.READER, "attempt to fill gap returned nothing new");
+                };
+                // a refresh whose response is still waiting to be saved when a newer response for the
+                // same tag arrives is skipped, since the newer response replaces what it would save
+                if (updateAction == UpdateAction.REQUEST_NEWER || updateAction == UpdateAction.REQUEST_REFRESH) {
+                    String coalesceKey = "posts:" + tag.tagType.toInt() + ":" + tag.getTagSlug() + ":" + updateAction;
+                    ReaderTaskScheduler.executeWriteCoalesced(coalesceKey, "save posts", saveTask, new Runnable() {
+                        @Override
+                        public void run() {
+                            resultListener.onUpdateResult(ReaderActions.UpdateResult.UNCHANGED);
+                        }
+                    });
+                } else {
+                    ReaderTaskScheduler.executeWrite("save posts", saveTask);
                 }
+            }
+        });
+    }
+
+    /*
+     * parses posts from the response and saves them in batches as they're parsed, so neither the
+     * response nor the list of posts is held in memory in its entirety - must not be called on the
+     * reader db writer lane
+     */
+    private static void streamPosts(ReaderTag tag,
+                                    Reader responseReader,
+                                    final ReaderActions.UpdateResultListener resultListener) {
+        ReaderPostStreamSaver.save(tag, responseReader, true, new ReaderPostStreamSaver.SaveListener() {
+            @Override
+            public void onSaved(boolean succeeded, @NonNull ReaderActions.UpdateResult result) {
+                ReaderActions.UpdateResult updateResult = succeeded ? result : ReaderActions.UpdateResult.FAILED;
                 AppLog.d(AppLog.T.READER, "requested posts response = " + updateResult.toString());
                 resultListener.onUpdateResult(updateResult);
             }
-        }.start();
+        });
+    }
+
+    /*
+     * saves posts returned by the server, must be called on the reader db writer lane
+     */
+    private static void savePosts(ReaderTag tag,
+                                  ReaderPostList serverPosts,
+                                  UpdateAction updateAction,
+                                  ReaderActions.UpdateResultListener resultListener) {
+        ReaderActions.UpdateResult updateResult = ReaderPostTable.comparePosts(serverPosts);
+        if (updateResult.isNewOrChanged()) {
+            // gap detection - only applies to posts with a specific tag
+            ReaderPost postWithGap = null;
+            if (tag != null) {
+                switch (updateAction) {
+                    case REQUEST_NEWER:
+                        // if there's no overlap between server and local (ie: all server
+                        // posts are new), assume there's a gap between server and local
+                        // provided that local posts exist
+                        int numServerPosts = serverPosts.size();
+                        if (numServerPosts >= 2
+                            && ReaderPostTable.getNumPostsWithTag(tag) > 0
+                            && !ReaderPostTable.hasOverlap(serverPosts, tag)) {
+                            // treat the second to last server post as having a gap
+                            postWithGap = serverPosts.get(numServerPosts - 2);
+                            // remove the last server post to deal with the edge case of
+                            // there actually not being a gap between local & server
+                            serverPosts.remove(numServerPosts - 1);
+                            ReaderBlogIdPostId gapMarker = ReaderPostTable.getGapMarkerIdsForTag(tag);
+                            if (gapMarker != null) {
+                                // We mustn't have two gapMarkers at the same time. Therefor we need to
+                                // delete all posts before the current gapMarker and clear the gapMarker flag.
+                                ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
+                                ReaderPostTable.removeGapMarkerForTag(tag);
+                            }
+                        }
+                        break;
+                    case REQUEST_OLDER_THAN_GAP:
+                        // if service was started as a request to fill a gap, delete existing posts
+                        // before the one with the gap marker, then remove the existing gap marker
+                        ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
+                        ReaderPostTable.removeGapMarkerForTag(tag);
+                        break;
+                    case REQUEST_REFRESH:
+                        ReaderPostTable.deletePostsWithTag(tag);
+                        break;
+                    case REQUEST_OLDER:
+                        // no-op
+                        break;
+                }
+            }
+            ReaderPostTable.addOrUpdatePosts(tag, serverPosts);
+
+            // gap marker must be set after saving server posts
+            if (postWithGap != null) {
+                ReaderPostTable.setGapMarkerForTag(postWithGap.blogId, postWithGap.postId, tag);
+                AppLog.d(AppLog.T.READER, "added gap marker to tag " + tag.getTagNameForLog());
+            }
+        } else if (updateResult == ReaderActions.UpdateResult.UNCHANGED
+                   && updateAction == UpdateAction.REQUEST_OLDER_THAN_GAP) {
+            // edge case - request to fill gap returned nothing new, so remove the gap marker
+            ReaderPostTable.removeGapMarkerForTag(tag);
+            AppLog.w(AppLog.T.READER, "attempt to fill gap returned nothing new");
+        }
+        AppLog.d(AppLog.T.READER, "requested posts response = " + updateResult.toString());
+        resultListener.onUpdateResult(updateResult);
     }
 
     /*
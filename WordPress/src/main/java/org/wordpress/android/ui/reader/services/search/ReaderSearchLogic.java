@@ -1,19 +1,24 @@
 package org.wordpress.android.ui.reader.services.search;
 
+import androidx.annotation.NonNull;
+
 import com.android.volley.VolleyError;
 import com.wordpress.rest.RestRequest;
 
 import org.greenrobot.eventbus.EventBus;
-import org.json.JSONObject;
 import org.wordpress.android.WordPress;
-import org.wordpress.android.datasets.ReaderPostTable;
-import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.networking.StreamingRestRequest;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+import org.wordpress.android.ui.reader.services.ReaderPostStreamSaver;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
 import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.UrlUtils;
 
+import java.io.Reader;
+
 import static org.wordpress.android.ui.reader.utils.ReaderUtils.getTagForSearchQuery;
 
 public class ReaderSearchLogic {
@@ -32,14 +37,10 @@ public class ReaderSearchLogic {
                       + "&offset=" + offset
                       + "&meta=site,likes";
 
-        RestRequest.Listener listener = new RestRequest.Listener() {
+        StreamingRestRequest.StreamingListener listener = new StreamingRestRequest.StreamingListener() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
-                if (jsonObject != null) {
-                    handleSearchResponse(query, offset, jsonObject);
-                } else {
-                    EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, false));
-                }
+            public void onResponse(Reader responseReader) {
+                handleSearchResponse(query, offset, responseReader);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -53,18 +54,23 @@ public class ReaderSearchLogic {
 
         AppLog.d(AppLog.T.READER, "reader search service > starting search for " + query);
         EventBus.getDefault().post(new ReaderEvents.SearchPostsStarted(query, offset));
-        WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getStreaming(path, null, null, listener, errorListener);
     }
 
-    private void handleSearchResponse(final String query, final int offset, final JSONObject jsonObject) {
-        new Thread() {
+    private void handleSearchResponse(final String query, final int offset, final Reader responseReader) {
+        // search results are saved in batches as they're parsed rather than after the entire response is parsed
+        ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.NORMAL, "parse search results", new Runnable() {
             @Override
             public void run() {
-                ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
-                ReaderPostTable.addOrUpdatePosts(getTagForSearchQuery(query), serverPosts);
-                EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, true));
-                mCompletionListener.onCompleted(mListenerCompanion);
+                ReaderPostStreamSaver.save(getTagForSearchQuery(query), responseReader, false,
+                        new ReaderPostStreamSaver.SaveListener() {
+                            @Override
+                            public void onSaved(boolean succeeded, @NonNull UpdateResult result) {
+                                EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, succeeded));
+                                mCompletionListener.onCompleted(mListenerCompanion);
+                            }
+                        });
             }
-        }.start();
+        });
     }
 }
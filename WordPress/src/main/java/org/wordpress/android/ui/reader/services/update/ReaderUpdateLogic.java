@@ -23,6 +23,7 @@ import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
+import org.wordpress.android.ui.reader.services.ReaderTaskScheduler;
 import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.JSONUtils;
@@ -159,7 +160,7 @@ public class ReaderUpdateLogic {
     }
 
     private void handleUpdateTagsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        ReaderTaskScheduler.executeWrite("update tags", new Runnable() {
             @Override
             public void run() {
                 // get server topics, both default & followed - but use "recommended" for logged-out
@@ -231,7 +232,7 @@ public class ReaderUpdateLogic {
 
                 taskCompleted(UpdateTask.TAGS);
             }
-        }.start();
+        });
     }
 
     /*
@@ -315,7 +316,7 @@ public class ReaderUpdateLogic {
     }
 
     private void handleFollowedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        ReaderTaskScheduler.executeWrite("update followed blogs", new Runnable() {
             @Override
             public void run() {
                 ReaderBlogList serverBlogs = ReaderBlogList.fromJson(jsonObject);
@@ -337,7 +338,7 @@ public class ReaderUpdateLogic {
 
                 taskCompleted(UpdateTask.FOLLOWED_BLOGS);
             }
-        }.start();
+        });
     }
 
     /***
@@ -366,7 +367,7 @@ public class ReaderUpdateLogic {
     }
 
     private void handleRecommendedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        ReaderTaskScheduler.executeWrite("update recommended blogs", new Runnable() {
             @Override
             public void run() {
                 ReaderRecommendBlogList serverBlogs = ReaderRecommendBlogList.fromJson(jsonObject);
@@ -379,6 +380,6 @@ public class ReaderUpdateLogic {
 
                 taskCompleted(UpdateTask.RECOMMENDED_BLOGS);
             }
-        }.start();
+        });
     }
 }
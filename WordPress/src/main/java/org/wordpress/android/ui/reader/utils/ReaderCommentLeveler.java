@@ -6,91 +6,251 @@ import org.wordpress.android.models.ReaderComment;
 import org.wordpress.android.models.ReaderCommentList;
 import org.wordpress.android.util.AppLog;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /*
  * utility class which accepts a list of comments and then creates a "level list" from it
- * which places child comments below their parents with indentation levels applied
+ * which places child comments below their parents with indentation levels applied. children
+ * appear below their parent in the same order they appear in the source list.
+ *
+ * the level list is built in a single depth-first pass using an index of comments by parent,
+ * and when comments are later appended to the source list (ex: when the next page of comments
+ * is fetched) they're merged into the existing level list rather than leveling everything again
  */
 
 public class ReaderCommentLeveler {
-    private final ReaderCommentList mComments;
+    private ReaderCommentList mComments;
+    private ReaderCommentList mLevelList;
+
+    // comments in the source list keyed by comment id
+    private final Map<Long, ReaderComment> mCommentsById = new HashMap<>();
+
+    // parent ids of orphans (child comments whose parents aren't in the source list)
+    private final Set<Long> mMissingParentIds = new HashSet<>();
 
     public ReaderCommentLeveler(@NonNull ReaderCommentList comments) {
         mComments = comments;
     }
 
     public ReaderCommentList createLevelList() {
-        ReaderCommentList result = new ReaderCommentList();
+        mCommentsById.clear();
+        mMissingParentIds.clear();
 
-        // reset all levels, and add root comments to result
+        // reset all levels, and index comments by id and by parent id
+        Map<Long, ReaderCommentList> childrenByParentId = new HashMap<>();
         for (ReaderComment comment : mComments) {
             comment.level = 0;
-            if (comment.parentId == 0) {
-                result.add(comment);
+            mCommentsById.put(comment.commentId, comment);
+            if (comment.parentId != 0) {
+                getOrCreateChildren(childrenByParentId, comment.parentId).add(comment);
             }
         }
 
-        // add children at each level
-        int level = 0;
-        while (walkCommentsAtLevel(result, level)) {
-            level++;
+        // add root comments with their children beneath them
+        ReaderCommentList result = new ReaderCommentList();
+        for (ReaderComment comment : mComments) {
+            if (comment.parentId == 0) {
+                addWithDescendants(result, comment, 0, childrenByParentId);
+            }
         }
 
-        // check for orphans (child comments whose parents weren't found above) and give them
-        // a non-zero level so they're indented by ReaderCommentAdapter
-        for (ReaderComment comment : result) {
-            if (comment.level == 0 && comment.parentId != 0) {
-                comment.level = 1;
-                result.add(comment);
+        // add orphans (child comments whose parents weren't found above) with a non-zero level
+        // so they're indented by ReaderCommentAdapter
+        for (ReaderComment comment : mComments) {
+            if (comment.parentId != 0 && !mCommentsById.containsKey(comment.parentId)) {
+                mMissingParentIds.add(comment.parentId);
+                addWithDescendants(result, comment, 1, childrenByParentId);
                 AppLog.d(AppLog.T.READER, "Orphan comment encountered");
             }
         }
 
-        return result;
+        mLevelList = result;
+        return copyOf(result);
+    }
+
+    /*
+     * returns the level list for the passed comments - if the passed list is the list this
+     * leveler was last used with followed by newly fetched comments, the new comments are merged
+     * into the existing level list, otherwise the level list is created from scratch. either way
+     * the result is the same as calling createLevelList() on a new leveler for the passed list
+     */
+    public ReaderCommentList updateLevelList(@NonNull ReaderCommentList comments) {
+        if (mLevelList == null || !startsWithSameComments(comments)) {
+            mComments = comments;
+            return createLevelList();
+        }
+
+        // use the passed instances of existing comments since they may have changed (ex: likes)
+        for (int i = 0; i < mComments.size(); i++) {
+            ReaderComment comment = comments.get(i);
+            comment.level = mCommentsById.get(comment.commentId).level;
+            mCommentsById.put(comment.commentId, comment);
+        }
+
+        ReaderCommentList addedComments = new ReaderCommentList();
+        addedComments.addAll(comments.subList(mComments.size(), comments.size()));
+        mComments = comments;
+        if (!mergeComments(addedComments)) {
+            return createLevelList();
+        }
+        return copyOf(mLevelList);
     }
 
     /*
-     * walk comments in the passed list that have the passed level and add their children
-     * beneath them
+     * returns true if the passed list starts with the same comments (with the same parents) as the
+     * list this leveler was last used with
      */
-    private boolean walkCommentsAtLevel(@NonNull ReaderCommentList comments, int level) {
-        boolean hasChanges = false;
-        for (int index = 0; index < comments.size(); index++) {
-            ReaderComment parent = comments.get(index);
-            if (parent.level == level && hasChildren(parent.commentId)) {
-                // get children for this comment, set their level, then add them below the parent
-                ReaderCommentList children = getChildren(parent.commentId);
-                setLevel(children, level + 1);
-                comments.addAll(index + 1, children);
-                hasChanges = true;
-                // skip past the children we just added
-                index += children.size();
+    private boolean startsWithSameComments(@NonNull ReaderCommentList comments) {
+        if (comments.size() < mComments.size()) {
+            return false;
+        }
+        for (int i = 0; i < mComments.size(); i++) {
+            ReaderComment existing = mComments.get(i);
+            ReaderComment comment = comments.get(i);
+            if (comment.commentId != existing.commentId || comment.parentId != existing.parentId) {
+                return false;
             }
         }
-        return hasChanges;
+        return true;
     }
 
-    private boolean hasChildren(long commentId) {
-        for (ReaderComment comment : mComments) {
-            if (comment.parentId == commentId) {
-                return true;
+    /*
+     * merges comments appended to the source list into the level list in a single pass - new
+     * comments come after existing ones, so new children are added after the existing children of
+     * their parent, new roots after the existing roots and new orphans after the existing orphans.
+     * returns false if the comments can't be merged (ex: a new comment is the missing parent of
+     * an orphan), in which case the level list must be created again
+     */
+    private boolean mergeComments(@NonNull ReaderCommentList addedComments) {
+        if (addedComments.isEmpty()) {
+            return true;
+        }
+
+        Map<Long, ReaderCommentList> newChildrenByParentId = new HashMap<>();
+        ReaderCommentList newRoots = new ReaderCommentList();
+        ReaderCommentList newOrphans = new ReaderCommentList();
+        for (ReaderComment comment : addedComments) {
+            if (mCommentsById.containsKey(comment.commentId) || mMissingParentIds.contains(comment.commentId)) {
+                return false;
             }
+            comment.level = 0;
+            mCommentsById.put(comment.commentId, comment);
+            if (comment.parentId == 0) {
+                newRoots.add(comment);
+            } else if (mCommentsById.containsKey(comment.parentId)) {
+                getOrCreateChildren(newChildrenByParentId, comment.parentId).add(comment);
+            } else {
+                mMissingParentIds.add(comment.parentId);
+                newOrphans.add(comment);
+                AppLog.d(AppLog.T.READER, "Orphan comment encountered");
+            }
+        }
+
+        ReaderCommentList result = new ReaderCommentList();
+        result.ensureCapacity(mLevelList.size() + addedComments.size());
+
+        // existing comments whose subtrees haven't been closed yet - a subtree is closed when the
+        // next comment isn't one of its descendants, and new children are added at that point
+        ArrayDeque<ReaderComment> openComments = new ArrayDeque<>();
+        boolean isInOrphans = false;
+        for (ReaderComment levelComment : mLevelList) {
+            ReaderComment comment = mCommentsById.get(levelComment.commentId);
+            if (!isInOrphans && comment.parentId != 0 && mMissingParentIds.contains(comment.parentId)) {
+                // first orphan, so all rooted comments have been added
+                closeSubtrees(result, openComments, 0, 0, newChildrenByParentId);
+                for (ReaderComment root : newRoots) {
+                    addWithDescendants(result, root, 0, newChildrenByParentId);
+                }
+                isInOrphans = true;
+            }
+            // orphans start at level 1 rather than 0
+            int levelOffset = isInOrphans ? 1 : 0;
+            closeSubtrees(result, openComments, comment.level - levelOffset, levelOffset, newChildrenByParentId);
+            result.add(comment);
+            openComments.push(comment);
         }
-        return false;
+        closeSubtrees(result, openComments, 0, isInOrphans ? 1 : 0, newChildrenByParentId);
+
+        if (!isInOrphans) {
+            for (ReaderComment root : newRoots) {
+                addWithDescendants(result, root, 0, newChildrenByParentId);
+            }
+        }
+        for (ReaderComment orphan : newOrphans) {
+            addWithDescendants(result, orphan, 1, newChildrenByParentId);
+        }
+
+        mLevelList = result;
+        return true;
     }
 
-    private ReaderCommentList getChildren(long commentId) {
-        ReaderCommentList children = new ReaderCommentList();
-        for (ReaderComment comment : mComments) {
-            if (comment.parentId == commentId) {
-                children.add(comment);
+    /*
+     * closes the open subtrees at or below the passed depth, adding any new children of each
+     * comment after its existing descendants
+     */
+    private static void closeSubtrees(@NonNull ReaderCommentList result,
+                                      @NonNull ArrayDeque<ReaderComment> openComments,
+                                      int depth,
+                                      int levelOffset,
+                                      @NonNull Map<Long, ReaderCommentList> newChildrenByParentId) {
+        while (!openComments.isEmpty() && openComments.peek().level - levelOffset >= depth) {
+            ReaderComment parent = openComments.pop();
+            ReaderCommentList newChildren = newChildrenByParentId.get(parent.commentId);
+            if (newChildren != null) {
+                for (ReaderComment child : newChildren) {
+                    addWithDescendants(result, child, parent.level + 1, newChildrenByParentId);
+                }
             }
         }
-        return children;
     }
 
-    private void setLevel(@NonNull ReaderCommentList comments, int level) {
-        for (ReaderComment comment : comments) {
-            comment.level = level;
+    /*
+     * adds the passed comment at the passed level followed by its descendants - iterative rather
+     * than recursive so deeply nested threads can't overflow the stack
+     */
+    private static void addWithDescendants(@NonNull ReaderCommentList result,
+                                           @NonNull ReaderComment comment,
+                                           int level,
+                                           @NonNull Map<Long, ReaderCommentList> childrenByParentId) {
+        ArrayDeque<ReaderComment> stack = new ArrayDeque<>();
+        comment.level = level;
+        stack.push(comment);
+        while (!stack.isEmpty()) {
+            ReaderComment parent = stack.pop();
+            result.add(parent);
+            ReaderCommentList children = childrenByParentId.get(parent.commentId);
+            if (children != null) {
+                // push in reverse so children are added in the order they appear in the source list
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    ReaderComment child = children.get(i);
+                    child.level = parent.level + 1;
+                    stack.push(child);
+                }
+            }
         }
     }
+
+    /*
+     * callers get a copy of the level list since they may modify it (ex: ReaderCommentAdapter
+     * adds comments the user has just posted)
+     */
+    private static ReaderCommentList copyOf(@NonNull ReaderCommentList comments) {
+        ReaderCommentList copy = new ReaderCommentList();
+        copy.addAll(comments);
+        return copy;
+    }
+
+    private static ReaderCommentList getOrCreateChildren(@NonNull Map<Long, ReaderCommentList> childrenByParentId,
+                                                         long parentId) {
+        ReaderCommentList children = childrenByParentId.get(parentId);
+        if (children == null) {
+            children = new ReaderCommentList();
+            childrenByParentId.put(parentId, children);
+        }
+        return children;
+    }
 }
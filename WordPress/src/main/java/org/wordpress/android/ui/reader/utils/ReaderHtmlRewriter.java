@@ -0,0 +1,160 @@
+package org.wordpress.android.ui.reader.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * rewrites the image and iframe tags in post content and detects embeds which require a script
+ * in a single pass over the content - replaces running ReaderImageScanner, ReaderIframeScanner
+ * and an embed scan separately, each of which required its own copy of the content and a search
+ * from the start of the content for every replaced tag
+ * <p>
+ * tags are matched the same way as the scanners match them: images must have a double-quoted
+ * src attribute, iframes a single-quoted one
+ */
+public class ReaderHtmlRewriter {
+    public interface HtmlRewriterListener {
+        /*
+         * return the tag to replace the passed image tag with, or null to leave it unchanged
+         */
+        @Nullable String onImageTagFound(@NonNull String imageTag, @NonNull String imageUrl);
+
+        /*
+         * return the tag to replace the passed iframe tag with, or null to leave it unchanged
+         */
+        @Nullable String onIframeTagFound(@NonNull String iframeTag, @NonNull String src);
+    }
+
+    public static final String INSTAGRAM_EMBED_JS = "https://platform.instagram.com/en_US/embeds.js";
+    public static final String FACEBOOK_EMBED_JS =
+            "https://connect.facebook.net/en_US/sdk.js#xfbml=1&amp;version=v2.8";
+
+    private static final String IMG_TAG_START = "<img";
+    private static final String IFRAME_TAG_START = "<iframe";
+    private static final String BLOCKQUOTE_TAG_START = "<blockquote";
+    private static final String FB_POST_TAG_START = "<fb:post";
+    private static final String INSTAGRAM_CLASS_ATTR = "class=\"instagram-";
+
+    private final String mContent;
+    private final boolean mRewriteImages;
+    private final Set<String> mEmbedScripts = new HashSet<>();
+
+    /*
+     * pass false for rewriteImages to leave image tags untouched (used for tiled galleries)
+     */
+    public ReaderHtmlRewriter(@NonNull String contentOfPost, boolean rewriteImages) {
+        mContent = contentOfPost;
+        mRewriteImages = rewriteImages;
+    }
+
+    /*
+     * returns the rewritten content - the set of scripts required by the embeds in the content
+     * is available from getEmbedScripts() afterwards
+     */
+    public String rewrite(@NonNull HtmlRewriterListener listener) {
+        mEmbedScripts.clear();
+
+        final int length = mContent.length();
+        // replacement tags tend to be shorter than the original tags so the rewritten content
+        // rarely needs to grow beyond the original length
+        StringBuilder sb = new StringBuilder(length + 256);
+
+        int copyFrom = 0;
+        int pos = mContent.indexOf('<');
+        while (pos != -1) {
+            int next = pos + 1;
+            if (mRewriteImages && regionMatches(pos, IMG_TAG_START)) {
+                int tagEnd = mContent.indexOf('>', pos);
+                if (tagEnd == -1) {
+                    // unterminated tag, so there can't be any more complete tags after it
+                    break;
+                }
+                String src = getAttrValue(pos, tagEnd, " src=\"", '"');
+                if (src != null) {
+                    String tag = mContent.substring(pos, tagEnd + 1);
+                    String newTag = listener.onImageTagFound(tag, src);
+                    if (newTag != null) {
+                        sb.append(mContent, copyFrom, pos).append(newTag);
+                        copyFrom = tagEnd + 1;
+                    }
+                }
+                next = tagEnd + 1;
+            } else if (regionMatches(pos, IFRAME_TAG_START)) {
+                int tagEnd = mContent.indexOf('>', pos);
+                if (tagEnd == -1) {
+                    // unterminated tag, so there can't be any more complete tags after it
+                    break;
+                }
+                String src = getAttrValue(pos, tagEnd, " src='", '\'');
+                if (src != null) {
+                    String tag = mContent.substring(pos, tagEnd + 1);
+                    String newTag = listener.onIframeTagFound(tag, src);
+                    if (newTag != null) {
+                        sb.append(mContent, copyFrom, pos).append(newTag);
+                        copyFrom = tagEnd + 1;
+                    }
+                }
+                next = tagEnd + 1;
+            } else if (regionMatches(pos, BLOCKQUOTE_TAG_START)) {
+                if (isInstagramEmbed(pos + BLOCKQUOTE_TAG_START.length())) {
+                    mEmbedScripts.add(INSTAGRAM_EMBED_JS);
+                }
+            } else if (regionMatches(pos, FB_POST_TAG_START)) {
+                mEmbedScripts.add(FACEBOOK_EMBED_JS);
+            }
+            pos = mContent.indexOf('<', next);
+        }
+
+        if (copyFrom == 0) {
+            // nothing was replaced
+            return mContent;
+        }
+
+        sb.append(mContent, copyFrom, length);
+        return sb.toString();
+    }
+
+    /*
+     * returns the scripts which should be injected to support the embeds found by rewrite()
+     */
+    public Set<String> getEmbedScripts() {
+        return mEmbedScripts;
+    }
+
+    private boolean regionMatches(int offset, @NonNull String prefix) {
+        return mContent.regionMatches(true, offset, prefix, 0, prefix.length());
+    }
+
+    /*
+     * returns the value of the last occurrence of the passed attribute prefix in the tag which
+     * spans tagStart to tagEnd, or null if the tag doesn't have a value for it
+     */
+    private @Nullable String getAttrValue(int tagStart, int tagEnd, @NonNull String attrPrefix, char quote) {
+        int prefixLen = attrPrefix.length();
+        for (int i = tagEnd - prefixLen; i > tagStart; i--) {
+            if (mContent.regionMatches(true, i, attrPrefix, 0, prefixLen)) {
+                int valueStart = i + prefixLen;
+                int valueEnd = mContent.indexOf(quote, valueStart);
+                if (valueEnd != -1 && valueEnd < tagEnd) {
+                    return mContent.substring(valueStart, valueEnd);
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * matches <blockquote[^<>]class="instagram-
+     */
+    private boolean isInstagramEmbed(int offset) {
+        if (offset >= mContent.length()) {
+            return false;
+        }
+        char c = mContent.charAt(offset);
+        return c != '<' && c != '>' && mContent.regionMatches(true, offset + 1, INSTAGRAM_CLASS_ATTR, 0,
+                INSTAGRAM_CLASS_ATTR.length());
+    }
+}
@@ -13,13 +13,12 @@ import android.widget.TextView;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Suggestion;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.util.GravatarUtils;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import javax.inject.Inject;
 
@@ -27,7 +26,8 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
     private final LayoutInflater mInflater;
     private Filter mSuggestionFilter;
     private List<Suggestion> mSuggestionList;
-    private List<Suggestion> mOrigSuggestionList;
+    // set on the main thread and read by the filter's worker thread
+    private volatile SuggestionIndex mSuggestionIndex;
     private int mAvatarSz;
 
     @Inject protected ImageManager mImageManager;
@@ -38,8 +38,20 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
         mInflater = LayoutInflater.from(context);
     }
 
-    public void setSuggestionList(List<Suggestion> suggestionList) {
-        mOrigSuggestionList = suggestionList;
+    public void setSuggestionIndex(SuggestionIndex suggestionIndex) {
+        mSuggestionIndex = suggestionIndex;
+    }
+
+    /*
+     * called when the user picks the suggestion at the passed position, so it's ranked higher next time - this
+     * isn't done when the suggestion is converted to a string since that also happens for every suggestion
+     * that's shown
+     */
+    public void onSuggestionPicked(int position) {
+        SuggestionIndex suggestionIndex = mSuggestionIndex;
+        if (suggestionIndex != null && position >= 0 && position < getCount()) {
+            suggestionIndex.recordUse(getItem(position), System.currentTimeMillis());
+        }
     }
 
     @Override
@@ -114,27 +126,15 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
         protected FilterResults performFiltering(CharSequence constraint) {
             FilterResults results = new FilterResults();
 
-            if (mOrigSuggestionList == null) {
+            SuggestionIndex suggestionIndex = mSuggestionIndex;
+            if (suggestionIndex == null) {
                 results.values = null;
                 results.count = 0;
-            } else if (constraint == null || constraint.length() == 0) {
-                results.values = mOrigSuggestionList;
-                results.count = mOrigSuggestionList.size();
             } else {
-                List<Suggestion> nSuggestionList = new ArrayList<>();
-
-                for (Suggestion suggestion : mOrigSuggestionList) {
-                    String lowerCaseConstraint = constraint.toString().toLowerCase(Locale.getDefault());
-                    if (suggestion.getUserLogin().toLowerCase(Locale.ROOT).startsWith(lowerCaseConstraint)
-                        || suggestion.getDisplayName().toLowerCase(Locale.getDefault()).startsWith(lowerCaseConstraint)
-                        || suggestion.getDisplayName().toLowerCase(Locale.getDefault())
-                                     .contains(" " + lowerCaseConstraint)) {
-                        nSuggestionList.add(suggestion);
-                    }
-                }
-
-                results.values = nSuggestionList;
-                results.count = nSuggestionList.size();
+                List<Suggestion> suggestions =
+                        suggestionIndex.find(constraint, SuggestionIndex.MAX_RESULTS, System.currentTimeMillis());
+                results.values = suggestions;
+                results.count = suggestions.size();
             }
             return results;
         }
@@ -153,8 +153,7 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
 
         @Override
         public CharSequence convertResultToString(Object resultValue) {
-            Suggestion suggestion = (Suggestion) resultValue;
-            return suggestion.getUserLogin();
+            return ((Suggestion) resultValue).getUserLogin();
         }
     }
 }
@@ -15,6 +15,7 @@ import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.models.Tag;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.util.AppLog;
 
 import java.util.ArrayList;
@@ -87,6 +88,8 @@ public class SuggestionService extends Service {
                 List<Suggestion> suggestions = Suggestion.suggestionListFromJSON(jsonSuggestions, siteId);
                 if (suggestions != null) {
                     SuggestionTable.insertSuggestionsForSite(siteId, suggestions);
+                    // the index is built here so it's ready before the screens showing suggestions are told
+                    SuggestionIndex.buildIndexForSite(siteId);
                     EventBus.getDefault().post(new SuggestionEvents.SuggestionNameListUpdated(siteId));
                 }
             }
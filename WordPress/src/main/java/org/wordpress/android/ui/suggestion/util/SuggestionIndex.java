@@ -0,0 +1,289 @@
+package org.wordpress.android.ui.suggestion.util;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.datasets.SuggestionTable;
+import org.wordpress.android.models.Suggestion;
+import org.wordpress.android.models.SuggestionUsage;
+import org.wordpress.android.util.SearchTextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * prefix index over the user suggestions for a site, used to suggest @-mentions as the user types.
+ * each suggestion's login, its display name and the words in its display name are stored in a
+ * sorted array of tokens, so the suggestions matching what the user typed are found with a binary
+ * search rather than by checking every suggestion. matches are ranked by what they matched (login
+ * before display name before a later word in the name) and by how often and how recently the
+ * current user picked them. the index for a site is built when its suggestions are updated and is
+ * kept in memory until they're updated again
+ */
+public class SuggestionIndex {
+    public interface IndexListener {
+        void onIndexReady(@NonNull SuggestionIndex index);
+    }
+
+    public static final int MAX_RESULTS = 10;
+
+    // how well a suggestion matched, from best to worst
+    private static final int MATCH_WHOLE_LOGIN = 4;
+    private static final int MATCH_LOGIN = 3;
+    private static final int MATCH_DISPLAY_NAME = 2;
+    private static final int MATCH_NAME_WORD = 1;
+
+    // each use adds less to the score than the one before it, and a use is worth half as much a week later
+    private static final double FREQUENCY_WEIGHT = 1.0;
+    private static final double RECENCY_WEIGHT = 2.0;
+    private static final double RECENCY_HALF_LIFE_MS = 7 * 24 * 60 * 60 * 1000.0;
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[\\s\\p{Punct}]+");
+
+    private static final Map<Long, SuggestionIndex> INDEXES = new HashMap<>();
+
+    private final long mSiteId;
+    private final List<Suggestion> mSuggestions;
+    // the tokens in sorted order, along with the suggestion each token belongs to and what it matches
+    private final String[] mTokens;
+    private final int[] mTokenSuggestions;
+    private final int[] mTokenMatches;
+    // keyed by user login - picking a suggestion updates this from the main thread while it's read by filtering
+    private final Map<String, SuggestionUsage> mUsage;
+
+    private SuggestionIndex(long siteId, @NonNull List<Suggestion> suggestions,
+                            @NonNull Map<String, SuggestionUsage> usage) {
+        mSiteId = siteId;
+        mSuggestions = new ArrayList<>(suggestions);
+        mUsage = new ConcurrentHashMap<>(usage);
+
+        final List<Token> tokens = new ArrayList<>(mSuggestions.size() * 3);
+        for (int i = 0; i < mSuggestions.size(); i++) {
+            Suggestion suggestion = mSuggestions.get(i);
+            addToken(tokens, suggestion.getUserLogin(), i, MATCH_LOGIN);
+            String displayName = normalize(suggestion.getDisplayName());
+            addToken(tokens, displayName, i, MATCH_DISPLAY_NAME);
+            String[] words = displayName.split(" ");
+            for (int w = 1; w < words.length; w++) {
+                addToken(tokens, words[w], i, MATCH_NAME_WORD);
+            }
+        }
+        Collections.sort(tokens, new Comparator<Token>() {
+            @Override
+            public int compare(Token token1, Token token2) {
+                return token1.mText.compareTo(token2.mText);
+            }
+        });
+
+        mTokens = new String[tokens.size()];
+        mTokenSuggestions = new int[tokens.size()];
+        mTokenMatches = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            mTokens[i] = token.mText;
+            mTokenSuggestions[i] = token.mSuggestion;
+            mTokenMatches[i] = token.mMatch;
+        }
+    }
+
+    private static void addToken(@NonNull List<Token> tokens, @Nullable String text, int suggestion, int match) {
+        String normalized = normalize(text);
+        if (!normalized.isEmpty()) {
+            tokens.add(new Token(normalized, suggestion, match));
+        }
+    }
+
+    @NonNull
+    static SuggestionIndex build(long siteId, @NonNull List<Suggestion> suggestions,
+                                 @NonNull Map<String, SuggestionUsage> usage) {
+        return new SuggestionIndex(siteId, suggestions, usage);
+    }
+
+    /*
+     * builds the index for the passed site from its stored suggestions, replacing any existing index -
+     * called when the site's suggestions are updated, so this should be called on a background thread
+     */
+    @NonNull
+    public static SuggestionIndex buildIndexForSite(long siteId) {
+        SuggestionIndex index = build(siteId, SuggestionTable.getSuggestionsForSite(siteId),
+                SuggestionTable.getSuggestionUsageForSite(siteId));
+        synchronized (INDEXES) {
+            INDEXES.put(siteId, index);
+        }
+        return index;
+    }
+
+    /*
+     * passes the index for the passed site to the listener - when it hasn't been built since the app started
+     * it's built in the background and passed to the listener on the main thread once it's ready, otherwise
+     * it's passed right away
+     */
+    public static void getIndexForSite(final long siteId, @NonNull final IndexListener listener) {
+        synchronized (INDEXES) {
+            SuggestionIndex index = INDEXES.get(siteId);
+            if (index != null) {
+                listener.onIndexReady(index);
+                return;
+            }
+        }
+
+        final Handler handler = new Handler(Looper.getMainLooper());
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final SuggestionIndex index = buildIndexForSite(siteId);
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onIndexReady(index);
+                    }
+                });
+            }
+        });
+    }
+
+    public boolean isEmpty() {
+        return mSuggestions.isEmpty();
+    }
+
+    /*
+     * returns the best maxResults suggestions for the passed text, best first. login and display name
+     * matches must start with the text, and other words in the display name must start with it. when
+     * the text is empty, the suggestions the user has picked most are returned
+     */
+    @NonNull
+    public List<Suggestion> find(@Nullable CharSequence text, int maxResults, long now) {
+        String prefix = normalize(text != null ? text.toString() : null);
+
+        // the best match for each suggestion, or zero if it doesn't match
+        final int[] matches = new int[mSuggestions.size()];
+        int[] matched = new int[mSuggestions.size()];
+        int matchCount = 0;
+        if (prefix.isEmpty()) {
+            for (int i = 0; i < mSuggestions.size(); i++) {
+                matched[matchCount++] = i;
+            }
+        } else {
+            for (int i = getFirstTokenAtOrAfter(prefix); i < mTokens.length && mTokens[i].startsWith(prefix); i++) {
+                int suggestion = mTokenSuggestions[i];
+                int match = mTokenMatches[i];
+                if (match == MATCH_LOGIN && mTokens[i].length() == prefix.length()) {
+                    match = MATCH_WHOLE_LOGIN;
+                }
+                if (matches[suggestion] == 0) {
+                    matched[matchCount++] = suggestion;
+                }
+                matches[suggestion] = Math.max(matches[suggestion], match);
+            }
+        }
+
+        final double[] scores = new double[matchCount];
+        for (int i = 0; i < matchCount; i++) {
+            scores[i] = matches[matched[i]] + getUsageScore(mSuggestions.get(matched[i]), now);
+        }
+
+        // keep the best maxResults in a heap whose head is the worst of them - ties go to the suggestion
+        // which comes first in the list, which is sorted by login
+        final int[] suggestionIndexes = matched;
+        Comparator<Integer> worstFirst = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer match1, Integer match2) {
+                int result = Double.compare(scores[match1], scores[match2]);
+                return result != 0 ? result : Integer.compare(suggestionIndexes[match2], suggestionIndexes[match1]);
+            }
+        };
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, maxResults), worstFirst);
+        for (int i = 0; i < matchCount; i++) {
+            if (best.size() < maxResults) {
+                best.add(i);
+            } else if (maxResults > 0 && worstFirst.compare(i, best.peek()) > 0) {
+                best.poll();
+                best.add(i);
+            }
+        }
+
+        Suggestion[] results = new Suggestion[best.size()];
+        for (int i = results.length - 1; i >= 0; i--) {
+            results[i] = mSuggestions.get(suggestionIndexes[best.poll()]);
+        }
+        return Arrays.asList(results);
+    }
+
+    private double getUsageScore(@NonNull Suggestion suggestion, long now) {
+        SuggestionUsage usage = mUsage.get(suggestion.getUserLogin());
+        if (usage == null || usage.getUseCount() == 0) {
+            return 0;
+        }
+        double age = Math.max(0, now - usage.getLastUsed());
+        return FREQUENCY_WEIGHT * Math.log(1 + usage.getUseCount())
+               + RECENCY_WEIGHT * Math.pow(0.5, age / RECENCY_HALF_LIFE_MS);
+    }
+
+    /*
+     * returns the index of the first token which sorts at or after the passed text
+     */
+    private int getFirstTokenAtOrAfter(@NonNull String text) {
+        int low = 0;
+        int high = mTokens.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mTokens[middle].compareTo(text) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * called when the user picks the passed suggestion so it ranks higher next time
+     */
+    public void recordUse(@NonNull final Suggestion suggestion, long now) {
+        final String userLogin = suggestion.getUserLogin();
+        SuggestionUsage previousUsage = mUsage.get(userLogin);
+        final SuggestionUsage usage =
+                new SuggestionUsage(previousUsage != null ? previousUsage.getUseCount() + 1 : 1, now);
+        mUsage.put(userLogin, usage);
+
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                SuggestionTable.setSuggestionUsage(mSiteId, userLogin, usage);
+            }
+        });
+    }
+
+    /*
+     * lowercases the passed text, removes its accents and replaces runs of spaces and punctuation
+     * with a single space
+     */
+    @NonNull
+    static String normalize(@Nullable String text) {
+        return WORD_SEPARATORS.matcher(SearchTextUtils.normalize(text)).replaceAll(" ").trim();
+    }
+
+    private static class Token {
+        private final String mText;
+        private final int mSuggestion;
+        private final int mMatch;
+
+        Token(@NonNull String text, int suggestion, int match) {
+            mText = text;
+            mSuggestion = suggestion;
+            mMatch = match;
+        }
+    }
+}
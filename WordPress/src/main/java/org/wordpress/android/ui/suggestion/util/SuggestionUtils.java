@@ -1,15 +1,14 @@
 package org.wordpress.android.ui.suggestion.util;
 
+import android.app.Activity;
 import android.content.Context;
 
-import org.wordpress.android.datasets.SuggestionTable;
+import androidx.annotation.NonNull;
+
 import org.wordpress.android.fluxc.model.SiteModel;
-import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.ui.suggestion.adapters.SuggestionAdapter;
 import org.wordpress.android.util.SiteUtils;
 
-import java.util.List;
-
 public class SuggestionUtils {
     public static SuggestionAdapter setupSuggestions(SiteModel site, Context context,
                                                      SuggestionServiceConnectionManager serviceConnectionManager) {
@@ -17,21 +16,29 @@ public class SuggestionUtils {
                                                 SiteUtils.isAccessedViaWPComRest(site));
     }
 
-    public static SuggestionAdapter setupSuggestions(final long siteId, Context context,
-                                                     SuggestionServiceConnectionManager serviceConnectionManager,
+    public static SuggestionAdapter setupSuggestions(final long siteId, final Context context,
+                                                     final SuggestionServiceConnectionManager serviceConnectionManager,
                                                      boolean isWPComFlag) {
         if (!isWPComFlag) {
             return null;
         }
 
-        SuggestionAdapter suggestionAdapter = new SuggestionAdapter(context);
+        final SuggestionAdapter suggestionAdapter = new SuggestionAdapter(context);
 
-        List<Suggestion> suggestions = SuggestionTable.getSuggestionsForSite(siteId);
-        // if the suggestions are not stored yet, we want to trigger an update for it
-        if (suggestions.isEmpty()) {
-            serviceConnectionManager.bindToService();
-        }
-        suggestionAdapter.setSuggestionList(suggestions);
+        // the index may need to be built from the stored suggestions, so the adapter gets it once it's ready
+        SuggestionIndex.getIndexForSite(siteId, new SuggestionIndex.IndexListener() {
+            @Override
+            public void onIndexReady(@NonNull SuggestionIndex index) {
+                if (context instanceof Activity && ((Activity) context).isFinishing()) {
+                    return;
+                }
+                // if the suggestions are not stored yet, we want to trigger an update for it
+                if (index.isEmpty()) {
+                    serviceConnectionManager.bindToService();
+                }
+                suggestionAdapter.setSuggestionIndex(index);
+            }
+        });
         return suggestionAdapter;
     }
 }
@@ -1,6 +1,8 @@
 package org.wordpress.android.ui.uploads;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -26,17 +28,39 @@ import org.wordpress.android.util.analytics.AnalyticsUtils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
+/**
+ * Uploads media as a pipeline - queued videos are optimized while other media is being uploaded, and
+ * up to {@link AppPrefs#getMaxParallelMediaUploadsPerSite()} items are uploaded to each site at the same
+ * time. Featured images and media belonging to posts that are waiting to be published are uploaded
+ * before other media.
+ * <p>
+ * Media in sInProgressUploads is either being optimized, being uploaded, or is an optimized video that's
+ * waiting for an upload slot.
+ */
 public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptimizer.VideoOptimizationListener {
+    // transcoding is CPU and memory intensive, so only a single video is optimized at a time
+    private static final int MAX_PARALLEL_VIDEO_OPTIMIZATIONS = 1;
+
     private static List<MediaModel> sPendingUploads = new ArrayList<>();
     private static List<MediaModel> sInProgressUploads = new ArrayList<>();
     private static ConcurrentHashMap<Integer, Float> sOptimizationProgressByMediaId = new ConcurrentHashMap<>();
 
+    // ids of media which is being optimized, and of in-progress media which is being uploaded (guarded by
+    // sInProgressUploads)
+    private static Set<Integer> sOptimizingMediaIds = new HashSet<>();
+    private static Set<Integer> sUploadingMediaIds = new HashSet<>();
+
+    // local ids of posts waiting for their media to be uploaded before they're published
+    private static Set<Integer> sPrioritizedPostIds = Collections.synchronizedSet(new HashSet<Integer>());
+
     @Inject Dispatcher mDispatcher;
     @Inject SiteStore mSiteStore;
 
@@ -49,6 +73,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
 
     void unregister() {
         sOptimizationProgressByMediaId.clear();
+        sPrioritizedPostIds.clear();
         mDispatcher.unregister(this);
         EventBus.getDefault().unregister(this);
     }
@@ -60,7 +85,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
 
     @Override
     public void cancelInProgressUploads() {
-        for (MediaModel oneUpload : sInProgressUploads) {
+        for (MediaModel oneUpload : getInProgressUploads()) {
             cancelUpload(oneUpload, false);
         }
     }
@@ -68,7 +93,17 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     @Override
     public void upload(@NonNull MediaModel media) {
         addUniqueMediaToQueue(media);
-        uploadNextInQueue();
+        startQueuedUploads();
+    }
+
+    /**
+     * Uploads the media of the passed post before other queued media - called when a post is waiting for its
+     * media to finish uploading so it can be published.
+     */
+    static void prioritizeMediaForPost(int postId) {
+        if (hasPendingOrInProgressMediaUploadsForPost(postId)) {
+            sPrioritizedPostIds.add(postId);
+        }
     }
 
     static boolean hasInProgressMediaUploadsForPost(int postId) {
@@ -161,27 +196,42 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
      * no record for that video, it's assumed to be a completed upload.
      */
     static float getOverallProgressForVideo(int videoId, float uploadProgress) {
-        if (sOptimizationProgressByMediaId.containsKey(videoId)) {
-            float optimizationProgress = sOptimizationProgressByMediaId.get(videoId);
+        Float optimizationProgress = sOptimizationProgressByMediaId.get(videoId);
+        if (optimizationProgress != null) {
             return optimizationProgress * 0.5F;
         }
+        // videos wait in the pending queue until they're optimized, so a pending video hasn't made any progress
+        if (isPendingMediaUpload(videoId)) {
+            return 0;
+        }
         return 0.5F + (uploadProgress * 0.5F);
     }
 
+    private static boolean isPendingMediaUpload(int mediaId) {
+        synchronized (sPendingUploads) {
+            for (MediaModel queuedMedia : sPendingUploads) {
+                if (queuedMedia.getId() == mediaId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private void handleOnMediaUploadedSuccess(@NonNull OnMediaUploaded event) {
         if (event.canceled) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Upload successfully canceled");
             trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_CANCELED,
                                    getMediaFromInProgressQueueById(event.media.getId()), null);
             completeUploadWithId(event.media.getId());
-            uploadNextInQueue();
+            startQueuedUploads();
         } else if (event.completed) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Upload completed - localId=" + event.media.getId() + " title="
                               + event.media.getTitle());
             trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_SUCCESS,
                                    getMediaFromInProgressQueueById(event.media.getId()), null);
             completeUploadWithId(event.media.getId());
-            uploadNextInQueue();
+            startQueuedUploads();
         } else {
             AppLog.i(T.MEDIA, "MediaUploadHandler > " + event.media.getId() + " - progress: " + event.progress);
         }
@@ -199,64 +249,230 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_ERROR, media, properties);
 
         completeUploadWithId(event.media.getId());
-        uploadNextInQueue();
+        startQueuedUploads();
     }
 
-    private synchronized void uploadNextInQueue() {
-        MediaModel next = getNextMediaToUpload();
-
-        if (next == null) {
-            AppLog.w(T.MEDIA, "MediaUploadHandler > No more media items to upload. Skipping this request.");
-            checkIfUploadsComplete();
+    /*
+     * starts optimizing queued videos while there are free optimization slots, and uploading the most important
+     * media that's ready while its site has free upload slots
+     */
+    private synchronized void startQueuedUploads() {
+        List<MediaModel> mediaToOptimize = new ArrayList<>();
+        List<MediaModel> mediaToUpload = new ArrayList<>();
+        takeQueuedUploads(AppPrefs.getMaxParallelMediaUploadsPerSite(), WPMediaUtils.isVideoOptimizationEnabled(),
+                mediaToOptimize, mediaToUpload);
+
+        if (mediaToOptimize.isEmpty() && mediaToUpload.isEmpty()) {
+            if (!checkIfUploadsComplete()) {
+                AppLog.d(T.MEDIA, "MediaUploadHandler > No media ready to upload, waiting for uploads in progress");
+            }
             return;
         }
 
-        prepareForUpload(next);
+        // the optimizer and dispatcher may call back synchronously, so they're started outside of the locks
+        for (MediaModel media : mediaToOptimize) {
+            AppLog.i(T.MEDIA, "MediaUploadHandler > Optimizing video with local id: " + media.getId());
+            new VideoOptimizer(media, this).start();
+        }
+        boolean hasSkippedUploads = false;
+        for (MediaModel media : mediaToUpload) {
+            if (!dispatchUploadAction(media)) {
+                hasSkippedUploads = true;
+            }
+        }
+        // skipped uploads free their slots, so more queued media may be ready to upload
+        if (hasSkippedUploads) {
+            startQueuedUploads();
+        }
     }
 
-    private synchronized void completeUploadWithId(int id) {
-        MediaModel media = getMediaFromInProgressQueueById(id);
-        if (media != null) {
-            sInProgressUploads.remove(media);
-            trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_STARTED, media, null);
+    /*
+     * moves the queued videos which should be optimized now into mediaToOptimize, and the media which should be
+     * uploaded now into mediaToUpload, marking them as in progress
+     */
+    @VisibleForTesting
+    static void takeQueuedUploads(int maxUploadsPerSite,
+                                  boolean isVideoOptimizationEnabled,
+                                  @NonNull List<MediaModel> mediaToOptimize,
+                                  @NonNull List<MediaModel> mediaToUpload) {
+        synchronized (sPendingUploads) {
+            synchronized (sInProgressUploads) {
+                MediaModel next;
+                while (isVideoOptimizationEnabled && sOptimizingMediaIds.size() < MAX_PARALLEL_VIDEO_OPTIMIZATIONS
+                       && (next = removeNextMediaToOptimize()) != null) {
+                    sInProgressUploads.add(next);
+                    sOptimizingMediaIds.add(next.getId());
+                    mediaToOptimize.add(next);
+                }
+
+                Map<Integer, Integer> uploadCountBySiteId = getUploadCountBySiteId();
+                while ((next = removeNextMediaToUpload(uploadCountBySiteId, maxUploadsPerSite,
+                        isVideoOptimizationEnabled)) != null) {
+                    if (!sInProgressUploads.contains(next)) {
+                        sInProgressUploads.add(next);
+                    }
+                    sUploadingMediaIds.add(next.getId());
+                    Integer uploadCount = uploadCountBySiteId.get(next.getLocalSiteId());
+                    uploadCountBySiteId.put(next.getLocalSiteId(), uploadCount == null ? 1 : uploadCount + 1);
+                    mediaToUpload.add(next);
+                }
+            }
         }
     }
 
-    private MediaModel getMediaFromInProgressQueueById(int id) {
+    /*
+     * removes and returns the most important queued video that needs to be optimized before it's uploaded
+     */
+    private static MediaModel removeNextMediaToOptimize() {
+        MediaModel next = null;
+        for (MediaModel media : sPendingUploads) {
+            if (media.isVideo() && (next == null || getUploadPriority(media) > getUploadPriority(next))) {
+                next = media;
+            }
+        }
+        if (next != null) {
+            sPendingUploads.remove(next);
+        }
+        return next;
+    }
+
+    /*
+     * removes and returns the most important media that's ready to upload to a site with a free upload slot -
+     * optimized videos that are waiting in sInProgressUploads come before queued media with the same priority
+     */
+    private static MediaModel removeNextMediaToUpload(@NonNull Map<Integer, Integer> uploadCountBySiteId,
+                                                      int maxUploadsPerSite,
+                                                      boolean isVideoOptimizationEnabled) {
+        MediaModel next = null;
         for (MediaModel media : sInProgressUploads) {
-            if (media.getId() == id) {
-                return media;
+            if (!sOptimizingMediaIds.contains(media.getId()) && !sUploadingMediaIds.contains(media.getId())
+                && hasFreeUploadSlot(media, uploadCountBySiteId, maxUploadsPerSite)
+                && (next == null || getUploadPriority(media) > getUploadPriority(next))) {
+                next = media;
             }
         }
-        return null;
+        for (MediaModel media : sPendingUploads) {
+            if (!(media.isVideo() && isVideoOptimizationEnabled)
+                && hasFreeUploadSlot(media, uploadCountBySiteId, maxUploadsPerSite)
+                && (next == null || getUploadPriority(media) > getUploadPriority(next))) {
+                next = media;
+            }
+        }
+        if (next != null) {
+            sPendingUploads.remove(next);
+        }
+        return next;
     }
 
-    private MediaModel getNextMediaToUpload() {
-        if (!sPendingUploads.isEmpty()) {
-            return sPendingUploads.remove(0);
+    private static Map<Integer, Integer> getUploadCountBySiteId() {
+        Map<Integer, Integer> uploadCountBySiteId = new HashMap<>();
+        for (MediaModel media : sInProgressUploads) {
+            if (sUploadingMediaIds.contains(media.getId())) {
+                Integer uploadCount = uploadCountBySiteId.get(media.getLocalSiteId());
+                uploadCountBySiteId.put(media.getLocalSiteId(), uploadCount == null ? 1 : uploadCount + 1);
+            }
         }
-        return null;
+        return uploadCountBySiteId;
+    }
+
+    private static boolean hasFreeUploadSlot(@NonNull MediaModel media,
+                                             @NonNull Map<Integer, Integer> uploadCountBySiteId,
+                                             int maxUploadsPerSite) {
+        Integer uploadCount = uploadCountBySiteId.get(media.getLocalSiteId());
+        return uploadCount == null || uploadCount < maxUploadsPerSite;
+    }
+
+    /*
+     * media of posts waiting to be published comes first, followed by featured images
+     */
+    private static int getUploadPriority(@NonNull MediaModel media) {
+        int priority = 0;
+        if (sPrioritizedPostIds.contains(media.getLocalPostId())) {
+            priority += 2;
+        }
+        if (media.getMarkedLocallyAsFeatured()) {
+            priority += 1;
+        }
+        return priority;
     }
 
-    private void addUniqueMediaToQueue(MediaModel media) {
+    private synchronized void completeUploadWithId(int id) {
+        MediaModel media = removeUpload(id);
         if (media != null) {
-            if (mediaAlreadyQueuedOrUploading(media)) {
-                return;
+            trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_STARTED, media, null);
+        }
+    }
+
+    /*
+     * removes the media with the passed id from the queues, freeing its upload slot - returns the media if it
+     * was in progress, or null if it was still pending or isn't queued
+     */
+    @VisibleForTesting
+    @Nullable
+    static MediaModel removeUpload(int id) {
+        MediaModel media = getMediaFromInProgressQueueById(id);
+        MediaModel removedMedia = null;
+        if (media != null) {
+            // the optimizer keeps running until it completes, so the id isn't removed from sOptimizingMediaIds
+            // here - that keeps canceled videos from running alongside the next optimization
+            synchronized (sInProgressUploads) {
+                sInProgressUploads.remove(media);
+                sUploadingMediaIds.remove(id);
             }
+            removedMedia = media;
+        } else {
+            // media canceled before it was started
+            synchronized (sPendingUploads) {
+                for (MediaModel queuedMedia : sPendingUploads) {
+                    if (queuedMedia.getId() == id) {
+                        media = queuedMedia;
+                        sPendingUploads.remove(queuedMedia);
+                        break;
+                    }
+                }
+            }
+        }
 
-            // no match found in queue
-            sPendingUploads.add(media);
+        if (media != null && !hasPendingOrInProgressMediaUploadsForPost(media.getLocalPostId())) {
+            sPrioritizedPostIds.remove(media.getLocalPostId());
         }
+        return removedMedia;
     }
 
-    private void addUniqueMediaToInProgressUploads(@NonNull MediaModel mediaToAdd) {
+    private static MediaModel getMediaFromInProgressQueueById(int id) {
         synchronized (sInProgressUploads) {
             for (MediaModel media : sInProgressUploads) {
-                if (media.getId() == mediaToAdd.getId()) {
-                    return;
+                if (media.getId() == id) {
+                    return media;
                 }
             }
-            sInProgressUploads.add(mediaToAdd);
+        }
+        return null;
+    }
+
+    private static List<MediaModel> getInProgressUploads() {
+        synchronized (sInProgressUploads) {
+            return new ArrayList<>(sInProgressUploads);
+        }
+    }
+
+    private static List<MediaModel> getPendingUploads() {
+        synchronized (sPendingUploads) {
+            return new ArrayList<>(sPendingUploads);
+        }
+    }
+
+    @VisibleForTesting
+    static void addUniqueMediaToQueue(MediaModel media) {
+        if (media != null) {
+            if (mediaAlreadyQueuedOrUploading(media)) {
+                return;
+            }
+
+            // no match found in queue
+            synchronized (sPendingUploads) {
+                sPendingUploads.add(media);
+            }
         }
     }
 
@@ -272,32 +488,27 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         }
     }
 
-    private void prepareForUpload(@NonNull MediaModel media) {
-        if (media.isVideo() && WPMediaUtils.isVideoOptimizationEnabled()) {
-            addUniqueMediaToInProgressUploads(media);
-            new VideoOptimizer(media, this).start();
-        } else {
-            dispatchUploadAction(media);
-        }
-    }
-
-    private void dispatchUploadAction(@NonNull final MediaModel media) {
+    /*
+     * dispatches the upload of the passed media - returns false if the upload was skipped because its site
+     * no longer exists
+     */
+    private boolean dispatchUploadAction(@NonNull final MediaModel media) {
         SiteModel site = mSiteStore.getSiteByLocalId(media.getLocalSiteId());
 
         // somehow lost our reference to the site, complete this action
         if (site == null) {
             AppLog.w(T.MEDIA, "MediaUploadHandler > Unexpected state, site is null. Skipping this request.");
-            checkIfUploadsComplete();
-            return;
+            completeUploadWithId(media.getId());
+            return false;
         }
 
         AppLog.i(T.MEDIA, "MediaUploadHandler > Dispatching upload action for media with local id: "
                           + media.getId() + " and path: " + media.getFilePath());
-        addUniqueMediaToInProgressUploads(media);
 
         mDispatcher.dispatch(MediaActionBuilder.newUpdateMediaAction(media));
         UploadMediaPayload payload = new UploadMediaPayload(site, media, AppPrefs.isStripImageLocation());
         mDispatcher.dispatch(MediaActionBuilder.newUploadMediaAction(payload));
+        return true;
     }
 
     private void dispatchCancelAction(@NonNull final MediaModel media, @NonNull final SiteModel site, boolean delete) {
@@ -308,7 +519,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     private boolean checkIfUploadsComplete() {
-        if (sPendingUploads.isEmpty() && sInProgressUploads.isEmpty()) {
+        if (!hasInProgressUploads()) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Completed");
             return true;
         }
@@ -323,18 +534,15 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         if (event.post == null) {
             return;
         }
-        synchronized (sInProgressUploads) {
-            for (MediaModel inProgressUpload : sInProgressUploads) {
-                if (inProgressUpload.getLocalPostId() == event.post.getId()) {
-                    cancelUpload(inProgressUpload, true);
-                }
+        // cancelling may complete the upload synchronously, so work with copies of the queues
+        for (MediaModel inProgressUpload : getInProgressUploads()) {
+            if (inProgressUpload.getLocalPostId() == event.post.getId()) {
+                cancelUpload(inProgressUpload, true);
             }
         }
-        synchronized (sPendingUploads) {
-            for (MediaModel pendingUpload : sPendingUploads) {
-                if (pendingUpload.getLocalPostId() == event.post.getId()) {
-                    cancelUpload(pendingUpload, true);
-                }
+        for (MediaModel pendingUpload : getPendingUploads()) {
+            if (pendingUpload.getLocalPostId() == event.post.getId()) {
+                cancelUpload(pendingUpload, true);
             }
         }
     }
@@ -380,8 +588,8 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         AnalyticsTracker.track(stat, mediaProperties);
     }
 
-    private boolean mediaAlreadyQueuedOrUploading(MediaModel mediaModel) {
-        for (MediaModel queuedMedia : sInProgressUploads) {
+    private static boolean mediaAlreadyQueuedOrUploading(MediaModel mediaModel) {
+        for (MediaModel queuedMedia : getInProgressUploads()) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Attempting to add media with path " + mediaModel.getFilePath()
                               + " and site id " + mediaModel.getLocalSiteId() + ". Comparing with " + queuedMedia
                                       .getFilePath()
@@ -391,7 +599,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
             }
         }
 
-        for (MediaModel queuedMedia : sPendingUploads) {
+        for (MediaModel queuedMedia : getPendingUploads()) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Attempting to add media with path " + mediaModel.getFilePath()
                               + " and site id " + mediaModel.getLocalSiteId() + ". Comparing with " + queuedMedia
                                       .getFilePath()
@@ -403,7 +611,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         return false;
     }
 
-    private boolean isSameMediaFileQueuedForThisPost(MediaModel media1, MediaModel media2) {
+    private static boolean isSameMediaFileQueuedForThisPost(MediaModel media1, MediaModel media2) {
         /*
             This method used to be called "compareBySiteAndFilePath" and compared just siteId and filePath. It made
             sense since a media file is tied to a site and can be referenced from multiple posts on that site. This
@@ -441,11 +649,36 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     @Override
     public void onVideoOptimizationCompleted(@NonNull MediaModel media) {
         sOptimizationProgressByMediaId.remove(media.getId());
-        // make sure this media should still be uploaded (may have been cancelled during optimization)
-        if (sInProgressUploads.contains(media)) {
-            dispatchUploadAction(media);
-        } else {
+        // make sure this media should still be uploaded (may have been cancelled during optimization) - either
+        // way the optimization slot is now free for the next queued video
+        if (!finishOptimization(media)) {
             AppLog.d(T.MEDIA, "MediaUploadHandler > skipping upload of optimized media");
         }
+        startQueuedUploads();
+    }
+
+    /*
+     * frees the optimization slot of the passed video - returns whether the video is still waiting to be uploaded
+     */
+    @VisibleForTesting
+    static boolean finishOptimization(@NonNull MediaModel media) {
+        synchronized (sInProgressUploads) {
+            sOptimizingMediaIds.remove(media.getId());
+            return sInProgressUploads.contains(media);
+        }
+    }
+
+    @VisibleForTesting
+    static void clearQueues() {
+        synchronized (sPendingUploads) {
+            synchronized (sInProgressUploads) {
+                sPendingUploads.clear();
+                sInProgressUploads.clear();
+                sOptimizingMediaIds.clear();
+                sUploadingMediaIds.clear();
+            }
+        }
+        sOptimizationProgressByMediaId.clear();
+        sPrioritizedPostIds.clear();
     }
 }
@@ -10,6 +10,8 @@ import org.wordpress.android.ui.posts.PostUtils;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.helpers.MediaFile;
 
+import java.util.Map;
+
 
 public class MediaUploadReadyProcessor implements MediaUploadReadyListener {
     @Override
@@ -33,6 +35,33 @@ public class MediaUploadReadyProcessor implements MediaUploadReadyListener {
         return post;
     }
 
+    /*
+     * replaces several media items at once - Gutenberg posts are processed in a single pass rather than once
+     * per media item
+     */
+    @Override
+    public PostModel replaceMediaFilesWithUrlsInPost(@Nullable PostModel post,
+                                                     Map<String, MediaFile> mediaFilesByLocalId, String siteUrl) {
+        if (post != null && !mediaFilesByLocalId.isEmpty()) {
+            boolean showAztecEditor = AppPrefs.isAztecEditorEnabled();
+            boolean showGutenbergEditor = AppPrefs.isGutenbergEditorEnabled();
+
+            if (showGutenbergEditor && PostUtils.contentContainsGutenbergBlocks(post.getContent())) {
+                post.setContent(PostUtils.replaceMediaFilesWithUrlsInGutenbergPost(post.getContent(),
+                        mediaFilesByLocalId, siteUrl));
+            } else if (showAztecEditor) {
+                String content = post.getContent();
+                for (Map.Entry<String, MediaFile> entry : mediaFilesByLocalId.entrySet()) {
+                    content = AztecEditorFragment.replaceMediaFileWithUrl(WordPress.getContext(), content,
+                            entry.getKey(), entry.getValue());
+                }
+                post.setContent(content);
+            }
+        }
+
+        return post;
+    }
+
     @Override
     public PostModel markMediaUploadFailedInPost(@Nullable PostModel post, String localMediaId,
                                                  final MediaFile mediaFile) {
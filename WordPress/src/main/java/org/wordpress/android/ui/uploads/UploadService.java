@@ -3,7 +3,9 @@ package org.wordpress.android.ui.uploads;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -47,11 +49,14 @@ import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.util.WPMediaUtils;
+import org.wordpress.android.util.helpers.MediaFile;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -64,12 +69,24 @@ public class UploadService extends Service {
     private static final String KEY_LOCAL_POST_ID = "localPostId";
     private static final String KEY_SHOULD_TRACK_ANALYTICS = "shouldTrackPostAnalytics";
 
+    // completed media is processed after a short delay, so media which completes in a burst is replaced in the
+    // content of its post in a single pass rather than once per media item
+    private static final long COMPLETED_MEDIA_COALESCE_MS = 300;
+
     private static @Nullable UploadService sInstance;
 
     private MediaUploadHandler mMediaUploadHandler;
     private PostUploadHandler mPostUploadHandler;
     private PostUploadNotifier mPostUploadNotifier;
 
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mProcessCompletedMediaRunnable = new Runnable() {
+        @Override
+        public void run() {
+            stopServiceIfUploadsComplete();
+        }
+    };
+
     // we hold this reference here for the success notification for Media uploads
     private List<MediaModel> mMediaBatchUploaded = new ArrayList<>();
 
@@ -110,6 +127,8 @@ public class UploadService extends Service {
 
     @Override
     public void onDestroy() {
+        mHandler.removeCallbacks(mProcessCompletedMediaRunnable);
+
         if (mMediaUploadHandler != null) {
             mMediaUploadHandler.cancelInProgressUploads();
             mMediaUploadHandler.unregister();
@@ -280,6 +299,8 @@ public class UploadService extends Service {
                 // If the post is already registered, the new media will be added to its list
                 List<MediaModel> activeMedia = MediaUploadHandler.getPendingOrInProgressMediaUploadsForPost(post);
                 mUploadStore.registerPostModel(post, activeMedia);
+                // the post is uploaded once its media is, so upload its media before other queued media
+                MediaUploadHandler.prioritizeMediaForPost(post.getId());
             } else {
                 mPostUploadHandler.upload(post);
             }
@@ -452,13 +473,16 @@ public class UploadService extends Service {
             // updates in one go and save only once
             MediaUploadReadyListener processor = new MediaUploadReadyProcessor();
             Set<MediaModel> completedMedia = sInstance.mUploadStore.getCompletedMediaForPost(post);
+            List<MediaModel> contentMedia = new ArrayList<>();
             for (MediaModel media : completedMedia) {
                 if (media.getMarkedLocallyAsFeatured()) {
                     post = updatePostWithNewFeaturedImg(post, media.getMediaId());
                 } else {
-                    post = updatePostWithMediaUrl(post, media, processor);
+                    contentMedia.add(media);
                 }
             }
+            // replace all the media in the content in a single pass
+            post = updatePostWithMediaUrls(post, contentMedia, processor);
 
             if (completedMedia != null && !completedMedia.isEmpty()) {
                 // finally remove all completed uploads for this post, as they've been taken care of
@@ -599,17 +623,20 @@ public class UploadService extends Service {
         }
         return post;
     }
-    private static synchronized PostModel updatePostWithMediaUrl(PostModel post, MediaModel media,
-                                                                 MediaUploadReadyListener processor) {
-        if (media != null && post != null && processor != null && sInstance != null) {
+    private static synchronized PostModel updatePostWithMediaUrls(PostModel post, List<MediaModel> mediaList,
+                                                                  MediaUploadReadyListener processor) {
+        if (!mediaList.isEmpty() && post != null && processor != null && sInstance != null) {
             boolean changesConfirmed = post.contentHashcode() == post.getChangesConfirmedContentHashcode();
 
-            // obtain site url used to generate attachment page url
-            SiteModel site = sInstance.mSiteStore.getSiteByLocalId(media.getLocalSiteId());
+            // obtain site url used to generate attachment page url - media is always uploaded to the post's site
+            SiteModel site = sInstance.mSiteStore.getSiteByLocalId(mediaList.get(0).getLocalSiteId());
 
-            // actually replace the media ID with the media uri
-            processor.replaceMediaFileWithUrlInPost(post, String.valueOf(media.getId()),
-                    FluxCUtils.mediaFileFromMediaModel(media), site.getUrl());
+            // actually replace the media IDs with the media uris
+            Map<String, MediaFile> mediaFilesByLocalId = new HashMap<>();
+            for (MediaModel media : mediaList) {
+                mediaFilesByLocalId.put(String.valueOf(media.getId()), FluxCUtils.mediaFileFromMediaModel(media));
+            }
+            processor.replaceMediaFilesWithUrlsInPost(post, mediaFilesByLocalId, site.getUrl());
 
             // we changed the post, so let’s mark this down
             if (!post.isLocalDraft()) {
@@ -848,6 +875,7 @@ public class UploadService extends Service {
             for (MediaModel media : mediaToRetry) {
                 mMediaUploadHandler.upload(media);
             }
+            MediaUploadHandler.prioritizeMediaForPost(post.getId());
 
             // Register the post (as PENDING) in the UploadStore, along with all media currently in progress for it
             // If the post is already registered, the new media will be added to its list
@@ -948,7 +976,8 @@ public class UploadService extends Service {
                                  + " and local post id " + event.media.getLocalPostId());
             }
             mPostUploadNotifier.incrementUploadedMediaCountFromProgressNotification(event.media.getId());
-            stopServiceIfUploadsComplete();
+            mHandler.removeCallbacks(mProcessCompletedMediaRunnable);
+            mHandler.postDelayed(mProcessCompletedMediaRunnable, COMPLETED_MEDIA_COALESCE_MS);
         } else {
             // in-progress upload
             // Progress update
@@ -0,0 +1,172 @@
+package org.wordpress.android.util;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * disk tier for the app's two-tier caches - a directory in the app's cache dir whose files are deleted least-recently
+ * used first when they take up more than a max size. reading a file marks it as used by updating its modification
+ * time. access to the directory is synchronized, but it reads and writes files so it shouldn't be used on the main
+ * thread.
+ */
+public class DiskLruFileCache {
+    private final String mDirName;
+    private final long mMaxBytes;
+    private final T mLogTag;
+
+    public DiskLruFileCache(@NonNull String dirName, long maxBytes, @NonNull T logTag) {
+        mDirName = dirName;
+        mMaxBytes = maxBytes;
+        mLogTag = logTag;
+    }
+
+    /*
+     * returns the contents of the passed file, or null if it isn't cached
+     */
+    @Nullable
+    public synchronized byte[] read(@NonNull String fileName) {
+        File file = new File(getDir(), fileName);
+        if (!file.exists()) {
+            return null;
+        }
+
+        InputStream input = null;
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            input = new FileInputStream(file);
+            int offset = 0;
+            int read;
+            while (offset < bytes.length && (read = input.read(bytes, offset, bytes.length - offset)) > 0) {
+                offset += read;
+            }
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return offset == bytes.length ? bytes : Arrays.copyOf(bytes, offset);
+        } catch (IOException e) {
+            AppLog.e(mLogTag, mDirName + " > failed to read " + fileName, e);
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /*
+     * stores the passed contents in the passed file, then trims the directory to its max size
+     */
+    public synchronized void write(@NonNull String fileName, @NonNull byte[] bytes) {
+        File dir = getDir();
+        OutputStream output = null;
+        try {
+            output = new FileOutputStream(new File(dir, fileName));
+            output.write(bytes);
+        } catch (IOException e) {
+            AppLog.e(mLogTag, mDirName + " > failed to write " + fileName, e);
+        } finally {
+            closeQuietly(output);
+        }
+        trim(dir);
+    }
+
+    @Nullable
+    public Bitmap readBitmap(@NonNull String fileName) {
+        byte[] bytes = read(fileName);
+        return bytes != null ? BitmapFactory.decodeByteArray(bytes, 0, bytes.length) : null;
+    }
+
+    /*
+     * compresses the passed bitmap before taking the lock, so other threads can use the cache while it's compressed
+     */
+    public void writeBitmap(@NonNull String fileName, @NonNull Bitmap bitmap, @NonNull Bitmap.CompressFormat format,
+                            int quality) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (bitmap.compress(format, quality, output)) {
+            write(fileName, output.toByteArray());
+        } else {
+            AppLog.w(mLogTag, mDirName + " > failed to compress " + fileName);
+        }
+    }
+
+    public synchronized void deleteFilesStartingWith(@NonNull String prefix) {
+        File[] files = getDir().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith(prefix) && !file.delete()) {
+                    AppLog.w(mLogTag, mDirName + " > failed to delete " + file.getName());
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        deleteFilesStartingWith("");
+    }
+
+    private File getDir() {
+        File dir = new File(WordPress.getContext().getCacheDir(), mDirName);
+        if (!dir.exists() && !dir.mkdirs()) {
+            AppLog.w(mLogTag, mDirName + " > failed to create cache directory");
+        }
+        return dir;
+    }
+
+    /*
+     * deletes the least-recently used files until the directory is within its max size
+     */
+    private void trim(@NonNull File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        if (totalBytes <= mMaxBytes) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Long.compare(file1.lastModified(), file2.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (totalBytes <= mMaxBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                totalBytes -= length;
+            }
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
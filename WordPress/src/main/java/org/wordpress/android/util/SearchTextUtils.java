@@ -0,0 +1,72 @@
+package org.wordpress.android.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * normalizes text which is searched locally, so searches ignore case and accents (ex: "cafe" matches "Café").
+ * text stored in an FTS table is also reduced to words, since Android's SQLite only folds the case of ASCII
+ * characters and treats other non-ASCII characters as part of words
+ */
+public class SearchTextUtils {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    // apostrophes are dropped rather than replaced so contractions stay one word
+    private static final Pattern APOSTROPHES = Pattern.compile("['\u2019]");
+    private static final Pattern NON_WORD_CHARS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTextUtils() {
+        throw new AssertionError();
+    }
+
+    /*
+     * lowercases the passed text and removes its accents - the text is lowercased before its accents are
+     * removed since lowercasing may add combining marks (ex: "İ")
+     */
+    @NonNull
+    public static String normalize(@Nullable String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    /*
+     * same as normalize() but also replaces punctuation with spaces and drops apostrophes, so the result is
+     * only lowercase words separated by single spaces (ex: "Don’t stop!" becomes "dont stop")
+     */
+    @NonNull
+    public static String normalizeWords(@Nullable String text) {
+        String normalized = normalize(text);
+        String noApostrophes = APOSTROPHES.matcher(normalized).replaceAll("");
+        return NON_WORD_CHARS.matcher(noApostrophes).replaceAll(" ").trim();
+    }
+
+    /*
+     * returns an FTS MATCH expression which matches text stored with normalizeWords() when every word in the
+     * query starts a word in the text, so "word pres" finds "WordPress Press" - or null if the query has no
+     * words. only the first maxWords words are matched. since the words only contain letters and digits they
+     * can't contain FTS syntax, and since they're lowercase they can't be mistaken for AND/OR/NOT
+     */
+    @Nullable
+    public static String getPrefixMatchExpression(@Nullable String query, int maxWords) {
+        String normalized = normalizeWords(query);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        String[] words = normalized.split(" ");
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < words.length && i < maxWords; i++) {
+            if (expression.length() > 0) {
+                expression.append(' ');
+            }
+            expression.append(words[i]).append('*');
+        }
+        return expression.toString();
+    }
+}
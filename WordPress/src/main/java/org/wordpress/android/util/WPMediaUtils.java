@@ -40,6 +40,8 @@ public class WPMediaUtils {
     public static final int OPTIMIZE_IMAGE_ENCODER_QUALITY = 85;
     public static final int OPTIMIZE_VIDEO_MAX_WIDTH = 1280;
     public static final int OPTIMIZE_VIDEO_ENCODER_BITRATE_KB = 3000;
+    // Default number of media items uploaded at the same time to a single site
+    public static final int MAX_PARALLEL_MEDIA_UPLOADS_PER_SITE = 3;
 
     public static Uri getOptimizedMedia(Context context, String path, boolean isVideo) {
         if (isVideo) {
@@ -9,9 +9,12 @@ import android.view.KeyEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
 import android.view.inputmethod.InputMethodManager;
+import android.widget.AdapterView;
+import android.widget.ListAdapter;
 
 import androidx.appcompat.widget.AppCompatMultiAutoCompleteTextView;
 
+import org.wordpress.android.ui.suggestion.adapters.SuggestionAdapter;
 import org.wordpress.android.ui.suggestion.util.SuggestionTokenizer;
 import org.wordpress.android.util.DeviceUtils;
 import org.wordpress.persistentedittext.PersistentEditTextHelper;
@@ -45,6 +48,15 @@ public class SuggestionAutoCompleteText extends AppCompatMultiAutoCompleteTextVi
         mPersistentEditTextHelper = new PersistentEditTextHelper(context);
         // When TYPE_TEXT_FLAG_AUTO_COMPLETE is set, autocorrection is disabled.
         setRawInputType(getInputType() & ~EditorInfo.TYPE_TEXT_FLAG_AUTO_COMPLETE);
+        setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                ListAdapter adapter = getAdapter();
+                if (adapter instanceof SuggestionAdapter) {
+                    ((SuggestionAdapter) adapter).onSuggestionPicked(position);
+                }
+            }
+        });
     }
 
     public PersistentEditTextHelper getAutoSaveTextHelper() {
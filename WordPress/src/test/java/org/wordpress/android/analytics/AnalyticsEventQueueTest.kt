@@ -0,0 +1,120 @@
+package org.wordpress.android.analytics
+
+import com.nhaarman.mockitokotlin2.mock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.analytics.AnalyticsTracker.Stat
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 5L
+
+class AnalyticsEventQueueTest {
+    private val tracker = RecordingTracker()
+
+    @Test
+    fun `delivers events and commands in the order they were queued`() {
+        val queue = AnalyticsEventQueue(listOf<Tracker>(tracker), AnalyticsEventQueue.DEFAULT_CAPACITY)
+        val metadata = AnalyticsMetadata()
+
+        queue.track(Stat.READER_ARTICLE_OPENED, null)
+        queue.flush()
+        queue.track(Stat.READER_ARTICLE_LIKED, mapOf("blog_id" to 1L))
+        queue.refreshMetadata(metadata)
+        queue.clearAllData()
+        queue.endSession()
+
+        assertThat(tracker.endSessionLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(tracker.calls).containsExactly(
+                "track READER_ARTICLE_OPENED",
+                "flush",
+                "track READER_ARTICLE_LIKED {blog_id=1}",
+                "refreshMetadata",
+                "clearAllData",
+                "endSession")
+        assertThat(tracker.metadata).isSameAs(metadata)
+        assertThat(queue.deliveredCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `delivers a copy of the tracked properties`() {
+        val queue = AnalyticsEventQueue(listOf<Tracker>(tracker), AnalyticsEventQueue.DEFAULT_CAPACITY)
+        val properties = mutableMapOf<String, Any>("source" to "reader")
+
+        queue.track(Stat.READER_ARTICLE_OPENED, properties)
+        properties["source"] = "changed"
+        queue.endSession()
+
+        assertThat(tracker.endSessionLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(tracker.calls).containsExactly("track READER_ARTICLE_OPENED {source=reader}", "endSession")
+    }
+
+    @Test
+    fun `drops tracked events once the queue is full but never drops commands`() {
+        val queue = AnalyticsEventQueue(listOf<Tracker>(tracker), 2)
+        val releaseLatch = CountDownLatch(1)
+        tracker.trackLatch = releaseLatch
+
+        // the first event blocks delivery, so the events keep their room in the queue
+        queue.track(Stat.READER_ARTICLE_OPENED, null)
+        queue.track(Stat.READER_ARTICLE_LIKED, null)
+        queue.track(Stat.READER_ARTICLE_UNLIKED, null)
+        queue.flush()
+
+        assertThat(queue.droppedCount).isEqualTo(1)
+        releaseLatch.countDown()
+        queue.endSession()
+
+        assertThat(tracker.endSessionLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(tracker.calls).containsExactly(
+                "track READER_ARTICLE_OPENED",
+                "track READER_ARTICLE_LIKED",
+                "flush",
+                "endSession")
+        assertThat(queue.deliveredCount).isEqualTo(2)
+
+        // room is freed as events are delivered
+        queue.track(Stat.READER_ARTICLE_UNLIKED, null)
+        assertThat(queue.droppedCount).isEqualTo(1)
+    }
+
+    /*
+     * tracker which records the calls made by the delivery thread
+     */
+    private class RecordingTracker : Tracker(mock()) {
+        val calls: MutableList<String> = Collections.synchronizedList(mutableListOf<String>())
+        val endSessionLatch = CountDownLatch(1)
+        @Volatile var trackLatch: CountDownLatch? = null
+        @Volatile var metadata: AnalyticsMetadata? = null
+
+        override fun track(stat: Stat) {
+            trackLatch?.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            calls.add("track $stat")
+        }
+
+        override fun track(stat: Stat, properties: Map<String, *>) {
+            calls.add("track $stat $properties")
+        }
+
+        override fun endSession() {
+            calls.add("endSession")
+            endSessionLatch.countDown()
+        }
+
+        override fun flush() {
+            calls.add("flush")
+        }
+
+        override fun refreshMetadata(metadata: AnalyticsMetadata) {
+            this.metadata = metadata
+            calls.add("refreshMetadata")
+        }
+
+        override fun clearAllData() {
+            calls.add("clearAllData")
+        }
+
+        override fun getAnonIdPrefKey() = "analytics_event_queue_test_anon_id"
+    }
+}
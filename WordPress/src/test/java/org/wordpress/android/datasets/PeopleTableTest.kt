@@ -0,0 +1,34 @@
+package org.wordpress.android.datasets
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.util.SearchTextUtils
+
+class PeopleTableTest {
+    @Test
+    fun `each word in the query is matched as a prefix`() {
+        assertThat(PeopleTable.getSearchMatchExpression("Jane Do")).isEqualTo("jane* do*")
+    }
+
+    @Test
+    fun `punctuation in emails and usernames separates words`() {
+        assertThat(PeopleTable.getSearchMatchExpression("jane.doe@exam")).isEqualTo("jane* doe* exam*")
+    }
+
+    @Test
+    fun `full-text query syntax is removed from the query`() {
+        assertThat(PeopleTable.getSearchMatchExpression("\"jane\" OR -doe*")).isEqualTo("jane* or* doe*")
+    }
+
+    @Test
+    fun `accents and case are removed from the query the same way as from indexed names`() {
+        assertThat(PeopleTable.getSearchMatchExpression("ÉMILE Zo")).isEqualTo("emile* zo*")
+        assertThat(SearchTextUtils.normalizeWords("Émile Zola")).isEqualTo("emile zola")
+    }
+
+    @Test
+    fun `a query without words has no match expression`() {
+        assertThat(PeopleTable.getSearchMatchExpression(null)).isNull()
+        assertThat(PeopleTable.getSearchMatchExpression("  @. ")).isNull()
+    }
+}
@@ -0,0 +1,41 @@
+package org.wordpress.android.datasets
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderPostSearchIndexTest {
+    @Test
+    fun `text is lowercased and accents are removed`() {
+        assertThat(ReaderPostSearchIndex.normalize("Café Crème")).isEqualTo("cafe creme")
+    }
+
+    @Test
+    fun `punctuation is replaced with spaces and apostrophes are dropped`() {
+        assertThat(ReaderPostSearchIndex.normalize("Don’t stop: it's WordPress.com!"))
+                .isEqualTo("dont stop its wordpress com")
+    }
+
+    @Test
+    fun `every word in the query is matched as a prefix`() {
+        assertThat(ReaderPostSearchIndex.getMatchExpression("  Word PRES ")).isEqualTo("word* pres*")
+    }
+
+    @Test
+    fun `fts syntax in the query is ignored`() {
+        assertThat(ReaderPostSearchIndex.getMatchExpression("\"title:cats\" OR -dogs*"))
+                .isEqualTo("title* cats* or* dogs*")
+    }
+
+    @Test
+    fun `queries without words have no match expression`() {
+        assertThat(ReaderPostSearchIndex.getMatchExpression(null)).isNull()
+        assertThat(ReaderPostSearchIndex.getMatchExpression(" ?! ")).isNull()
+    }
+
+    @Test
+    fun `only the first words of a long query are matched`() {
+        val query = (1..20).joinToString(" ") { "word$it" }
+        val expression = ReaderPostSearchIndex.getMatchExpression(query)
+        assertThat(expression!!.split(" ")).hasSize(ReaderPostSearchIndex.MAX_QUERY_TOKENS)
+    }
+}
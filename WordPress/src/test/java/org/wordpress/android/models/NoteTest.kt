@@ -0,0 +1,68 @@
+package org.wordpress.android.models
+
+import android.os.Build
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import org.wordpress.android.fluxc.model.CommentStatus
+
+private const val NOTE_ID = "4321"
+private const val RAW_NOTE_DATA = """{"id":4321,"type":"comment","read":0,"timestamp":"2019-06-12T10:00:00+00:00",
+"body":[{"type":"user","text":"Author"},{"type":"comment","text":"Nice post"}],"meta":{"ids":{"comment":11}}}"""
+
+@Config(application = TestApplication::class, sdk = [Build.VERSION_CODES.LOLLIPOP])
+@RunWith(RobolectricTestRunner::class)
+class NoteTest {
+    @Test
+    fun `list fields are read from the columns without parsing the JSON`() {
+        val note = Note(NOTE_ID, "not json", buildListFields())
+
+        assertThat(note.type).isEqualTo(Note.NOTE_COMMENT_TYPE)
+        assertThat(note.isCommentType).isTrue()
+        assertThat(note.isUnread).isTrue()
+        assertThat(note.timestamp).isEqualTo(1560333600L)
+        assertThat(note.commentSubject).isEqualTo("Nice post")
+        assertThat(note.iconURL).isEqualTo("https://example.com/avatar.png")
+        assertThat(note.noticonCharacter).isEqualTo("")
+        assertThat(note.commentStatus).isEqualTo(CommentStatus.APPROVED)
+        assertThat(note.commentId).isEqualTo(11L)
+        assertThat(note.subject.getString("text")).isEqualTo("Author commented on your post")
+    }
+
+    @Test
+    fun `JSON is parsed when something other than the list fields is requested`() {
+        val note = Note(NOTE_ID, RAW_NOTE_DATA, buildListFields())
+
+        assertThat(note.commentAuthorName).isEqualTo("Author")
+        assertThat(note.body.length()).isEqualTo(2)
+    }
+
+    @Test
+    fun `setRead updates both the list fields and the JSON`() {
+        val note = Note(NOTE_ID, RAW_NOTE_DATA, buildListFields())
+
+        note.setRead()
+
+        assertThat(note.isUnread).isFalse()
+        assertThat(note.json.getInt("read")).isEqualTo(1)
+    }
+
+    private fun buildListFields() = Note.ListFields().apply {
+        type = Note.NOTE_COMMENT_TYPE
+        noteHash = "123456"
+        timestamp = 1560333600L
+        isRead = false
+        subjectJSON = """{"text":"Author commented on your post","ranges":[]}"""
+        commentSubject = "Nice post"
+        commentSubjectNoticon = ""
+        noticon = ""
+        iconUrl = "https://example.com/avatar.png"
+        commentStatus = CommentStatus.APPROVED.toString()
+        commentId = 11L
+        siteId = 1
+        postId = 2
+    }
+}
@@ -0,0 +1,95 @@
+package org.wordpress.android.models
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderPostKeyTest {
+    @Test
+    fun `keys for the same post have no changes`() {
+        val key = ReaderPostKey.fromPost(buildPost())
+
+        assertThat(key.getChanges(ReaderPostKey.fromPost(buildPost()))).isEqualTo(0)
+        assertThat(key.getChanges(ReaderPostKey.copyOf(key))).isEqualTo(0)
+    }
+
+    @Test
+    fun `counters and status changes are reported as flags`() {
+        val oldKey = ReaderPostKey.fromPost(buildPost())
+        val post = buildPost()
+        post.numLikes = 11
+        post.isBookmarked = true
+
+        val changes = oldKey.getChanges(ReaderPostKey.fromPost(post))
+
+        assertThat(changes).isEqualTo(ReaderPostKey.CHANGED_LIKES or ReaderPostKey.CHANGED_BOOKMARK)
+    }
+
+    @Test
+    fun `each status field sets its own flag`() {
+        val oldKey = ReaderPostKey.fromPost(buildPost())
+
+        val liked = buildPost().apply { isLikedByCurrentUser = true }
+        val replied = buildPost().apply { numReplies = 4 }
+        val closedComments = buildPost().apply { isCommentsOpen = false }
+        val followed = buildPost().apply { isFollowedByCurrentUser = true }
+
+        assertThat(oldKey.getChanges(ReaderPostKey.fromPost(liked))).isEqualTo(ReaderPostKey.CHANGED_LIKES)
+        assertThat(oldKey.getChanges(ReaderPostKey.fromPost(replied))).isEqualTo(ReaderPostKey.CHANGED_COMMENTS)
+        assertThat(oldKey.getChanges(ReaderPostKey.fromPost(closedComments)))
+                .isEqualTo(ReaderPostKey.CHANGED_COMMENTS)
+        assertThat(oldKey.getChanges(ReaderPostKey.fromPost(followed))).isEqualTo(ReaderPostKey.CHANGED_FOLLOW)
+    }
+
+    @Test
+    fun `card content changes require a redraw`() {
+        val oldKey = ReaderPostKey.fromPost(buildPost())
+
+        val edits = listOf<(ReaderPost) -> Unit>(
+                { it.title = "Edited title" },
+                { it.excerpt = "Edited excerpt" },
+                { it.featuredImage = "https://example.com/other.jpg" },
+                { it.authorName = "Someone else" },
+                { it.blogName = "Renamed blog" },
+                { it.postAvatar = "https://example.com/other-avatar.jpg" },
+                { it.discoverJson = "{\"attribution\":{}}" },
+                { it.cardType = ReaderCardType.PHOTO },
+                {
+                    it.xpostBlogId = 3
+                    it.xpostPostId = 4
+                }
+        )
+        for (edit in edits) {
+            val post = buildPost()
+            edit(post)
+            // counters which changed along with the content are redrawn along with it
+            post.numLikes = 11
+
+            assertThat(oldKey.getChanges(ReaderPostKey.fromPost(post))).isEqualTo(ReaderPostKey.CHANGED_CONTENT)
+        }
+    }
+
+    @Test
+    fun `missing and empty card fields hash the same`() {
+        assertThat(ReaderPostKey.getContentHash("Title", null, "")).isEqualTo(
+                ReaderPostKey.getContentHash("Title", "", null))
+    }
+
+    private fun buildPost(): ReaderPost {
+        val post = ReaderPost()
+        post.blogId = 1
+        post.postId = 2
+        post.pseudoId = "pseudo-1-2"
+        post.numLikes = 10
+        post.numReplies = 3
+        post.isCommentsOpen = true
+        post.title = "Title"
+        post.excerpt = "Excerpt"
+        post.featuredImage = "https://example.com/image.jpg"
+        post.datePublished = "2019-06-12T10:00:00+00:00"
+        post.authorName = "Author"
+        post.blogName = "Blog"
+        post.blogUrl = "https://example.com"
+        post.postAvatar = "https://example.com/avatar.jpg"
+        return post
+    }
+}
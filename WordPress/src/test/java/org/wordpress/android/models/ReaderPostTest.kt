@@ -0,0 +1,50 @@
+package org.wordpress.android.models
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderPostTest {
+    @Test
+    fun `posts with the same content have the same fingerprint`() {
+        assertThat(buildPost().contentFingerprint).isEqualTo(buildPost().contentFingerprint)
+    }
+
+    @Test
+    fun `fields which are also changed locally don't change the fingerprint`() {
+        val post = buildPost()
+        post.numLikes = 10
+        post.numReplies = 5
+        post.isLikedByCurrentUser = true
+        post.isFollowedByCurrentUser = true
+        post.isBookmarked = true
+
+        assertThat(post.contentFingerprint).isEqualTo(buildPost().contentFingerprint)
+    }
+
+    @Test
+    fun `editing the post changes the fingerprint`() {
+        val editedTitle = buildPost()
+        editedTitle.title = "Edited title"
+        val editedText = buildPost()
+        editedText.text = "<p>Edited text</p>"
+        val closedComments = buildPost()
+        closedComments.isCommentsOpen = false
+
+        assertThat(editedTitle.contentFingerprint).isNotEqualTo(buildPost().contentFingerprint)
+        assertThat(editedText.contentFingerprint).isNotEqualTo(buildPost().contentFingerprint)
+        assertThat(closedComments.contentFingerprint).isNotEqualTo(buildPost().contentFingerprint)
+    }
+
+    private fun buildPost(): ReaderPost {
+        val post = ReaderPost()
+        post.blogId = 1
+        post.postId = 2
+        post.isCommentsOpen = true
+        post.title = "Title"
+        post.excerpt = "Excerpt"
+        post.text = "<p>Text</p>"
+        post.featuredImage = "https://example.com/image.jpg"
+        post.datePublished = "2019-06-12T10:00:00+00:00"
+        return post
+    }
+}
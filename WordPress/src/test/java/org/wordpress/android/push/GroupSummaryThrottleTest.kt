@@ -0,0 +1,62 @@
+package org.wordpress.android.push
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.push.GroupSummaryThrottle.COALESCED
+import org.wordpress.android.push.GroupSummaryThrottle.SCHEDULE
+import org.wordpress.android.push.GroupSummaryThrottle.SHOW_NOW
+
+private const val INTERVAL_MS = 1000L
+
+class GroupSummaryThrottleTest {
+    private val throttle = GroupSummaryThrottle(INTERVAL_MS)
+
+    @Test
+    fun `the first summary is shown right away`() {
+        assertThat(throttle.onSummaryUpdate(0, "1", "first")).isEqualTo(SHOW_NOW)
+        assertThat(throttle.takePending(0)).isNull()
+    }
+
+    @Test
+    fun `summaries spaced by the interval are shown right away`() {
+        assertThat(throttle.onSummaryUpdate(0, "1", "first")).isEqualTo(SHOW_NOW)
+        assertThat(throttle.onSummaryUpdate(INTERVAL_MS, "2", "second")).isEqualTo(SHOW_NOW)
+    }
+
+    @Test
+    fun `a burst is deferred once and coalesced into the latest note`() {
+        throttle.onSummaryUpdate(0, "1", "first")
+
+        assertThat(throttle.onSummaryUpdate(100, "2", "second")).isEqualTo(SCHEDULE)
+        assertThat(throttle.onSummaryUpdate(200, "3", "third")).isEqualTo(COALESCED)
+        // still coalesced after the interval, since the scheduled update hasn't run yet
+        assertThat(throttle.onSummaryUpdate(1500, "4", "fourth")).isEqualTo(COALESCED)
+
+        val pending = throttle.takePending(1100)
+        assertThat(pending?.mNoteId).isEqualTo("4")
+        assertThat(pending?.mMessage).isEqualTo("fourth")
+        assertThat(throttle.takePending(1100)).isNull()
+    }
+
+    @Test
+    fun `the interval restarts when a pending summary is shown`() {
+        throttle.onSummaryUpdate(0, "1", "first")
+        throttle.onSummaryUpdate(100, "2", "second")
+        throttle.takePending(1100)
+
+        assertThat(throttle.onSummaryUpdate(2000, "3", "third")).isEqualTo(SCHEDULE)
+        throttle.takePending(2100)
+        assertThat(throttle.onSummaryUpdate(3100, "4", "fourth")).isEqualTo(SHOW_NOW)
+    }
+
+    @Test
+    fun `a single notification shown as the summary cancels the pending update`() {
+        throttle.onSummaryUpdate(0, "1", "first")
+        throttle.onSummaryUpdate(100, "2", "second")
+
+        throttle.onSingleNotificationShown(200)
+
+        assertThat(throttle.takePending(1100)).isNull()
+        assertThat(throttle.onSummaryUpdate(900, "3", "third")).isEqualTo(SCHEDULE)
+    }
+}
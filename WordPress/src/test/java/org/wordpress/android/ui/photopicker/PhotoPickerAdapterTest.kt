@@ -0,0 +1,129 @@
+package org.wordpress.android.ui.photopicker
+
+import android.os.Build
+import com.nhaarman.mockitokotlin2.mock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import org.wordpress.android.ui.media.MediaBrowserType
+import org.wordpress.android.ui.photopicker.DeviceMediaSource.PAGE_SIZE
+
+@Config(application = TestApplication::class, sdk = [Build.VERSION_CODES.LOLLIPOP])
+@RunWith(RobolectricTestRunner::class)
+class PhotoPickerAdapterTest {
+    private val adapter = TestAdapter()
+
+    @Test
+    fun `the reload includes every restored selection`() {
+        adapter.selectedPositions = arrayListOf(2, PAGE_SIZE + 10)
+
+        adapter.refresh(true)
+
+        assertThat(adapter.pageLoads).containsExactly(PageLoad(true, Long.MAX_VALUE, PAGE_SIZE + 11))
+        adapter.completePageLoad(newestItems(PAGE_SIZE + 11))
+        assertThat(adapter.itemCount).isEqualTo(PAGE_SIZE + 11)
+        assertThat(adapter.pageLoads).isEmpty()
+        assertThat(adapter.selectedPositions).containsExactly(2, PAGE_SIZE + 10)
+    }
+
+    @Test
+    fun `loads the pages needed for a selection restored after loading`() {
+        adapter.refresh(true)
+        adapter.completePageLoad(newestItems(PAGE_SIZE, firstId = 1000))
+
+        adapter.selectedPositions = arrayListOf(PAGE_SIZE * 2 + 5)
+
+        val lastId = adapter.getItemId(PAGE_SIZE - 1)
+        assertThat(adapter.pageLoads).containsExactly(PageLoad(false, lastId, PAGE_SIZE + 6))
+        adapter.completePageLoad(newestItems(PAGE_SIZE + 6, firstId = lastId - 1))
+        assertThat(adapter.itemCount).isEqualTo(PAGE_SIZE * 2 + 6)
+        assertThat(adapter.pageLoads).isEmpty()
+    }
+
+    @Test
+    fun `stops loading pages when the device has no more media`() {
+        adapter.selectedPositions = arrayListOf(PAGE_SIZE + 10)
+        adapter.refresh(true)
+
+        // only a few items are left on the device, so the selection can't be loaded
+        adapter.completePageLoad(newestItems(5))
+
+        assertThat(adapter.itemCount).isEqualTo(5)
+        assertThat(adapter.pageLoads).isEmpty()
+    }
+
+    @Test
+    fun `inserted items shift the selection`() {
+        loadItems(10L, 8L, 6L, 4L)
+        adapter.selectedPositions = arrayListOf(1, 3)
+
+        adapter.refresh(false)
+        assertThat(adapter.mediaChangeLoads).containsExactly(4L)
+        adapter.completeMediaChanges(items(11L, 10L, 8L, 7L, 6L, 4L))
+
+        assertThat(adapter.getItemIds()).containsExactly(11L, 10L, 8L, 7L, 6L, 4L)
+        // the selected items are still 8 & 4
+        assertThat(adapter.selectedPositions).containsExactly(2, 5)
+    }
+
+    @Test
+    fun `removed items are deselected and shift the rest of the selection`() {
+        loadItems(10L, 8L, 6L, 4L)
+        adapter.selectedPositions = arrayListOf(3, 1, 0)
+
+        adapter.refresh(false)
+        adapter.completeMediaChanges(items(10L, 6L, 4L))
+
+        assertThat(adapter.getItemIds()).containsExactly(10L, 6L, 4L)
+        // 8 was removed, and the selection order of 4 & 10 is kept
+        assertThat(adapter.selectedPositions).containsExactly(2, 0)
+    }
+
+    private fun loadItems(vararg ids: Long) {
+        adapter.refresh(true)
+        adapter.completePageLoad(items(*ids))
+    }
+
+    private fun items(vararg ids: Long) = ids.map { DeviceMediaSource.Item(it, false) }
+
+    /*
+     * returns the passed number of items with descending ids, newest first like the device media
+     */
+    private fun newestItems(count: Int, firstId: Long = count.toLong()) =
+            (0 until count).map { DeviceMediaSource.Item(firstId - it, false) }
+
+    private fun PhotoPickerAdapter.getItemIds() = (0 until itemCount).map { getItemId(it) }
+
+    private data class PageLoad(val reload: Boolean, val beforeId: Long, val count: Int)
+
+    /*
+     * adapter which records the loads it starts instead of querying the device media
+     */
+    private inner class TestAdapter : PhotoPickerAdapter(
+            RuntimeEnvironment.application, MediaBrowserType.EDITOR_PICKER, mock()) {
+        val pageLoads = mutableListOf<PageLoad>()
+        val mediaChangeLoads = mutableListOf<Long>()
+
+        override fun startPageLoad(reload: Boolean, beforeId: Long, count: Int) {
+            pageLoads.add(PageLoad(reload, beforeId, count))
+        }
+
+        override fun startApplyMediaChanges(oldestLoadedId: Long) {
+            mediaChangeLoads.add(oldestLoadedId)
+        }
+
+        fun completePageLoad(page: List<DeviceMediaSource.Item>) {
+            val load = pageLoads.removeAt(0)
+            onPageLoaded(load.reload, load.count, page)
+        }
+
+        fun completeMediaChanges(currentItems: List<DeviceMediaSource.Item>) {
+            mediaChangeLoads.removeAt(0)
+            onMediaChangesLoaded(currentItems)
+        }
+    }
+}
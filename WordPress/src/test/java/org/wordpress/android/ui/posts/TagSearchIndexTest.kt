@@ -0,0 +1,66 @@
+package org.wordpress.android.ui.posts
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.fluxc.model.TermModel
+
+class TagSearchIndexTest {
+    private val tags = listOf(
+            tag(1, "Android"),
+            tag(2, "Bread &amp; Butter"),
+            tag(3, "Café"),
+            tag(4, "Google Android"),
+            tag(5, "Random"),
+            tag(6, "Travel")
+    )
+
+    @Test
+    fun `an empty query matches every tag in order`() {
+        val index = TagSearchIndex(tags)
+
+        assertThat(ids(index.search("", null))).containsExactly(1, 2, 3, 4, 5, 6)
+    }
+
+    @Test
+    fun `prefix matches come before word matches which come before other matches`() {
+        val index = TagSearchIndex(tags)
+
+        assertThat(ids(index.search("and", null))).containsExactly(1, 4, 5)
+        assertThat(ids(index.search("an", null))).containsExactly(1, 4, 5)
+        assertThat(ids(index.search("zzz", null))).isEmpty()
+    }
+
+    @Test
+    fun `matching ignores case, accents and escaped html`() {
+        val index = TagSearchIndex(tags)
+
+        assertThat(ids(index.search("CAFE", null))).containsExactly(3)
+        assertThat(ids(index.search("bread & b", null))).containsExactly(2)
+    }
+
+    @Test
+    fun `a longer query narrows the previous result`() {
+        val index = TagSearchIndex(tags)
+
+        val previous = index.search("a", null)
+        assertThat(ids(index.search("an", previous))).isEqualTo(ids(index.search("an", null)))
+        assertThat(ids(index.search("andr", index.search("an", previous)))).containsExactly(1, 4)
+        assertThat(index.search("A", previous)).isSameAs(previous)
+    }
+
+    @Test
+    fun `a shorter query or a result from another index searches every tag`() {
+        val index = TagSearchIndex(tags)
+
+        val previous = index.search("travel", null)
+        assertThat(ids(index.search("r", previous))).containsExactly(5, 1, 2, 4, 6)
+        assertThat(ids(TagSearchIndex(tags.take(2)).search("andr", previous))).containsExactly(1)
+    }
+
+    private fun tag(id: Int, name: String) = TermModel().apply {
+        this.id = id
+        this.name = name
+    }
+
+    private fun ids(result: TagSearchIndex.Result) = result.tags.map { it.id }
+}
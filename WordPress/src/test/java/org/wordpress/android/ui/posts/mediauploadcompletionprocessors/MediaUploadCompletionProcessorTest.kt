@@ -49,4 +49,39 @@ class MediaUploadCompletionProcessorTest {
         val blocks = processor.processPost(TestContent.oldPostGallery)
         Assertions.assertThat(blocks).isEqualTo(TestContent.newPostGallery)
     }
+
+    @Test
+    fun `processPost splices ids and urls for every block of a media item`() {
+        val oldPost = TestContent.paragraphBlock + TestContent.oldImageBlock + TestContent.oldMediaTextBlock +
+                TestContent.oldGalleryBlock
+        val newPost = TestContent.paragraphBlock + TestContent.newImageBlock + TestContent.newMediaTextBlock +
+                TestContent.newGalleryBlock
+        val blocks = processor.processPost(oldPost)
+        Assertions.assertThat(blocks).isEqualTo(newPost)
+    }
+
+    @Test
+    fun `processPost splices ids and urls for a batch of media items`() {
+        val localVideoId = "113"
+        val videoFile: MediaFile = mock()
+        whenever(videoFile.mediaId).thenReturn(TestContent.remoteMediaId)
+        whenever(videoFile.fileURL).thenReturn(TestContent.remoteVideoUrl)
+        val oldPost = TestContent.paragraphBlock + TestContent.oldImageBlock +
+                TestContent.oldVideoBlock.replace(TestContent.localMediaId, localVideoId)
+        val newPost = TestContent.paragraphBlock + TestContent.newImageBlock + TestContent.newVideoBlock
+
+        processor = MediaUploadCompletionProcessor(
+                mapOf(TestContent.localMediaId to mediaFile, localVideoId to videoFile),
+                TestContent.siteUrl
+        )
+        val blocks = processor.processPost(oldPost)
+        Assertions.assertThat(blocks).isEqualTo(newPost)
+    }
+
+    @Test
+    fun `processPost leaves blocks of other media unchanged`() {
+        processor = MediaUploadCompletionProcessor(mapOf("999" to mediaFile), TestContent.siteUrl)
+        val blocks = processor.processPost(TestContent.oldPostGallery)
+        Assertions.assertThat(blocks).isEqualTo(TestContent.oldPostGallery)
+    }
 }
@@ -0,0 +1,132 @@
+package org.wordpress.android.ui.reader.adapters
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.models.ReaderPost
+import org.wordpress.android.models.ReaderPostKey
+import org.wordpress.android.models.ReaderPostList
+import org.wordpress.android.ui.reader.adapters.ReaderPostPagedList.MAX_CACHED_POSTS
+import org.wordpress.android.ui.reader.adapters.ReaderPostPagedList.PAGE_SIZE
+
+class ReaderPostPagedListTest {
+    private val loadedIndexes = mutableListOf<Int>()
+    private val list = TestPagedList()
+
+    @Test
+    fun `loads the missing posts of a page once`() {
+        list.setKeys(keys(PAGE_SIZE * 3), ReaderPostList(), emptySet())
+
+        list.loadAround(0)
+        list.loadAround(1)
+
+        assertThat(list.loads).hasSize(1)
+        assertThat(list.loads[0].second.map { it.postId }).isEqualTo((0L until PAGE_SIZE).toList())
+    }
+
+    @Test
+    fun `passes the indexes of loaded posts to the listener`() {
+        list.setKeys(keys(PAGE_SIZE * 3), ReaderPostList(), emptySet())
+        list.loadAround(0)
+
+        list.completeLoads()
+
+        assertThat(loadedIndexes).isEqualTo((0 until PAGE_SIZE).toList())
+        assertThat(list.get(5)?.postId).isEqualTo(5L)
+    }
+
+    @Test
+    fun `reloads posts which were evicted from the cache`() {
+        val pageCount = MAX_CACHED_POSTS / PAGE_SIZE + 2
+        list.setKeys(keys(PAGE_SIZE * pageCount), ReaderPostList(), emptySet())
+        for (page in 0 until pageCount) {
+            list.loadAround(page * PAGE_SIZE + PAGE_SIZE / 2)
+            list.completeLoads()
+        }
+        assertThat(list.get(0)).isNull()
+
+        list.loadAround(0)
+
+        assertThat(list.loads).hasSize(1)
+        assertThat(list.loads[0].second.map { it.postId }).contains(0L)
+        list.completeLoads()
+        assertThat(list.get(0)?.postId).isEqualTo(0L)
+    }
+
+    @Test
+    fun `doesn't request posts again while they're loading or after they weren't found`() {
+        list.setKeys(keys(PAGE_SIZE), ReaderPostList(), emptySet())
+        list.loadAround(0)
+        list.loadAround(0)
+        assertThat(list.loads).hasSize(1)
+
+        // the first post was deleted since the keys were read
+        list.completeLoads(skipPostId = 0)
+        list.loadAround(0)
+
+        assertThat(list.loads).isEmpty()
+        assertThat(list.get(0)).isNull()
+    }
+
+    @Test
+    fun `drops pages loaded for previous keys`() {
+        list.setKeys(keys(PAGE_SIZE), ReaderPostList(), emptySet())
+        list.loadAround(0)
+        val staleLoad = list.loads.removeAt(0)
+
+        list.setKeys(keys(PAGE_SIZE), ReaderPostList(), emptySet())
+        list.onPageLoaded(staleLoad.first, posts(staleLoad.second))
+
+        assertThat(list.get(0)).isNull()
+        assertThat(loadedIndexes).isEmpty()
+        list.loadAround(0)
+        assertThat(list.loads).hasSize(1)
+    }
+
+    @Test
+    fun `loads the first page and changed posts along with new keys`() {
+        val previousKeys = keys(PAGE_SIZE * 2)
+        val newKeys = keys(PAGE_SIZE * 2).toMutableList()
+        val likedPost = post(PAGE_SIZE + 1L).apply { numLikes = 1 }
+        newKeys[PAGE_SIZE + 1] = ReaderPostKey.fromPost(likedPost)
+        val loadedIds = setOf(pseudoIdOf(PAGE_SIZE + 1L), pseudoIdOf(PAGE_SIZE + 2L))
+
+        val pseudoIds = ReaderPostPagedList.getPseudoIdsToLoadWithKeys(
+                newKeys, previousKeys.associateBy { it.pseudoId }, loadedIds)
+
+        assertThat(pseudoIds).isEqualTo((0L until PAGE_SIZE).map { pseudoIdOf(it) } + pseudoIdOf(PAGE_SIZE + 1L))
+    }
+
+    private fun keys(count: Int) = (0L until count).map { ReaderPostKey.fromPost(post(it)) }
+
+    private fun post(postId: Long) = ReaderPost().apply {
+        blogId = 1
+        this.postId = postId
+        pseudoId = pseudoIdOf(postId)
+        title = "Post $postId"
+    }
+
+    private fun posts(keys: List<ReaderPostKey>) = ReaderPostList().apply { keys.forEach { add(post(it.postId)) } }
+
+    private fun pseudoIdOf(postId: Long) = "pseudo-1-$postId"
+
+    /*
+     * paged list which records the loads it starts instead of reading the posts from the database
+     */
+    private inner class TestPagedList : ReaderPostPagedList(
+            ReaderPostPagedList.OnPostLoadedListener { index -> loadedIndexes.add(index) }) {
+        val loads = mutableListOf<Pair<Int, List<ReaderPostKey>>>()
+
+        override fun startLoad(generation: Int, missingKeys: List<ReaderPostKey>) {
+            loads.add(Pair(generation, missingKeys))
+        }
+
+        fun completeLoads(skipPostId: Long = -1) {
+            val pending = loads.toList()
+            loads.clear()
+            for ((generation, missingKeys) in pending) {
+                val found = missingKeys.filter { it.postId != skipPostId }
+                onPageLoaded(generation, posts(found))
+            }
+        }
+    }
+}
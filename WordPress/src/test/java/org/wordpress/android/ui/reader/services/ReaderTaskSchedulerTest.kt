@@ -0,0 +1,84 @@
+package org.wordpress.android.ui.reader.services
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ReaderTaskSchedulerTest {
+    @Test
+    fun `writes run one at a time in the order they were queued`() {
+        val completed = Collections.synchronizedList(mutableListOf<Int>())
+        val done = CountDownLatch(WRITE_COUNT)
+        var running = 0
+        var maxRunning = 0
+
+        for (i in 0 until WRITE_COUNT) {
+            ReaderTaskScheduler.executeWrite("write $i") {
+                synchronized(this) { maxRunning = maxOf(maxRunning, ++running) }
+                completed.add(i)
+                synchronized(this) { running-- }
+                done.countDown()
+            }
+        }
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(maxRunning).isEqualTo(1)
+        assertThat(completed).containsExactlyElementsOf(0 until WRITE_COUNT)
+    }
+
+    @Test
+    fun `queued write is superseded by a newer write with the same key`() {
+        val blocker = CountDownLatch(1)
+        val done = CountDownLatch(1)
+        val ran = Collections.synchronizedList(mutableListOf<String>())
+        val superseded = Collections.synchronizedList(mutableListOf<String>())
+
+        // keep the writer lane busy so the coalesced writes stay queued
+        ReaderTaskScheduler.executeWrite("blocker") { blocker.await() }
+        ReaderTaskScheduler.executeWriteCoalesced("tag", "first", { ran.add("first") }, { superseded.add("first") })
+        ReaderTaskScheduler.executeWriteCoalesced("other", "other", { ran.add("other") }, { superseded.add("other") })
+        ReaderTaskScheduler.executeWriteCoalesced("tag", "second", {
+            ran.add("second")
+            done.countDown()
+        }, { superseded.add("second") })
+        blocker.countDown()
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(ran).containsExactly("other", "second")
+        assertThat(superseded).containsExactly("first")
+    }
+
+    @Test
+    fun `pool runs tasks of every priority`() {
+        val done = CountDownLatch(WRITE_COUNT)
+
+        for (i in 0 until WRITE_COUNT) {
+            ReaderTaskScheduler.execute(ReaderTaskScheduler.Priority.values()[i % 3], "task $i") { done.countDown() }
+        }
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(ReaderTaskScheduler.getPoolQueueDepth()).isEqualTo(0)
+    }
+
+    @Test
+    fun `records the latency of completed tasks`() {
+        val done = CountDownLatch(1)
+        val completedBefore = ReaderTaskScheduler.getCompletedCount()
+
+        for (i in 0 until WRITE_COUNT) {
+            ReaderTaskScheduler.executeWrite("write $i") { }
+        }
+        // the writer lane runs one task at a time, so the latency of the earlier writes is recorded before this runs
+        ReaderTaskScheduler.executeWrite("last write") { done.countDown() }
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+        assertThat(ReaderTaskScheduler.getCompletedCount() - completedBefore).isGreaterThanOrEqualTo(WRITE_COUNT)
+    }
+
+    companion object {
+        private const val WRITE_COUNT = 20
+        private const val TIMEOUT_SECONDS = 5L
+    }
+}
@@ -0,0 +1,175 @@
+package org.wordpress.android.ui.reader.utils
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.models.ReaderComment
+import org.wordpress.android.models.ReaderCommentList
+import java.util.Random
+
+class ReaderCommentLevelerTest {
+    @Test
+    fun `places children below their parents in source order`() {
+        val comments = commentList(1L to 0L, 2L to 0L, 3L to 1L, 4L to 3L, 5L to 1L, 6L to 2L)
+
+        val result = ReaderCommentLeveler(comments).createLevelList()
+
+        assertThat(result.map { it.commentId to it.level }).containsExactly(
+                1L to 0, 3L to 1, 4L to 2, 5L to 1, 2L to 0, 6L to 1)
+    }
+
+    @Test
+    fun `adds orphans and their children after rooted comments`() {
+        val comments = commentList(1L to 0L, 2L to 99L, 3L to 2L, 4L to 1L)
+
+        val result = ReaderCommentLeveler(comments).createLevelList()
+
+        assertThat(result.map { it.commentId to it.level }).containsExactly(
+                1L to 0, 4L to 1, 2L to 1, 3L to 2)
+        assertThat(result.indexOfCommentId(3L)).isEqualTo(3)
+    }
+
+    @Test
+    fun `merging appended comments matches leveling all comments`() {
+        val random = Random(RANDOM_SEED)
+        repeat(50) {
+            val comments = randomThread(random, 200, orphanRate = 0.05)
+            val firstPageSize = random.nextInt(comments.size)
+            val leveler = ReaderCommentLeveler(subList(comments, 0, firstPageSize))
+            leveler.createLevelList()
+
+            var pageEnd = firstPageSize
+            var result = ReaderCommentList()
+            while (pageEnd < comments.size) {
+                pageEnd = minOf(comments.size, pageEnd + 1 + random.nextInt(30))
+                result = leveler.updateLevelList(subList(comments, 0, pageEnd))
+            }
+
+            val expected = ReaderCommentLeveler(copyOf(comments)).createLevelList()
+            assertThat(result.map { it.commentId to it.level })
+                    .isEqualTo(expected.map { it.commentId to it.level })
+        }
+    }
+
+    @Test
+    fun `adopts an orphan when its parent is fetched`() {
+        val leveler = ReaderCommentLeveler(commentList(1L to 0L, 3L to 2L))
+        leveler.createLevelList()
+
+        val result = leveler.updateLevelList(commentList(1L to 0L, 3L to 2L, 2L to 1L))
+
+        assertThat(result.map { it.commentId to it.level }).containsExactly(1L to 0, 2L to 1, 3L to 2)
+    }
+
+    @Test
+    fun `re-levels when existing comments change`() {
+        val leveler = ReaderCommentLeveler(commentList(1L to 0L, 2L to 1L))
+        leveler.createLevelList()
+
+        val result = leveler.updateLevelList(commentList(2L to 0L, 3L to 2L))
+
+        assertThat(result.map { it.commentId to it.level }).containsExactly(2L to 0, 3L to 1)
+    }
+
+    @Test
+    fun `handles deeply nested threads`() {
+        val comments = ReaderCommentList()
+        for (id in 1L..10_000L) {
+            comments.add(comment(id, id - 1))
+        }
+
+        val result = ReaderCommentLeveler(comments).createLevelList()
+
+        assertThat(result).hasSize(10_000)
+        assertThat(result.last().level).isEqualTo(9_999)
+    }
+
+    @Test
+    fun `matches the previous per-level implementation`() {
+        val random = Random(RANDOM_SEED)
+        for (size in listOf(100, 1_000)) {
+            // the previous implementation dropped orphans, so only rooted threads are compared
+            val comments = randomThread(random, size, orphanRate = 0.0)
+
+            val result = ReaderCommentLeveler(comments).createLevelList()
+
+            val expected = levelPerLevel(copyOf(comments))
+            assertThat(result.map { it.commentId to it.level })
+                    .isEqualTo(expected.map { it.commentId to it.level })
+        }
+    }
+
+    /*
+     * the previous implementation, which walked the level list once per level and scanned all
+     * comments for the children of each parent
+     */
+    private fun levelPerLevel(comments: ReaderCommentList): ReaderCommentList {
+        val result = ReaderCommentList()
+        comments.forEach {
+            it.level = 0
+            if (it.parentId == 0L) result.add(it)
+        }
+        var level = 0
+        var hasChanges = true
+        while (hasChanges) {
+            hasChanges = false
+            var index = 0
+            while (index < result.size) {
+                val parent = result[index]
+                if (parent.level == level && comments.any { it.parentId == parent.commentId }) {
+                    val children = comments.filter { it.parentId == parent.commentId }
+                    children.forEach { it.level = level + 1 }
+                    result.addAll(index + 1, children)
+                    hasChanges = true
+                    index += children.size
+                }
+                index++
+            }
+            level++
+        }
+        return result
+    }
+
+    /*
+     * returns comments in chronological order where replies tend to follow recent comments, so
+     * threads nest the way busy posts do
+     */
+    private fun randomThread(random: Random, size: Int, orphanRate: Double): ReaderCommentList {
+        val comments = ReaderCommentList()
+        for (id in 1L..size.toLong()) {
+            val parentId = when {
+                id == 1L || random.nextInt(4) == 0 -> 0L
+                random.nextDouble() < orphanRate -> size + id
+                else -> maxOf(1L, id - 1 - random.nextInt(minOf(id.toInt() - 1, 20)))
+            }
+            comments.add(comment(id, parentId))
+        }
+        return comments
+    }
+
+    private fun commentList(vararg idsAndParents: Pair<Long, Long>): ReaderCommentList {
+        val comments = ReaderCommentList()
+        idsAndParents.forEach { (id, parentId) -> comments.add(comment(id, parentId)) }
+        return comments
+    }
+
+    private fun comment(id: Long, parentId: Long) = ReaderComment().apply {
+        commentId = id
+        this.parentId = parentId
+    }
+
+    /*
+     * returns new instances of the comments in the passed range, as the adapter gets each time it
+     * reads comments from the database
+     */
+    private fun subList(comments: ReaderCommentList, from: Int, to: Int): ReaderCommentList {
+        val result = ReaderCommentList()
+        comments.subList(from, to).forEach { result.add(comment(it.commentId, it.parentId)) }
+        return result
+    }
+
+    private fun copyOf(comments: ReaderCommentList) = subList(comments, 0, comments.size)
+
+    companion object {
+        private const val RANDOM_SEED = 42L
+    }
+}
@@ -0,0 +1,110 @@
+package org.wordpress.android.ui.reader.utils
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderHtmlRewriterTest {
+    private val listener = object : ReaderHtmlRewriter.HtmlRewriterListener {
+        override fun onImageTagFound(imageTag: String, imageUrl: String): String? {
+            return if (imageUrl.contains("wpcom-smileys")) null else "<img class='size-full' src='$imageUrl' />"
+        }
+
+        override fun onIframeTagFound(iframeTag: String, src: String): String? {
+            return "<iframe src='$src' width='320' height='180' />"
+        }
+    }
+
+    @Test
+    fun `rewrites images and iframes`() {
+        val content = "<p>intro</p><img class=\"alignnone\" src=\"https://example.com/a.jpg\" width=\"800\">" +
+                "<iframe width='560' src='https://www.youtube.com/embed/abc'></iframe>"
+
+        val result = ReaderHtmlRewriter(content, true).rewrite(listener)
+
+        assertThat(result).isEqualTo("<p>intro</p><img class='size-full' src='https://example.com/a.jpg' />" +
+                "<iframe src='https://www.youtube.com/embed/abc' width='320' height='180' /></iframe>")
+    }
+
+    @Test
+    fun `leaves tags unchanged when listener returns null`() {
+        val content = "<img src=\"https://s0.wp.com/wp-content/mu-plugins/wpcom-smileys/smile.svg\">"
+
+        val result = ReaderHtmlRewriter(content, true).rewrite(listener)
+
+        assertThat(result).isEqualTo(content)
+    }
+
+    @Test
+    fun `leaves images unchanged when image rewriting is disabled`() {
+        val content = "<div class=\"tiled-gallery\"><img src=\"https://example.com/a.jpg\"></div>"
+
+        val result = ReaderHtmlRewriter(content, false).rewrite(listener)
+
+        assertThat(result).isEqualTo(content)
+    }
+
+    @Test
+    fun `finds embeds which require a script`() {
+        val content = "<blockquote class=\"instagram-media\"></blockquote><fb:post href=\"x\"></fb:post>"
+        val rewriter = ReaderHtmlRewriter(content, true)
+
+        rewriter.rewrite(listener)
+
+        assertThat(rewriter.embedScripts).containsExactlyInAnyOrder(
+                ReaderHtmlRewriter.INSTAGRAM_EMBED_JS,
+                ReaderHtmlRewriter.FACEBOOK_EMBED_JS)
+    }
+
+    @Test
+    fun `matches the multi-pass scanners`() {
+        for (content in listOf(longFormPost(), galleryPost())) {
+            assertThat(ReaderHtmlRewriter(content, true).rewrite(listener)).isEqualTo(rewriteMultiPass(content))
+        }
+    }
+
+    private fun rewriteMultiPass(content: String): String {
+        val builder = StringBuilder(content)
+        ReaderImageScanner(builder.toString(), false).beginScan { tag, src ->
+            listener.onImageTagFound(tag, src)?.let { newTag ->
+                val start = builder.indexOf(tag)
+                builder.replace(start, start + tag.length, newTag)
+            }
+        }
+        ReaderIframeScanner(builder.toString()).beginScan { tag, src ->
+            listener.onIframeTagFound(tag, src)?.let { newTag ->
+                val start = builder.indexOf(tag)
+                builder.replace(start, start + tag.length, newTag)
+            }
+        }
+        return builder.toString()
+    }
+
+    private fun longFormPost(): String {
+        val sb = StringBuilder()
+        for (i in 0 until 400) {
+            sb.append("<p>Paragraph $i of a long-form article, with <a href=\"https://example.com/$i\">a link</a>")
+                    .append(" and <em>some emphasis</em> to make the markup realistic.</p>")
+            if (i % 20 == 0) {
+                sb.append("<figure class=\"wp-block-image\"><img class=\"wp-image-$i\" ")
+                        .append("src=\"https://example.files.wordpress.com/2019/10/photo-$i.jpg?w=1024\" ")
+                        .append("data-orig-size=\"2048,1365\" width=\"1024\" height=\"683\"></figure>")
+            }
+            if (i % 100 == 0) {
+                sb.append("<iframe class='youtube-player' width='640' height='360' ")
+                        .append("src='https://www.youtube.com/embed/video$i'></iframe>")
+            }
+        }
+        return sb.toString()
+    }
+
+    private fun galleryPost(): String {
+        val sb = StringBuilder("<div class=\"gallery\">")
+        for (i in 0 until 300) {
+            sb.append("<div class=\"gallery-item\"><a href=\"https://example.com/attachment/$i\">")
+                    .append("<img class=\"attachment-thumbnail\" ")
+                    .append("src=\"https://example.files.wordpress.com/2019/10/gallery-$i.jpg?w=300&h=200\" ")
+                    .append("width=\"300\" height=\"200\"></a></div>")
+        }
+        return sb.append("</div><blockquote class=\"instagram-media\"></blockquote>").toString()
+    }
+}
@@ -0,0 +1,80 @@
+package org.wordpress.android.ui.suggestion.util
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.models.Suggestion
+import org.wordpress.android.models.SuggestionUsage
+
+class SuggestionIndexTest {
+    private val now = 1_500_000_000_000L
+    private val day = 24 * 60 * 60 * 1000L
+
+    private val suggestions = listOf(
+            suggestion("alice", "Alice Smith"),
+            suggestion("bob", "Bob Jones"),
+            suggestion("carol", "Carol Alison"),
+            suggestion("dave", "José Dávila"),
+            suggestion("smithy", "John Doe")
+    )
+
+    @Test
+    fun `logins, display names and later words in display names are matched by prefix`() {
+        val index = SuggestionIndex.build(SITE_ID, suggestions, emptyMap())
+
+        assertThat(logins(index.find("smi", 10, now))).containsExactly("smithy", "alice")
+        assertThat(logins(index.find("ali", 10, now))).containsExactly("alice", "carol")
+        assertThat(logins(index.find("bob j", 10, now))).containsExactly("bob")
+        assertThat(logins(index.find("ones", 10, now))).isEmpty()
+    }
+
+    @Test
+    fun `matching ignores case and accents`() {
+        val index = SuggestionIndex.build(SITE_ID, suggestions, emptyMap())
+
+        assertThat(logins(index.find("DAVILA", 10, now))).containsExactly("dave")
+        assertThat(logins(index.find("jose", 10, now))).containsExactly("dave")
+    }
+
+    @Test
+    fun `a whole login ranks above a login prefix`() {
+        val index = SuggestionIndex.build(SITE_ID, listOf(
+                suggestion("ann", "Ann"),
+                suggestion("anna", "Anna")
+        ).reversed(), emptyMap())
+
+        assertThat(logins(index.find("ann", 10, now))).containsExactly("ann", "anna")
+    }
+
+    @Test
+    fun `frequently and recently picked suggestions rank higher`() {
+        val usage = mapOf(
+                "carol" to SuggestionUsage(20, now - day),
+                "alice" to SuggestionUsage(5, now - 60 * day)
+        )
+        val index = SuggestionIndex.build(SITE_ID, suggestions, usage)
+
+        assertThat(logins(index.find("ali", 10, now))).containsExactly("carol", "alice")
+        assertThat(logins(index.find("", 2, now))).containsExactly("carol", "alice")
+    }
+
+    @Test
+    fun `only the best results are returned`() {
+        val many = (1..5000).map { suggestion("user$it", "User Number $it") }
+        val index = SuggestionIndex.build(SITE_ID, many, mapOf("user4321" to SuggestionUsage(1, now)))
+
+        val results = index.find("us", SuggestionIndex.MAX_RESULTS, now)
+
+        assertThat(results).hasSize(SuggestionIndex.MAX_RESULTS)
+        assertThat(results[0].userLogin).isEqualTo("user4321")
+        assertThat(results[1].userLogin).isEqualTo("user1")
+    }
+
+    private fun suggestion(login: String, displayName: String) =
+            Suggestion(SITE_ID, login, displayName, "", "mention")
+
+    private fun logins(suggestions: List<Suggestion>) = suggestions.map { it.userLogin }
+
+    companion object {
+        private const val SITE_ID = 1L
+    }
+}
@@ -0,0 +1,134 @@
+package org.wordpress.android.ui.uploads
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.wordpress.android.fluxc.model.MediaModel
+
+private const val SITE_ID = 1
+private const val OTHER_SITE_ID = 2
+
+class MediaUploadHandlerTest {
+    @Before
+    fun setUp() {
+        MediaUploadHandler.clearQueues()
+    }
+
+    @After
+    fun tearDown() {
+        MediaUploadHandler.clearQueues()
+    }
+
+    @Test
+    fun `uploads at most the allowed number of media to each site at a time`() {
+        queue(media(1), media(2), media(3), media(4, siteId = OTHER_SITE_ID))
+
+        assertThat(takeUploads(maxUploadsPerSite = 2)).containsExactly(1, 2, 4)
+        assertThat(takeUploads(maxUploadsPerSite = 2)).isEmpty()
+
+        MediaUploadHandler.removeUpload(1)
+
+        assertThat(takeUploads(maxUploadsPerSite = 2)).containsExactly(3)
+    }
+
+    @Test
+    fun `uploads the media of prioritized posts first, then featured images`() {
+        queue(media(1, postId = 10), media(2, postId = 20, isFeatured = true), media(3, postId = 30))
+        MediaUploadHandler.prioritizeMediaForPost(30)
+
+        assertThat(takeUploads()).containsExactly(3)
+        MediaUploadHandler.removeUpload(3)
+        assertThat(takeUploads()).containsExactly(2)
+        MediaUploadHandler.removeUpload(2)
+        assertThat(takeUploads()).containsExactly(1)
+    }
+
+    @Test
+    fun `media of a post is no longer prioritized once it's all uploaded`() {
+        queue(media(1, postId = 10), media(2, postId = 20))
+        MediaUploadHandler.prioritizeMediaForPost(20)
+        assertThat(takeUploads()).containsExactly(2)
+        MediaUploadHandler.removeUpload(2)
+
+        queue(media(3, postId = 30, isFeatured = true), media(4, postId = 20, isFeatured = true))
+
+        // both are featured images, so the first one queued is uploaded first
+        assertThat(takeUploads()).containsExactly(3)
+    }
+
+    @Test
+    fun `optimizes one video at a time while other media is uploaded`() {
+        queue(media(1, isVideo = true), media(2, isVideo = true), media(3))
+        val optimizing = mutableListOf<MediaModel>()
+
+        assertThat(takeUploads(optimizing = optimizing)).containsExactly(3)
+        assertThat(optimizing.map { it.id }).containsExactly(1)
+        assertThat(takeUploads()).isEmpty()
+
+        assertThat(MediaUploadHandler.finishOptimization(optimizing[0])).isTrue()
+        MediaUploadHandler.removeUpload(3)
+        optimizing.clear()
+
+        // the optimized video is uploaded while the next video is optimized
+        assertThat(takeUploads(optimizing = optimizing)).containsExactly(1)
+        assertThat(optimizing.map { it.id }).containsExactly(2)
+    }
+
+    @Test
+    fun `a canceled video keeps its optimization slot until the optimizer finishes`() {
+        queue(media(1, isVideo = true), media(2, isVideo = true))
+        val optimizing = mutableListOf<MediaModel>()
+        takeUploads(optimizing = optimizing)
+
+        MediaUploadHandler.removeUpload(1)
+        val optimizingAfterCancel = mutableListOf<MediaModel>()
+        takeUploads(optimizing = optimizingAfterCancel)
+        assertThat(optimizingAfterCancel).isEmpty()
+
+        assertThat(MediaUploadHandler.finishOptimization(optimizing[0])).isFalse()
+        takeUploads(optimizing = optimizingAfterCancel)
+        assertThat(optimizingAfterCancel.map { it.id }).containsExactly(2)
+    }
+
+    @Test
+    fun `videos are uploaded right away when optimization is disabled`() {
+        queue(media(1, isVideo = true))
+        val optimizing = mutableListOf<MediaModel>()
+
+        assertThat(takeUploads(isVideoOptimizationEnabled = false, optimizing = optimizing)).containsExactly(1)
+        assertThat(optimizing).isEmpty()
+    }
+
+    private fun queue(vararg media: MediaModel) {
+        media.forEach { MediaUploadHandler.addUniqueMediaToQueue(it) }
+    }
+
+    /*
+     * returns the ids of the media which should be uploaded now, adding the videos to optimize to the passed list
+     */
+    private fun takeUploads(
+        maxUploadsPerSite: Int = 1,
+        isVideoOptimizationEnabled: Boolean = true,
+        optimizing: MutableList<MediaModel> = mutableListOf()
+    ): List<Int> {
+        val uploading = mutableListOf<MediaModel>()
+        MediaUploadHandler.takeQueuedUploads(maxUploadsPerSite, isVideoOptimizationEnabled, optimizing, uploading)
+        return uploading.map { it.id }
+    }
+
+    private fun media(
+        id: Int,
+        siteId: Int = SITE_ID,
+        postId: Int = 0,
+        isVideo: Boolean = false,
+        isFeatured: Boolean = false
+    ) = MediaModel().apply {
+        this.id = id
+        localSiteId = siteId
+        localPostId = postId
+        mimeType = if (isVideo) "video/mp4" else "image/jpeg"
+        filePath = "/media/$id"
+        markedLocallyAsFeatured = isFeatured
+    }
+}
@@ -0,0 +1,38 @@
+package org.wordpress.android.util
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class SearchTextUtilsTest {
+    @Test
+    fun `text is lowercased`() {
+        assertThat(SearchTextUtils.normalize("My Blog.WordPress.com")).isEqualTo("my blog.wordpress.com")
+    }
+
+    @Test
+    fun `accents are removed`() {
+        assertThat(SearchTextUtils.normalize("Café Crème Brûlée")).isEqualTo("cafe creme brulee")
+    }
+
+    @Test
+    fun `marks added by lowercasing are removed`() {
+        assertThat(SearchTextUtils.normalize("İstanbul")).isEqualTo("istanbul")
+    }
+
+    @Test
+    fun `missing text is normalized to an empty string`() {
+        assertThat(SearchTextUtils.normalize(null)).isEmpty()
+        assertThat(SearchTextUtils.normalize("")).isEmpty()
+    }
+
+    @Test
+    fun `words are separated by single spaces`() {
+        assertThat(SearchTextUtils.normalizeWords(" Don’t   stop: it's WordPress.com! "))
+                .isEqualTo("dont stop its wordpress com")
+    }
+
+    @Test
+    fun `only the first words of the query are matched`() {
+        assertThat(SearchTextUtils.getPrefixMatchExpression("one two three", 2)).isEqualTo("one* two*")
+    }
+}
@@ -0,0 +1,202 @@
+package org.wordpress.android.analytics;
+
+import android.os.Looper;
+
+import org.wordpress.android.analytics.AnalyticsTracker.Stat;
+import org.wordpress.android.util.AppLog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue of analytics events which are delivered to the trackers in batches on a single background thread, so
+ * tracking an event on the caller's thread only costs adding it to the queue.
+ * <p>
+ * The number of tracked events waiting to be delivered is bounded. When that limit is reached, events tracked from
+ * the main thread are dropped right away so the UI never waits on analytics, while events tracked from other
+ * threads wait briefly for room before being dropped. Session and metadata commands (flush, end session, clear
+ * data, refresh metadata) don't count against the limit, so they're never dropped and queuing them never blocks.
+ * They're delivered in order with the events so, for example, a flush always follows the events tracked before it.
+ */
+final class AnalyticsEventQueue {
+    static final int DEFAULT_CAPACITY = 1000;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final long BACKGROUND_OFFER_TIMEOUT_MS = 50;
+
+    private enum Command {
+        TRACK,
+        FLUSH,
+        END_SESSION,
+        CLEAR_ALL_DATA,
+        REFRESH_METADATA
+    }
+
+    private static final class Event {
+        private final Command mCommand;
+        private final Stat mStat;
+        private final Map<String, ?> mProperties;
+        private final AnalyticsMetadata mMetadata;
+
+        private Event(Command command, Stat stat, Map<String, ?> properties, AnalyticsMetadata metadata) {
+            mCommand = command;
+            mStat = stat;
+            mProperties = properties;
+            mMetadata = metadata;
+        }
+    }
+
+    private final List<Tracker> mTrackers;
+    // unbounded, since the number of tracked events in it is limited by mTrackPermits
+    private final BlockingQueue<Event> mQueue = new LinkedBlockingQueue<>();
+    private final Semaphore mTrackPermits;
+    private final AtomicLong mDroppedCount = new AtomicLong();
+    private final AtomicLong mDeliveredCount = new AtomicLong();
+    private Thread mDeliveryThread;
+
+    AnalyticsEventQueue(List<Tracker> trackers, int capacity) {
+        mTrackers = trackers;
+        mTrackPermits = new Semaphore(capacity);
+    }
+
+    void track(Stat stat, Map<String, ?> properties) {
+        // copy the properties since callers may change the map after tracking it
+        Map<String, ?> propertiesCopy =
+                properties == null || properties.isEmpty() ? null : new HashMap<String, Object>(properties);
+        Event event = new Event(Command.TRACK, stat, propertiesCopy, null);
+
+        boolean hasRoom;
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            hasRoom = mTrackPermits.tryAcquire();
+        } else {
+            try {
+                hasRoom = mTrackPermits.tryAcquire(BACKGROUND_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                hasRoom = false;
+            }
+        }
+
+        if (hasRoom) {
+            mQueue.offer(event);
+            startDeliveryThreadIfNeeded();
+        } else {
+            long dropped = mDroppedCount.incrementAndGet();
+            // avoid flooding the log when many events are dropped
+            if (Long.bitCount(dropped) == 1) {
+                AppLog.w(AppLog.T.STATS, "Analytics queue is full, " + dropped + " events dropped so far");
+            }
+        }
+    }
+
+    void flush() {
+        enqueueCommand(new Event(Command.FLUSH, null, null, null));
+    }
+
+    void endSession() {
+        enqueueCommand(new Event(Command.END_SESSION, null, null, null));
+    }
+
+    void clearAllData() {
+        enqueueCommand(new Event(Command.CLEAR_ALL_DATA, null, null, null));
+    }
+
+    void refreshMetadata(AnalyticsMetadata metadata) {
+        enqueueCommand(new Event(Command.REFRESH_METADATA, null, null, metadata));
+    }
+
+    /*
+     * number of tracked events dropped because the queue was full
+     */
+    long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    /*
+     * number of tracked events delivered to the trackers
+     */
+    long getDeliveredCount() {
+        return mDeliveredCount.get();
+    }
+
+    /*
+     * commands are called on the main thread (ex: flush when the app goes to the background), so they're added
+     * without waiting for room - the queue is unbounded so this always succeeds
+     */
+    private void enqueueCommand(Event event) {
+        mQueue.offer(event);
+        startDeliveryThreadIfNeeded();
+    }
+
+    private synchronized void startDeliveryThreadIfNeeded() {
+        if (mDeliveryThread != null) {
+            return;
+        }
+        mDeliveryThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                deliverEvents();
+            }
+        }, "AnalyticsEventQueue");
+        mDeliveryThread.setDaemon(true);
+        mDeliveryThread.start();
+    }
+
+    private void deliverEvents() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(mQueue.take());
+            } catch (InterruptedException e) {
+                AppLog.w(AppLog.T.STATS, "Analytics delivery thread interrupted");
+                return;
+            }
+            mQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            for (Event event : batch) {
+                deliver(event);
+            }
+            batch.clear();
+        }
+    }
+
+    private void deliver(Event event) {
+        for (Tracker tracker : mTrackers) {
+            try {
+                switch (event.mCommand) {
+                    case TRACK:
+                        if (event.mProperties == null) {
+                            tracker.track(event.mStat);
+                        } else {
+                            tracker.track(event.mStat, event.mProperties);
+                        }
+                        break;
+                    case FLUSH:
+                        tracker.flush();
+                        break;
+                    case END_SESSION:
+                        tracker.endSession();
+                        break;
+                    case CLEAR_ALL_DATA:
+                        tracker.clearAllData();
+                        break;
+                    case REFRESH_METADATA:
+                        tracker.refreshMetadata(event.mMetadata);
+                        break;
+                }
+            } catch (RuntimeException e) {
+                // a failing tracker shouldn't stop delivery to the other trackers or kill the delivery thread
+                AppLog.e(AppLog.T.STATS, "Error delivering analytics " + event.mCommand, e);
+            }
+        }
+        if (event.mCommand == Command.TRACK) {
+            mDeliveredCount.incrementAndGet();
+            mTrackPermits.release();
+        }
+    }
+}
@@ -4,10 +4,10 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class AnalyticsTracker {
     private static boolean mHasUserOptedOut;
@@ -613,7 +613,12 @@ public final class AnalyticsTracker {
         FEATURED_IMAGE_REMOVE_CLICKED_POST_SETTINGS
     }
 
-    private static final List<Tracker> TRACKERS = new ArrayList<>();
+    // trackers are registered on the main thread and used on the event queue's delivery thread
+    private static final List<Tracker> TRACKERS = new CopyOnWriteArrayList<>();
+
+    // events are delivered to the trackers on a background thread rather than on the caller's thread
+    private static final AnalyticsEventQueue EVENT_QUEUE =
+            new AnalyticsEventQueue(TRACKERS, AnalyticsEventQueue.DEFAULT_CAPACITY);
 
     private AnalyticsTracker() {
     }
@@ -642,18 +647,14 @@ public final class AnalyticsTracker {
         if (mHasUserOptedOut) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.track(stat);
-        }
+        EVENT_QUEUE.track(stat, null);
     }
 
     public static void track(Stat stat, Map<String, ?> properties) {
         if (mHasUserOptedOut) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.track(stat, properties);
-        }
+        EVENT_QUEUE.track(stat, properties);
     }
 
     /**
@@ -675,29 +676,28 @@ public final class AnalyticsTracker {
         if (mHasUserOptedOut) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.flush();
-        }
+        EVENT_QUEUE.flush();
     }
 
     public static void endSession(boolean force) {
         if (mHasUserOptedOut && !force) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.endSession();
-        }
+        EVENT_QUEUE.endSession();
     }
 
     public static void clearAllData() {
-        for (Tracker tracker : TRACKERS) {
-            tracker.clearAllData();
-        }
+        EVENT_QUEUE.clearAllData();
     }
 
     public static void refreshMetadata(AnalyticsMetadata metadata) {
-        for (Tracker tracker : TRACKERS) {
-            tracker.refreshMetadata(metadata);
-        }
+        EVENT_QUEUE.refreshMetadata(metadata);
+    }
+
+    /**
+     * Returns the number of events dropped because they were tracked faster than they could be delivered.
+     */
+    public static long getDroppedEventCount() {
+        return EVENT_QUEUE.getDroppedCount();
     }
 }
@@ -10,6 +10,7 @@ import org.json.JSONObject;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +24,9 @@ public class AnalyticsTrackerNosara extends Tracker {
 
     private static final String EVENTS_PREFIX = "wpandroid_";
 
+    // event names of the stats which are tracked, looked up once rather than on every event
+    private static final Map<AnalyticsTracker.Stat, String> EVENT_NAMES = buildEventNames();
+
     private TracksClient mNosaraClient;
 
     public AnalyticsTrackerNosara(Context context) throws IllegalArgumentException {
@@ -50,7 +54,7 @@ public class AnalyticsTrackerNosara extends Tracker {
             return;
         }
 
-        String eventName = getEventNameForStat(stat);
+        String eventName = EVENT_NAMES.get(stat);
         if (eventName == null) {
             AppLog.w(AppLog.T.STATS, "There is NO match for the event " + stat.name() + "stat");
             return;
@@ -600,6 +604,17 @@ public class AnalyticsTrackerNosara extends Tracker {
         mNosaraClient.clearQueues();
     }
 
+    private static Map<AnalyticsTracker.Stat, String> buildEventNames() {
+        Map<AnalyticsTracker.Stat, String> eventNames = new EnumMap<>(AnalyticsTracker.Stat.class);
+        for (AnalyticsTracker.Stat stat : AnalyticsTracker.Stat.values()) {
+            String eventName = getEventNameForStat(stat);
+            if (eventName != null) {
+                eventNames.put(stat, eventName);
+            }
+        }
+        return eventNames;
+    }
+
     @SuppressWarnings("checkstyle:methodlength")
     public static String getEventNameForStat(AnalyticsTracker.Stat stat) {
         if (!isValidEvent(stat)) {
@@ -62,6 +62,13 @@ public class HtmlStyleUtils {
             + "|&there4;|&sim;|&cong;|&asymp;|&ne;|&equiv;|&le;|&ge;|&sub;|&sup;|&nsub;|&sube;|&supe;|&oplus;|&otimes;"
             + "|&perp;|&sdot;|&lceil;|&rceil;|&lfloor;|&rfloor;|&lang;|&rang;|&loz;|&spades;|&clubs;|&hearts;|&diams;)";
 
+    // the patterns are compiled once rather than each time a range is styled, since the entities pattern in
+    // particular is expensive to compile
+    private static final Pattern PATTERN_HTML_TAGS = Pattern.compile(REGEX_HTML_TAGS);
+    private static final Pattern PATTERN_HTML_ATTRIBUTES = Pattern.compile(REGEX_HTML_ATTRIBUTES);
+    private static final Pattern PATTERN_HTML_COMMENTS = Pattern.compile(REGEX_HTML_COMMENTS);
+    private static final Pattern PATTERN_HTML_ENTITIES = Pattern.compile(REGEX_HTML_ENTITIES);
+
     public static final int SPANNABLE_FLAGS = Spannable.SPAN_EXCLUSIVE_EXCLUSIVE;
 
     /**
@@ -85,56 +92,53 @@ public class HtmlStyleUtils {
             return;
         }
 
-        applySpansByRegex(content, start, end, REGEX_HTML_TAGS);
-        applySpansByRegex(content, start, end, REGEX_HTML_ATTRIBUTES);
-        applySpansByRegex(content, start, end, REGEX_HTML_COMMENTS);
-        applySpansByRegex(content, start, end, REGEX_HTML_ENTITIES);
+        applySpansByPattern(content, start, end, PATTERN_HTML_TAGS);
+        applySpansByPattern(content, start, end, PATTERN_HTML_ATTRIBUTES);
+        applySpansByPattern(content, start, end, PATTERN_HTML_COMMENTS);
+        applySpansByPattern(content, start, end, PATTERN_HTML_ENTITIES);
     }
 
     /**
-     * Applies styles to {@code content} from {@code start} to {@code end}, based on rule {@code regex}.
+     * Applies styles to {@code content} from {@code start} to {@code end}, based on rule {@code pattern}.
      * @param content the Spannable to apply style rules to
      * @param start the index in {@code content} to start styling from
      * @param end the index in {@code content} to style until
-     * @param regex the pattern to match for styling
+     * @param pattern the pattern to match for styling
      */
-    private static void applySpansByRegex(Spannable content, int start, int end, String regex) {
+    private static void applySpansByPattern(Spannable content, int start, int end, Pattern pattern) {
         if (content == null || start < 0 || end < 0 || start > content.length() || end > content.length()
                 || start >= end) {
-            AppLog.d(AppLog.T.EDITOR, "applySpansByRegex() received invalid input");
+            AppLog.d(AppLog.T.EDITOR, "applySpansByPattern() received invalid input");
             return;
         }
 
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(content.subSequence(start, end));
+        // the region's bounds are opaque, so the lookarounds can't see outside of the range, the same as when
+        // matching a copy of the range
+        Matcher matcher = pattern.matcher(content);
+        matcher.region(start, end);
 
         while (matcher.find()) {
-            int matchStart = matcher.start() + start;
-            int matchEnd = matcher.end() + start;
-            switch (regex) {
-                case REGEX_HTML_TAGS:
-                    content.setSpan(new ForegroundColorSpan(TAG_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    break;
-                case REGEX_HTML_ATTRIBUTES:
-                    content.setSpan(new ForegroundColorSpan(ATTRIBUTE_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    break;
-                case REGEX_HTML_COMMENTS:
-                    content.setSpan(new ForegroundColorSpan(ATTRIBUTE_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    content.setSpan(new StyleSpan(Typeface.ITALIC), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    content.setSpan(new RelativeSizeSpan(0.75f), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    break;
-                case REGEX_HTML_ENTITIES:
-                    content.setSpan(new ForegroundColorSpan(TAG_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    content.setSpan(new StyleSpan(Typeface.BOLD), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    content.setSpan(new RelativeSizeSpan(0.75f), matchStart, matchEnd, SPANNABLE_FLAGS);
-                    break;
+            int matchStart = matcher.start();
+            int matchEnd = matcher.end();
+            if (pattern == PATTERN_HTML_TAGS) {
+                content.setSpan(new ForegroundColorSpan(TAG_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
+            } else if (pattern == PATTERN_HTML_ATTRIBUTES) {
+                content.setSpan(new ForegroundColorSpan(ATTRIBUTE_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
+            } else if (pattern == PATTERN_HTML_COMMENTS) {
+                content.setSpan(new ForegroundColorSpan(ATTRIBUTE_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
+                content.setSpan(new StyleSpan(Typeface.ITALIC), matchStart, matchEnd, SPANNABLE_FLAGS);
+                content.setSpan(new RelativeSizeSpan(0.75f), matchStart, matchEnd, SPANNABLE_FLAGS);
+            } else if (pattern == PATTERN_HTML_ENTITIES) {
+                content.setSpan(new ForegroundColorSpan(TAG_COLOR), matchStart, matchEnd, SPANNABLE_FLAGS);
+                content.setSpan(new StyleSpan(Typeface.BOLD), matchStart, matchEnd, SPANNABLE_FLAGS);
+                content.setSpan(new RelativeSizeSpan(0.75f), matchStart, matchEnd, SPANNABLE_FLAGS);
             }
         }
     }
 
     /**
      * Clears all relevant spans in {@code content} from {@code start} to {@code end}. Relevant spans are the subclasses
-     * of {@link CharacterStyle} applied by {@link HtmlStyleUtils#applySpansByRegex(Spannable, int, int, String)}.
+     * of {@link CharacterStyle} applied by {@link HtmlStyleUtils#applySpansByPattern(Spannable, int, int, Pattern)}.
      * @param content the Spannable to clear styles from
      * @param spanStart the index in {@code content} to start clearing styles from
      * @param spanEnd the index in {@code content} to clear styles until
@@ -36,6 +36,7 @@ public class RestClientUtils {
     private RestClient mRestClient;
     private Authenticator mAuthenticator;
     private Context mContext;
+    private RestRequest.OnAuthFailedListener mOnAuthFailedListener;
 
     /**
      * Socket timeout in milliseconds for rest requests
@@ -73,6 +74,7 @@ public class RestClientUtils {
         mContext = context;
         mAuthenticator = authenticator;
         mRestClient = RestClientFactory.instantiate(queue, version);
+        mOnAuthFailedListener = onAuthFailedListener;
         if (onAuthFailedListener != null) {
             mRestClient.setOnAuthFailedListener(onAuthFailedListener);
         }
@@ -248,6 +250,30 @@ public class RestClientUtils {
      */
     public Request<JSONObject> get(String path, Map<String, String> params, RetryPolicy retryPolicy, Listener listener,
                     ErrorListener errorListener) {
+        RestRequest request = mRestClient.makeRequest(Method.GET, getAbsoluteUrlForGet(path, params), null,
+                listener, errorListener);
+        sendGet(request, retryPolicy, errorListener);
+        return request;
+    }
+
+    /**
+     * Make GET request whose response body is handed to the listener unparsed, so it can be read
+     * with a streaming parser - use this for endpoints whose responses may be large
+     */
+    public Request<JSONObject> getStreaming(String path, Map<String, String> params, RetryPolicy retryPolicy,
+                                            StreamingRestRequest.StreamingListener listener,
+                                            ErrorListener errorListener) {
+        StreamingRestRequest request = new StreamingRestRequest(Method.GET, getAbsoluteUrlForGet(path, params),
+                listener, errorListener);
+        request.setUserAgent(sUserAgent);
+        if (mOnAuthFailedListener != null) {
+            request.setOnAuthFailedListener(mOnAuthFailedListener);
+        }
+        sendGet(request, retryPolicy, errorListener);
+        return request;
+    }
+
+    private String getAbsoluteUrlForGet(String path, Map<String, String> params) {
         // turn params into query string
         HashMap<String, String> paramsWithLocale = getRestLocaleParams(mContext);
         if (params != null) {
@@ -260,16 +286,16 @@ public class RestClientUtils {
         }
         paramsWithLocale.putAll(getSanitizedParameters(path));
 
-        RestRequest request = mRestClient.makeRequest(Method.GET, mRestClient
-                        .getAbsoluteURL(realPath, paramsWithLocale), null, listener, errorListener);
+        return mRestClient.getAbsoluteURL(realPath, paramsWithLocale);
+    }
 
+    private void sendGet(RestRequest request, RetryPolicy retryPolicy, ErrorListener errorListener) {
         if (retryPolicy == null) {
             retryPolicy = new DefaultRetryPolicy(REST_TIMEOUT_MS, REST_MAX_RETRIES_GET, REST_BACKOFF_MULT);
         }
         request.setRetryPolicy(retryPolicy);
         AuthenticatorRequest authCheck = new AuthenticatorRequest(request, errorListener, mRestClient, mAuthenticator);
         authCheck.send();
-        return request;
     }
 
     /**
@@ -0,0 +1,59 @@
+package org.wordpress.android.networking;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Response;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.wordpress.rest.RestRequest;
+
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * RestRequest which hands the raw response body to its listener instead of parsing it into a
+ * JSONObject, so large responses can be read with a streaming parser rather than being held in
+ * memory as a String and a JSON tree before the caller sees any of it
+ */
+public class StreamingRestRequest extends RestRequest {
+    public interface StreamingListener {
+        /**
+         * Called on the main thread with a reader over the response body - the body is already in
+         * memory so the reader may be handed off to a background thread and read there
+         */
+        void onResponse(Reader responseReader);
+    }
+
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static final JSONObject EMPTY_RESPONSE = new JSONObject();
+
+    private final StreamingListener mStreamingListener;
+    private byte[] mResponseData;
+    private Charset mResponseCharset;
+
+    public StreamingRestRequest(int method, String url, StreamingListener listener, ErrorListener errorListener) {
+        super(method, url, null, null, errorListener);
+        mStreamingListener = listener;
+    }
+
+    @Override
+    protected Response<JSONObject> parseNetworkResponse(NetworkResponse response) {
+        mResponseData = response.data;
+        try {
+            mResponseCharset = Charset.forName(HttpHeaderParser.parseCharset(response.headers, DEFAULT_CHARSET));
+        } catch (IllegalArgumentException e) {
+            mResponseCharset = Charset.forName(DEFAULT_CHARSET);
+        }
+        return Response.success(EMPTY_RESPONSE, HttpHeaderParser.parseCacheHeaders(response));
+    }
+
+    @Override
+    protected void deliverResponse(JSONObject response) {
+        if (mStreamingListener != null) {
+            mStreamingListener.onResponse(
+                    new InputStreamReader(new ByteArrayInputStream(mResponseData), mResponseCharset));
+        }
+    }
+}